@@ -11,11 +11,14 @@ import java.nio.file.Files;
 import java.net.URL;
 import java.net.URLConnection;
 
+import org.congocc.templates.builtins.evalBI;
 import org.congocc.templates.core.Configurable;
 import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.nodes.generated.Expression;
 import org.congocc.templates.core.variables.WrappedVariable;
 import org.congocc.templates.core.parser.ParseException;
 import org.congocc.templates.core.parser.ParsingProblemImpl;
+import org.congocc.templates.utility.BoundedCache;
 import org.congocc.templates.utility.HtmlEscape;
 import org.congocc.templates.utility.StandardCompress;
 import org.congocc.templates.utility.StringUtil;
@@ -48,6 +51,18 @@ public class Configuration extends Configurable {
     private String pathPrefix = "";
     private Path directoryForTemplateLoading = Paths.get(".");
 
+    public static final int DEFAULT_EVAL_CACHE_SIZE = 500;
+
+    private final BoundedCache<evalBI.CacheKey, Expression> evalCache = new BoundedCache<>(DEFAULT_EVAL_CACHE_SIZE);
+
+    public static final int DEFAULT_INTERPRET_CACHE_SIZE = 200;
+
+    private final BoundedCache<String, Template> interpretCache = new BoundedCache<>(DEFAULT_INTERPRET_CACHE_SIZE);
+
+    public static final long DEFAULT_ATTEMPT_SPILL_THRESHOLD = 1024 * 1024;
+
+    private long attemptSpillThreshold = DEFAULT_ATTEMPT_SPILL_THRESHOLD;
+
     public Configuration() {
         loadBuiltInSharedVariables();
     }
@@ -330,6 +345,70 @@ public class Configuration extends Configurable {
         this.localizedLookup = localizedLookup;
     }
     
+    /**
+     * @return the cache of the expressions parsed by the <tt>?eval</tt>
+     * built-in, keyed by the call site and the source of the
+     * expression. It can be used to check the hit and miss counts.
+     */
+    public BoundedCache<evalBI.CacheKey, Expression> getEvalCache() {
+        return evalCache;
+    }
+
+    /**
+     * Sets the maximum number of expressions parsed by <tt>?eval</tt>
+     * that are kept for reuse. Zero disables the caching.
+     * Defaults to {@link #DEFAULT_EVAL_CACHE_SIZE}.
+     */
+    public void setEvalCacheSize(int size) {
+        evalCache.setMaxSize(size);
+    }
+
+    public int getEvalCacheSize() {
+        return evalCache.getMaxSize();
+    }
+
+    /**
+     * @return the cache of the templates created by the <tt>?interpret</tt>
+     * built-in, keyed by the parent template name, the id given to
+     * <tt>?interpret</tt>, the locale and the source. It can be used to
+     * check the hit and miss counts.
+     */
+    public BoundedCache<String, Template> getInterpretCache() {
+        return interpretCache;
+    }
+
+    /**
+     * Sets the maximum number of templates created by <tt>?interpret</tt>
+     * that are kept for reuse, the least recently used ones being dropped
+     * first. Zero disables the caching.
+     * Defaults to {@link #DEFAULT_INTERPRET_CACHE_SIZE}.
+     */
+    public void setInterpretCacheSize(int size) {
+        interpretCache.setMaxSize(size);
+    }
+
+    public int getInterpretCacheSize() {
+        return interpretCache.getMaxSize();
+    }
+
+    /**
+     * Sets the number of characters of output that an <tt>#attempt</tt>
+     * block holds in memory, until it is known whether the block succeeded.
+     * Past that, the output is moved to a temporary file. Zero means that
+     * the output is always kept in memory.
+     * Defaults to {@link #DEFAULT_ATTEMPT_SPILL_THRESHOLD}.
+     */
+    public void setAttemptSpillThreshold(long threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Negative threshold: " + threshold);
+        }
+        this.attemptSpillThreshold = threshold;
+    }
+
+    public long getAttemptSpillThreshold() {
+        return attemptSpillThreshold;
+    }
+
     /**
      * Sets a setting by name and string value.
      *
@@ -372,6 +451,15 @@ public class Configuration extends Configurable {
      *   <li><code>"template_update_delay"</code>: Valid positive integer, the
      *       update delay measured in seconds.
      *       See: {@link #setTemplateUpdateDelay}
+     *   <li><code>"eval_cache_size"</code>: Non-negative integer, the number of
+     *       expressions parsed by <tt>?eval</tt> that are cached.
+     *       See: {@link #setEvalCacheSize}
+     *   <li><code>"interpret_cache_size"</code>: Non-negative integer, the number of
+     *       templates created by <tt>?interpret</tt> that are cached.
+     *       See: {@link #setInterpretCacheSize}
+     *   <li><code>"attempt_spill_threshold"</code>: Non-negative integer, the number
+     *       of characters of <tt>#attempt</tt> output kept in memory.
+     *       See: {@link #setAttemptSpillThreshold}
      * </ul>
      *
      * @param key the name of the setting.
@@ -401,6 +489,12 @@ public class Configuration extends Configurable {
                 setAutoIncludes(new SettingStringParser(value).parseAsList());
             } else if ("auto_import".equalsIgnoreCase(key)) {
                 setAutoImports(new SettingStringParser(value).parseAsImportList());
+            } else if ("eval_cache_size".equalsIgnoreCase(key)) {
+                setEvalCacheSize(Integer.parseInt(value.trim()));
+            } else if ("interpret_cache_size".equalsIgnoreCase(key)) {
+                setInterpretCacheSize(Integer.parseInt(value.trim()));
+            } else if ("attempt_spill_threshold".equalsIgnoreCase(key)) {
+                setAttemptSpillThreshold(Long.parseLong(value.trim()));
             } else {
                 super.setSetting(key, value);
             }
@@ -1,5 +1,7 @@
 package org.congocc.templates;
 
+import org.congocc.templates.builtins.StringFunctions;
+import org.congocc.templates.builtins.StringTransformations;
 import org.congocc.templates.core.Configurable;
 import org.congocc.templates.core.nodes.generated.*;
 import org.congocc.templates.core.parser.Node;
@@ -7,6 +9,10 @@ import org.congocc.templates.core.parser.ParseException;
 import org.congocc.templates.core.parser.ParsingProblemImpl;
 import org.congocc.templates.core.parser.Token;
 import org.congocc.templates.core.nodes.AssignmentInstruction;
+import org.congocc.templates.core.nodes.DynamicKeyName;
+import org.congocc.templates.core.variables.EvaluationException;
+import org.congocc.templates.utility.Escaper;
+import org.congocc.templates.utility.StandardCompress.CompressedText;
 
 import java.util.*;
 
@@ -20,6 +26,12 @@ class PostParseVisitor extends Node.Visitor {
 	
 	private Template template;
 	private List<EscapeBlock> escapes = new ArrayList<>();
+	private int noEscapeDepth;
+	// For binding macro call sites at the end of the visit
+	private List<UnifiedCall> unifiedCalls = new ArrayList<>();
+	private Map<String, Macro> topLevelMacros = new HashMap<>();
+	private Set<String> macroNames = new HashSet<>();
+	private Set<String> boundNames = new HashSet<>();
 
 	PostParseVisitor(Template template) {
 		this.template = template;
@@ -37,6 +49,31 @@ class PostParseVisitor extends Node.Visitor {
 		TemplateHeaderElement header = template.getHeaderElement();
 		if (header != null) visit(header);
 		visit(template.getRootTreeNode());
+		linkMacroCalls();
+	}
+
+	/**
+	 * Binds the call sites of the form &lt;@name ...&gt; directly to the 
+	 * macro, if it is defined at the top level of this template, with no
+	 * other definition of that name anywhere in the template, and nothing
+	 * else in the template can bind that name, i.e. no assignment, loop
+	 * variable, parameter or import namespace uses it. Reassignment from
+	 * outside the template, and definitions skipped because the template
+	 * is included inside a macro, are caught at runtime, see
+	 * Environment#isMacroLinkageValid()
+	 */
+	private void linkMacroCalls() {
+		for (UnifiedCall call : unifiedCalls) {
+			Expression nameExp = call.getNameExp();
+			if (nameExp instanceof Identifier) {
+				String name = nameExp.toString();
+				Macro macro = topLevelMacros.get(name);
+				if (macro != null && !macro.isFunction() && !boundNames.contains(name)) {
+					call.setLinkedMacro(macro);
+					macro.setLinkTarget(true);
+				}
+			}
+		}
 	}
 	
 	void visit(TemplateHeaderElement header) {
@@ -66,6 +103,9 @@ class PostParseVisitor extends Node.Visitor {
 	void visit(AssignmentInstruction node) {
 		recurse(node);
 		for (Expression target : node.getTargetExpressions()) {
+			if (target instanceof Identifier) {
+				boundNames.add(target.toString());
+			}
 			if (!target.isAssignableTo()) {
 				ParsingProblemImpl problem = new ParsingProblemImpl("Cannot assign to expression" + target + " ", target);
 				template.addParsingProblem(problem);
@@ -93,6 +133,9 @@ class PostParseVisitor extends Node.Visitor {
 	void visit(BlockAssignment node) {
 		recurse(node);
 		Expression targetExpression = node.getTargetExpression();
+		if (targetExpression instanceof Identifier) {
+			boundNames.add(targetExpression.toString());
+		}
 		if (!targetExpression.isAssignableTo()) {
 			ParsingProblemImpl problem = new ParsingProblemImpl("The expression " + targetExpression + " cannot be assigned to.", targetExpression);
 			template.addParsingProblem(problem);
@@ -123,12 +166,291 @@ class PostParseVisitor extends Node.Visitor {
 		}
 	}
 	
+	/**
+	 * For ?replace (with the 'r' flag) and ?matches called with
+	 * literal strings, compiles the regular expression once, here,
+	 * rather than looking it up in the pattern cache on each call.
+	 */
+	void visit(MethodCall node) {
+		recurse(node);
+		if (!(node.getTarget() instanceof BuiltInExpression) || node.getArgs() == null) {
+			return;
+		}
+		BuiltInExpression builtIn = (BuiltInExpression) node.getTarget();
+		List<String> args = new ArrayList<>();
+		for (Expression arg : node.getArgs().childrenOfType(Expression.class)) {
+			if (!(arg instanceof StringLiteral) || !((StringLiteral) arg).isConstant()) {
+				return;
+			}
+			args.add(((StringLiteral) arg).getValue());
+		}
+		String patternString = null, flags = null;
+		if (builtIn.getName().equals("replace") && args.size() == 3 && args.get(2).indexOf('r') >= 0) {
+			patternString = args.get(0);
+			flags = args.get(2);
+		}
+		else if (builtIn.getName().equals("matches") && (args.size() == 1 || args.size() == 2)) {
+			patternString = args.get(0);
+			flags = args.size() == 2 ? args.get(1) : "";
+		}
+		if (patternString != null) {
+			try {
+				builtIn.setLinkedPattern(StringFunctions.getPattern(patternString, flags));
+			} catch (EvaluationException e) {
+				// An invalid pattern is reported if and when the call is evaluated
+			}
+		}
+	}
+
 	void visit(Interpolation node) {
 		recurse(node);
 		Expression escapedExpression = escapedExpression(node.getExpression());
 		node.setEscapedExpression(escapedExpression);
+		// An interpolation that already ends in an escaping built-in,
+		// like ${x?html}, is not escaped a second time.
+		boolean autoEscape = !node.isNoEscapeSet() && escapes.isEmpty() && noEscapeDepth == 0
+				&& getEscaper(node.getExpression()) == null;
+		node.setAutoEscape(autoEscape);
+		Expression outputExpression = node.getEscapedExpression();
+		if (getConstantKind(outputExpression) == ConstantKind.STRING) {
+			try {
+				node.setConstantOutput(outputExpression.getStringValue(null));
+				return;
+			} catch (RuntimeException e) {
+				// Any error is reported if and when it is evaluated
+			}
+		}
+		if (node.isNoEscapeSet() || autoEscape) {
+			return;
+		}
+		// The outermost escaping built-in, if any, is done as the
+		// string is written out, rather than building the escaped string.
+		Escaper escaper = getEscaper(escapedExpression);
+		if (escaper != null) {
+			node.setEscaper(((BuiltInExpression) escapedExpression).getTarget(), escaper);
+		}
+	}
+
+	/**
+	 * @return the escaper of the expression, if it is an escaping built-in
+	 */
+	private static Escaper getEscaper(Expression exp) {
+		if (exp instanceof BuiltInExpression) {
+			BuiltInExpression builtIn = (BuiltInExpression) exp;
+			if (builtIn.getBuiltIn() instanceof StringTransformations) {
+				return ((StringTransformations) builtIn.getBuiltIn()).getEscaper();
+			}
+		}
+		return null;
 	}
 	
+	/**
+	 * Merges each run of text and constant interpolations into
+	 * its first element, so it is written out in one go.
+	 */
+	void visit(Block node) {
+		recurse(node);
+		List<Node> run = new ArrayList<>();
+		List<Node> children = new ArrayList<>(node.children());
+		// The text depends on the neighbouring elements, so it
+		// has to be worked out before anything is removed.
+		for (Node child : children) {
+			if (child instanceof TextElement) ((TextElement) child).getOutputText();
+		}
+		for (Node child : children) {
+			if (isStaticText(child)) {
+				run.add(child);
+			} else {
+				mergeStaticText(node, run);
+			}
+		}
+		mergeStaticText(node, run);
+	}
+
+	private static boolean isStaticText(Node node) {
+		if (node instanceof TextElement) {
+			return true;
+		}
+		if (node instanceof Interpolation) {
+			Interpolation interpolation = (Interpolation) node;
+			return interpolation.getConstantOutput() != null && !interpolation.isAutoEscape();
+		}
+		return false;
+	}
+
+	private static void mergeStaticText(Block block, List<Node> run) {
+		if (run.size() > 1) {
+			StringBuilder buf = new StringBuilder();
+			for (Node n : run) {
+				buf.append(n instanceof TextElement
+				           ? ((TextElement) n).getOutputText()
+				           : ((Interpolation) n).getConstantOutput());
+			}
+			Node first = run.get(0);
+			if (first instanceof TextElement) {
+				((TextElement) first).setOutputText(buf.toString());
+			} else {
+				((Interpolation) first).setConstantOutput(buf.toString());
+			}
+			for (int i = 1; i < run.size(); i++) {
+				block.remove(run.get(i));
+			}
+		}
+		run.clear();
+	}
+
+	/**
+	 * A non-empty list literal of constant strings and numbers is built
+	 * once, as an unmodifiable list, rather than on each evaluation.
+	 * Where the template could get hold of the list and modify it, as in
+	 * <code>&lt;#var l = [1, 2]&gt;</code>, it evaluates to a copy of that.
+	 */
+	@SuppressWarnings("unchecked")
+	void visit(ListLiteral node) {
+		recurse(node);
+		if (isScalarConstants(node.getElements())) {
+			try {
+				node.setConstantValue(Collections.unmodifiableList((List<Object>) node.evaluate(null)), isReadOnlyUse(node));
+			} catch (RuntimeException e) {
+				// Any error is reported if and when it is evaluated
+			}
+		}
+	}
+
+	/**
+	 * The same as for list literals, with an unmodifiable map
+	 * that keeps the order of the keys.
+	 */
+	@SuppressWarnings("unchecked")
+	void visit(HashLiteral node) {
+		recurse(node);
+		if (isScalarConstants(node.getKeys()) && isScalarConstants(node.getValues())) {
+			try {
+				node.setConstantValue(Collections.unmodifiableMap((Map<Object,Object>) node.evaluate(null)), isReadOnlyUse(node));
+			} catch (RuntimeException e) {
+				// Any error is reported if and when it is evaluated
+			}
+		}
+	}
+
+	// Empty literals are left alone, since they are mostly
+	// used to start a list or hash that is then filled in.
+	private static boolean isScalarConstants(List<Expression> expressions) {
+		if (expressions.isEmpty()) {
+			return false;
+		}
+		for (Expression exp : expressions) {
+			ConstantKind kind = getConstantKind(exp);
+			if (kind != ConstantKind.STRING && kind != ConstantKind.NUMBER) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// The built-ins that only read the sequence or hash they are applied to
+	private static final Set<String> READING_BUILTINS = new HashSet<>(Arrays.asList(
+			"size", "join", "first", "last", "seq_contains", "has_content"));
+
+	/**
+	 * @return whether the value of the literal cannot end up anywhere the
+	 * template can modify it: it is only looked into, iterated over, or
+	 * given to a built-in that only reads it. Since the elements are
+	 * strings and numbers, nothing modifiable can be taken out of it either.
+	 */
+	private static boolean isReadOnlyUse(Expression literal) {
+		Node parent = literal.getParent();
+		if (parent instanceof DynamicKeyName) {
+			DynamicKeyName dkn = (DynamicKeyName) parent;
+			// A range gives a view of the list
+			return dkn.getTarget() == literal && !(dkn.getNameExpression() instanceof RangeExpression);
+		}
+		if (parent instanceof DotVariable) {
+			return ((DotVariable) parent).getTarget() == literal;
+		}
+		if (parent instanceof BuiltInExpression) {
+			BuiltInExpression builtIn = (BuiltInExpression) parent;
+			return builtIn.getTarget() == literal && READING_BUILTINS.contains(builtIn.getName());
+		}
+		if (parent instanceof IteratorBlock) {
+			return ((IteratorBlock) parent).getListExpression() == literal;
+		}
+		return false;
+	}
+
+	private enum ConstantKind {STRING, NUMBER, SEQUENCE, HASH}
+
+	// The built-ins that do not depend on the Environment, so they
+	// can be evaluated when the template is parsed, and the kind
+	// of constant they return, given a string.
+	private static final Map<String, ConstantKind> PURE_STRING_BUILTINS = new HashMap<>();
+	static {
+		for (String name : new String[] {"html", "xhtml", "xml", "rtf", "web_safe", "j_string", "js_string", "json_string",
+		                                 "cap_first", "uncap_first", "capitalize", "chop_linebreak", "trim"}) {
+			PURE_STRING_BUILTINS.put(name, ConstantKind.STRING);
+		}
+		PURE_STRING_BUILTINS.put("length", ConstantKind.NUMBER);
+	}
+
+	/**
+	 * @return the kind of value of the expression, if it is made up of
+	 * literals and operations that give the same result in any Environment,
+	 * otherwise null. Note that the result of ?upper_case, for example,
+	 * depends on the locale, and that of ?string, or of concatenating a
+	 * string and a number, on the number format.
+	 */
+	private static ConstantKind getConstantKind(Expression exp) {
+		if (exp instanceof StringLiteral) {
+			return ((StringLiteral) exp).isConstant() ? ConstantKind.STRING : null;
+		}
+		if (exp instanceof NumberLiteral) {
+			return ConstantKind.NUMBER;
+		}
+		if (exp instanceof ParentheticalExpression) {
+			return getConstantKind(((ParentheticalExpression) exp).getNested());
+		}
+		if (exp instanceof ListLiteral) {
+			for (Expression element : ((ListLiteral) exp).getElements()) {
+				if (getConstantKind(element) == null) return null;
+			}
+			return ConstantKind.SEQUENCE;
+		}
+		if (exp instanceof HashLiteral) {
+			HashLiteral hash = (HashLiteral) exp;
+			for (Expression key : hash.getKeys()) {
+				if (getConstantKind(key) == null) return null;
+			}
+			for (Expression value : hash.getValues()) {
+				if (getConstantKind(value) == null) return null;
+			}
+			return ConstantKind.HASH;
+		}
+		if (exp instanceof AdditiveExpression) {
+			// Only the concatenation of strings
+			for (int i = 0; i < exp.size(); i++) {
+				Node child = exp.get(i);
+				if (i % 2 == 1 ? child.getType() != Token.TokenType.PLUS
+				               : getConstantKind((Expression) child) != ConstantKind.STRING) {
+					return null;
+				}
+			}
+			return ConstantKind.STRING;
+		}
+		if (exp instanceof BuiltInExpression) {
+			BuiltInExpression builtIn = (BuiltInExpression) exp;
+			ConstantKind targetKind = getConstantKind(builtIn.getTarget());
+			if (targetKind == null) {
+				return null;
+			}
+			switch (builtIn.getName()) {
+				case "c" : return targetKind == ConstantKind.NUMBER ? ConstantKind.STRING : null;
+				case "size" : return targetKind == ConstantKind.SEQUENCE || targetKind == ConstantKind.HASH ? ConstantKind.NUMBER : null;
+				default : return targetKind == ConstantKind.STRING ? PURE_STRING_BUILTINS.get(builtIn.getName()) : null;
+			}
+		}
+		return null;
+	}
+
 	void visit(EscapeBlock node) {
 		Expression escapedExpression = escapedExpression(node.getExpression());
 		node.setEscapedExpression(escapedExpression);
@@ -139,6 +461,15 @@ class PostParseVisitor extends Node.Visitor {
 	
 	void visit(Macro node) {
 		String macroName = node.getName();
+		boundNames.addAll(node.getParams().getParamNames());
+		if (!macroNames.add(macroName)) {
+			// Defined more than once, nested or not, so which one applies
+			// depends on execution order
+			boundNames.add(macroName);
+		}
+		if (isTopLevel(node)) {
+			topLevelMacros.put(macroName, node);
+		}
 		if (template.strictVariableDeclaration() && template.declaresVariable(macroName)) {
 			ParsingProblemImpl problem = new ParsingProblemImpl("You already have declared a variable (or declared another macro) as " + macroName + ". You cannot reuse the variable name in the same template.", node);
 			template.addParsingProblem(problem);
@@ -167,11 +498,41 @@ class PostParseVisitor extends Node.Visitor {
 			template.addParsingProblem(new ParsingProblemImpl("The noescape directive only makes sense inside an escape block.", node));
 		}
 		EscapeBlock last = escapes.remove(escapes.size() -1);
+		noEscapeDepth++;
 		recurse(node);
+		noEscapeDepth--;
 		escapes.add(last);
 	}
 	
+	void visit(UnifiedCall node) {
+		if (node.getBodyParameters() != null) {
+			boundNames.addAll(node.getBodyParameters().getParamNames());
+		}
+		unifiedCalls.add(node);
+		recurse(node);
+		if (node.getNameExp() instanceof Identifier && node.getNameExp().toString().equals("compress")) {
+			// The text is compressed ahead of time. If the name turns out
+			// to be something else at runtime, it is written out as is.
+			for (TextElement text : node.descendantsOfType(TextElement.class)) {
+				text.setCompressedText(CompressedText.of(text.getOutputText()));
+			}
+		}
+	}
+
+	void visit(NamedArgsList node) {
+		// The argument expressions are not in the tree as children
+		// of the node, so they have to be visited explicitly.
+		for (Expression exp : node.getArgs().values()) {
+			visit((Node) exp);
+		}
+		recurse(node);
+	}
+
 	void visit(IteratorBlock node) {
+		boundNames.add(node.getIndexName());
+		if (node.getValueVarName() != null) {
+			boundNames.add(node.getValueVarName());
+		}
 		node.getNestedBlock().declareVariable(node.getIndexName());
 		node.getNestedBlock().declareVariable(node.getIndexName() + "_has_next");
 		node.getNestedBlock().declareVariable(node.getIndexName() + "_index");
@@ -210,8 +571,10 @@ class PostParseVisitor extends Node.Visitor {
 	}
 	
 	void visit(VarDirective node) {
+		recurse(node);
         Block parent = (Block) node.getParent();
        	for (String key : node.getVariables().keySet()) {
+       		boundNames.add(key);
        		if (parent == null) {
        			template.declareVariable(key);
        		} else {
@@ -244,6 +607,7 @@ class PostParseVisitor extends Node.Visitor {
 			template.addParsingProblem(new ParsingProblemImpl(msg, node));
 		}
 		template.declareVariable(namespaceName);
+		boundNames.add(namespaceName);
 		recurse(node);
 	}
 
@@ -265,6 +629,15 @@ class PostParseVisitor extends Node.Visitor {
             }
     }
 	
+	private static boolean isTopLevel(Macro macro) {
+		for (Node parent = macro.getParent(); parent != null; parent = parent.getParent()) {
+			if (!(parent instanceof Block) && !(parent instanceof EscapeBlock) && !(parent instanceof NoEscapeBlock)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	static Macro getContainingMacro(TemplateNode node) {
 		Node parent = node;
 		while (parent != null && !(parent instanceof Macro)) {
@@ -109,6 +109,15 @@ public class TemplateException extends RuntimeException {
     	return Collections.unmodifiableList(ftlStack);
     }
 
+    /**
+     * Sets the FTL call stack (starting with current element). This is
+     * used when rendering in lean mode, where the stack is not known
+     * at the point where the exception is created.
+     */
+    public void setFTLStack(List<TemplateElement> ftlStack) {
+        this.ftlStack = new ArrayList<>(ftlStack);
+    }
+
     public void printStackTrace(java.io.PrintStream ps) {
         PrintWriter pw = new PrintWriter(new OutputStreamWriter(ps), true);
         printStackTrace(pw);
@@ -20,7 +20,7 @@ public class DefaultComparator
         left = unwrap(left);
         right = unwrap(right);
         if(left instanceof Number && right instanceof Number) {
-            return arithmeticEngine.compareNumbers((Number)left, (Number)right) == 0;
+            return arithmeticEngine.compare((Number)left, (Number)right) == 0;
         }
         return left.equals(right);
     }
@@ -375,7 +375,7 @@ public abstract class SequenceFunctions extends ExpressionEvaluatingBuiltIn {
         }
 
         public int compare(Object arg0, Object arg1) {
-            return ae.compareNumbers(
+            return ae.compare(
                (Number) ((KVP) arg0).key,
                (Number) ((KVP) arg1).key);
         }
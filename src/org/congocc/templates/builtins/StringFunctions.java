@@ -2,9 +2,7 @@ package org.congocc.templates.builtins;
 
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.StringTokenizer;
 import java.util.regex.Matcher;
@@ -17,6 +15,7 @@ import org.congocc.templates.core.nodes.generated.BuiltInExpression;
 import org.congocc.templates.core.variables.*;
 import org.congocc.templates.TemplateBooleanModel;
 import org.congocc.templates.TemplateSequenceModel;
+import org.congocc.templates.utility.BoundedCache;
 import org.congocc.templates.utility.StringUtil;
 
 import static org.congocc.templates.core.variables.Wrap.*;
@@ -27,14 +26,27 @@ import static org.congocc.templates.core.variables.Wrap.*;
  */
 public abstract class StringFunctions extends ExpressionEvaluatingBuiltIn {
 
-    static private HashMap<String, Pattern> patternLookup = new HashMap<String, Pattern>();
-    static private LinkedList<String> patterns = new LinkedList<String>();
     static private final int PATTERN_CACHE_SIZE=100;
 
-    static Pattern getPattern(String patternString, String flagString) {
+    static private final BoundedCache<String, Pattern> patternCache = new BoundedCache<>(PATTERN_CACHE_SIZE);
+
+    /**
+     * @return the cache of the regular expressions compiled by ?replace
+     * and ?matches, which is shared by all threads. It can be resized and
+     * its hit and miss counts can be checked.
+     */
+    public static BoundedCache<String, Pattern> getPatternCache() {
+        return patternCache;
+    }
+
+    /**
+     * @return the compiled pattern, from the cache if it is there
+     * @throws EvaluationException if the pattern is not a valid regular expression
+     */
+    public static Pattern getPattern(String patternString, String flagString) {
         int flags = 0;
         String patternKey = patternString + (char) 0 + flagString;
-        Pattern result = patternLookup.get(patternKey);
+        Pattern result = patternCache.get(patternKey);
         if (result != null) {
             return result;
         }
@@ -64,14 +76,7 @@ public abstract class StringFunctions extends ExpressionEvaluatingBuiltIn {
                 throw new EvaluationException(e);
             }
         }
-        synchronized (patterns) {
-            patterns.add(patternKey);
-            patternLookup.put(patternKey, result);
-            if (patterns.size() > PATTERN_CACHE_SIZE) {
-                Object first = patterns.removeFirst();
-                patterns.remove(first);
-            }
-        }
+        patternCache.put(patternKey, result);
         return result;
     }
 
@@ -93,7 +98,7 @@ public abstract class StringFunctions extends ExpressionEvaluatingBuiltIn {
     public static class Replace extends StringFunctions {
         @Override
         public Object apply(String string, Environment env, BuiltInExpression caller) {
-            return new ReplaceMethod(string);
+            return new ReplaceMethod(string, caller.getLinkedPattern());
         }
     }
 
@@ -128,7 +133,7 @@ public abstract class StringFunctions extends ExpressionEvaluatingBuiltIn {
     public static class Matches extends StringFunctions {
         @Override
         public Object apply(String string, Environment env, BuiltInExpression caller) {
-            return new MatcherBuilder(string);
+            return new MatcherBuilder(string, caller.getLinkedPattern());
         }
     }
 
@@ -188,9 +193,12 @@ public abstract class StringFunctions extends ExpressionEvaluatingBuiltIn {
 
     static class ReplaceMethod implements VarArgsFunction<String> {
         String string;
+        // Resolved when the template was parsed, if the arguments are literals
+        Pattern linkedPattern;
 
-        ReplaceMethod(String string) {
+        ReplaceMethod(String string, Pattern linkedPattern) {
             this.string = string;
+            this.linkedPattern = linkedPattern;
         }
 
         public String apply(Object... args) {
@@ -208,7 +216,7 @@ public abstract class StringFunctions extends ExpressionEvaluatingBuiltIn {
             if (!useRegexp) {
                 result = StringUtil.replace(string, first, second, caseInsensitive, firstOnly);
             } else {
-                Pattern pattern = getPattern(first, flags);
+                Pattern pattern = linkedPattern != null ? linkedPattern : getPattern(first, flags);
                 Matcher matcher = pattern.matcher(string);
                 result = firstOnly ? matcher.replaceFirst(second) : matcher.replaceAll(second);
             } 
@@ -219,9 +227,12 @@ public abstract class StringFunctions extends ExpressionEvaluatingBuiltIn {
     static class MatcherBuilder implements VarArgsFunction<Object> {
 
         String matchString;
+        // Resolved when the template was parsed, if the arguments are literals
+        Pattern linkedPattern;
 
-        MatcherBuilder(String matchString) {
+        MatcherBuilder(String matchString, Pattern linkedPattern) {
             this.matchString = matchString;
+            this.linkedPattern = linkedPattern;
         }
 
         public Object apply(Object... args) {
@@ -234,7 +245,7 @@ public abstract class StringFunctions extends ExpressionEvaluatingBuiltIn {
             }
             String patternString = (String) args[0];
             String flagString = (numArgs >1) ? (String) args[1] : "";
-            Pattern pattern = getPattern(patternString, flagString);
+            Pattern pattern = linkedPattern != null ? linkedPattern : getPattern(patternString, flagString);
             Matcher matcher = pattern.matcher(matchString);
             return new RegexMatchModel(matcher, matchString);
         }
@@ -3,6 +3,7 @@ package org.congocc.templates.builtins;
 import org.congocc.templates.core.Environment;
 import org.congocc.templates.core.variables.InvalidReferenceException;
 import org.congocc.templates.core.nodes.generated.BuiltInExpression;
+import org.congocc.templates.utility.Escaper;
 import org.congocc.templates.utility.StringUtil;
 
 import static org.congocc.templates.core.variables.Wrap.asString;
@@ -30,32 +31,60 @@ public abstract class StringTransformations extends ExpressionEvaluatingBuiltIn
     }
 
     public abstract String apply(String string);
+
+    /**
+     * @return the equivalent output stage, if this is an escaping
+     * built-in, otherwise null
+     */
+    public Escaper getEscaper() {
+        return null;
+    }
     
     public static class Html extends StringTransformations {
         @Override
         public String apply(String string) {
-            return StringUtil.HTMLEnc(string);
+            return Escaper.HTML.escape(string);
+        }
+
+        @Override
+        public Escaper getEscaper() {
+            return Escaper.HTML;
         }
     }
 
     public static class Xhtml extends StringTransformations {
         @Override
         public String apply(String string) {
-            return StringUtil.XHTMLEnc(string);
+            return Escaper.XHTML.escape(string);
+        }
+
+        @Override
+        public Escaper getEscaper() {
+            return Escaper.XHTML;
         }
     }
 
     public static class Xml extends StringTransformations {
         @Override
         public String apply(String string) {
-            return StringUtil.XMLEnc(string);
+            return Escaper.XML.escape(string);
+        }
+
+        @Override
+        public Escaper getEscaper() {
+            return Escaper.XML;
         }
     }
 
     public static class Rtf extends StringTransformations {
         @Override
         public String apply(String string) {
-            return StringUtil.RTFEnc(string);
+            return Escaper.RTF.escape(string);
+        }
+
+        @Override
+        public Escaper getEscaper() {
+            return Escaper.RTF;
         }
     }
 
@@ -86,14 +115,21 @@ public abstract class StringTransformations extends ExpressionEvaluatingBuiltIn
     public static class Java extends StringTransformations {
         @Override
         public String apply(String string) {
-            return StringUtil.javaStringEnc(string);
+            return Escaper.JAVA.escape(string);
         }
     }
 
     public static class JavaScript extends StringTransformations {
         @Override
         public String apply(String string) {
-            return StringUtil.javaScriptStringEnc(string);
+            return Escaper.JAVASCRIPT.escape(string);
+        }
+    }
+
+    public static class Json extends StringTransformations {
+        @Override
+        public String apply(String string) {
+            return Escaper.JSON.escape(string);
         }
     }
 
@@ -5,16 +5,69 @@ import org.congocc.templates.core.nodes.generated.BuiltInExpression;
 import org.congocc.templates.core.nodes.generated.Expression;
 import org.congocc.templates.core.parser.CTemplatesLexer;
 import org.congocc.templates.core.parser.CTemplatesParser;
+import org.congocc.templates.utility.BoundedCache;
 
+/**
+ * Implementation of ?eval built-in. The parsed expressions are kept in
+ * the configuration's {@link org.congocc.templates.Configuration#getEvalCache() eval cache},
+ * so evaluating the same string again at the same place does not parse it again.
+ */
 public class evalBI extends ExpressionEvaluatingBuiltIn {
 
     @Override
     public Object get(Environment env, BuiltInExpression caller, Object model) {
-        String input = "(" + model + ")";
-        CTemplatesLexer token_source= new CTemplatesLexer("input", input, CTemplatesLexer.LexicalState.EXPRESSION, caller.getBeginLine(), caller.getBeginColumn());;
+        String source = model.toString();
+        // Templates without a name are ad-hoc ones, not worth caching for
+        if (caller.getTemplate().getName() == null) {
+            return parse(caller, source).evaluate(env);
+        }
+        BoundedCache<CacheKey, Expression> cache = caller.getTemplate().getConfiguration().getEvalCache();
+        CacheKey key = new CacheKey(caller, source);
+        Expression exp = cache.get(key);
+        if (exp == null) {
+            exp = parse(caller, source);
+            cache.put(key, exp);
+        }
+        return exp.evaluate(env);
+    }
+
+    private static Expression parse(BuiltInExpression caller, String source) {
+        String input = "(" + source + ")";
+        CTemplatesLexer token_source= new CTemplatesLexer("input", input, CTemplatesLexer.LexicalState.EXPRESSION, caller.getBeginLine(), caller.getBeginColumn());
         CTemplatesParser parser = new CTemplatesParser(token_source);
         parser.setTemplate(caller.getTemplate());
-        Expression exp = parser.Expression();
-        return exp.evaluate(env);
+        return parser.Expression();
+    }
+
+    /**
+     * The key of a parsed expression in the eval cache: the source and the
+     * call site, which the expression takes its template and location
+     * from. Since the call site is compared by identity, the entries of a
+     * template that has been replaced (reloaded, say) are not used for the
+     * new one; they are no longer looked up, so they are the first to be
+     * evicted.
+     */
+    public static final class CacheKey {
+        private final BuiltInExpression caller;
+        private final String source;
+
+        CacheKey(BuiltInExpression caller, String source) {
+            this.caller = caller;
+            this.source = source;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return caller == other.caller && source.equals(other.source);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(caller) * 31 + source.hashCode();
+        }
     }
-}
\ No newline at end of file
+}
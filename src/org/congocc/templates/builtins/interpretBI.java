@@ -2,6 +2,7 @@ package org.congocc.templates.builtins;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.Locale;
 import java.util.Map;
 import java.util.List;
 
@@ -13,11 +14,15 @@ import org.congocc.templates.core.variables.UserDirective;
 import org.congocc.templates.core.variables.EvaluationException;
 import org.congocc.templates.core.variables.InvalidReferenceException;
 import org.congocc.templates.TemplateException;
+import org.congocc.templates.utility.BoundedCache;
 
 import static org.congocc.templates.core.variables.Wrap.*;
 
 /**
- * Implementation of ?interpret built-in 
+ * Implementation of ?interpret built-in. The interpreted templates are
+ * kept in the configuration's
+ * {@link org.congocc.templates.Configuration#getInterpretCache() interpret cache},
+ * so interpreting the same string again does not parse it again.
  */
 public class interpretBI extends ExpressionEvaluatingBuiltIn {
 
@@ -50,9 +55,19 @@ public class interpretBI extends ExpressionEvaluatingBuiltIn {
             throw new InvalidReferenceException("No string to interpret", env);
         }
         Template parentTemplate = env.getTemplate();
+        String name = parentTemplate.getName() + "$" + id;
+        Locale locale = env.getLocale();
+        // The locale is part of the key since it is set on the template.
+        String key = name + '\u0000' + locale + '\u0000' + interpretString;
+        BoundedCache<String, Template> cache = parentTemplate.getConfiguration().getInterpretCache();
+        Template template = cache.get(key);
+        if (template != null) {
+            return new TemplateProcessorModel(template);
+        }
         try {
-            Template template = new Template(parentTemplate.getName() + "$" + id, interpretString, parentTemplate.getConfiguration(), parentTemplate.getEncoding());
-            template.setLocale(env.getLocale());
+            template = new Template(name, interpretString, parentTemplate.getConfiguration(), parentTemplate.getEncoding());
+            template.setLocale(locale);
+            cache.put(key, template);
             return new TemplateProcessorModel(template);
         }
         catch(IOException e) {
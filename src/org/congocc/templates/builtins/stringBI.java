@@ -27,6 +27,9 @@ public class stringBI extends ExpressionEvaluatingBuiltIn {
         if (isBoolean(model)) {
             return new BooleanFormatter(model, env);
         }
+        if (isDate(model)) {
+            return new DateFormatter(model, env);
+        }
         return model.toString();
     }
 	
@@ -82,6 +85,31 @@ public class stringBI extends ExpressionEvaluatingBuiltIn {
             return get(arg);
         }
     }
-}
 
-	
+    static class DateFormatter implements TemplateHashModel, Function<String,Object> {
+        private final Object date;
+        private final Environment env;
+        private String cachedValue;
+
+        DateFormatter(Object date, Environment env) {
+            this.date = date;
+            this.env = env;
+        }
+
+        public String toString() {
+            if(cachedValue == null) {
+                cachedValue = env.formatDate(date);
+            }
+            return cachedValue;
+        }
+
+        public Object get(String key) {
+            return env.formatDate(date, key);
+        }
+
+        @Parameters("format")
+        public Object apply(String arg) {
+            return get(arg);
+        }
+    }
+}
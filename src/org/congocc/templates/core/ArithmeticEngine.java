@@ -1,8 +1,6 @@
 package org.congocc.templates.core;
 
 import java.math.*;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.congocc.templates.*;
 
@@ -25,8 +23,52 @@ public abstract class ArithmeticEngine {
      * converting everything to BigDecimal up front.
      */
     public static final ConservativeEngine CONSERVATIVE_ENGINE = new ConservativeEngine();
+    /**
+     * Arithmetic engine that does integer arithmetic on <code>long</code>s,
+     * and only falls back to the {@link BigDecimal} arithmetic of
+     * {@link #BIGDECIMAL_ENGINE} on overflow or when an operand is not
+     * an integer.
+     */
+    public static final FastEngine FAST_ENGINE = new FastEngine();
+
+    // Only the engines defined here are known to compare numbers of
+    // the same type the usual way, a subclass may do it differently.
+    private final boolean builtInEngine = getClass() == BigDecimalEngine.class
+            || getClass() == ConservativeEngine.class
+            || getClass() == FastEngine.class;
 
     public abstract int compareNumbers(Number first, Number second);
+
+    /**
+     * Compares two numbers. If they are both <code>Integer</code>s,
+     * both <code>Long</code>s or both <code>Double</code>s (other than NaN),
+     * the built-in engines compare them directly, without going through
+     * {@link #compareNumbers(Number, Number)}, which, depending on the
+     * engine, may have to convert them to {@link BigDecimal}s first.
+     * This is what comparisons like <code>i &lt; size</code> in a loop use.
+     * Any other engine, including a subclass of a built-in one, always
+     * goes through {@link #compareNumbers(Number, Number)}.
+     */
+    public final int compare(Number first, Number second) {
+        Class<?> clazz = first.getClass();
+        if (builtInEngine && clazz == second.getClass()) {
+            if (clazz == Integer.class) {
+                return Integer.compare(first.intValue(), second.intValue());
+            }
+            if (clazz == Long.class) {
+                return Long.compare(first.longValue(), second.longValue());
+            }
+            if (clazz == Double.class) {
+                double d1 = first.doubleValue();
+                double d2 = second.doubleValue();
+                // Comparisons are false with NaN, which is left to the engine
+                if (d1 < d2) return -1;
+                if (d1 > d2) return 1;
+                if (d1 == d2) return 0;
+            }
+        }
+        return compareNumbers(first, second);
+    }
     public abstract Number add(Number first, Number second);
     public abstract Number subtract(Number first, Number second);
     public abstract Number multiply(Number first, Number second);
@@ -150,8 +192,6 @@ public abstract class ArithmeticEngine {
         private static final int BIGINTEGER = 4;
         private static final int BIGDECIMAL = 5;
         
-        private static final Map classCodes = createClassCodesMap();
-        
         public int compareNumbers(Number first, Number second) {
             switch(getCommonClassCode(first, second)) {
                 case INTEGER: {
@@ -401,30 +441,30 @@ public abstract class ArithmeticEngine {
             return optimizeNumberRepresentation(new BigDecimal(s));
         }
         
-        private static Map createClassCodesMap() {
-            Map<Class, Integer> map = new HashMap<Class, Integer>(17);
-            Integer intcode = Integer.valueOf(INTEGER);
-            map.put(Byte.class, intcode);
-            map.put(Short.class, intcode);
-            map.put(Integer.class, intcode);
-            map.put(Long.class, Integer.valueOf(LONG));
-            map.put(Float.class, Integer.valueOf(FLOAT));
-            map.put(Double.class, Integer.valueOf(DOUBLE));
-            map.put(BigInteger.class, Integer.valueOf(BIGINTEGER));
-            map.put(BigDecimal.class, Integer.valueOf(BIGDECIMAL));
-            return map;
-        }
-        
         private static int getClassCode(Number num) {
-            try {
-                return ((Integer)classCodes.get(num.getClass())).intValue();
+            if (num == null) {
+                throw new TemplateException("Unknown number type null", Environment.getCurrentEnvironment());
             }
-            catch(NullPointerException e) {
-                if(num == null) {
-                    throw new TemplateException("Unknown number type null", Environment.getCurrentEnvironment());
-                }
-                throw new TemplateException("Unknown number type " + num.getClass().getName(), Environment.getCurrentEnvironment());
+            Class<?> clazz = num.getClass();
+            if (clazz == Integer.class || clazz == Short.class || clazz == Byte.class) {
+                return INTEGER;
+            }
+            if (clazz == Long.class) {
+                return LONG;
+            }
+            if (clazz == Double.class) {
+                return DOUBLE;
             }
+            if (clazz == BigDecimal.class) {
+                return BIGDECIMAL;
+            }
+            if (clazz == Float.class) {
+                return FLOAT;
+            }
+            if (clazz == BigInteger.class) {
+                return BIGINTEGER;
+            }
+            throw new TemplateException("Unknown number type " + clazz.getName(), Environment.getCurrentEnvironment());
         }
         
         private static int getCommonClassCode(Number num1, Number num2) {
@@ -458,8 +498,116 @@ public abstract class ArithmeticEngine {
         }
     }
 
+    /**
+     * An arithmetic engine that does the arithmetic on integers
+     * (<code>Integer</code>, <code>Long</code>, <code>Short</code>,
+     * <code>Byte</code>) directly on <code>long</code>s, so that things
+     * like loop counters and index math do not create a
+     * {@link BigDecimal} per operation. Integer results are returned as
+     * <code>Integer</code> if they fit, otherwise as <code>Long</code>.
+     * If an operation overflows, or an operand is not an integer, or an
+     * integer division has a remainder, the operation is done in the
+     * same way as by {@link BigDecimalEngine}.
+     */
+    public static class FastEngine extends BigDecimalEngine {
+
+        public int compareNumbers(Number first, Number second) {
+            if (isIntegral(first) && isIntegral(second)) {
+                return Long.compare(first.longValue(), second.longValue());
+            }
+            return super.compareNumbers(first, second);
+        }
+
+        public Number add(Number first, Number second) {
+            if (isIntegral(first) && isIntegral(second)) {
+                try {
+                    return narrow(Math.addExact(first.longValue(), second.longValue()));
+                } catch (ArithmeticException overflow) {
+                    // Fall back to BigDecimal
+                }
+            }
+            return super.add(first, second);
+        }
+
+        public Number subtract(Number first, Number second) {
+            if (isIntegral(first) && isIntegral(second)) {
+                try {
+                    return narrow(Math.subtractExact(first.longValue(), second.longValue()));
+                } catch (ArithmeticException overflow) {
+                    // Fall back to BigDecimal
+                }
+            }
+            return super.subtract(first, second);
+        }
+
+        public Number multiply(Number first, Number second) {
+            if (isIntegral(first) && isIntegral(second)) {
+                try {
+                    return narrow(Math.multiplyExact(first.longValue(), second.longValue()));
+                } catch (ArithmeticException overflow) {
+                    // Fall back to BigDecimal
+                }
+            }
+            return super.multiply(first, second);
+        }
+
+        public Number divide(Number first, Number second) {
+            if (isIntegral(first) && isIntegral(second)) {
+                long left = first.longValue();
+                long right = second.longValue();
+                if (right != 0 && left % right == 0 && !(left == Long.MIN_VALUE && right == -1)) {
+                    return narrow(left / right);
+                }
+            }
+            return super.divide(first, second);
+        }
+
+        public Number modulus(Number first, Number second) {
+            return narrow(first.longValue() % second.longValue());
+        }
+
+        public Number toNumber(String s) {
+            if (isSmallInteger(s)) {
+                return narrow(Long.parseLong(s));
+            }
+            return super.toNumber(s);
+        }
+
+        private static boolean isSmallInteger(String s) {
+            int length = s.length();
+            int start = length > 0 && (s.charAt(0) == '-' || s.charAt(0) == '+') ? 1 : 0;
+            // 18 digits always fit in a long
+            if (length == start || length - start > 18) {
+                return false;
+            }
+            for (int i = start; i < length; i++) {
+                char c = s.charAt(i);
+                if (c < '0' || c > '9') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static boolean isIntegral(Number num) {
+        return num instanceof Integer || num instanceof Long
+                || num instanceof Short || num instanceof Byte;
+    }
+
+    private static Number narrow(long value) {
+        int intValue = (int) value;
+        return intValue == value ? (Number) Integer.valueOf(intValue) : (Number) Long.valueOf(value);
+    }
+
     private static BigDecimal toBigDecimal(Number num) {
-        return num instanceof BigDecimal ? (BigDecimal) num : new BigDecimal(num.toString());
+        if (num instanceof BigDecimal) {
+            return (BigDecimal) num;
+        }
+        if (isIntegral(num)) {
+            return BigDecimal.valueOf(num.longValue());
+        }
+        return new BigDecimal(num.toString());
     }
 
     private static final BigInteger INTEGER_MIN = new BigInteger(Integer.toString(Integer.MIN_VALUE));
@@ -0,0 +1,233 @@
+package org.congocc.templates.core;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * The output of an <code>#attempt</code> block, held back until we know
+ * whether the block succeeded. It is kept in fixed-size chunks taken from
+ * a pool shared by all threads, so a big block does not go through the
+ * repeated copying of a growing buffer. Past a given size the chunks are
+ * moved to a temporary file, so that the memory held per request stays
+ * bounded. The file holds the chars as they are (UTF-16), so anything
+ * that can be written to a <code>StringWriter</code>, unpaired surrogates
+ * included, is stored without loss.
+ *
+ * <p>If the temporary file cannot be created or written to, the output
+ * is simply kept in memory from then on, as it would be without a spill
+ * threshold, so a problem with the temporary directory never makes the
+ * block fail.</p>
+ *
+ * <p>On success, {@link #writeTo(Writer)} passes the file contents, then
+ * the chunks, on to the real writer, without building a
+ * <code>String</code> of the whole output. Either way, {@link #close()}
+ * has to be called to give back the chunks and delete the file.</p>
+ */
+final class AttemptBuffer extends Writer {
+
+    static final int CHUNK_SIZE = 8192;
+
+    private static final int MAX_POOLED_CHUNKS = 64;
+
+    private static final ArrayBlockingQueue<char[]> chunkPool = new ArrayBlockingQueue<>(MAX_POOLED_CHUNKS);
+
+    private final long spillThreshold;
+    private final List<char[]> chunks = new ArrayList<>();
+    private char[] current;
+    private int currentLength;
+    // The number of chars in the chunks
+    private long size;
+    private Path spillFile;
+    private FileChannel spillChannel;
+    private ByteBuffer spillBytes;
+    // The number of chars in the file
+    private long spilledSize;
+    private boolean spillFailed;
+
+    /**
+     * @param spillThreshold the number of characters past which the
+     * output goes to a temporary file, zero meaning never
+     */
+    AttemptBuffer(long spillThreshold) {
+        this.spillThreshold = spillThreshold;
+    }
+
+    private static char[] takeChunk() {
+        char[] chunk = chunkPool.poll();
+        return chunk != null ? chunk : new char[CHUNK_SIZE];
+    }
+
+    @Override
+    public void write(int c) {
+        if (current == null || currentLength == CHUNK_SIZE) {
+            nextChunk();
+        }
+        current[currentLength++] = (char) c;
+        grown(1);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        int end = off + len;
+        while (off < end) {
+            if (current == null || currentLength == CHUNK_SIZE) {
+                nextChunk();
+            }
+            int n = Math.min(end - off, CHUNK_SIZE - currentLength);
+            System.arraycopy(cbuf, off, current, currentLength, n);
+            currentLength += n;
+            off += n;
+        }
+        grown(len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+        int end = off + len;
+        while (off < end) {
+            if (current == null || currentLength == CHUNK_SIZE) {
+                nextChunk();
+            }
+            int n = Math.min(end - off, CHUNK_SIZE - currentLength);
+            str.getChars(off, off + n, current, currentLength);
+            currentLength += n;
+            off += n;
+        }
+        grown(len);
+    }
+
+    private void nextChunk() {
+        current = takeChunk();
+        currentLength = 0;
+        chunks.add(current);
+    }
+
+    private int chunkLength(int index) {
+        return index == chunks.size() - 1 ? currentLength : CHUNK_SIZE;
+    }
+
+    private void grown(int len) {
+        size += len;
+        if (spillThreshold > 0 && !spillFailed && size > spillThreshold) {
+            spill();
+        }
+    }
+
+    /**
+     * Moves the chunks to the end of the file, one whole chunk at a time,
+     * so that if a write fails, the file can be cut back to the chunks
+     * that made it, and the rest stays in memory.
+     */
+    private void spill() {
+        try {
+            if (spillChannel == null) {
+                spillFile = Files.createTempFile("attempt", ".tmp");
+                spillChannel = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                spillBytes = ByteBuffer.allocate(CHUNK_SIZE * 2);
+            }
+            while (!chunks.isEmpty()) {
+                int length = chunkLength(0);
+                spillBytes.clear();
+                spillBytes.asCharBuffer().put(chunks.get(0), 0, length);
+                spillBytes.limit(length * 2);
+                while (spillBytes.hasRemaining()) {
+                    spillChannel.write(spillBytes);
+                }
+                spilledSize += length;
+                size -= length;
+                chunkPool.offer(chunks.remove(0));
+            }
+            releaseChunks();
+        } catch (IOException e) {
+            spillFailed = true;
+            try {
+                if (spillChannel != null) {
+                    spillChannel.truncate(spilledSize * 2);
+                    spillChannel.position(spilledSize * 2);
+                }
+            } catch (IOException e2) {
+                // The next read stops at spilledSize anyway
+            }
+        }
+    }
+
+    /**
+     * Writes out everything that was written to this buffer.
+     */
+    void writeTo(Writer out) throws IOException {
+        if (spilledSize > 0) {
+            char[] buf = takeChunk();
+            try {
+                spillChannel.position(0);
+                long remaining = spilledSize * 2;
+                while (remaining > 0) {
+                    spillBytes.clear();
+                    if (remaining < spillBytes.capacity()) {
+                        spillBytes.limit((int) remaining);
+                    }
+                    while (spillBytes.hasRemaining()) {
+                        if (spillChannel.read(spillBytes) < 0) {
+                            throw new EOFException("Temporary file " + spillFile + " was truncated");
+                        }
+                    }
+                    spillBytes.flip();
+                    int n = spillBytes.remaining() / 2;
+                    spillBytes.asCharBuffer().get(buf, 0, n);
+                    out.write(buf, 0, n);
+                    remaining -= spillBytes.limit();
+                }
+            } finally {
+                chunkPool.offer(buf);
+            }
+        }
+        for (int i = 0; i < chunks.size(); i++) {
+            out.write(chunks.get(i), 0, chunkLength(i));
+        }
+    }
+
+    /**
+     * The output is only passed on by {@link #writeTo(Writer)},
+     * so there is nothing to flush.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Gives back the chunks to the pool and deletes the temporary file,
+     * if there is one. The contents are lost.
+     */
+    @Override
+    public void close() throws IOException {
+        releaseChunks();
+        if (spillFile != null) {
+            try {
+                if (spillChannel != null) {
+                    spillChannel.close();
+                }
+            } finally {
+                spillChannel = null;
+                Files.deleteIfExists(spillFile);
+                spillFile = null;
+            }
+        }
+    }
+
+    private void releaseChunks() {
+        for (char[] chunk : chunks) {
+            chunkPool.offer(chunk);
+        }
+        chunks.clear();
+        current = null;
+        currentLength = 0;
+    }
+}
@@ -1,8 +1,14 @@
 package org.congocc.templates.core;
 
 /**
- * An exception used to break out of a loop
+ * An exception used to break out of a loop. This is a control-flow
+ * signal, not an error, so the single shared instance carries
+ * no stack trace.
  */
 public class BreakException extends RuntimeException {
     public static final BreakException INSTANCE = new BreakException();
+
+    private BreakException() {
+        super(null, null, false, false);
+    }
 }
@@ -36,6 +36,8 @@ abstract public class Configurable {
     public static final String BOOLEAN_FORMAT_KEY = "boolean_format";
     public static final String OUTPUT_ENCODING_KEY = "output_encoding";
     public static final String URL_ESCAPING_CHARSET_KEY = "url_escaping_charset";
+    public static final String LEAN_RENDERING_KEY = "lean_rendering";
+    public static final String OUTPUT_FORMAT_KEY = "output_format";
 
     private static final char COMMA = ',';
 
@@ -56,6 +58,7 @@ abstract public class Configurable {
     private boolean outputEncodingSet;
     private String urlEscapingCharset;
     private boolean urlEscapingCharsetSet;
+    private Boolean leanRendering;
 
     public enum OutputFormat {
         RAW, HTML, XML, RTF
@@ -74,6 +77,7 @@ abstract public class Configurable {
         falseFormat = "false";
         templateExceptionHandler = TemplateExceptionHandler.DEBUG_HANDLER;
         arithmeticEngine = ArithmeticEngine.BIGDECIMAL_ENGINE;
+        leanRendering = Boolean.FALSE;
 
         properties = new Properties();
         properties.setProperty(LOCALE_KEY, locale.toString());
@@ -85,6 +89,8 @@ abstract public class Configurable {
         properties.setProperty(TEMPLATE_EXCEPTION_HANDLER_KEY, templateExceptionHandler.getClass().getName());
         properties.setProperty(ARITHMETIC_ENGINE_KEY, arithmeticEngine.getClass().getName());
         properties.setProperty(BOOLEAN_FORMAT_KEY, "true,false");
+        properties.setProperty(LEAN_RENDERING_KEY, leanRendering.toString());
+        properties.setProperty(OUTPUT_FORMAT_KEY, "raw");
     }
 
     /**
@@ -98,17 +104,61 @@ abstract public class Configurable {
         trueFormat = null;
         falseFormat = null;
         templateExceptionHandler = null;
-        properties = new Properties(fallback.properties);
+        outputFormat = null;
+        // The properties are only created if a setting is made on this object
+    }
+
+    private Properties getProperties() {
+        if (properties == null) {
+            properties = new Properties(fallback.getProperties());
+        }
+        return properties;
+    }
+
+    /**
+     * Drops all the settings made on this object, so that they are
+     * all inherited from the fallback again.
+     */
+    void clearSettings() {
+        properties = null;
+        locale = null;
+        numberFormat = null;
+        timeFormat = null;
+        dateFormat = null;
+        dateTimeFormat = null;
+        timeZone = null;
+        trueFormat = null;
+        falseFormat = null;
+        templateExceptionHandler = null;
+        arithmeticEngine = null;
+        outputEncoding = null;
+        outputEncodingSet = false;
+        urlEscapingCharset = null;
+        urlEscapingCharsetSet = false;
+        leanRendering = null;
+        outputFormat = null;
     }
 
     private OutputFormat outputFormat = OutputFormat.RAW;
 
+    /**
+     * Sets the format of the output, which determines how the
+     * <code>${...}</code> interpolations that are not in an
+     * <code>#escape</code> block are escaped. <code>RAW</code>, the
+     * default, means no escaping. An interpolation written as
+     * <code>$\{...}</code> is never escaped, and neither is one whose
+     * outermost expression is already an escaping built-in, such as
+     * <code>${x?html}</code>, so that it is not escaped twice.
+     */
     public void setOutputFormat(OutputFormat outputFormat) {
+        if (outputFormat == null)
+            throw new IllegalArgumentException("Setting \"output_format\" can't be null");
         this.outputFormat = outputFormat;
+        getProperties().setProperty(OUTPUT_FORMAT_KEY, outputFormat.name().toLowerCase());
     }
 
     public OutputFormat getOutputFormat() {
-        return this.outputFormat;
+        return outputFormat != null ? outputFormat : fallback.getOutputFormat();
     }
     
     /**
@@ -142,7 +192,7 @@ abstract public class Configurable {
         if (locale == null)
             throw new IllegalArgumentException("Setting \"locale\" can't be null");
         this.locale = locale;
-        properties.setProperty(LOCALE_KEY, locale.toString());
+        getProperties().setProperty(LOCALE_KEY, locale.toString());
     }
 
     /**
@@ -160,7 +210,7 @@ abstract public class Configurable {
         if (timeZone == null)
             throw new IllegalArgumentException("Setting \"time_zone\" can't be null");
         this.timeZone = timeZone;
-        properties.setProperty(TIME_ZONE_KEY, timeZone.getID());
+        getProperties().setProperty(TIME_ZONE_KEY, timeZone.getID());
     }
 
     /**
@@ -178,7 +228,7 @@ abstract public class Configurable {
         if (numberFormat == null)
             throw new IllegalArgumentException("Setting \"number_format\" can't be null");
         this.numberFormat = numberFormat;
-        properties.setProperty(NUMBER_FORMAT_KEY, numberFormat);
+        getProperties().setProperty(NUMBER_FORMAT_KEY, numberFormat);
     }
 
     /**
@@ -200,7 +250,7 @@ abstract public class Configurable {
         }
         trueFormat = booleanFormat.substring(0, comma);
         falseFormat = booleanFormat.substring(comma + 1);
-        properties.setProperty(BOOLEAN_FORMAT_KEY, booleanFormat);
+        getProperties().setProperty(BOOLEAN_FORMAT_KEY, booleanFormat);
     }
 
     public String getBooleanFormat() {
@@ -230,13 +280,13 @@ abstract public class Configurable {
         if (timeFormat == null)
             throw new IllegalArgumentException("Setting \"time_format\" can't be null");
         this.timeFormat = timeFormat;
-        properties.setProperty(TIME_FORMAT_KEY, timeFormat);
+        getProperties().setProperty(TIME_FORMAT_KEY, timeFormat);
     }
 
     /**
      * Returns the date format used to convert date models representing
      * time-only dates to strings.
-     * Defaults to <tt>"time"</tt>
+     * Defaults to <tt>""</tt>, which is the same as <tt>"medium"</tt>
      */
     public String getTimeFormat() {
         return timeFormat != null ? timeFormat : fallback.getTimeFormat();
@@ -250,13 +300,13 @@ abstract public class Configurable {
         if (dateFormat == null)
             throw new IllegalArgumentException("Setting \"date_format\" can't be null");
         this.dateFormat = dateFormat;
-        properties.setProperty(DATE_FORMAT_KEY, dateFormat);
+        getProperties().setProperty(DATE_FORMAT_KEY, dateFormat);
     }
 
     /**
      * Returns the date format used to convert date models representing
      * date-only dates to strings.
-     * Defaults to <tt>"date"</tt>
+     * Defaults to <tt>""</tt>, which is the same as <tt>"medium"</tt>
      */
     public String getDateFormat() {
         return dateFormat != null ? dateFormat : fallback.getDateFormat();
@@ -270,13 +320,13 @@ abstract public class Configurable {
         if (dateTimeFormat == null)
             throw new IllegalArgumentException("Setting \"datetime_format\" can't be null");
         this.dateTimeFormat = dateTimeFormat;
-        properties.setProperty(DATETIME_FORMAT_KEY, dateTimeFormat);
+        getProperties().setProperty(DATETIME_FORMAT_KEY, dateTimeFormat);
     }
 
     /**
      * Returns the date format used to convert date models representing datetime
      * dates to strings.
-     * Defaults to <tt>"datetime"</tt>
+     * Defaults to <tt>""</tt>, which is the same as <tt>"medium"</tt>
      */
     public String getDateTimeFormat() {
         return dateTimeFormat != null ? dateTimeFormat : fallback.getDateTimeFormat();
@@ -295,7 +345,7 @@ abstract public class Configurable {
         if (templateExceptionHandler == null)
             throw new IllegalArgumentException("Setting \"template_exception_handler\" can't be null");
         this.templateExceptionHandler = templateExceptionHandler;
-        properties.setProperty(TEMPLATE_EXCEPTION_HANDLER_KEY, templateExceptionHandler.getClass().getName());
+        getProperties().setProperty(TEMPLATE_EXCEPTION_HANDLER_KEY, templateExceptionHandler.getClass().getName());
     }
 
     /**
@@ -319,7 +369,7 @@ abstract public class Configurable {
         if (arithmeticEngine == null)
             throw new IllegalArgumentException("Setting \"arithmetic_engine\" can't be null");
         this.arithmeticEngine = arithmeticEngine;
-        properties.setProperty(ARITHMETIC_ENGINE_KEY, arithmeticEngine.getClass().getName());
+        getProperties().setProperty(ARITHMETIC_ENGINE_KEY, arithmeticEngine.getClass().getName());
     }
 
     /**
@@ -339,9 +389,9 @@ abstract public class Configurable {
         this.outputEncoding = outputEncoding;
         // java.util.Properties doesn't allow null value!
         if (outputEncoding != null) {
-            properties.setProperty(OUTPUT_ENCODING_KEY, outputEncoding);
+            getProperties().setProperty(OUTPUT_ENCODING_KEY, outputEncoding);
         } else {
-            properties.remove(OUTPUT_ENCODING_KEY);
+            getProperties().remove(OUTPUT_ENCODING_KEY);
         }
         outputEncodingSet = true;
     }
@@ -360,9 +410,9 @@ abstract public class Configurable {
         this.urlEscapingCharset = urlEscapingCharset;
         // java.util.Properties doesn't allow null value!
         if (urlEscapingCharset != null) {
-            properties.setProperty(URL_ESCAPING_CHARSET_KEY, urlEscapingCharset);
+            getProperties().setProperty(URL_ESCAPING_CHARSET_KEY, urlEscapingCharset);
         } else {
-            properties.remove(URL_ESCAPING_CHARSET_KEY);
+            getProperties().remove(URL_ESCAPING_CHARSET_KEY);
         }
         urlEscapingCharsetSet = true;
     }
@@ -373,6 +423,30 @@ abstract public class Configurable {
                 : (fallback != null ? fallback.getURLEscapingCharset() : null);
     }
 
+    /**
+     * Sets whether templates are rendered without maintaining the
+     * instruction stack. In lean mode, only macro calls, #nested and
+     * includes are pushed on the stack, and the stack reported in a
+     * {@link TemplateException} is rebuilt from the parent links of the
+     * failing element and of those calls when the exception is handled.
+     * It differs from the usual one in that the calls of functions from
+     * within expressions are not shown, and that
+     * {@link Environment#getElementStack()} only holds the macro calls,
+     * #nested and includes.
+     */
+    public void setLeanRendering(boolean leanRendering) {
+        this.leanRendering = leanRendering;
+        getProperties().setProperty(LEAN_RENDERING_KEY, String.valueOf(leanRendering));
+    }
+
+    /**
+     * Returns whether the instruction stack bookkeeping is skipped
+     * during rendering. Defaults to <tt>false</tt>.
+     */
+    public boolean isLeanRendering() {
+        return leanRendering != null ? leanRendering : fallback.isLeanRendering();
+    }
+
     /**
      * Sets a setting by a name and string value.
      * 
@@ -392,7 +466,8 @@ abstract public class Configurable {
      * interpreted as class name, and the object will be created with
      * its parameterless constructor. If the value does not contain dot,
      * then it must be one of these special values:
-     * <code>"bigdecimal"</code>, <code>"conservative"</code> (case insensitive).
+     * <code>"bigdecimal"</code>, <code>"conservative"</code>, <code>"fast"</code>
+     * (case insensitive).
      * <li><code>"object_wrapper"</code>: If the value contains dot, then it is
      * interpreted as class name, and the object will be created with
      * its parameterless constructor. If the value does not contain dot,
@@ -404,7 +479,11 @@ abstract public class Configurable {
      * false,
      * separated with comma. For example <code>"yes,no"</code>.
      * <li><code>"date_format", "time_format", "datetime_format"</code>: patterns as
-     * <code>java.text.SimpleDateFormat</code> defines.
+     * <code>java.time.format.DateTimeFormatter</code> defines, or one of the
+     * localized styles <code>"short"</code>, <code>"medium"</code>,
+     * <code>"long"</code>, <code>"full"</code>. For
+     * <code>"datetime_format"</code>, the date and time styles can also be
+     * given separately, like <code>"short_medium"</code>.
      * <li><code>"time_zone"</code>: time zone, with the format as
      * <code>java.util.TimeZone.getTimeZone</code> defines. For example
      * <code>"GMT-8:00"</code> or
@@ -417,6 +496,11 @@ abstract public class Configurable {
      * <li><code>"url_escaping_charset"</code>: If this setting is set, then it
      * overrides the value of the <code>"output_encoding"</code> setting when
      * FreeMarker does URL encoding.
+     * <li><code>"lean_rendering"</code>: <code>"true"</code>, <code>"false"</code>,
+     * etc. See: {@link #setLeanRendering}
+     * <li><code>"output_format"</code>: <code>"raw"</code>, <code>"html"</code>,
+     * <code>"xml"</code> or <code>"rtf"</code> (case insensitive).
+     * See: {@link #setOutputFormat}
      * </ul>
      * 
      * @param key   the name of the setting.
@@ -467,6 +551,8 @@ abstract public class Configurable {
                         setArithmeticEngine(ArithmeticEngine.BIGDECIMAL_ENGINE);
                     } else if ("conservative".equalsIgnoreCase(value)) {
                         setArithmeticEngine(ArithmeticEngine.CONSERVATIVE_ENGINE);
+                    } else if ("fast".equalsIgnoreCase(value)) {
+                        setArithmeticEngine(ArithmeticEngine.FAST_ENGINE);
                     } else {
                         throw invalidSettingValueException(key, value);
                     }
@@ -480,6 +566,19 @@ abstract public class Configurable {
                 setOutputEncoding(value);
             } else if (URL_ESCAPING_CHARSET_KEY.equals(key)) {
                 setURLEscapingCharset(value);
+            } else if (LEAN_RENDERING_KEY.equals(key)) {
+                setLeanRendering(StringUtil.getYesNo(value));
+            } else if (OUTPUT_FORMAT_KEY.equals(key)) {
+                OutputFormat outputFormat = null;
+                for (OutputFormat format : OutputFormat.values()) {
+                    if (format.name().equalsIgnoreCase(value)) {
+                        outputFormat = format;
+                    }
+                }
+                if (outputFormat == null) {
+                    throw invalidSettingValueException(key, value);
+                }
+                setOutputFormat(outputFormat);
             } else {
                 throw unknownSettingException(key);
             }
@@ -5,12 +5,15 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.text.Collator;
-import java.text.DateFormat;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.text.NumberFormat;
-import java.text.SimpleDateFormat;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.time.temporal.TemporalAccessor;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.congocc.templates.core.nodes.generated.ArgsList;
 import org.congocc.templates.core.nodes.generated.Block;
@@ -21,6 +24,7 @@ import org.congocc.templates.core.nodes.generated.PositionalArgsList;
 import org.congocc.templates.core.nodes.ParameterList;
 import org.congocc.templates.core.nodes.generated.TemplateElement;
 import org.congocc.templates.core.nodes.generated.UnifiedCall;
+import org.congocc.templates.core.parser.Node;
 import org.congocc.templates.core.variables.*;
 import org.congocc.templates.core.variables.scope.*;
 import org.congocc.templates.*;
@@ -52,9 +56,18 @@ import static org.congocc.templates.core.variables.Wrap.*;
 public final class Environment extends Configurable implements Scope {
     private static final ThreadLocal<Environment> threadEnv = new ThreadLocal<Environment>();
 
-    private static final Map<NumberFormatKey, NumberFormat> localizedNumberFormats = new HashMap<NumberFormatKey, NumberFormat>();
+    // The formats in here are never used for formatting, only cloned or inspected
+    private static final Map<NumberFormatKey, NumberFormat> localizedNumberFormats = new ConcurrentHashMap<>();
 
-    private static final Map<DateFormatKey, DateFormat> localizedDateFormats = new HashMap<DateFormatKey, DateFormat>();
+    private static final Map<NumberFormatKey, IntegralNumberFormat> integralNumberFormats = new ConcurrentHashMap<>();
+
+    // DateTimeFormatters are immutable, so these are used directly
+    private static final Map<DateFormatKey, DateTimeFormatter> localizedDateFormats = new ConcurrentHashMap<>();
+
+    /**
+     * The kinds of date/time values, as far as picking the format is concerned.
+     */
+    public static final int DATE = 1, TIME = 2, DATETIME = 3;
 
     // Do not use this object directly; clone it first! DecimalFormat isn't
     // thread-safe.
@@ -66,19 +79,22 @@ public final class Environment extends Configurable implements Scope {
         C_NUMBER_FORMAT.setDecimalSeparatorAlwaysShown(false);
     }
 
-    private final Map<String,Object> rootDataModel;
+    private Map<String,Object> rootDataModel;
 
     private final List<TemplateElement> elementStack = new ArrayList<TemplateElement>();
 
+    // In lean rendering mode, the last exception whose stack was rebuilt
+    private TemplateException leanStackException;
+
     private final List<String> recoveredErrorStack = new ArrayList<String>();
 
     private NumberFormat numberFormat;
 
-    private Map<String, NumberFormat> numberFormats;
+    private IntegralNumberFormat integralNumberFormat;
 
-    private DateFormat timeFormat, dateFormat, dateTimeFormat;
+    private Map<String, NumberFormat> numberFormats;
 
-    private Map<String, DateFormat>[] dateFormats;
+    private DateTimeFormatter timeFormat, dateFormat, dateTimeFormat;
 
     private NumberFormat cNumberFormat;
 
@@ -88,15 +104,20 @@ public final class Environment extends Configurable implements Scope {
 
     private MacroContext currentMacroContext;
 
+    // All the macro invocations in progress, in the order they started.
+    // Unlike the chain from currentMacroContext, this still has the
+    // macro whose #nested content is being rendered.
+    private ArrayList<MacroContext> activeMacroContexts = new ArrayList<>();
+
     private Scope mainNamespace;
 
     private Scope currentScope;
 
-    private Map<Macro, MacroContext> macroContextLookup = new HashMap<>();
+    // Macros not in here belong to the main namespace. Created lazily.
+    private Map<Macro, Scope> macroToNamespaceLookup;
 
-    private Map<Macro, Scope> macroToNamespaceLookup = new HashMap<>();
-
-    private HashMap<String, Object> globalVariables = new HashMap<>();
+    // Created lazily
+    private HashMap<String, Object> globalVariables;
 
     private HashMap<String, Scope> loadedLibs;
 
@@ -115,6 +136,10 @@ public final class Environment extends Configurable implements Scope {
 
     private boolean urlEscapingCharsetCached;
 
+    private boolean leanRendering;
+
+    private boolean macroLinkageValid = true;
+
     /**
      * Retrieves the environment object associated with the current thread. Data
      * model implementations that need access to the environment can call this
@@ -127,10 +152,61 @@ public final class Environment extends Configurable implements Scope {
 
     public Environment(Template template, Map<String,Object> rootDataModel, Writer out) {
         super(template);
+        init(template, rootDataModel, out);
+    }
+
+    /**
+     * Makes this <code>Environment</code> ready to process another template
+     * (or the same one again), with a new data model and writer, as if it
+     * had just been created. Any settings made on this object, variables,
+     * imported libraries and so on are dropped. This allows a thread, or a
+     * pool, to reuse an <code>Environment</code> across requests. It must
+     * not be called while the <code>Environment</code> is processing.
+     */
+    public void reset(Template template, Map<String,Object> rootDataModel, Writer out) {
+        if (threadEnv.get() == this) {
+            throw new IllegalStateException("Cannot reset an Environment while it is processing.");
+        }
+        clearSettings();
+        setFallback(template);
+        elementStack.clear();
+        leanStackException = null;
+        recoveredErrorStack.clear();
+        numberFormat = null;
+        integralNumberFormat = null;
+        numberFormats = null;
+        timeFormat = dateFormat = dateTimeFormat = null;
+        collator = null;
+        currentMacroContext = null;
+        if (macroToNamespaceLookup != null) {
+            macroToNamespaceLookup.clear();
+        }
+        if (globalVariables != null) {
+            globalVariables.clear();
+        }
+        loadedLibs = null;
+        lastThrowable = null;
+        lastReturnValue = null;
+        nodeNamespaces = null;
+        nodeNamespaceIndex = 0;
+        currentNodeName = currentNodeNS = null;
+        cachedURLEscapingCharset = null;
+        urlEscapingCharsetCached = false;
+        macroLinkageValid = true;
+        init(template, rootDataModel, out);
+    }
+
+    private void init(Template template, Map<String,Object> rootDataModel, Writer out) {
         this.currentScope = mainNamespace = new BlockScope(template.getRootElement(), this);
         this.out = out;
         this.rootDataModel = rootDataModel;
-        importMacros(template);
+        this.leanRendering = isLeanRendering();
+        // The macros of the main template belong to the main namespace,
+        // which is what getMacroNamespace() assumes for unknown macros,
+        // so they only need to be defined there.
+        for (Macro macro : template.getMacros().values()) {
+            mainNamespace.put(macro.getName(), macro);
+        }
     }
 
     public void setCurrentScope(Scope scope) {
@@ -154,6 +230,9 @@ public final class Environment extends Configurable implements Scope {
     public void process() throws IOException {
         Environment savedEnv = threadEnv.get();
         threadEnv.set(this);
+        // The lean_rendering setting is only picked up here, since 
+        // toggling it in mid-render would unbalance the element stack.
+        leanRendering = isLeanRendering();
         try {
             doAutoImportsAndIncludes(this);
             Template template = getTemplate();
@@ -169,7 +248,8 @@ public final class Environment extends Configurable implements Scope {
      * "Visit" the template element.
      */
     public void render(TemplateElement element) throws IOException {
-        pushElement(element);
+        boolean pushed = !leanRendering || isCallSite(element);
+        if (pushed) pushElement(element);
         Block nestedBlock = element.getNestedBlock();
         boolean createNewScope = nestedBlock != null 
                                  && !nestedBlock.isTemplateRoot()
@@ -182,9 +262,13 @@ public final class Environment extends Configurable implements Scope {
         try {
             element.execute(this);
         } catch (TemplateException te) {
+            if (leanRendering && te != leanStackException) {
+                te.setFTLStack(reconstructElementStack(element));
+                leanStackException = te;
+            }
             handleTemplateException(te);
         } finally {
-            popElement();
+            if (pushed) popElement();
             currentScope = prevScope;
         }
     }
@@ -220,29 +304,32 @@ public final class Environment extends Configurable implements Scope {
     }
 
     /**
-     * Visit a block using buffering/recovery
+     * Visit a block using buffering/recovery. The output of the attempt
+     * block is held in an {@link AttemptBuffer}, which goes to a temporary
+     * file past the configuration's attempt_spill_threshold.
      */
     public void render(Block attemptBlock, Block recoveryBlock) throws IOException {
         Writer prevOut = this.out;
-        StringWriter sw = new StringWriter();
-        this.out = sw;
-        TemplateException thrownException = null;
-        try {
-            render(attemptBlock);
-        } catch (TemplateException te) {
-            thrownException = te;
-        } finally {
-            this.out = prevOut;
-        }
-        if (thrownException != null) {
+        try (AttemptBuffer buffer = new AttemptBuffer(getConfiguration().getAttemptSpillThreshold())) {
+            this.out = buffer;
+            TemplateException thrownException = null;
             try {
-                recoveredErrorStack.add(thrownException.getMessage());
-                render(recoveryBlock);
+                render(attemptBlock);
+            } catch (TemplateException te) {
+                thrownException = te;
             } finally {
-                recoveredErrorStack.remove(recoveredErrorStack.size() - 1);
+                this.out = prevOut;
+            }
+            if (thrownException != null) {
+                try {
+                    recoveredErrorStack.add(thrownException.getMessage());
+                    render(recoveryBlock);
+                } finally {
+                    recoveredErrorStack.remove(recoveredErrorStack.size() - 1);
+                }
+            } else {
+                buffer.writeTo(out);
             }
-        } else {
-            out.write(sw.toString());
         }
     }
 
@@ -260,10 +347,7 @@ public final class Environment extends Configurable implements Scope {
         ParameterList bodyParameters = currentMacroContext.getBodyParameters();
         PositionalArgsList bodyArgs = (PositionalArgsList) nestedInstruction.getArgs();
         if (bodyParameters != null) {
-            Map<String, Object> bodyParamsMap = bodyParameters.getParameterMap(bodyArgs, this, true);
-            for (Map.Entry<String, Object> entry : bodyParamsMap.entrySet()) {
-            	blockScope.put(entry.getKey(), entry.getValue());
-            }
+            bodyParameters.bindArguments(bodyArgs, this, blockScope, true);
         }
         MacroContext invokingMacroContext = currentMacroContext;
         TemplateElement body = invokingMacroContext.getBody();
@@ -366,58 +450,82 @@ public final class Environment extends Configurable implements Scope {
         if (macro == Macro.DO_NOTHING_MACRO) {
             return;
         }
-        pushElement(macro);
+        if (!leanRendering) pushElement(macro);
         try {
             MacroContext mc = new MacroContext(macro, this, nestedBlock, bodyParameters);
-            MacroContext prevMc = macroContextLookup.get(macro);
-            macroContextLookup.put(macro, mc);
             if (args != null) {
-                Map<String, Object> argsMap = macro.getParams().getParameterMap(args, this);
-                for (Map.Entry<String, Object> entry : argsMap.entrySet()) {
-                    mc.put(entry.getKey(), entry.getValue());
-                }
+                macro.getParams().bindArguments(args, this, mc);
             }
             Scope prevScope = currentScope;
             Configurable prevParent = getFallback();
             currentScope = currentMacroContext = mc;
+            activeMacroContexts.add(mc);
             try {
                 render(macro.getNestedBlock());                
             } catch (ReturnException re) {
             } catch (TemplateException te) {
                 handleTemplateException(te);
             } finally {
-                if (prevMc != null) {
-                    macroContextLookup.put(macro, prevMc);
-                } else {
-                    macroContextLookup.remove(macro);
-                }
+                activeMacroContexts.remove(activeMacroContexts.size() - 1);
                 currentMacroContext = mc.getInvokingMacroContext();
                 currentScope = prevScope;
                 setFallback(prevParent);
             }
         } finally {
-            popElement();
+            if (!leanRendering) popElement();
         }
     }
 
     public void visitMacroDef(Macro macro) {
         if (currentMacroContext == null) {
+            if (macroToNamespaceLookup == null) {
+                macroToNamespaceLookup = new HashMap<>();
+            }
             macroToNamespaceLookup.put(macro, getCurrentNamespace());
             // getCurrentNamespace().put(macro.getName(), macro);
             this.unqualifiedSet(macro.getName(), macro);
+        } else if (macro.isLinkTarget()) {
+            // The definition is skipped inside a macro, as when a template
+            // is included there, so the name may not refer to this macro,
+            // as the call sites bound to it assume.
+            invalidateMacroLinkage();
         }
     }
 
     public Scope getMacroNamespace(Macro macro) {
-        Scope result = macroToNamespaceLookup.get(macro);
+        Scope result = macroToNamespaceLookup == null ? null : macroToNamespaceLookup.get(macro);
         if (result == null) {
             result = mainNamespace; // REVISIT ??
         }
         return result;
     }
 
+    /**
+     * @return the context of the innermost active invocation of the macro,
+     * or null if it is not being executed. This includes an invocation
+     * whose #nested content is being rendered.
+     */
     public MacroContext getMacroContext(Macro macro) {
-        return macroContextLookup.get(macro);
+        for (int i = activeMacroContexts.size() - 1; i >= 0; i--) {
+            MacroContext mc = activeMacroContexts.get(i);
+            if (mc.getMacro() == macro) {
+                return mc;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return whether call sites that were bound to a macro at parse time
+     * can still use that binding. This stops being the case once a variable
+     * holding a macro is overwritten or removed in any namespace or block.
+     */
+    public boolean isMacroLinkageValid() {
+        return macroLinkageValid;
+    }
+
+    public void invalidateMacroLinkage() {
+        macroLinkageValid = false;
     }
 
     public MacroContext getCurrentMacroContext() {
@@ -453,7 +561,7 @@ public final class Environment extends Configurable implements Scope {
         // Clear local format cache
         numberFormats = null;
         numberFormat = null;
-        dateFormats = null;
+        integralNumberFormat = null;
         timeFormat = dateFormat = dateTimeFormat = null;
         collator = null;
     }
@@ -461,10 +569,24 @@ public final class Environment extends Configurable implements Scope {
     public void setTimeZone(TimeZone timeZone) {
         super.setTimeZone(timeZone);
         // Clear local date format cache
-        dateFormats = null;
         timeFormat = dateFormat = dateTimeFormat = null;
     }
 
+    public void setTimeFormat(String timeFormat) {
+        super.setTimeFormat(timeFormat);
+        this.timeFormat = null;
+    }
+
+    public void setDateFormat(String dateFormat) {
+        super.setDateFormat(dateFormat);
+        this.dateFormat = null;
+    }
+
+    public void setDateTimeFormat(String dateTimeFormat) {
+        super.setDateTimeFormat(dateTimeFormat);
+        this.dateTimeFormat = null;
+    }
+
     public void setURLEscapingCharset(String urlEscapingCharset) {
         urlEscapingCharsetCached = false;
         super.setURLEscapingCharset(urlEscapingCharset);
@@ -514,15 +636,152 @@ public final class Environment extends Configurable implements Scope {
     }
 
     public String formatNumber(Number number) {
+        // Integral values, by far the most common, are formatted without
+        // going through (and so without having to clone) the NumberFormat.
+        if (integralNumberFormat == null) {
+            integralNumberFormat = getIntegralNumberFormat(getNumberFormat());
+        }
+        String result = integralNumberFormat.format(number);
+        if (result != null) {
+            return result;
+        }
         if (numberFormat == null) {
             numberFormat = getNumberFormatObject(getNumberFormat());
         }
         return numberFormat.format(number);
     }
 
+    /**
+     * Formats a date/time value (see {@link Wrap#isDate(Object)}) with the
+     * <tt>date_format</tt>, <tt>time_format</tt> or <tt>datetime_format</tt>
+     * setting, depending on what kind of value it is.
+     */
+    public String formatDate(Object date) {
+        DateTimeFormatter format;
+        switch (getDateType(date)) {
+            case DATE:
+                if (dateFormat == null) {
+                    dateFormat = getDateTimeFormatter(DATE, getDateFormat());
+                }
+                format = dateFormat;
+                break;
+            case TIME:
+                if (timeFormat == null) {
+                    timeFormat = getDateTimeFormatter(TIME, getTimeFormat());
+                }
+                format = timeFormat;
+                break;
+            default:
+                if (dateTimeFormat == null) {
+                    dateTimeFormat = getDateTimeFormatter(DATETIME, getDateTimeFormat());
+                }
+                format = dateTimeFormat;
+        }
+        return formatDate(date, format);
+    }
+
+    /**
+     * Formats a date/time value with the given pattern, which is
+     * either a <code>DateTimeFormatter</code> pattern or one of
+     * <tt>short</tt>, <tt>medium</tt>, <tt>long</tt> and <tt>full</tt>.
+     */
+    public String formatDate(Object date, String pattern) {
+        return formatDate(date, getDateTimeFormatter(getDateType(date), pattern));
+    }
+
+    private String formatDate(Object date, DateTimeFormatter format) {
+        try {
+            return format.format(toTemporal(date));
+        } catch (DateTimeException e) {
+            throw new TemplateException("Cannot format " + date + ": " + e.getMessage(), e, this);
+        }
+    }
+
+    /**
+     * @return the shared formatter for the given kind of value ({@link #DATE},
+     * {@link #TIME} or {@link #DATETIME}), pattern, and the current locale
+     * and time zone
+     */
+    public DateTimeFormatter getDateTimeFormatter(int dateType, String pattern) {
+        Locale locale = getLocale();
+        TimeZone timeZone = getTimeZone();
+        DateFormatKey fk = new DateFormatKey(dateType, pattern, locale, timeZone);
+        DateTimeFormatter format = localizedDateFormats.get(fk);
+        if (format == null) {
+            // Add format to global format cache. Note this is
+            // globally done once per type, pattern, locale and zone.
+            format = createDateTimeFormatter(dateType, pattern)
+                    .withLocale(locale)
+                    .withZone(timeZone.toZoneId());
+            DateTimeFormatter existing = localizedDateFormats.putIfAbsent(fk, format);
+            if (existing != null) {
+                format = existing;
+            }
+        }
+        return format;
+    }
+
+    private DateTimeFormatter createDateTimeFormatter(int dateType, String pattern) {
+        // An empty pattern, which is the default, means the medium style
+        String datePart = pattern.isEmpty() ? "medium" : pattern;
+        String timePart = datePart;
+        int underscore = datePart.indexOf('_');
+        if (dateType == DATETIME && underscore > 0) {
+            // For example short_medium, short date with medium time
+            timePart = datePart.substring(underscore + 1);
+            datePart = datePart.substring(0, underscore);
+        }
+        FormatStyle dateStyle = getFormatStyle(datePart);
+        FormatStyle timeStyle = getFormatStyle(timePart);
+        if (dateStyle != null && timeStyle != null) {
+            switch (dateType) {
+                case DATE: return DateTimeFormatter.ofLocalizedDate(dateStyle);
+                case TIME: return DateTimeFormatter.ofLocalizedTime(timeStyle);
+                default: return DateTimeFormatter.ofLocalizedDateTime(dateStyle, timeStyle);
+            }
+        }
+        try {
+            return DateTimeFormatter.ofPattern(pattern);
+        } catch (IllegalArgumentException e) {
+            throw new TemplateException("Invalid date/time format " + pattern + ": " + e.getMessage(), e, this);
+        }
+    }
+
+    private static FormatStyle getFormatStyle(String name) {
+        switch (name) {
+            case "short": return FormatStyle.SHORT;
+            case "medium": return FormatStyle.MEDIUM;
+            case "long": return FormatStyle.LONG;
+            case "full": return FormatStyle.FULL;
+            default: return null;
+        }
+    }
+
+    private static int getDateType(Object date) {
+        if (date instanceof LocalDate) {
+            return DATE;
+        }
+        if (date instanceof LocalTime || date instanceof OffsetTime) {
+            return TIME;
+        }
+        return DATETIME;
+    }
+
+    private static TemporalAccessor toTemporal(Object date) {
+        if (date instanceof Date) {
+            // Not Date.toInstant(), which java.sql.Date does not support
+            return Instant.ofEpochMilli(((Date) date).getTime());
+        }
+        if (date instanceof Calendar) {
+            return ((Calendar) date).toInstant();
+        }
+        return (TemporalAccessor) date;
+    }
+
     public void setNumberFormat(String formatName) {
         super.setNumberFormat(formatName);
         numberFormat = null;
+        integralNumberFormat = null;
     }
 
     public Configuration getConfiguration() {
@@ -537,42 +796,64 @@ public final class Environment extends Configurable implements Scope {
         this.lastReturnValue = lastReturnValue;
     }
 
+    /**
+     * @return the <code>NumberFormat</code> for the pattern and the current
+     * locale. This is a clone of the globally cached format, which belongs
+     * to this <code>Environment</code> only.
+     */
     public NumberFormat getNumberFormatObject(String pattern) {
         if (numberFormats == null) {
             numberFormats = new HashMap<String, NumberFormat>();
         }
         NumberFormat format = numberFormats.get(pattern);
-        if (format != null) {
-            return format;
-        }
-
-        // Get format from global format cache
-        synchronized (localizedNumberFormats) {
-            Locale locale = getLocale();
-            NumberFormatKey fk = new NumberFormatKey(pattern, locale);
-            format = localizedNumberFormats.get(fk);
-            if (format == null) {
-                // Add format to global format cache. Note this is
-                // globally done once per locale per pattern.
-                if ("number".equals(pattern)) {
-                    format = NumberFormat.getNumberInstance(locale);
-                } else if ("currency".equals(pattern)) {
-                    format = NumberFormat.getCurrencyInstance(locale);
-                } else if ("percent".equals(pattern)) {
-                    format = NumberFormat.getPercentInstance(locale);
-                } else if ("computer".equals(pattern)) {
-                    format = getCNumberFormat();
-                } else {
-                    format = new DecimalFormat(pattern,
-                            new DecimalFormatSymbols(getLocale()));
-                }
-                localizedNumberFormats.put(fk, format);
-            }
+        if (format == null) {
+            // Clone the format in the global cache, which needs no lock
+            format = (NumberFormat) getSharedNumberFormat(pattern).clone();
+            numberFormats.put(pattern, format);
         }
+        return format;
+    }
+
+    private IntegralNumberFormat getIntegralNumberFormat(String pattern) {
+        NumberFormatKey fk = new NumberFormatKey(pattern, getLocale());
+        IntegralNumberFormat result = integralNumberFormats.get(fk);
+        if (result == null) {
+            result = IntegralNumberFormat.forFormat(getSharedNumberFormat(pattern));
+            integralNumberFormats.put(fk, result);
+        }
+        return result;
+    }
 
-        // Clone it and store the clone in the local cache
-        format = (NumberFormat) format.clone();
-        numberFormats.put(pattern, format);
+    /**
+     * @return the globally cached format for the pattern and the current
+     * locale. This must not be used for formatting, only cloned or
+     * inspected, since <code>NumberFormat</code>s are not thread-safe.
+     */
+    private NumberFormat getSharedNumberFormat(String pattern) {
+        Locale locale = getLocale();
+        NumberFormatKey fk = new NumberFormatKey(pattern, locale);
+        NumberFormat format = localizedNumberFormats.get(fk);
+        if (format == null) {
+            // Add format to global format cache. Note this is
+            // globally done once per locale per pattern, give or take
+            // a race, which is harmless.
+            if ("number".equals(pattern)) {
+                format = NumberFormat.getNumberInstance(locale);
+            } else if ("currency".equals(pattern)) {
+                format = NumberFormat.getCurrencyInstance(locale);
+            } else if ("percent".equals(pattern)) {
+                format = NumberFormat.getPercentInstance(locale);
+            } else if ("computer".equals(pattern)) {
+                format = getNewCNumberFormat();
+            } else {
+                format = new DecimalFormat(pattern,
+                        new DecimalFormatSymbols(locale));
+            }
+            NumberFormat existing = localizedNumberFormats.putIfAbsent(fk, format);
+            if (existing != null) {
+                format = existing;
+            }
+        }
         return format;
     }
 
@@ -624,7 +905,7 @@ public final class Environment extends Configurable implements Scope {
      * to the data model.
      */
     public Object get(Object name) {
-        Object result = globalVariables.get(name);
+        Object result = globalVariables == null ? null : globalVariables.get(name);
         if (result == null) {
             result = rootDataModel.get(name);
         }
@@ -639,7 +920,7 @@ public final class Environment extends Configurable implements Scope {
      * <code><#global <i>name</i>=<i>model</i>></code>.
      */
     public void setGlobalVariable(String name, Object value) {
-        globalVariables.put(name, value);
+        put(name, value);
     }
 
     /**
@@ -671,7 +952,7 @@ public final class Environment extends Configurable implements Scope {
         try {
             scope.put(name, value);
         } catch (UndeclaredVariableException uve) {
-            if (globalVariables.containsKey(name)) {
+            if (globalVariables != null && globalVariables.containsKey(name)) {
                 globalVariables.put(name, value);
             } else {
                 throw uve;
@@ -727,15 +1008,18 @@ public final class Environment extends Configurable implements Scope {
     }
 
     public boolean definesVariable(String name) {
-        return globalVariables.containsKey(name) || rootDataModel.get(name) != null;
+        return (globalVariables != null && globalVariables.containsKey(name)) || rootDataModel.get(name) != null;
     }
 
     public Object put(String varname, Object value) {
+        if (globalVariables == null) {
+            globalVariables = new HashMap<>();
+        }
         return globalVariables.put(varname, value);
     }
 
     public Object remove(Object varname) {
-        return globalVariables.remove(varname);
+        return globalVariables == null ? null : globalVariables.remove(varname);
     }
 
     /**
@@ -780,10 +1064,62 @@ public final class Environment extends Configurable implements Scope {
         return result;
     }
 
+    /**
+     * @return the elements currently being rendered, outermost first.
+     * In lean rendering mode, only the macro calls, #nested and
+     * includes are kept track of, so this only holds those.
+     * @see #setLeanRendering(boolean)
+     */
     public List<TemplateElement> getElementStack() {
         return Collections.unmodifiableList(elementStack);
     }
 
+    /**
+     * The elements that are on the stack even in lean rendering mode,
+     * since the parent links lead to the macro definition, the included
+     * template or the body of the call, not to where it was called from.
+     */
+    private static boolean isCallSite(TemplateElement element) {
+        return element instanceof UnifiedCall || element instanceof IncludeInstruction
+                || element instanceof NestedInstruction;
+    }
+
+    /**
+     * Rebuilds the stack of enclosing elements, innermost first, from
+     * the parent links of the failing element, up to the macro definition,
+     * the body of a macro call or the template root, and then from those
+     * of each macro call, #nested or include on the way in. Used in lean rendering mode, where the stack is not
+     * maintained as we go. The calls of functions within expressions are
+     * not known, so they are not shown.
+     */
+    private List<TemplateElement> reconstructElementStack(TemplateElement element) {
+        List<TemplateElement> result = new ArrayList<>();
+        addEnclosingElements(element, result);
+        for (int i = elementStack.size() - 1; i >= 0; i--) {
+            TemplateElement callSite = elementStack.get(i);
+            if (!result.contains(callSite)) {
+                addEnclosingElements(callSite, result);
+            }
+        }
+        return result;
+    }
+
+    private static void addEnclosingElements(TemplateElement element, List<TemplateElement> result) {
+        for (Node node = element; node != null; node = node.getParent()) {
+            if (node instanceof UnifiedCall && node != element) {
+                // We are in the body of the call. The #nested that
+                // rendered it, if any, and the call are on the stack.
+                break;
+            }
+            if (node instanceof TemplateElement) {
+                result.add((TemplateElement) node);
+            }
+            if (node instanceof Macro) {
+                break;
+            }
+        }
+    }
+
     private void pushElement(TemplateElement element) {
         elementStack.add(element);
     }
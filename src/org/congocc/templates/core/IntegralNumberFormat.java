@@ -0,0 +1,122 @@
+package org.congocc.templates.core;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+
+/**
+ * Formats integral numbers the way a given {@link DecimalFormat} would,
+ * but without going through it. Everything it needs (prefixes, grouping,
+ * localized digits) is read from the format once, so an instance is
+ * immutable and can be shared by all threads, unlike the
+ * <code>DecimalFormat</code> itself.
+ * Formats that do anything else with integers (minimum fraction digits,
+ * a multiplier, as with percentages, zero padding, a currency sign...)
+ * get the {@link #NONE} instance, so the caller just falls back to the
+ * <code>NumberFormat</code>.
+ */
+final class IntegralNumberFormat {
+
+    static final IntegralNumberFormat NONE = new IntegralNumberFormat();
+
+    private final boolean usable;
+    private final String positivePrefix, positiveSuffix, negativePrefix, negativeSuffix;
+    private final int groupingSize;
+    private final char groupingSeparator;
+    private final int digitOffset;
+
+    private IntegralNumberFormat() {
+        usable = false;
+        positivePrefix = positiveSuffix = negativePrefix = negativeSuffix = null;
+        groupingSize = 0;
+        groupingSeparator = 0;
+        digitOffset = 0;
+    }
+
+    private IntegralNumberFormat(DecimalFormat format) {
+        DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+        usable = true;
+        positivePrefix = format.getPositivePrefix();
+        positiveSuffix = format.getPositiveSuffix();
+        negativePrefix = format.getNegativePrefix();
+        negativeSuffix = format.getNegativeSuffix();
+        groupingSize = format.isGroupingUsed() ? format.getGroupingSize() : 0;
+        groupingSeparator = symbols.getGroupingSeparator();
+        digitOffset = symbols.getZeroDigit() - '0';
+    }
+
+    static IntegralNumberFormat forFormat(NumberFormat format) {
+        if (!(format instanceof DecimalFormat)) {
+            return NONE;
+        }
+        DecimalFormat df = (DecimalFormat) format;
+        if (df.getMultiplier() != 1
+                || df.getMinimumFractionDigits() != 0
+                || df.isDecimalSeparatorAlwaysShown()
+                || df.getMinimumIntegerDigits() > 1
+                || df.getMaximumIntegerDigits() < 19
+                || df.toPattern().indexOf('E') >= 0
+                // Currency formats use the monetary grouping separator,
+                // which is not the same in every locale (de_AT, for one)
+                || df.toPattern().indexOf('\u00A4') >= 0) {
+            return NONE;
+        }
+        return new IntegralNumberFormat(df);
+    }
+
+    /**
+     * @return the formatted number, or null if the number is not
+     * something this can format, in which case the caller should use
+     * the <code>NumberFormat</code>
+     */
+    String format(Number number) {
+        if (!usable) {
+            return null;
+        }
+        long value;
+        if (number instanceof Integer || number instanceof Long
+                || number instanceof Short || number instanceof Byte) {
+            value = number.longValue();
+        } else if (number instanceof BigDecimal) {
+            BigDecimal bd = (BigDecimal) number;
+            if (bd.scale() != 0 || bd.unscaledValue().bitLength() > 63) {
+                return null;
+            }
+            value = bd.longValue();
+        } else if (number instanceof BigInteger) {
+            BigInteger bi = (BigInteger) number;
+            if (bi.bitLength() > 63) {
+                return null;
+            }
+            value = bi.longValue();
+        } else {
+            return null;
+        }
+        return format(value);
+    }
+
+    private String format(long value) {
+        boolean negative = value < 0;
+        String prefix = negative ? negativePrefix : positivePrefix;
+        String suffix = negative ? negativeSuffix : positiveSuffix;
+        if (groupingSize == 0 && digitOffset == 0 && prefix.isEmpty() && suffix.isEmpty()) {
+            return Long.toString(value);
+        }
+        // Long.MIN_VALUE has no positive counterpart, so work on the string
+        String digits = Long.toString(value);
+        int start = negative ? 1 : 0;
+        int digitCount = digits.length() - start;
+        StringBuilder buf = new StringBuilder(prefix.length() + suffix.length() + digitCount * 2);
+        buf.append(prefix);
+        for (int i = 0; i < digitCount; i++) {
+            if (groupingSize > 0 && i > 0 && (digitCount - i) % groupingSize == 0) {
+                buf.append(groupingSeparator);
+            }
+            buf.append((char) (digits.charAt(start + i) + digitOffset));
+        }
+        buf.append(suffix);
+        return buf.toString();
+    }
+}
@@ -1,7 +1,8 @@
 package org.congocc.templates.core;
 
 /**
- * An exception used to jump out of a macro or function
+ * An exception used to jump out of a macro or function. Like
+ * {@link BreakException}, this is a preallocated, stackless signal.
  */
 
 public class ReturnException extends RuntimeException {
@@ -9,5 +10,6 @@ public class ReturnException extends RuntimeException {
     public static final ReturnException INSTANCE = new ReturnException();
     
     private ReturnException() {
+        super(null, null, false, false);
     }
 }
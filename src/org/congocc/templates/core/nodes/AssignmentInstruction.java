@@ -98,7 +98,11 @@ public class AssignmentInstruction extends TemplateNode implements TemplateEleme
         if (key instanceof Number && (target instanceof List || target.getClass().isArray())) {
             int index = ((Number)key).intValue();
             if (target instanceof List) {
-                ((List<Object>)target).set(index, value);
+                try {
+                    ((List<Object>)target).set(index, value);
+                } catch (UnsupportedOperationException e) {
+                    throw readOnlyException(targetExp, "list", "[] + [1, 2]");
+                }
             } else try {
                 Array.set(target, index, value);
             } catch (Exception e) {
@@ -107,7 +111,11 @@ public class AssignmentInstruction extends TemplateNode implements TemplateEleme
             return;
         }
         if (target instanceof Map) {
-            ((Map<Object,Object>)target).put(key, value);
+            try {
+                ((Map<Object,Object>)target).put(key, value);
+            } catch (UnsupportedOperationException e) {
+                throw readOnlyException(targetExp, "hash", "{} + {\"a\" : 1}");
+            }
             return;
         }
         if (key instanceof String && ReflectionCode.setProperty(target, (String) key, value)) {
@@ -118,6 +126,11 @@ public class AssignmentInstruction extends TemplateNode implements TemplateEleme
         throw new EvaluationException("Could not set " + lhs);
     }
 
+    private static EvaluationException readOnlyException(Expression targetExp, String kind, String copyExample) {
+        return new EvaluationException("Cannot set an element of " + targetExp + ", which is a read-only " + kind + "."
+                + " To get a modifiable copy, you can write something like " + copyExample + ".");
+    }
+
     public String getDescription() {
     	return "assignment instruction";
     }
@@ -25,6 +25,8 @@ public class DynamicKeyName extends TemplateNode implements Expression {
         return (Expression) get(0);
     }
 
+    private final PropertyCache propertyCache = new PropertyCache();
+
     public Object evaluate(Environment env) {
         Object lhs = getTarget().evaluate(env);
         getTarget().assertNonNull(lhs, env);
@@ -84,7 +86,7 @@ public class DynamicKeyName extends TemplateNode implements Expression {
         if (lhs instanceof TemplateHashModel) {
             return wrap(((TemplateHashModel) lhs).get(key));
         }
-        return ReflectionCode.getProperty(lhs, key, getTemplate().legacySyntax()) ;
+        return propertyCache.getProperty(lhs, key, getTemplate().legacySyntax());
     }
 
     private Object dealWithRangeKey(Object target, RangeExpression range, Environment env) {
@@ -2,14 +2,12 @@ package org.congocc.templates.core.nodes;
 
 import org.congocc.templates.core.variables.EvaluationException;
 import org.congocc.templates.TemplateException;
-import org.congocc.templates.core.TemplateRunnable;
 import org.congocc.templates.core.variables.InvalidReferenceException;
 import org.congocc.templates.core.variables.scope.Scope;
 import org.congocc.templates.core.variables.scope.NamedParameterListScope;
 import org.congocc.templates.core.variables.scope.NamedParameterMapScope;
 import org.congocc.templates.core.Environment;
 import java.util.*;
-import java.io.IOException;
 import org.congocc.templates.core.nodes.generated.*;
 
 public class ParameterList extends TemplateNode {
@@ -65,18 +63,12 @@ public class ParameterList extends TemplateNode {
     }
 
     private void fillInDefaults(final Environment env, final Scope scope, final Collection<String> paramNames) {
+        Scope prevScope = env.getCurrentScope();
+        env.setCurrentScope(scope);
         try {
-            env.runInScope(scope, new TemplateRunnable<Object>() {
-
-                public Object run() throws IOException {
-                    fillInDefaultsInternal(env, scope, paramNames);
-                    return null;
-                }
-
-            }
-            );
-        } catch (IOException e) {
-            throw new TemplateException(e, env);
+            fillInDefaultsInternal(env, scope, paramNames);
+        } finally {
+            env.setCurrentScope(prevScope);
         }
     }
 
@@ -134,7 +126,7 @@ public class ParameterList extends TemplateNode {
     */
     public List<Object> getParameterSequence(final PositionalArgsList args, final Environment env) {
         final List<Object> result = new ArrayList<>(params.size());
-        int argsSize = args.size();
+        int argsSize = args.getArgExpressions().length;
         int paramsSize = params.size();
         int commonSize = Math.min(argsSize, paramsSize);
         // Set formal args that have matching actual args
@@ -154,7 +146,7 @@ public class ParameterList extends TemplateNode {
             // Create a scope that provides live access to the parameter list
             // so we can reference already defined parameters
             Scope scope = new NamedParameterListScope(env.getCurrentScope(), params, result, false);
-            fillInDefaults(env, scope, params.subList(args.size(), params.size()));
+            fillInDefaults(env, scope, params.subList(argsSize, paramsSize));
         }
         return result;
     }
@@ -202,45 +194,74 @@ public class ParameterList extends TemplateNode {
     * on the named parameter info encapsulated in this object.
     */
     public Map<String, Object> getParameterMap(final PositionalArgsList args, final Environment env, boolean ignoreExtraParams) {
-        final int argsSize = args.childrenOfType(Expression.class).size();
+        Map<String, Object> result = new HashMap<>();
+        bindArguments(args, env, result, ignoreExtraParams);
+        return result;
+    }
+
+    public Map<String, Object> getParameterMap(NamedArgsList args, Environment env) {
+        Map<String, Object> result = new HashMap<>();
+        bindArguments(args, env, result);
+        return result;
+    }
+
+    public Map<String, Object> getParameterMap(ArgsList args, Environment env) {
+        if (args instanceof NamedArgsList) {
+            return getParameterMap((NamedArgsList) args, env);
+        }
+        return getParameterMap((PositionalArgsList) args, env, false);
+    }
+
+    /**
+    * Evaluates the arguments and puts them directly into the frame 
+    * (typically the context of a macro invocation) under the names of the
+    * corresponding parameters, so there is no intermediate map to copy.
+    */
+    public void bindArguments(ArgsList args, Environment env, Map<String, Object> frame) {
+        if (args instanceof NamedArgsList) {
+            bindArguments((NamedArgsList) args, env, frame);
+        } else {
+            bindArguments((PositionalArgsList) args, env, frame, false);
+        }
+    }
+
+    public void bindArguments(PositionalArgsList args, Environment env, Map<String, Object> frame, boolean ignoreExtraParams) {
+        final Expression[] argExps = args.getArgExpressions();
+        final int argsSize = argExps.length;
         final int paramsSize = params.size();
-        final Map<String, Object> result = new HashMap<>();
         if (catchall == null && argsSize > paramsSize && !ignoreExtraParams) {
             throw new TemplateException("Expecting exactly " + paramsSize + " arguments, received " + argsSize + ".", env);
         }
         int min = Math.min(paramsSize, argsSize);
         for (int i = 0; i < min; i++) {
-            result.put(params.get(i), args.getValueAt(i, env));
+            frame.put(params.get(i), evaluateArg(argExps[i], env));
         }
         if (hasDefaultExpressions() && argsSize < paramsSize) {
             // Create a scope that provides live access to the parameter list
             // so we can reference already defined parameters
-            Scope scope = new NamedParameterMapScope(env.getCurrentScope(), result);
+            Scope scope = new NamedParameterMapScope(env.getCurrentScope(), frame);
             fillInDefaults(env, scope, params.subList(argsSize, paramsSize));
         }
         if (catchall != null) {
             List<Object> catchAllVars = new ArrayList<>();
-            result.put(catchall, catchAllVars);
+            frame.put(catchall, catchAllVars);
             for (int i = paramsSize; i < argsSize; i++) {
-                catchAllVars.add(args.getValueAt(i, env));
+                catchAllVars.add(evaluateArg(argExps[i], env));
             }
         }
-        return result;
     }
 
-    public Map<String, Object> getParameterMap(NamedArgsList args, Environment env) {
-        Map<String, Object> result = new HashMap<>();
+    public void bindArguments(NamedArgsList args, Environment env, Map<String, Object> frame) {
+        Binding binding = args.getBinding(this);
         Collection<String> unresolvedParamNames = null;
-        Map<String, Expression> argsMap = args.getCopyOfMap();
-        for (String paramName : params) {
-            Expression argExp = argsMap.remove(paramName);
+        for (int i = 0; i < binding.slots.length; i++) {
+            Expression argExp = binding.slots[i];
+            String paramName = params.get(i);
             if (argExp != null) {
-                Object value = argExp.evaluate(env);
-                argExp.assertIsDefined(value, env);
-                result.put(paramName, value);
+                frame.put(paramName, evaluateArg(argExp, env));
             } else if (defaults != null && defaults.containsKey(paramName)) {
                 if (unresolvedParamNames == null) {
-                    unresolvedParamNames = new LinkedList<String>();
+                    unresolvedParamNames = new ArrayList<String>();
                 }
                 unresolvedParamNames.add(paramName);
             } else {
@@ -250,34 +271,57 @@ public class ParameterList extends TemplateNode {
         if (unresolvedParamNames != null) {
             // Create a scope that provides live access to the parameter list
             // so we can reference already defined parameters
-            Scope scope = new NamedParameterMapScope(env.getCurrentScope(), result);
+            Scope scope = new NamedParameterMapScope(env.getCurrentScope(), frame);
             fillInDefaults(env, scope, unresolvedParamNames);
         }
-        Map catchAllMap = null;
         if (catchall != null) {
-            catchAllMap = new HashMap();
-            result.put(catchall, catchAllMap);
-        }
-        if (!argsMap.isEmpty()) {
-            if (catchall != null) {
-                for (Map.Entry<String, Expression> entry : argsMap.entrySet()) {
-                    Expression exp = entry.getValue();
-                    Object val = exp.evaluate(env);
-                    exp.assertIsDefined(val, env);
-                    catchAllMap.put(entry.getKey(), val);
-                }
-            } else {
-                throw new TemplateException("Extraneous parameters " + argsMap.keySet() + " provided.", env);
+            Map<String, Object> catchAllMap = new HashMap<>();
+            frame.put(catchall, catchAllMap);
+            for (Map.Entry<String, Expression> entry : binding.extras.entrySet()) {
+                catchAllMap.put(entry.getKey(), evaluateArg(entry.getValue(), env));
             }
+        } else if (!binding.extras.isEmpty()) {
+            throw new TemplateException("Extraneous parameters " + binding.extras.keySet() + " provided.", env);
         }
-        return result;
     }
 
-    public Map<String, Object> getParameterMap(ArgsList args, Environment env) {
-        if (args instanceof NamedArgsList) {
-            return getParameterMap((NamedArgsList) args, env);
+    private static Object evaluateArg(Expression exp, Environment env) {
+        Object value = exp.evaluate(env);
+        exp.assertIsDefined(value, env);
+        return value;
+    }
+
+    /**
+    * Creates the layout of a named argument list against this parameter list.
+    * This only depends on the two nodes, so the call site caches it.
+    */
+    public Binding bind(NamedArgsList args) {
+        Map<String, Expression> argsMap = args.getCopyOfMap();
+        Expression[] slots = new Expression[params.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = argsMap.remove(params.get(i));
+        }
+        return new Binding(this, slots, argsMap);
+    }
+
+    /**
+    * The argument expressions of a call site laid out in parameter order,
+    * plus any arguments that do not correspond to a declared parameter.
+    */
+    public static final class Binding {
+        private final ParameterList parameterList;
+        private final Expression[] slots;
+        private final Map<String, Expression> extras;
+
+        Binding(ParameterList parameterList, Expression[] slots, Map<String, Expression> extras) {
+            this.parameterList = parameterList;
+            this.slots = slots;
+            this.extras = extras;
+        }
+
+        public boolean isFor(ParameterList parameterList) {
+            return this.parameterList == parameterList;
         }
-        return getParameterMap((PositionalArgsList) args, env, false);
     }
 
 }
@@ -0,0 +1,89 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for AdditiveExpression AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import static org.congocc.templates.core.variables.Wrap.*;
+import org.congocc.templates.core.variables.EvaluationException;
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.ArithmeticEngine;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class AdditiveExpression extends TemplateNode implements Expression {
+
+    public Expression getLeft() {
+        return (Expression) get(0);
+    }
+
+    public Expression getRight() {
+        return (Expression) get(2);
+    }
+
+    public Object evaluate(Environment env) {
+        Object result = ((Expression) get(0)).evaluate(env);
+        for (int i = 0; i < size() / 2; i++) {
+            boolean isMinus = get(i * 2 + 1).getType() == MINUS;
+            if (isMinus) {
+                if (!(result instanceof Number)) {
+                    throw new EvaluationException("Expecting number here");
+                }
+                Number leftSide = (Number) result;
+                Expression rhs = (Expression) get(i * 2 + 2);
+                Object rightSide = rhs.evaluate(env);
+                if (!(rightSide instanceof Number)) {
+                    throw new EvaluationException("Expecting number at: " + rhs.getLocation());
+                }
+                ArithmeticEngine ae = env != null ? env.getArithmeticEngine() : getTemplate().getArithmeticEngine();
+                result = ae.subtract(leftSide, (Number) rightSide);
+                continue;
+            }
+            Object right = ((Expression) get(i * 2 + 2)).evaluate(env);
+            result = addOrConcatenate(env, result, right);
+        }
+        return result;
+    }
+
+    private Object addOrConcatenate(Environment env, Object left, Object right) {
+        ArithmeticEngine ae = env != null ? env.getArithmeticEngine() : getTemplate().getArithmeticEngine();
+        if (left instanceof Number && right instanceof Number) {
+            return ae.add((Number) left, (Number) right);
+        }
+        if (isList(left) && isList(right)) {
+            List leftList = asList(left);
+            List rightList = asList(right);
+            List result = new ArrayList();
+            result.addAll(leftList);
+            result.addAll(rightList);
+            return result;
+        }
+        if (isMap(left) && isMap(right)) {
+            Map leftMap = (Map) unwrap(left);
+            Map rightMap = (Map) unwrap(right);
+            Map result = new LinkedHashMap(leftMap);
+            for (Object key : rightMap.keySet()) {
+                result.put(key, rightMap.get(key));
+            }
+            return result;
+        }
+        return getLeft().getStringValue(env, left) + getRight().getStringValue(env, right);
+    }
+
+    public Expression _deepClone(String name, Expression subst) {
+        AdditiveExpression result = new AdditiveExpression();
+        for (Node n : this) {
+            if (n instanceof Expression) {
+                result.add(((Expression) n).deepClone(name, subst));
+            } else {
+                result.add(n);
+            }
+        }
+        return result;
+    }
+
+}
+
+
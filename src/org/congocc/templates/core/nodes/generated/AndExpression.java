@@ -0,0 +1,41 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for AndExpression AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class AndExpression extends TemplateNode implements Expression {
+
+    public Expression getLeft() {
+        return (Expression) get(0);
+    }
+
+    public Expression getRight() {
+        return (Expression) get(2);
+    }
+
+    public Object evaluate(Environment env) {
+        return isTrue(env);
+    }
+
+    public boolean isTrue(Environment env) {
+        return getLeft().isTrue(env) && getRight().isTrue(env);
+    }
+
+    public Expression _deepClone(String name, Expression subst) {
+        AndExpression result = new AndExpression();
+        result.add(getLeft().deepClone(name, subst));
+        result.add(get(1));
+        result.add(getRight().deepClone(name, subst));
+        return result;
+    }
+
+}
+
+
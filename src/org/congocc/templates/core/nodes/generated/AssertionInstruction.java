@@ -0,0 +1,31 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for AssertionInstruction AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.AssertionFailedException;
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class AssertionInstruction extends TemplateNode implements TemplateElement {
+
+    public void execute(Environment env) {
+        Expression exp = (Expression) get(1);
+        if (!exp.isTrue(env)) {
+            String message = "Assertion failed. Expression " + exp + " was false.";
+            if (size() > 3) {
+                String extraInfo = ((Expression) get(3)).getStringValue(env);
+                message += " ";
+                message += extraInfo;
+            }
+            throw new AssertionFailedException(env, message);
+        }
+    }
+
+}
+
+
@@ -0,0 +1,34 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for AttemptBlock AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.Environment;
+import java.io.IOException;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class AttemptBlock extends TemplateNode implements TemplateElement {
+
+    public Block getAttemptBlock() {
+        return firstChildOfType(Block.class);
+    }
+
+    public Block getRecoverBlock() {
+        return childrenOfType(Block.class).get(1);
+    }
+
+    public void execute(Environment env) throws IOException {
+        env.render(getAttemptBlock(), getRecoverBlock());
+    }
+
+    public String getDescription() {
+        return "attempt block";
+    }
+
+}
+
+
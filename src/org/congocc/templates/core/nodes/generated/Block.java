@@ -0,0 +1,51 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for Block AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.Environment;
+import java.io.IOException;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class Block extends TemplateNode implements TemplateElement {
+    // The scoped variables defined in this element.
+    private HashSet<String> declaredVariables;
+
+    public boolean declaresVariable(String name) {
+        return declaredVariables != null && declaredVariables.contains(name);
+    }
+
+    public void declareVariable(String varName) {
+        if (declaredVariables == null) declaredVariables = new HashSet<String>();
+        declaredVariables.add(varName);
+    }
+
+    public final boolean createsScope() {
+        return declaredVariables != null && !declaredVariables.isEmpty();
+    }
+
+    public void execute(Environment env) throws IOException {
+        for (TemplateElement element : childrenOfType(TemplateElement.class)) {
+            env.render(element);
+        }
+    }
+
+    public boolean isTemplateRoot() {
+        return getParent() == null;
+    }
+
+    public String getDescription() {
+        if (getParent() == null) {
+            return "root element";
+        }
+        return "content";
+        // Block is uninteresting in a stack trace.
+    }
+
+}
+
+
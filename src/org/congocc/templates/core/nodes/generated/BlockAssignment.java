@@ -0,0 +1,88 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for BlockAssignment AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.nodes.AssignmentInstruction;
+import org.congocc.templates.core.variables.UserDirective;
+import org.congocc.templates.core.variables.UserDirectiveBody;
+import org.congocc.templates.core.variables.InvalidReferenceException;
+import org.congocc.templates.core.Environment;
+import java.io.Writer;
+import java.io.StringWriter;
+import java.io.IOException;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class BlockAssignment extends TemplateNode implements TemplateElement {
+
+    public Expression getTargetExpression() {
+        return (Expression) get(1);
+    }
+
+    public Expression getNamespaceExp() {
+        Node inToken = firstChildOfType(IN);
+        if (inToken != null) {
+            return (Expression) inToken.nextSibling();
+        }
+        return null;
+    }
+
+    public void execute(Environment env) throws IOException {
+        Map scope = null;
+        Expression namespaceExp = getNamespaceExp();
+        if (namespaceExp != null) {
+            try {
+                scope = (Map) namespaceExp.evaluate(env);
+            } catch (ClassCastException cce) {
+                throw new InvalidReferenceException(getLocation() + "\nInvalid reference to namespace: " + namespaceExp, env);
+            }
+        } else {
+            if (get(0).getType() == ASSIGN) {
+                scope = env.getCurrentNamespace();
+            } else if (get(0).getType() == LOCALASSIGN) {
+                scope = env.getCurrentMacroContext();
+            } else if (get(0).getType() == GLOBALASSIGN) {
+                //scope = env.getGlobalNamespace();
+                scope = env;
+            }
+        }
+        CaptureOutput filter = new CaptureOutput();
+        if (firstChildOfType(Block.class) != null) {
+            env.render(firstChildOfType(Block.class), filter, null, null);
+        }
+        String text = filter.capturedText;
+        AssignmentInstruction.set(getTargetExpression(), text, env, scope);
+    }
+
+
+    private static class CaptureOutput implements UserDirective {
+        String capturedText = "";
+
+        public void execute(Environment env, Map<String, Object> args, Object[] bodyVars, UserDirectiveBody body) throws IOException {
+            body.render(getWriter(env.getOut(), args));
+        }
+
+        public Writer getWriter(Writer out, Map<String, Object> args) {
+            return new StringWriter() {
+
+                public void flush() {
+                    capturedText = this.toString();
+                }
+
+            };
+        }
+
+    }
+
+
+    public String getDescription() {
+        return "block assignment to: " + getTargetExpression();
+    }
+
+}
+
+
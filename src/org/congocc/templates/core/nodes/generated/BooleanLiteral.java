@@ -0,0 +1,29 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for BooleanLiteral Token subclass
+* by the ASTToken.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.variables.*;
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.parser.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class BooleanLiteral extends Literal implements Expression {
+
+    public boolean isTrue(Environment env) {
+        return getType() == TRUE;
+    }
+
+    public Boolean evaluate(Environment env) {
+        return isTrue(env);
+    }
+
+    public BooleanLiteral(TokenType type, CTemplatesLexer tokenSource, int beginOffset, int endOffset) {
+        super(type, tokenSource, beginOffset, endOffset);
+    }
+
+}
+
+
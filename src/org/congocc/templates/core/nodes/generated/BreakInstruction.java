@@ -0,0 +1,26 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for BreakInstruction AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.BreakException;
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class BreakInstruction extends TemplateNode implements TemplateElement {
+
+    public void execute(Environment env) {
+        throw BreakException.INSTANCE;
+    }
+
+    public String getDescription() {
+        return "break" + " [" + getLocation() + "]";
+    }
+
+}
+
+
@@ -0,0 +1,156 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for BuiltInExpression AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import static org.congocc.templates.core.variables.Wrap.asString;
+import org.congocc.templates.core.variables.JavaMethodCall;
+import org.congocc.templates.builtins.*;
+import org.congocc.templates.core.Environment;
+import java.util.regex.Pattern;
+import java.util.HashMap;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class BuiltInExpression extends TemplateNode implements Expression {
+    private static final HashMap<String, BuiltIn> knownBuiltins = new HashMap<String, BuiltIn>();
+    {
+        knownBuiltins.put("source", (env, caller) -> caller.getTarget().getSource());
+        knownBuiltins.put("upper_case", (env, caller) -> asString(caller.getTarget().evaluate(env)).toUpperCase(env.getLocale()));
+        knownBuiltins.put("lower_case", (env, caller) -> asString(caller.getTarget().evaluate(env)).toLowerCase(env.getLocale()));
+        knownBuiltins.put("length", (env, caller) -> asString(caller.getTarget().evaluate(env)).length());
+        knownBuiltins.put("trim", (env, caller) -> asString(caller.getTarget().evaluate(env)).trim());
+        knownBuiltins.put("substring", (env, caller) -> new JavaMethodCall(asString(caller.getTarget().evaluate(env)), "substring"));
+        knownBuiltins.put("instanceof", new instanceofBI());
+        knownBuiltins.put("exists", new ExistenceBuiltIn.ExistsBuiltIn());
+        knownBuiltins.put("c", new cBI());
+        knownBuiltins.put("size", new sizeBI());
+        knownBuiltins.put("string", new stringBI());
+        knownBuiltins.put("eval", new evalBI());
+        knownBuiltins.put("interpret", new interpretBI());
+        knownBuiltins.put("resolve", new resolveBI());
+        NumericalCast numericalCast = new NumericalCast();
+        knownBuiltins.put("byte", numericalCast);
+        knownBuiltins.put("double", numericalCast);
+        knownBuiltins.put("float", numericalCast);
+        knownBuiltins.put("int", numericalCast);
+        knownBuiltins.put("long", numericalCast);
+        knownBuiltins.put("short", numericalCast);
+        knownBuiltins.put("floor", numericalCast);
+        knownBuiltins.put("ceiling", numericalCast);
+        knownBuiltins.put("round", numericalCast);
+        knownBuiltins.put("capitalize", new StringTransformations.Capitalize());
+        knownBuiltins.put("cap_first", new StringTransformations.CapFirst(true));
+        knownBuiltins.put("uncap_first", new StringTransformations.CapFirst(false));
+        knownBuiltins.put("j_string", new StringTransformations.Java());
+        knownBuiltins.put("js_string", new StringTransformations.JavaScript());
+        knownBuiltins.put("json_string", new StringTransformations.Json());
+        knownBuiltins.put("chop_linebreak", new StringTransformations.Chomp());
+        knownBuiltins.put("html", new StringTransformations.Html());
+        knownBuiltins.put("rtf", new StringTransformations.Rtf());
+        knownBuiltins.put("xml", new StringTransformations.Xml());
+        knownBuiltins.put("xhtml", new StringTransformations.Xhtml());
+        knownBuiltins.put("web_safe", knownBuiltins.get("html"));
+        TypeChecks typeChecks = new TypeChecks();
+        knownBuiltins.put("is_boolean", typeChecks);
+        knownBuiltins.put("is_collection", typeChecks);
+        knownBuiltins.put("is_enumerable", typeChecks);
+        knownBuiltins.put("is_hash", typeChecks);
+        knownBuiltins.put("is_hash_ex", typeChecks);
+        knownBuiltins.put("is_indexable", typeChecks);
+        knownBuiltins.put("is_directive", typeChecks);
+        knownBuiltins.put("is_method", typeChecks);
+        knownBuiltins.put("is_null", typeChecks);
+        knownBuiltins.put("is_number", typeChecks);
+        knownBuiltins.put("is_macro", typeChecks);
+        knownBuiltins.put("is_sequence", typeChecks);
+        knownBuiltins.put("is_string", typeChecks);
+        knownBuiltins.put("is_transform", typeChecks);
+        knownBuiltins.put("join", new StringFunctions.Join());
+        knownBuiltins.put("index_of", new StringFunctions.IndexOf());
+        knownBuiltins.put("last_index_of", new StringFunctions.LastIndexOf());
+        knownBuiltins.put("contains", new StringFunctions.Contains());
+        knownBuiltins.put("number", new numberBI());
+        knownBuiltins.put("left_pad", new StringFunctions.LeftPad());
+        knownBuiltins.put("right_pad", new StringFunctions.RightPad());
+        knownBuiltins.put("replace", new StringFunctions.Replace());
+        knownBuiltins.put("split", new StringFunctions.Split());
+        knownBuiltins.put("groups", new groupsBI());
+        knownBuiltins.put("matches", new StringFunctions.Matches());
+        knownBuiltins.put("starts_with", new StringFunctions.StartsWith());
+        knownBuiltins.put("ends_with", new StringFunctions.EndsWith());
+        knownBuiltins.put("word_list", new StringFunctions.WordList());
+        knownBuiltins.put("url", new StringFunctions.Url());
+        knownBuiltins.put("first", new SequenceFunctions.First());
+        knownBuiltins.put("last", new SequenceFunctions.Last());
+        knownBuiltins.put("reverse", new SequenceFunctions.Reverse());
+        knownBuiltins.put("sort", new SequenceFunctions.Sort());
+        knownBuiltins.put("chunk", new SequenceFunctions.Chunk());
+        knownBuiltins.put("seq_contains", new SequenceContainsBuiltIn());
+        knownBuiltins.put("scope", new MacroBuiltins.Scope());
+        knownBuiltins.put("namespace", new MacroBuiltins.Namespace());
+        knownBuiltins.put("keys", new HashBuiltin.Keys());
+        knownBuiltins.put("values", new HashBuiltin.Values());
+        knownBuiltins.put("is_defined", new ExistenceBuiltIn.IsDefinedBuiltIn());
+        knownBuiltins.put("default", new ExistenceBuiltIn.DefaultBuiltIn());
+        knownBuiltins.put("has_content", new ExistenceBuiltIn.HasContentBuiltIn());
+    }
+    private String key;
+    private BuiltIn bi;
+    // For ?replace and ?matches called with literal arguments,
+    // the regular expression, compiled when the template is parsed.
+    private Pattern linkedPattern;
+
+    public void close() {
+        key = getKeyTok().toString().intern();
+        bi = knownBuiltins.get(key);
+        if (bi == null) {
+            throw new ParseException("unknown builtin: ?" + key + " at " + getKeyTok().getLocation());
+        }
+    }
+
+    public Expression getTarget() {
+        return (Expression) get(0);
+    }
+
+    public Token getKeyTok() {
+        return (Token) get(2);
+    }
+
+    public BuiltIn getBuiltIn() {
+        return bi;
+    }
+
+    public Object evaluate(Environment env) {
+        return bi.get(env, this);
+    }
+
+    public String getName() {
+        return key;
+    }
+
+    public Pattern getLinkedPattern() {
+        return linkedPattern;
+    }
+
+    public void setLinkedPattern(Pattern linkedPattern) {
+        this.linkedPattern = linkedPattern;
+    }
+
+    public Expression _deepClone(String name, Expression subst) {
+        BuiltInExpression result = new BuiltInExpression();
+        result.add(getTarget().deepClone(name, subst));
+        result.add(get(1));
+        result.add(getKeyTok());
+        result.key = key;
+        result.bi = bi;
+        result.linkedPattern = linkedPattern;
+        return result;
+    }
+
+}
+
+
@@ -0,0 +1,84 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for BuiltinVariable AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.TemplateHashModel;
+import org.congocc.templates.TemplateException;
+import org.congocc.templates.Configuration;
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.variables.*;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class BuiltinVariable extends TemplateNode implements Expression {
+    private String name;
+
+    public void setName(String name) {
+        this.name = name.intern();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Object evaluate(Environment env) {
+        switch(name) {
+            case "namespace" : 
+                return env.getCurrentNamespace();
+            case "main" : 
+                return env.getMainNamespace();
+            case "globals" : 
+                return env;
+            case "locals" : 
+                return env.getCurrentMacroContext();
+            case "data_model" : 
+                return env.getDataModel();
+            case "scope" : 
+                return env.getCurrentScope();
+            case "vars" : 
+                return new VarsHash(env);
+            case "locale" : 
+                return env.getLocale().toString();
+            case "lang" : 
+                return env.getLocale().getLanguage();
+            case "pass" : 
+                return Macro.DO_NOTHING_MACRO;
+            case "name" : 
+                return env.getTemplate().getName();
+            case "version" : 
+                return Configuration.getVersionNumber();
+            case "output_encoding" : 
+                return env.getOutputEncoding();
+            case "url_escaping_charset" : 
+                return env.getURLEscapingCharset();
+            case "error" : 
+                return env.getCurrentRecoveredErrorMessage();
+        }
+        throw new TemplateException("Invalid built-in variable: " + this, env);
+    }
+
+
+    static class VarsHash implements TemplateHashModel {
+        private final Environment env;
+
+        VarsHash(Environment env) {
+            this.env = env;
+        }
+
+        public Object get(String key) {
+            return env.getVariable(key);
+        }
+
+        public boolean isEmpty() {
+            return false;
+        }
+
+    }
+
+}
+
+
@@ -0,0 +1,30 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for ConditionalBlock AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.Environment;
+import java.io.IOException;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class ConditionalBlock extends TemplateNode implements TemplateElement {
+
+    public Expression getCondition() {
+        return firstChildOfType(Expression.class);
+    }
+
+    public void execute(Environment env) throws IOException {
+        env.render(firstChildOfType(Block.class));
+    }
+
+    public String getDescription() {
+        return get(0).toString() + " block";
+    }
+
+}
+
+
@@ -0,0 +1,52 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for DefaultToExpression AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import static org.congocc.templates.core.variables.Wrap.JAVA_NULL;
+import static org.congocc.templates.core.variables.Wrap.NOTHING;
+import org.congocc.templates.core.variables.*;
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class DefaultToExpression extends TemplateNode implements Expression {
+
+    public Expression getLeft() {
+        return (Expression) get(0);
+    }
+
+    public Expression getRight() {
+        return childrenOfType(Expression.class).size() == 2 ? (Expression) getLastChild() : null;
+    }
+
+    public Object evaluate(Environment env) {
+        Object left = null;
+        try {
+            left = getLeft().evaluate(env);
+        } catch (InvalidReferenceException ire) {
+            if (!(getLeft() instanceof ParentheticalExpression)) {
+                throw ire;
+            }
+        }
+        if (left != null && left != JAVA_NULL) return left;
+        if (getRight() == null) return NOTHING;
+        return getRight().evaluate(env);
+    }
+
+    public Expression _deepClone(String name, Expression subst) {
+        DefaultToExpression result = new DefaultToExpression();
+        result.add(getLeft().deepClone(name, subst));
+        result.add(get(1));
+        if (getRight() != null) {
+            result.add(getRight().deepClone(name, subst));
+        }
+        return result;
+    }
+
+}
+
+
@@ -0,0 +1,19 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for DirectiveName Token subclass
+* by the ASTToken.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.parser.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class DirectiveName extends Token {
+
+    public DirectiveName(TokenType type, CTemplatesLexer tokenSource, int beginOffset, int endOffset) {
+        super(type, tokenSource, beginOffset, endOffset);
+    }
+
+}
+
+
@@ -0,0 +1,63 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for DotVariable AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import static org.congocc.templates.core.variables.Wrap.JAVA_NULL;
+import static org.congocc.templates.core.variables.Wrap.wrap;
+import org.congocc.templates.TemplateHashModel;
+import org.congocc.templates.core.variables.*;
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class DotVariable extends TemplateNode implements Expression {
+
+    public Expression getTarget() {
+        return (Expression) get(0);
+    }
+
+    public String getKey() {
+        return get(2).toString();
+    }
+
+    public boolean isAssignableTo() {
+        return true;
+    }
+
+    private final PropertyCache propertyCache = new PropertyCache();
+
+    public Object evaluate(Environment env) {
+        Object lhs = getTarget().evaluate(env);
+        assertNonNull(lhs, env);
+        if (lhs instanceof Map) {
+            Object key = getKey();
+            Object value = ((Map) lhs).get(key);
+            if (value == null) {
+                return ((Map) lhs).containsKey(key) ? JAVA_NULL : null;
+            }
+            return wrap(value);
+        }
+        if (lhs instanceof TemplateHashModel) {
+            return wrap(((TemplateHashModel) lhs).get(getKey()));
+        }
+        return propertyCache.getProperty(lhs, getKey(), getTemplate().legacySyntax());
+    }
+
+    public Expression _deepClone(String name, Expression subst) {
+        Expression clonedTarget = getTarget().deepClone(name, subst);
+        Token op = (Token) get(1);
+        Token key = (Token) get(2);
+        Expression result = new DotVariable();
+        result.add(clonedTarget);
+        result.add(op);
+        result.add(key);
+        return result;
+    }
+
+}
+
+
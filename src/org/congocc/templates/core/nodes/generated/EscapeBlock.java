@@ -0,0 +1,57 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for EscapeBlock AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.*;
+import org.congocc.templates.core.Environment;
+import java.io.IOException;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class EscapeBlock extends TemplateNode implements TemplateElement {
+    private Expression escapedExpression;
+
+    public Expression getExpression() {
+        return (Expression) get(3);
+    }
+
+    public String getVariable() {
+        return get(1).toString();
+    }
+
+    public Expression getEscapedExpression() {
+        return escapedExpression == null ? getExpression() : escapedExpression;
+    }
+
+    /**
+    * This is only used internally.
+    */
+    public void setEscapedExpression(Expression escapedExpression) {
+        this.escapedExpression = escapedExpression;
+    }
+
+    public void setContent(TemplateElement nestedBlock) {
+        this.add(nestedBlock);
+    }
+
+    public void execute(Environment env) throws IOException {
+        if (firstChildOfType(TemplateElement.class) != null) {
+            env.render(firstChildOfType(TemplateElement.class));
+        }
+    }
+
+    public Expression doEscape(Expression subst) {
+        return getEscapedExpression().deepClone(getVariable(), subst);
+    }
+
+    public String getDescription() {
+        return "escape " + getVariable() + " as " + getEscapedExpression();
+    }
+
+}
+
+
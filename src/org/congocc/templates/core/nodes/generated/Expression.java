@@ -0,0 +1,96 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for Expression AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import static org.congocc.templates.core.variables.Wrap.*;
+import java.lang.reflect.Array;
+import org.congocc.templates.TemplateSequenceModel;
+import org.congocc.templates.core.variables.InvalidReferenceException;
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+
+
+public interface Expression extends Node {
+
+    public abstract Object evaluate(Environment env);
+
+    default String getDescription() {
+        return "the expression: " + this;
+    }
+
+    default boolean isAssignableTo() {
+        return false;
+    }
+
+    default String getStringValue(Environment env) {
+        return getStringValue(env, evaluate(env));
+    }
+
+    default String getStringValue(Environment env, Object referent) {
+        assertNonNull(referent, env);
+        if (referent instanceof Number) {
+            return env.formatNumber((Number) referent);
+        }
+        if (referent instanceof CharSequence) {
+            return asString(referent);
+        }
+        if (isDate(referent)) {
+            return env.formatDate(referent);
+        }
+        return referent.toString();
+    }
+
+    default Expression _deepClone(String name, Expression subst) {
+        return this;
+    }
+
+    default Expression deepClone(String name, Expression subst) {
+        Expression clone = _deepClone(name, subst);
+        clone.copyLocationFrom(this);
+        clone.setParent(this.getParent());
+        return clone;
+    }
+
+    default void assertNonNull(Object value, Environment env) {
+        assertIsDefined(value, env);
+        if (value == JAVA_NULL) {
+            throw new InvalidReferenceException("Expression " + this + " is null " + getLocation() + ".", env);
+        }
+    }
+
+    default void assertIsDefined(Object value, Environment env) {
+        if (value == null) {
+            throw new InvalidReferenceException("Expression " + this + " is undefined " + getLocation() + ".", env);
+        }
+    }
+
+    default boolean isTrue(Environment env) {
+        Object referent = evaluate(env);
+        assertIsDefined(referent, env);
+        if (referent == JAVA_NULL) {
+            return false;
+        }
+        if (isBoolean(referent)) {
+            return asBoolean(referent);
+        }
+        if (referent instanceof Collection) {
+            return !((Collection) referent).isEmpty();
+        }
+        if (referent instanceof Map) {
+            return !((Map) referent).isEmpty();
+        }
+        if (referent.getClass().isArray()) {
+            return Array.getLength(referent) > 0;
+        }
+        if (referent instanceof TemplateSequenceModel) {
+            return ((TemplateSequenceModel) referent).size() > 0;
+        }
+        return referent.toString().length() > 0;
+    }
+
+}
+
+
@@ -0,0 +1,76 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for HashLiteral AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.variables.*;
+import org.congocc.templates.core.Environment;
+import java.util.*;
+import org.congocc.templates.core.parser.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class HashLiteral extends TemplateNode implements Expression {
+    private List<Expression> keys = new ArrayList<>();
+    private List<Expression> values = new ArrayList<>();
+    // If all the keys and values are constant strings or numbers, the map, built once
+    private Map<Object, Object> constantValue;
+    // Whether the map is only read where it is used, so the above can be
+    // returned as is, rather than a copy that the template may modify
+    private boolean readOnlyUse;
+
+    public void close() {
+        boolean justSawKey = false;
+        for (Expression exp : childrenOfType(Expression.class)) {
+            if (justSawKey) values.add(exp);
+            else keys.add(exp);
+            justSawKey = !justSawKey;
+        }
+        assert keys.size() == values.size() : getSource();
+    }
+
+    /**
+    * This is only used internally.
+    */
+    public void setConstantValue(Map<Object, Object> constantValue, boolean readOnlyUse) {
+        this.constantValue = constantValue;
+        this.readOnlyUse = readOnlyUse;
+    }
+
+    public Object evaluate(Environment env) {
+        if (constantValue != null) {
+            return readOnlyUse ? constantValue : new LinkedHashMap<>(constantValue);
+        }
+        Map<Object, Object> result = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            Object key = keys.get(i).evaluate(env);
+            Object value = values.get(i).evaluate(env);
+            result.put(key, value);
+        }
+        return result;
+    }
+
+    public List<Expression> getKeys() {
+        return Collections.unmodifiableList(keys);
+    }
+
+    public List<Expression> getValues() {
+        return Collections.unmodifiableList(values);
+    }
+
+    public Expression _deepClone(String name, Expression subst) {
+        HashLiteral result = new HashLiteral();
+        for (int i = 0; i < keys.size(); i++) {
+            Expression keyClone = keys.get(i).deepClone(name, subst);
+            Expression valueClone = values.get(i).deepClone(name, subst);
+            result.keys.add(keyClone);
+            result.values.add(valueClone);
+        }
+        result.close();
+        return result;
+    }
+
+}
+
+
@@ -0,0 +1,41 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for Identifier Token subclass
+* by the ASTToken.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.TemplateException;
+import org.congocc.templates.core.parser.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class Identifier extends Token implements Expression {
+
+    public Object evaluate(Environment env) {
+        if (env == null) {
+            throw new TemplateException("Variables are not available " + "(certainly you are in a parse-time executed directive). The name of the variable " + "you tried to read: " + this, null);
+        }
+        return env.getVariable(toString());
+    }
+
+    public Expression deepClone(String name, Expression subst) {
+        if (this.toString().equals(name)) {
+            // Not Expression.deepClone(), which would give the
+            // substituted expression the location of this one
+            return subst.deepClone(null, null);
+        }
+        return this;
+    }
+
+    public boolean isAssignableTo() {
+        return true;
+    }
+
+    public Identifier(TokenType type, CTemplatesLexer tokenSource, int beginOffset, int endOffset) {
+        super(type, tokenSource, beginOffset, endOffset);
+    }
+
+}
+
+
@@ -0,0 +1,34 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for IfBlock AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.Environment;
+import java.io.IOException;
+import java.util.*;
+import org.congocc.templates.core.parser.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class IfBlock extends TemplateNode implements TemplateElement {
+
+    public void execute(Environment env) throws IOException {
+        for (ConditionalBlock cblock : childrenOfType(ConditionalBlock.class)) {
+            Expression condition = cblock.getCondition();
+            if (condition == null || condition.isTrue(env)) {
+                if (cblock.firstChildOfType(Block.class) != null) {
+                    env.render(cblock);
+                }
+                return;
+            }
+        }
+    }
+
+    public String getDescription() {
+        return "if-else ";
+    }
+
+}
+
+
@@ -0,0 +1,90 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for IncludeInstruction AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import static org.congocc.templates.core.variables.Wrap.*;
+import org.congocc.templates.core.parser.ParseException;
+import org.congocc.templates.core.variables.InvalidReferenceException;
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.utility.StringUtil;
+import org.congocc.templates.*;
+import java.io.IOException;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class IncludeInstruction extends TemplateNode implements TemplateElement {
+    private Template template;
+
+    //Inserted getter for template
+    public Template getTemplate() {
+        return template;
+    }
+
+    //Inserted setter for template
+    public void setTemplate(Template template) {
+        this.template = template;
+    }
+
+    public boolean useFreshNamespace() {
+        return get(0).getType() == EMBED;
+    }
+
+    public Expression getParamByName(String name) {
+        for (Node n : this) {
+            if (n instanceof Identifier && n.toString().equalsIgnoreCase(name)) {
+                return (Expression) n.nextSibling().nextSibling();
+            }
+        }
+        return null;
+    }
+
+    public void execute(Environment env) throws IOException {
+        String templateNameString = ((Expression) get(1)).getStringValue(env);
+        if (templateNameString == null) {
+            String msg = "Error " + getLocation() + "The expression " + get(1) + " is undefined.";
+            throw new InvalidReferenceException(msg, env);
+        }
+        String encoding = null;
+        Expression encodingExp = getParamByName("encoding");
+        if (encodingExp != null) {
+            encoding = encodingExp.getStringValue(env);
+        }
+        boolean parse = true;
+        Expression parseExp = getParamByName("parse");
+        if (parseExp != null) {
+            Object tm = parseExp.evaluate(env);
+            parseExp.assertNonNull(tm, env);
+            if (tm instanceof CharSequence) {
+                parse = StringUtil.getYesNo(asString(tm));
+            } else {
+                parse = parseExp.isTrue(env);
+            }
+        }
+        Template includedTemplate;
+        String templatePath = "";
+        if (template != null) {
+            String templatePath1 = template.getName();
+            int lastSlash = templatePath1.lastIndexOf('/');
+            templatePath = lastSlash == -1 ? "" : templatePath1.substring(0, lastSlash + 1);
+        }
+        try {
+            //REVISIT
+            //            templateNameString = TemplateCache.getFullTemplatePath(env, templatePath, templateNameString);
+            includedTemplate = env.getTemplateForInclusion(templateNameString, encoding, parse);
+        } catch (ParseException pe) {
+            String msg = "Error parsing included template " + templateNameString + "\n" + pe.getMessage();
+            throw new TemplateException(msg, pe, env);
+        } catch (IOException ioe) {
+            String msg = "Error reading included file " + templateNameString;
+            throw new TemplateException(msg, ioe, env);
+        }
+        env.include(includedTemplate, useFreshNamespace());
+    }
+
+}
+
+
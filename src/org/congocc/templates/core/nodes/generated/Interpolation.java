@@ -0,0 +1,110 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for Interpolation AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.utility.Escaper;
+import org.congocc.templates.core.Environment;
+import java.io.Writer;
+import java.io.IOException;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class Interpolation extends TemplateNode implements TemplateElement {
+    private Expression escapedExpression;
+    // This will be the same as the expression if we are not within an escape block.
+    // If the escaping boils down to an escaping built-in, like x?html,
+    // the expression it is applied to, and the equivalent output stage.
+    private Expression streamedExpression;
+    private Escaper escaper;
+    // Whether the output format (HTML, XML...) determines the escaping
+    private boolean autoEscape;
+    // The output, worked out when the template is parsed, if it is constant
+    private String constantOutput;
+
+    public boolean isNoEscapeSet() {
+        return ((Token) get(0)).charAt(1) == '\\';
+    }
+
+    public void setEscapedExpression(Expression escapedExpression) {
+        this.escapedExpression = escapedExpression;
+    }
+
+    public Expression getEscapedExpression() {
+        if (escapedExpression == null || isNoEscapeSet()) return getExpression();
+        return this.escapedExpression;
+    }
+
+    /**
+    * This is only used internally.
+    */
+    public void setEscaper(Expression streamedExpression, Escaper escaper) {
+        this.streamedExpression = streamedExpression;
+        this.escaper = escaper;
+    }
+
+    /**
+    * This is only used internally.
+    */
+    public void setAutoEscape(boolean autoEscape) {
+        this.autoEscape = autoEscape;
+    }
+
+    public boolean isAutoEscape() {
+        return autoEscape;
+    }
+
+    /**
+    * This is only used internally.
+    */
+    public void setConstantOutput(String constantOutput) {
+        this.constantOutput = constantOutput;
+    }
+
+    public String getConstantOutput() {
+        return constantOutput;
+    }
+
+    public Expression getExpression() {
+        return firstChildOfType(Expression.class);
+    }
+
+    /**
+    * Outputs the string value of the enclosed expression.
+    */
+    public void execute(Environment env) throws IOException {
+        Writer out = env.getOut();
+        if (constantOutput != null) {
+            Escaper autoEscaper = autoEscape ? Escaper.forOutputFormat(env.getOutputFormat()) : null;
+            if (autoEscaper != null) {
+                autoEscaper.escape(constantOutput, out);
+            } else {
+                out.write(constantOutput);
+            }
+            return;
+        }
+        if (escaper != null) {
+            escaper.escape(streamedExpression.getStringValue(env), out);
+            return;
+        }
+        Expression exp = getEscapedExpression();
+        if (autoEscape) {
+            Escaper autoEscaper = Escaper.forOutputFormat(env.getOutputFormat());
+            if (autoEscaper != null) {
+                autoEscaper.escape(exp.getStringValue(env), out);
+                return;
+            }
+        }
+        out.write(exp.getStringValue(env));
+    }
+
+    public String getDescription() {
+        return this.getSource() + (getExpression() == escapedExpression || isNoEscapeSet() ? "" : " escaped ${" + escapedExpression.getDescription() + "}");
+    }
+
+}
+
+
@@ -0,0 +1,64 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for IteratorBlock AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import static org.congocc.templates.core.variables.Wrap.asIterator;
+import static org.congocc.templates.core.variables.Wrap.isIterable;
+import org.congocc.templates.TemplateHashModel;
+import org.congocc.templates.core.variables.*;
+import org.congocc.templates.core.*;
+import java.io.IOException;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class IteratorBlock extends TemplateNode implements TemplateElement {
+
+    public boolean isForeach() {
+        return get(0).getType() == FOREACH;
+    }
+
+    public boolean isOverMap() {
+        return firstChildOfType(COMMA) != null;
+    }
+
+    public String getIndexName() {
+        return isForeach() ? get(1).toString() : get(3).toString();
+    }
+
+    public String getValueVarName() {
+        Node comma = firstChildOfType(COMMA);
+        return comma == null ? null : comma.nextSibling().toString();
+    }
+
+    public Expression getListExpression() {
+        if (!isForeach()) return (Expression) get(1);
+        return isOverMap() ? (Expression) get(5) : (Expression) get(3);
+    }
+
+    public void execute(Environment env) throws IOException {
+        Object listVar = getListExpression().evaluate(env);
+        getListExpression().assertNonNull(listVar, env);
+        if (!isOverMap()) {
+            if (!isIterable(listVar)) {
+                throw TemplateNode.invalidTypeException(listVar, getListExpression(), env, "collection or sequence");
+            }
+            env.process(asIterator(listVar), getNestedBlock(), getIndexName());
+        } else if (listVar instanceof Map || listVar instanceof TemplateHashModel) {
+            env.process(listVar, getNestedBlock(), getIndexName(), getValueVarName());
+        } else {
+            String message = "Expecting map or hash, at " + getListExpression().getLocation();
+            throw new EvaluationException(message);
+        }
+    }
+
+    public String getDescription() {
+        return isForeach() ? "foreach " + getIndexName() + (getValueVarName() == null ? "" : "," + getValueVarName()) + " in " + getListExpression() : "list " + getListExpression() + " as " + getIndexName() + (getValueVarName() == null ? "" : "," + getValueVarName());
+    }
+
+}
+
+
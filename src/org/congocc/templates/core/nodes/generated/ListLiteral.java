@@ -0,0 +1,82 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for ListLiteral AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.variables.scope.Scope;
+import org.congocc.templates.TemplateException;
+import org.congocc.templates.core.Environment;
+import java.util.List;
+import java.util.ArrayList;
+import java.io.IOException;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class ListLiteral extends TemplateNode implements Expression {
+    // If all the elements are constant strings or numbers, the list, built once
+    private List<Object> constantValue;
+    // Whether the list is only read where it is used, so the above can be
+    // returned as is, rather than a copy that the template may modify
+    private boolean readOnlyUse;
+
+    public List<Expression> getElements() {
+        return childrenOfType(Expression.class);
+    }
+
+    /**
+    * This is only used internally.
+    */
+    public void setConstantValue(List<Object> constantValue, boolean readOnlyUse) {
+        this.constantValue = constantValue;
+        this.readOnlyUse = readOnlyUse;
+    }
+
+    public Object evaluate(Environment env) {
+        if (constantValue != null) {
+            return readOnlyUse ? constantValue : new ArrayList<>(constantValue);
+        }
+        List<Object> result = new ArrayList<>();
+        for (Expression exp : getElements()) {
+            Object tm = exp.evaluate(env);
+            assertIsDefined(tm, env);
+            result.add(tm);
+        }
+        return result;
+    }
+
+    // A hacky routine used by VisitNode and RecurseNode
+    public List evaluateStringsToNamespaces(Environment env) {
+        List result = new ArrayList();
+        for (Expression exp : getElements()) {
+            if (exp instanceof StringLiteral) {
+                String s = ((StringLiteral) exp).getAsString();
+                try {
+                    Scope ns = env.importLib(s, null);
+                    result.add(ns);
+                } catch (IOException ioe) {
+                    throw new TemplateException("Could not import library '" + s + "', " + ioe.getMessage(), env);
+                }
+            } else {
+                result.add(exp);
+            }
+        }
+        return result;
+    }
+
+    public Expression _deepClone(String name, Expression subst) {
+        ListLiteral result = new ListLiteral();
+        for (Node node : this) {
+            if (node instanceof Expression) {
+                node = ((Expression) node).deepClone(name, subst);
+            }
+            result.add(node);
+        }
+        return result;
+    }
+
+}
+
+
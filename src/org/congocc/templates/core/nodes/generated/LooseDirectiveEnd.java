@@ -0,0 +1,15 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for LooseDirectiveEnd AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class LooseDirectiveEnd extends TemplateNode {
+}
+
+
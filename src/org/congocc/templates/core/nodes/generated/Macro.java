@@ -0,0 +1,76 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for Macro AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.variables.WrappedVariable;
+import org.congocc.templates.core.nodes.ParameterList;
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class Macro extends TemplateNode implements TemplateElement, WrappedVariable {
+    static public final Macro DO_NOTHING_MACRO = new Macro();
+    static {
+        DO_NOTHING_MACRO.add(new Block());
+    }
+    private boolean linkTarget;
+
+    /**
+    * @return whether some call site was bound to this macro at parse time,
+    * see UnifiedCall#getLinkedMacro()
+    */
+    public boolean isLinkTarget() {
+        return linkTarget;
+    }
+
+    /**
+    * This is only used internally.
+    */
+    public void setLinkTarget(boolean linkTarget) {
+        this.linkTarget = linkTarget;
+    }
+
+    public boolean isFunction() {
+        return get(0).getType() == FUNCTION;
+    }
+
+    public String getName() {
+        if (this == DO_NOTHING_MACRO) {
+            return ".pass";
+        }
+        if (get(1) instanceof Identifier) {
+            return get(1).toString();
+        }
+        return ((StringLiteral) get(1)).getAsString();
+    }
+
+    public ParameterList getParams() {
+        return firstChildOfType(ParameterList.class);
+    }
+
+    public void close() {
+        ParameterList params = getParams();
+        for (String paramName : params.getParams()) {
+            getNestedBlock().declareVariable(paramName);
+        }
+        String catchallVar = params.getCatchAll();
+        if (catchallVar != null) {
+            getNestedBlock().declareVariable(catchallVar);
+        }
+    }
+
+    public void execute(Environment env) {
+        env.visitMacroDef(this);
+    }
+
+    public String getDescription() {
+        return (isFunction() ? "function " : "macro ") + getName();
+    }
+
+}
+
+
@@ -0,0 +1,134 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for MethodCall AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import static org.congocc.templates.core.variables.Wrap.unwrap;
+import static org.congocc.templates.core.variables.Wrap.wrap;
+import org.congocc.templates.core.variables.*;
+import org.congocc.templates.core.Environment;
+import java.util.function.Supplier;
+import java.util.function.Function;
+import java.util.function.BiFunction;
+import java.io.StringWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.ArrayList;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class MethodCall extends TemplateNode implements Expression {
+
+    public ArgsList getArgs() {
+        return firstChildOfType(ArgsList.class);
+    }
+
+    public Expression getTarget() {
+        return (Expression) get(0);
+    }
+
+    public Object evaluate(Environment env) {
+        Object value = getTarget().evaluate(env);
+        if (value instanceof VarArgsFunction) {
+            VarArgsFunction targetMethod = (VarArgsFunction) value;
+            ArgsList args = getArgs();
+            List<Object> argumentList;
+            if (args != null) {
+                argumentList = args.getParameterSequence(targetMethod, env);
+            } else {
+                argumentList = new ArrayList<>();
+            }
+            Object result = targetMethod.apply(argumentList.toArray(new Object[argumentList.size()]));
+            return wrap(result);
+        } else if (value instanceof Supplier) {
+            ArgsList argsList = getArgs();
+            if (argsList != null && argsList.firstChildOfType(Expression.class) != null) {
+                throw new EvaluationException("The method " + getTarget() + " takes no arguments.");
+            }
+            Object result = ((Supplier) value).get();
+            return wrap(result);
+        } else if (value instanceof Function) {
+            ArgsList args = getArgs();
+            if (args == null || args.childrenOfType(Expression.class).size() != 1) {
+                throw new EvaluationException("The method " + getTarget() + " takes exactly one argument.");
+            }
+            Expression argExp = (Expression) getArgs().get(0);
+            Object arg = unwrap(argExp.evaluate(env));
+            Object result = ((Function) value).apply(arg);
+            return wrap(result);
+        } else if (value instanceof BiFunction) {
+            ArgsList args = getArgs();
+            List<Expression> argExpressions = args == null ? new ArrayList<>() : args.childrenOfType(Expression.class);
+            if (argExpressions.size() != 2) {
+                throw new EvaluationException("The method " + getTarget() + " takes exactly two arguments.");
+            }
+            Object firstArg = argExpressions.get(0).evaluate(env);
+            Object secondArg = argExpressions.get(1).evaluate(env);
+            Object result = ((BiFunction) value).apply(firstArg, secondArg);
+            return wrap(result);
+        } else if (value instanceof TriFunction) {
+            ArgsList args = getArgs();
+            List<Expression> argExpressions = args == null ? new ArrayList<>() : args.childrenOfType(Expression.class);
+            if (argExpressions.size() != 3) {
+                throw new EvaluationException("The method " + getTarget() + " takes exactly three arguments.");
+            }
+            Object firstArg = argExpressions.get(0).evaluate(env);
+            Object secondArg = argExpressions.get(1).evaluate(env);
+            Object thirdArg = argExpressions.get(2).evaluate(env);
+            Object result = ((TriFunction) value).apply(firstArg, secondArg, thirdArg);
+            return wrap(result);
+        } else if (value instanceof QuadFunction) {
+            ArgsList args = getArgs();
+            List<Expression> argExpressions = args == null ? new ArrayList<>() : args.childrenOfType(Expression.class);
+            if (argExpressions.size() != 4) {
+                throw new EvaluationException("The method " + getTarget() + " takes exactly four arguments.");
+            }
+            Object firstArg = argExpressions.get(0).evaluate(env);
+            Object secondArg = argExpressions.get(1).evaluate(env);
+            Object thirdArg = argExpressions.get(2).evaluate(env);
+            Object fourthArg = argExpressions.get(3).evaluate(env);
+            Object result = ((QuadFunction) value).apply(firstArg, secondArg, thirdArg, fourthArg);
+            return wrap(result);
+        } else if (value instanceof Macro) {
+            Macro func = (Macro) value;
+            StringWriter sw = null;
+            env.setLastReturnValue(null);
+            Writer prevOut = env.getOut();
+            try {
+                env.setOut(Environment.NULL_WRITER);
+                if (!func.isFunction()) {
+                    sw = new StringWriter();
+                    env.setOut(sw);
+                }
+                env.render(func, getArgs(), null, null);
+            } catch (IOException ioe) {
+                throw new InternalError("This should be impossible.");
+            } finally {
+                env.setOut(prevOut);
+            }
+            return sw != null ? sw.getBuffer().toString() : env.getLastReturnValue();
+        }
+        throw invalidTypeException(value, getTarget(), env, "method");
+    }
+
+    public Expression _deepClone(String name, Expression subst) {
+        MethodCall result = new MethodCall();
+        result.add(getTarget().deepClone(name, subst));
+        result.add(get(1));
+        ArgsList args = getArgs();
+        if (args != null) {
+            result.add(getArgs().deepClone(name, subst));
+            result.add(get(3));
+        } else {
+            result.add(get(2));
+        }
+        return result;
+    }
+
+}
+
+
@@ -0,0 +1,39 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for MethodReference AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.variables.JavaMethodCall;
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class MethodReference extends TemplateNode implements Expression {
+
+    public Expression getTarget() {
+        return (Expression) get(0);
+    }
+
+    public Object evaluate(Environment env) {
+        Object target = getTarget().evaluate(env);
+        String methodName = get(2).toString();
+        return new JavaMethodCall(target, methodName);
+    }
+
+    public Expression _deepClone(String name, Expression subst) {
+        Expression clonedTarget = getTarget().deepClone(name, subst);
+        Token op = (Token) get(1);
+        Token key = (Token) get(2);
+        Expression result = new MethodReference();
+        result.add(clonedTarget);
+        result.add(op);
+        result.add(key);
+        return result;
+    }
+
+}
+
+
@@ -0,0 +1,80 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for MultiplicativeExpression AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import static org.congocc.templates.core.variables.Wrap.getNumber;
+import org.congocc.templates.core.ArithmeticEngine;
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.TemplateException;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import org.congocc.templates.core.parser.Token.TokenType;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class MultiplicativeExpression extends TemplateNode implements Expression {
+
+    public Expression getLeft() {
+        return (Expression) get(0);
+    }
+
+    public Expression getRight() {
+        return (Expression) get(2);
+    }
+
+    public Object evaluate(Environment env) {
+        Object result = ((Expression) get(0)).evaluate(env);
+        for (int i = 0; i < size() / 2; i++) {
+            TokenType operation = (TokenType) get(i * 2 + 1).getType();
+            Object rightSide = ((Expression) get(i * 2 + 2)).evaluate(env);
+            result = mulDivMod(env, result, rightSide, operation);
+        }
+        return result;
+    }
+
+    public Object mulDivMod(Environment env, Object leftSide, Object rightSide, TokenType operation) {
+        boolean leftIsNumber = leftSide instanceof Number;
+        boolean rightIsNumber = rightSide instanceof Number;
+        boolean bothNumbers = leftIsNumber && rightIsNumber;
+        if (!bothNumbers) {
+            String msg = "Error " + getLocation();
+            if (!leftIsNumber) {
+                msg += "\nExpression " + getLeft() + " is not numerical";
+            }
+            if (!rightIsNumber) {
+                msg += "\nExpression " + getRight() + " is not numerical";
+            }
+            throw new TemplateException(msg, env);
+        }
+        Number first = getNumber(leftSide, getLeft(), env);
+        Number second = getNumber(rightSide, getRight(), env);
+        ArithmeticEngine ae = env != null ? env.getArithmeticEngine() : getTemplate().getArithmeticEngine();
+        switch(operation) {
+            case TIMES : 
+                return ae.multiply(first, second);
+            case DIVIDE : 
+                return ae.divide(first, second);
+            case PERCENT : 
+                return ae.modulus(first, second);
+            default : 
+                throw new TemplateException("unknown operation : " + operation, env);
+        }
+    }
+
+    public Expression _deepClone(String name, Expression subst) {
+        MultiplicativeExpression result = new MultiplicativeExpression();
+        for (Node n : this) {
+            if (n instanceof Expression) {
+                result.add(((Expression) n).deepClone(name, subst));
+            } else {
+                result.add(n);
+            }
+        }
+        return result;
+    }
+
+}
+
+
@@ -0,0 +1,39 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for NestedInstruction AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.*;
+import java.io.IOException;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class NestedInstruction extends TemplateNode implements TemplateElement {
+
+    public PositionalArgsList getArgs() {
+        return firstChildOfType(PositionalArgsList.class);
+    }
+
+    /**
+    * There is actually a subtle but essential point in the code below.
+    * A macro operates in the context in which it is defined. However,
+    * a nested block within a macro instruction is defined in the
+    * context in which the macro was invoked. So, we actually need to
+    * temporarily switch the namespace and macro context back to
+    * what it was before macro invocation to implement this properly.
+    * I (JR) realized this thanks to some incisive comments from Daniel Dekany.
+    */
+    public void execute(Environment env) throws IOException {
+        env.render(this);
+    }
+
+    public String getDescription() {
+        return "nested macro content";
+    }
+
+}
+
+
@@ -0,0 +1,35 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for NotExpression AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class NotExpression extends TemplateNode implements Expression {
+
+    public Expression getTarget() {
+        return (Expression) get(1);
+    }
+
+    public Object evaluate(Environment env) {
+        return isTrue(env);
+    }
+
+    public boolean isTrue(Environment env) {
+        return (!getTarget().isTrue(env));
+    }
+
+    public Expression _deepClone(String name, Expression subst) {
+        NotExpression result = new NotExpression();
+        result.add(getTarget().deepClone(name, subst));
+        return result;
+    }
+
+}
+
+
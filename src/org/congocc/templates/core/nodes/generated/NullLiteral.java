@@ -0,0 +1,25 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for NullLiteral Token subclass
+* by the ASTToken.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import static org.congocc.templates.core.variables.Wrap.JAVA_NULL;
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.parser.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class NullLiteral extends Literal implements Expression {
+
+    public Object evaluate(Environment env) {
+        return JAVA_NULL;
+    }
+
+    public NullLiteral(TokenType type, CTemplatesLexer tokenSource, int beginOffset, int endOffset) {
+        super(type, tokenSource, beginOffset, endOffset);
+    }
+
+}
+
+
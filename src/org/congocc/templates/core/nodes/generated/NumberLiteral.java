@@ -0,0 +1,55 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for NumberLiteral Token subclass
+* by the ASTToken.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import java.math.BigDecimal;
+import org.congocc.templates.Template;
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.parser.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class NumberLiteral extends Literal implements Expression {
+    private Number value;
+
+    //Inserted getter for value
+    public Number getValue() {
+        return value;
+    }
+
+    //Inserted setter for value
+    public void setValue(Number value) {
+        this.value = value;
+    }
+
+    public Object evaluate(Environment env) {
+        return getValue();
+    }
+
+    public String getStringValue(Environment env) {
+        return env.formatNumber(getValue());
+    }
+
+    public void close() {
+        String s = toString();
+        if (s.indexOf('.') == -1 && s.length() <= 18) {
+            // Integer literals are kept as Integer or Long, whatever the
+            // arithmetic engine, so as not to create a BigDecimal per
+            // operation with engines that can avoid it.
+            long l = Long.parseLong(s);
+            value = l == (int) l ? (Number) Integer.valueOf((int) l) : (Number) Long.valueOf(l);
+            return;
+        }
+        Template template = getTemplate();
+        value = template != null ? template.getArithmeticEngine().toNumber(s) : new BigDecimal(s);
+    }
+
+    public NumberLiteral(TokenType type, CTemplatesLexer tokenSource, int beginOffset, int endOffset) {
+        super(type, tokenSource, beginOffset, endOffset);
+    }
+
+}
+
+
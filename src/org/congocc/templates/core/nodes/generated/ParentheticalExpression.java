@@ -0,0 +1,41 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for ParentheticalExpression AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class ParentheticalExpression extends TemplateNode implements Expression {
+
+    public Expression getNested() {
+        return firstChildOfType(Expression.class);
+    }
+
+    public boolean isTrue(Environment env) {
+        return getNested().isTrue(env);
+    }
+
+    public Object evaluate(Environment env) {
+        return getNested().evaluate(env);
+    }
+
+    public boolean isAssignableTo() {
+        return getNested().isAssignableTo();
+    }
+
+    public Expression _deepClone(String name, Expression subst) {
+        ParentheticalExpression result = new ParentheticalExpression();
+        result.add(get(0));
+        result.add(getNested().deepClone(name, subst));
+        result.add(get(2));
+        return result;
+    }
+
+}
+
+
@@ -0,0 +1,75 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for PositionalArgsList AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.nodes.ParameterList;
+import org.congocc.templates.core.variables.*;
+import org.congocc.templates.core.Environment;
+import java.util.*;
+import org.congocc.templates.core.parser.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class PositionalArgsList extends ArgsList {
+
+    public List getParameterSequence(Object target, Environment env) {
+        ParameterList annotatedParameterList = getParameterList(target);
+        if (annotatedParameterList == null) {
+            List<Object> result = new ArrayList<>();
+            for (Expression exp : childrenOfType(Expression.class)) {
+                result.add(exp.evaluate(env));
+            }
+            return result;
+        }
+        return annotatedParameterList.getParameterSequence(this, env);
+    }
+
+    public Map<String, Object> getParameterMap(Object target, Environment env) {
+        Map<String, Object> result = new HashMap<String, Object>();
+        ParameterList annotatedParameterList = getParameterList(target);
+        if (annotatedParameterList == null) {
+            if (firstChildOfType(Expression.class) != null) {
+                throw new EvaluationException("Cannot pass positional arguments to this UserDirective");
+            }
+        } else {
+            result = annotatedParameterList.getParameterMap(this, env, false);
+        }
+        return result;
+    }
+
+    private volatile Expression[] argExpressions;
+
+    /**
+    * @return the argument expressions, computed once, since the
+    * tree is not modified after parsing
+    */
+    public Expression[] getArgExpressions() {
+        if (argExpressions == null) {
+            argExpressions = childrenOfType(Expression.class).toArray(new Expression[0]);
+        }
+        return argExpressions;
+    }
+
+    public Object getValueAt(int i, Environment env) {
+        Expression exp = getArgExpressions()[i];
+        Object value = exp.evaluate(env);
+        exp.assertIsDefined(value, env);
+        return value;
+    }
+
+    public PositionalArgsList deepClone(String name, Expression subst) {
+        PositionalArgsList result = new PositionalArgsList();
+        for (Node node : this) {
+            if (node instanceof Expression) {
+                node = ((Expression) node).deepClone(name, subst);
+            }
+            result.add(node);
+        }
+        return result;
+    }
+
+}
+
+
@@ -0,0 +1,89 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for RangeExpression AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import static org.congocc.templates.core.variables.Wrap.getNumber;
+import org.congocc.templates.TemplateException;
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.variables.*;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class RangeExpression extends TemplateNode implements Expression {
+
+    public Expression getLeft() {
+        return (Expression) get(0);
+    }
+
+    public Expression getRight() {
+        return hasRhs() ? (Expression) get(2) : null;
+    }
+
+    public boolean hasRhs() {
+        return size() == 3;
+    }
+
+    public Object evaluate(Environment env) {
+        int min = getNumber(getLeft(), env).intValue();
+        int max = 0;
+        if (hasRhs()) {
+            max = getNumber(getRight(), env).intValue();
+            return new NumericalRange(min, max);
+        }
+        return new NumericalRange(min);
+    }
+
+    public boolean isTrue(Environment env) {
+        String msg = "Error " + getLocation() + ". " + "\nExpecting a boolean here." + " Expression " + this + " is a range.";
+        throw new TemplateException(msg, env);
+    }
+
+    public Expression _deepClone(String name, Expression subst) {
+        RangeExpression result = new RangeExpression();
+        result.add(getLeft().deepClone(name, subst));
+        result.add(get(1));
+        if (hasRhs()) result.add(getRight().deepClone(name, subst));
+        return result;
+    }
+
+
+    private class NumericalRange extends AbstractList<Integer> {
+        private int lower, upper;
+        private boolean descending, norhs;
+
+        // if norhs is true, then we have a half-range, like n..
+        /**
+        * Constructor for half-range, i.e. n..
+        */
+        public NumericalRange(int lower) {
+            this.norhs = true;
+            this.lower = lower;
+        }
+
+        public NumericalRange(int left, int right) {
+            lower = Math.min(left, right);
+            upper = Math.max(left, right);
+            descending = (left != lower);
+        }
+
+        public Integer get(int i) {
+            int index = descending ? (upper - i) : (lower + i);
+            if ((norhs && index > upper) || index < lower) {
+                throw new EvaluationException("out of bounds of range");
+            }
+            return index;
+        }
+
+        public int size() {
+            return 1 + upper - lower;
+        }
+
+    }
+
+}
+
+
@@ -0,0 +1,68 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for RelationalExpression AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import static org.congocc.templates.core.variables.Wrap.*;
+import org.congocc.templates.core.ArithmeticEngine;
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.TemplateException;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import org.congocc.templates.core.parser.Token.TokenType;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class RelationalExpression extends TemplateNode implements Expression {
+
+    public Expression getLeft() {
+        return (Expression) get(0);
+    }
+
+    public Expression getRight() {
+        return (Expression) get(2);
+    }
+
+    public Object evaluate(Environment env) {
+        return isTrue(env);
+    }
+
+    public boolean isTrue(Environment env) {
+        TokenType operation = (TokenType) get(1).getType();
+        Object left = getLeft().evaluate(env);
+        Object right = getRight().evaluate(env);
+        getLeft().assertNonNull(left, env);
+        getRight().assertNonNull(right, env);
+        if (!(left instanceof Number && right instanceof Number)) {
+            throw new TemplateException("Can only compare numbers", env);
+        }
+        ArithmeticEngine ae = env != null ? env.getArithmeticEngine() : getTemplate().getArithmeticEngine();
+        int comp = ae.compare((Number) left, (Number) right);
+        switch(operation) {
+            case LESS_THAN : 
+                return comp < 0;
+            case GREATER_THAN : 
+            case ESCAPED_GT : 
+                return comp > 0;
+            case LESS_THAN_EQUALS : 
+                return comp <= 0;
+            case GREATER_THAN_EQUALS : 
+            case ESCAPED_GTE : 
+                return comp >= 0;
+            default : 
+                throw new InternalError();
+        }
+    }
+
+    public Expression _deepClone(String name, Expression subst) {
+        RelationalExpression result = new RelationalExpression();
+        result.add(getLeft().deepClone(name, subst));
+        result.add(get(1));
+        result.add(getRight().deepClone(name, subst));
+        return result;
+    }
+
+}
+
+
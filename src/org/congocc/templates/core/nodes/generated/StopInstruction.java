@@ -0,0 +1,30 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for StopInstruction AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.AssertionFailedException;
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class StopInstruction extends TemplateNode implements TemplateElement {
+
+    public String getMessage(Environment env) {
+        return get(1) instanceof Expression ? ((Expression) get(1)).getStringValue(env) : "";
+    }
+
+    public void execute(Environment env) {
+        throw new AssertionFailedException(env, getMessage(env));
+    }
+
+    public String getDescription() {
+        return "stop" + " [" + getLocation() + "]";
+    }
+
+}
+
+
@@ -0,0 +1,133 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for StringLiteral Token subclass
+* by the ASTToken.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import static org.congocc.templates.utility.StringUtil.FTLStringLiteralDec;
+import java.util.List;
+import java.util.ArrayList;
+import java.io.IOException;
+import org.congocc.templates.core.parser.Node;
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.TemplateExceptionHandler;
+import org.congocc.templates.TemplateException;
+import org.congocc.templates.core.parser.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class StringLiteral extends Literal implements Expression {
+    private TemplateElement interpolatedOutput;
+    // If there are interpolations, the constant text (Strings) and the
+    // interpolated expressions, in order, so that the literal can be
+    // evaluated by just concatenating them.
+    private Object[] parts;
+    private int constantLength;
+    private String value;
+
+    public boolean isRaw() {
+        return charAt(0) == 'r';
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+    * @return whether the literal has no interpolations. This is only
+    * known once {@link #checkInterpolation()} has been called.
+    */
+    public boolean isConstant() {
+        return interpolatedOutput == null;
+    }
+
+    public void close() {
+        String s = toString();
+        s = s.substring(1, s.length() - 1);
+        if (isRaw()) s = s.substring(1);
+        if (!isRaw()) s = FTLStringLiteralDec(s);
+        this.value = s;
+    }
+
+    public void checkInterpolation() {
+        String src = toString();
+        if (src.length() > 5 && (src.indexOf("${") >= 0)) {
+            CTemplatesLexer token_source = new CTemplatesLexer("input", value, CTemplatesLexer.LexicalState.DEFAULT, getBeginLine(), getBeginColumn() + 1);
+            CTemplatesParser parser = new CTemplatesParser(token_source);
+            parser.setTemplate(getTemplate());
+            interpolatedOutput = parser.TemplateText();
+            parts = compileParts(interpolatedOutput);
+        }
+    }
+
+    private Object[] compileParts(TemplateElement block) {
+        List<Object> result = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        for (Node child : block) {
+            if (child instanceof TextElement) {
+                text.append(((TextElement) child).getOutputText());
+            } else if (child instanceof Interpolation) {
+                if (text.length() > 0) {
+                    result.add(text.toString());
+                    constantLength += text.length();
+                    text.setLength(0);
+                }
+                result.add(((Interpolation) child).getEscapedExpression());
+            } else {
+                // Not something we know how to concatenate, so
+                // we just render the block.
+                return null;
+            }
+        }
+        if (text.length() > 0) {
+            result.add(text.toString());
+            constantLength += text.length();
+        }
+        return result.toArray();
+    }
+
+    public Object evaluate(Environment env) {
+        return getStringValue(env);
+    }
+
+    public String getAsString() {
+        return value;
+    }
+
+    public String getStringValue(Environment env) {
+        if (interpolatedOutput == null) {
+            return value;
+        }
+        if (parts != null) {
+            StringBuilder buf = new StringBuilder(constantLength + 16 * parts.length);
+            for (Object part : parts) {
+                if (part instanceof String) {
+                    buf.append((String) part);
+                } else {
+                    buf.append(((Expression) part).getStringValue(env));
+                }
+            }
+            return buf.toString();
+        }
+        TemplateExceptionHandler teh = env.getTemplateExceptionHandler();
+        env.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+        try {
+            return env.renderElementToString(interpolatedOutput);
+        } catch (IOException ioe) {
+            throw new TemplateException(ioe, env);
+        } finally {
+            env.setTemplateExceptionHandler(teh);
+        }
+    }
+
+    public boolean isAssignableTo() {
+        return true;
+    }
+
+    public StringLiteral(TokenType type, CTemplatesLexer tokenSource, int beginOffset, int endOffset) {
+        super(type, tokenSource, beginOffset, endOffset);
+    }
+
+}
+
+
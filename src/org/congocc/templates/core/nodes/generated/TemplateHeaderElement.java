@@ -0,0 +1,78 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for TemplateHeaderElement AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import static org.congocc.templates.core.variables.Wrap.*;
+import static org.congocc.templates.utility.StringUtil.*;
+import org.congocc.templates.*;
+import java.util.*;
+import org.congocc.templates.core.parser.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class TemplateHeaderElement extends TemplateNode {
+    private Map<String, Expression> params = new LinkedHashMap<>();
+
+    public void close() {
+        List<Node> ids = childrenOfType(ID);
+        for (Node n : ids) {
+            String key = n.toString();
+            if (n.nextSibling().getType() == EQUALS) {
+                Expression exp = (Expression) n.nextSibling().nextSibling();
+                params.put(key, exp);
+            } else {
+                Expression syntheticBooleanToken = (Expression) Token.newToken(TRUE, getTokenSource(), n.getEndOffset(), n.getEndOffset());
+                params.put(key, syntheticBooleanToken);
+            }
+        }
+    }
+
+    public boolean hasParameter(String name) {
+        return params.containsKey(name);
+    }
+
+    public Map<String, Expression> getParams() {
+        return params;
+    }
+
+    public Object getParameter(String name) {
+        if (!hasParameter(name)) {
+            return null;
+        }
+        Expression exp = params.get(name);
+        return exp.evaluate(null);
+    }
+
+    public String getStringParameter(String name) {
+        Object tm = getParameter(name);
+        if (tm == null) return null;
+        try {
+            return asString(tm);
+        } catch (ClassCastException cce) {
+            throw new IllegalArgumentException("Parameter " + name + " is not a string.");
+        }
+    }
+
+    public boolean getBooleanParameter(String name) {
+        Object tm = getParameter(name);
+        if (tm == null) {
+            throw new IllegalArgumentException("No parameter " + name);
+        }
+        if (isBoolean(tm)) {
+            return asBoolean(tm);
+        }
+        if (tm instanceof CharSequence) {
+            try {
+                return getYesNo(asString(tm));
+            } catch (Exception e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+        throw new IllegalArgumentException("Parameter " + name + " is not a boolean type.");
+    }
+
+}
+
+
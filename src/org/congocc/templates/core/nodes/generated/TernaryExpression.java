@@ -0,0 +1,38 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for TernaryExpression AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import static org.congocc.templates.core.variables.Wrap.NOTHING;
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class TernaryExpression extends TemplateNode implements Expression {
+
+    public Object evaluate(Environment env) {
+        Expression condition = (Expression) get(0);
+        Expression trueChoice = (Expression) get(2);
+        Expression falseChoice = size() > 4 ? (Expression) get(4) : null;
+        if (condition.isTrue(env)) {
+            return trueChoice.evaluate(env);
+        }
+        return falseChoice == null ? NOTHING : falseChoice.evaluate(env);
+    }
+
+    public Expression _deepClone(String name, Expression subst) {
+        TernaryExpression result = new TernaryExpression();
+        result.add(((Expression) get(0)).deepClone(name, subst));
+        result.add(get(1));
+        result.add(((Expression) get(2)).deepClone(name, subst));
+        result.add(get(3));
+        result.add(((Expression) get(4)).deepClone(name, subst));
+        return result;
+    }
+
+}
+
+
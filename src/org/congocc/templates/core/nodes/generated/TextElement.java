@@ -0,0 +1,63 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for TextElement AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.utility.StandardCompress.CompressedText;
+import org.congocc.templates.core.nodes.AssignmentInstruction;
+import org.congocc.templates.core.nodes.Whitespace;
+import org.congocc.templates.core.Environment;
+import java.io.IOException;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class TextElement extends TemplateNode implements TemplateElement {
+    private String outputText;
+    private CompressedText compressedText;
+
+    /**
+    * This is only used internally, for the text inside &lt;@compress&gt;
+    */
+    public void setCompressedText(CompressedText compressedText) {
+        this.compressedText = compressedText;
+    }
+
+    /**
+    * This is only used internally.
+    */
+    public void setOutputText(String outputText) {
+        this.outputText = outputText;
+    }
+
+    public String getOutputText() {
+        if (outputText != null) {
+            return outputText;
+        }
+        if (firstChildOfType(Printable.class) == null && ignoresSandwichedWhitespace(previousSibling()) && ignoresSandwichedWhitespace(nextSibling())) {
+            return outputText = "";
+        }
+        StringBuilder buf = new StringBuilder();
+        for (Node n : this) {
+            if (!(n instanceof Whitespace) || !((Whitespace) n).isIgnored()) {
+                buf.append(n.toString());
+            }
+        }
+        return outputText = buf.toString();
+    }
+
+    public void execute(Environment env) throws IOException {
+        if (compressedText == null || !compressedText.writeTo(env.getOut())) {
+            env.getOut().write(getOutputText());
+        }
+    }
+
+    private boolean ignoresSandwichedWhitespace(Node elem) {
+        return (elem instanceof Macro) || (elem instanceof AssignmentInstruction) || (elem instanceof BlockAssignment) || (elem instanceof VarDirective) || (elem instanceof ImportDeclaration) || (elem instanceof ExecInstruction) || (elem instanceof PropertySetting);
+    }
+
+}
+
+
@@ -0,0 +1,40 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for TrimInstruction AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class TrimInstruction extends TemplateNode implements TemplateElement {
+
+    public boolean isLeft() {
+        return get(0).getType() != RTRIM;
+    }
+
+    public boolean isRight() {
+        return get(0).getType() != LTRIM;
+    }
+
+    public void execute(Environment env) {
+        // This instruction does nothing at render-time, only parse-time.
+    }
+
+    public String getDescription() {
+        String type = "";
+        if (!isRight()) type = "left ";
+        if (!isLeft()) type = "right ";
+        return type + "trim instruction";
+    }
+
+    public boolean isIgnorable() {
+        return true;
+    }
+
+}
+
+
@@ -0,0 +1,51 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for UnaryPlusMinusExpression AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.TemplateException;
+import org.congocc.templates.core.variables.*;
+import org.congocc.templates.core.ArithmeticEngine;
+import org.congocc.templates.core.Environment;
+import org.congocc.templates.core.parser.*;
+import java.util.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class UnaryPlusMinusExpression extends TemplateNode implements Expression {
+    private static final Integer MINUS_ONE = Integer.valueOf(- 1);
+
+    public Expression getTarget() {
+        return firstChildOfType(Expression.class);
+    }
+
+    public boolean isMinus() {
+        return get(0).getType() == MINUS;
+    }
+
+    public Object evaluate(Environment env) {
+        Number value = null;
+        try {
+            value = (Number) getTarget().evaluate(env);
+        } catch (ClassCastException cce) {
+            String msg = "Error " + getLocation();
+            msg += "\nExpression " + getTarget() + " is not numerical.";
+            throw new TemplateException(msg, env);
+        }
+        if (!isMinus()) {
+            return value;
+        }
+        return ArithmeticEngine.CONSERVATIVE_ENGINE.multiply(MINUS_ONE, value);
+    }
+
+    public Expression _deepClone(String name, Expression subst) {
+        UnaryPlusMinusExpression result = new UnaryPlusMinusExpression();
+        result.add(get(0));
+        result.add(getTarget().deepClone(name, subst));
+        return result;
+    }
+
+}
+
+
@@ -0,0 +1,103 @@
+/* Generated by: CongoCC Parser Generator. Do not edit.
+* Generated Code for UnifiedCall AST Node type
+* by the ASTNode.java.ftl template
+*/
+package org.congocc.templates.core.nodes.generated;
+
+import org.congocc.templates.TemplateException;
+import org.congocc.templates.core.variables.UserDirective;
+import org.congocc.templates.core.nodes.ParameterList;
+import org.congocc.templates.core.Environment;
+import java.util.*;
+import java.io.IOException;
+import org.congocc.templates.core.parser.*;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+
+
+public class UnifiedCall extends TemplateNode implements TemplateElement {
+
+    public Expression getNameExp() {
+        return (Expression) get(1);
+    }
+
+    private ArgsList args;
+    private ParameterList bodyParameters;
+    private Macro linkedMacro;
+
+    public ArgsList getArgs() {
+        return args;
+    }
+
+    public ParameterList getBodyParameters() {
+        return bodyParameters;
+    }
+
+    /**
+    * @return the macro this call site was bound to at parse time,
+    * or null if the target is looked up by name on each call.
+    */
+    public Macro getLinkedMacro() {
+        return linkedMacro;
+    }
+
+    /**
+    * Binds this call site directly to a macro. This is only done when
+    * the name can refer to nothing else unless the variable holding the
+    * macro is reassigned, which the Environment checks for.
+    */
+    public void setLinkedMacro(Macro linkedMacro) {
+        this.linkedMacro = linkedMacro;
+    }
+
+    public void close() {
+        args = firstChildOfType(ArgsList.class);
+        if (args == null) args = new PositionalArgsList();
+        bodyParameters = firstChildOfType(ParameterList.class);
+        if (bodyParameters != null) {
+            for (String paramName : bodyParameters.getParams()) {
+                getNestedBlock().declareVariable(paramName);
+            }
+            String catchallParam = bodyParameters.getCatchAll();
+            if (catchallParam != null) {
+                getNestedBlock().declareVariable(catchallParam);
+            }
+        }
+    }
+
+    public void execute(Environment env) throws IOException {
+        if (linkedMacro != null && env.isMacroLinkageValid()) {
+            env.render(linkedMacro, args, bodyParameters, firstChildOfType(Block.class));
+            return;
+        }
+        Expression nameExp = getNameExp();
+        Object tm = nameExp.evaluate(env);
+        if (tm == Macro.DO_NOTHING_MACRO) return;
+        // shortcut here.
+        if (tm instanceof Macro) {
+            Macro macro = (Macro) tm;
+            if (macro.isFunction()) {
+                throw new TemplateException("Routine " + macro.getName() + " is a function. A function can only be called " + "within the evaluation of an expression.", env);
+            }
+            env.render(macro, args, bodyParameters, firstChildOfType(Block.class));
+        } else if (tm instanceof UserDirective) {
+            Map<String, Object> argMap = args != null ? args.getParameterMap(tm, env) : new HashMap<String, Object>();
+            List<String> paramNames;
+            if (bodyParameters == null) {
+                paramNames = Collections.emptyList();
+            } else {
+                paramNames = bodyParameters.getParamNames();
+            }
+            env.render(firstChildOfType(Block.class), (UserDirective) tm, argMap, paramNames);
+        } else {
+            nameExp.assertNonNull(tm, env);
+            throw new TemplateException(getLocation() + ": " + getNameExp() + " is not a user-defined directive.", env);
+        }
+    }
+
+    public String getDescription() {
+        return "user-directive " + getNameExp();
+    }
+
+}
+
+
@@ -0,0 +1,10269 @@
+/* Generated by: CongoCC Parser Generator. CTemplatesParser.java  */
+package org.congocc.templates.core.parser;
+
+import java.util.Set;
+import java.util.Map;
+import java.util.LinkedHashMap;
+import java.util.HashSet;
+import org.congocc.templates.*;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.ListIterator;
+import java.util.concurrent.CancellationException;
+import org.congocc.templates.core.parser.CTemplatesLexer.LexicalState;
+import org.congocc.templates.core.parser.Token.TokenType;
+import static org.congocc.templates.core.parser.Token.TokenType.*;
+import org.congocc.templates.core.nodes.generated.Expression;
+import org.congocc.templates.core.nodes.generated.TernaryExpression;
+import org.congocc.templates.core.nodes.generated.DotVariable;
+import org.congocc.templates.core.nodes.generated.MethodCall;
+import org.congocc.templates.core.nodes.generated.BuiltInExpression;
+import org.congocc.templates.core.nodes.generated.ExistsExpression;
+import org.congocc.templates.core.nodes.generated.DefaultToExpression;
+import org.congocc.templates.core.nodes.generated.MethodReference;
+import org.congocc.templates.core.nodes.generated.ParentheticalExpression;
+import org.congocc.templates.core.nodes.generated.NotExpression;
+import org.congocc.templates.core.nodes.generated.UnaryPlusMinusExpression;
+import org.congocc.templates.core.nodes.generated.AdditiveExpression;
+import org.congocc.templates.core.nodes.generated.MultiplicativeExpression;
+import org.congocc.templates.core.nodes.generated.EqualityExpression;
+import org.congocc.templates.core.nodes.generated.RelationalExpression;
+import org.congocc.templates.core.nodes.generated.RangeExpression;
+import org.congocc.templates.core.nodes.generated.AndExpression;
+import org.congocc.templates.core.nodes.generated.OrExpression;
+import org.congocc.templates.core.nodes.generated.ListLiteral;
+import org.congocc.templates.core.nodes.generated.BuiltinVariable;
+import org.congocc.templates.core.nodes.generated.PositionalArgsList;
+import org.congocc.templates.core.nodes.generated.NamedArgsList;
+import org.congocc.templates.core.nodes.generated.HashLiteral;
+import org.congocc.templates.core.nodes.generated.Interpolation;
+import org.congocc.templates.core.nodes.generated.ConditionalBlock;
+import org.congocc.templates.core.nodes.generated.IfBlock;
+import org.congocc.templates.core.nodes.generated.AttemptBlock;
+import org.congocc.templates.core.nodes.generated.IteratorBlock;
+import org.congocc.templates.core.nodes.generated.BreakInstruction;
+import org.congocc.templates.core.nodes.generated.AssertionInstruction;
+import org.congocc.templates.core.nodes.generated.ExecInstruction;
+import org.congocc.templates.core.nodes.generated.ReturnInstruction;
+import org.congocc.templates.core.nodes.generated.StopInstruction;
+import org.congocc.templates.core.nodes.generated.NestedInstruction;
+import org.congocc.templates.core.nodes.generated.FlushInstruction;
+import org.congocc.templates.core.nodes.generated.TrimInstruction;
+import org.congocc.templates.core.nodes.generated.BlockAssignment;
+import org.congocc.templates.core.nodes.generated.IncludeInstruction;
+import org.congocc.templates.core.nodes.generated.ImportDeclaration;
+import org.congocc.templates.core.nodes.generated.Macro;
+import org.congocc.templates.core.nodes.generated.UnifiedCall;
+import org.congocc.templates.core.nodes.generated.NoParseBlock;
+import org.congocc.templates.core.nodes.generated.EscapeBlock;
+import org.congocc.templates.core.nodes.generated.NoEscapeBlock;
+import org.congocc.templates.core.nodes.generated.LooseDirectiveEnd;
+import org.congocc.templates.core.nodes.generated.PropertySetting;
+import org.congocc.templates.core.nodes.generated.VarDirective;
+import org.congocc.templates.core.nodes.generated.TextElement;
+import org.congocc.templates.core.nodes.generated.Block;
+import org.congocc.templates.core.nodes.generated.TemplateHeaderElement;
+
+
+public class CTemplatesParser {
+
+    static String stripNonLetter(String s) {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.isLetter(s.charAt(i))) {
+                buf.append(s.charAt(i));
+            }
+        }
+        return buf.toString();
+    }
+
+    private Template template;
+
+    //Inserted getter for template
+    public Template getTemplate() {
+        return template;
+    }
+
+    //Inserted setter for template
+    public void setTemplate(Template template) {
+        this.template = template;
+    }
+
+    private String templateName;
+
+    void openNodeHook$CTemplates_ccc$87$10(Node n) {
+        n.setTemplate(template);
+    }
+
+    /**
+    * Create an FM expression parser using a string.
+    */
+    static public CTemplatesParser createExpressionParser(String s) {
+        CTemplatesLexer lexer;
+        lexer = new CTemplatesLexer(s);
+        lexer.switchTo(LexicalState.EXPRESSION);
+        return new CTemplatesParser(lexer);
+    }
+
+    /**
+    * Constructs a new parser object.
+    * @param template The template associated with this parser.
+    * @param path The character stream to use as input
+    */
+    public CTemplatesParser(Template template, Path path) throws IOException {
+        this(path);
+        this.template = template;
+        this.templateName = template != null ? template.getName() : "";
+        token_source.templateName = templateName;
+    }
+
+    public CTemplatesParser(Template template, CharSequence input) {
+        this(input);
+        this.template = template;
+        this.templateName = template != null ? template.getName() : "";
+    }
+
+    private String getErrorStart(Token t) {
+        return "Error in template: " + template.getName() + "\non line " + t.getBeginLine() + ", column " + t.getBeginColumn();
+    }
+
+    static final int UNLIMITED = Integer.MAX_VALUE;
+    // The last token successfully "consumed"
+    Token lastConsumedToken;
+    private TokenType nextTokenType;
+    // Normally null when parsing, populated when doing lookahead
+    private Token currentLookaheadToken;
+    private int remainingLookahead;
+    private boolean hitFailure;
+    private boolean passedPredicate;
+    private int passedPredicateThreshold = -1;
+    private String currentlyParsedProduction;
+    private String currentLookaheadProduction;
+    private int lookaheadRoutineNesting;
+    private final boolean legacyGlitchyLookahead = false;
+    private final Token DUMMY_START_TOKEN = new Token();
+    private boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** Generated Lexer. */
+    private CTemplatesLexer token_source;
+
+    public void setInputSource(String inputSource) {
+        token_source.setInputSource(inputSource);
+    }
+
+    String getInputSource() {
+        return token_source.getInputSource();
+    }
+
+    //=================================
+    // Generated constructors
+    //=================================
+    public CTemplatesParser(String inputSource, CharSequence content) {
+        this(new CTemplatesLexer(inputSource, content));
+    }
+
+    public CTemplatesParser(CharSequence content) {
+        this("input", content);
+    }
+
+    /**
+    * @param inputSource just the name of the input source (typically the filename) that
+    * will be used in error messages and so on.
+    * @param path The location (typically the filename) from which to get the input to parse
+    */
+    public CTemplatesParser(String inputSource, Path path) throws IOException {
+        this(inputSource, TokenSource.stringFromBytes(Files.readAllBytes(path)));
+    }
+
+    public CTemplatesParser(String inputSource, Path path, Charset charset) throws IOException {
+        this(inputSource, TokenSource.stringFromBytes(Files.readAllBytes(path), charset));
+    }
+
+    /**
+    * @param path The location (typically the filename) from which to get the input to parse
+    */
+    public CTemplatesParser(Path path) throws IOException {
+        this(path.toString(), path);
+    }
+
+    /** Constructor with user supplied Lexer. */
+    public CTemplatesParser(CTemplatesLexer lexer) {
+        token_source = lexer;
+        lastConsumedToken = DUMMY_START_TOKEN;
+        lastConsumedToken.setTokenSource(lexer);
+    }
+
+    /**
+    * Set the starting line/column for location reporting.
+    * By default, this is 1,1.
+    */
+    public void setStartingPos(int startingLine, int startingColumn) {
+        token_source.setStartingPos(startingLine, startingColumn);
+    }
+
+    // this method is for testing only.
+    public boolean getLegacyGlitchyLookahead() {
+        return legacyGlitchyLookahead;
+    }
+
+    // If the next token is cached, it returns that
+    // Otherwise, it goes to the token_source, i.e. the Lexer.
+    private Token nextToken(final Token tok) {
+        Token result = token_source.getNextToken(tok);
+        while (result.isUnparsed()) {
+            result = token_source.getNextToken(result);
+        }
+        nextTokenType = null;
+        return result;
+    }
+
+    /**
+    * @return the next Token off the stream. This is the same as #getToken(1)
+    */
+    public final Token getNextToken() {
+        return getToken(1);
+    }
+
+    /**
+    * @param index how many tokens to look ahead
+    * @return the specific regular (i.e. parsed) Token index ahead/behind in the stream.
+    * If we are in a lookahead, it looks ahead from the currentLookaheadToken
+    * Otherwise, it is the lastConsumedToken. If you pass in a negative
+    * number it goes backward.
+    */
+    public final Token getToken(final int index) {
+        Token t = currentLookaheadToken == null ? lastConsumedToken : currentLookaheadToken;
+        for (int i = 0; i < index; i++) {
+            t = nextToken(t);
+        }
+        for (int i = 0; i > index; i--) {
+            t = t.getPrevious();
+            if (t == null) break;
+        }
+        return t;
+    }
+
+    private TokenType nextTokenType() {
+        if (nextTokenType == null) {
+            nextTokenType = nextToken(lastConsumedToken).getType();
+        }
+        return nextTokenType;
+    }
+
+    boolean activateTokenTypes(TokenType...types) {
+        if (token_source.activeTokenTypes == null) return false;
+        boolean result = false;
+        for (TokenType tt : types) {
+            result |= token_source.activeTokenTypes.add(tt);
+        }
+        if (result) {
+            token_source.reset(getToken(0));
+            nextTokenType = null;
+        }
+        return result;
+    }
+
+    boolean deactivateTokenTypes(TokenType...types) {
+        boolean result = false;
+        if (token_source.activeTokenTypes == null) {
+            token_source.activeTokenTypes = EnumSet.allOf(TokenType.class);
+        }
+        for (TokenType tt : types) {
+            result |= token_source.activeTokenTypes.remove(tt);
+        }
+        if (result) {
+            token_source.reset(getToken(0));
+            nextTokenType = null;
+        }
+        return result;
+    }
+
+    /*
+    * This method generalizes the failure of an assertion, i.e. the routine
+    * works both when in lookahead and in parsing. If the current lookahead
+    * token is null, then we are not in a lookahead, i.e. we are parsing, so
+    * it just throws the exception. If we are in a lookahead routine, we set
+    * the hitFailure flag to true, so that the lookahead routine we're in will
+    * fail at the first opportunity.
+    */
+    private void fail(String message, Token token) {
+        if (currentLookaheadToken == null) {
+            throw new ParseException(message, token, parsingStack);
+        }
+        hitFailure = true;
+    }
+
+    private static final HashMap<TokenType[], EnumSet<TokenType>> enumSetCache = new HashMap<>();
+
+    private static EnumSet<TokenType> tokenTypeSet(TokenType first, TokenType...rest) {
+        TokenType[] key = new TokenType[1 + rest.length];
+        key[0] = first;
+        if (rest.length > 0) {
+            System.arraycopy(rest, 0, key, 1, rest.length);
+        }
+        Arrays.sort(key);
+        if (enumSetCache.containsKey(key)) {
+            return enumSetCache.get(key);
+        }
+        EnumSet<TokenType> result = (rest.length == 0) ? EnumSet.of(first) : EnumSet.of(first, rest);
+        enumSetCache.put(key, result);
+        return result;
+    }
+
+    // src/parser/Expressions.inc.ccc:4:1
+    final public Expression Expression() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "Expression";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:4:1
+        // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:5:5
+        pushOntoCallStack("Expression", "src/parser/Expressions.inc.ccc", 5, 5);
+        try {
+            TernaryExpression();
+        } finally {
+            popCallStack();
+        }
+        // Code for CodeBlock specified at src/parser/Expressions.inc.ccc:6:5
+        return (Expression) peekNode();
+    }
+
+    // src/parser/Expressions.inc.ccc:96:1
+    final public void TernaryExpression() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "TernaryExpression";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:96:1
+        TernaryExpression thisProduction = null;
+        if (buildTree) {
+            thisProduction = new TernaryExpression();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:97:5
+            pushOntoCallStack("TernaryExpression", "src/parser/Expressions.inc.ccc", 97, 5);
+            try {
+                OrExpression();
+            } finally {
+                popCallStack();
+            }
+            // Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:98:5
+            if (nextTokenType() == TERNARY) {
+                // Code for Terminal specified at src/parser/Expressions.inc.ccc:99:9
+                consumeToken(TERNARY);
+                // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:100:9
+                pushOntoCallStack("TernaryExpression", "src/parser/Expressions.inc.ccc", 100, 9);
+                try {
+                    Expression();
+                } finally {
+                    popCallStack();
+                }
+                // Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:101:9
+                if (nextTokenType() == COLON) {
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:102:11
+                    consumeToken(COLON);
+                    // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:103:11
+                    pushOntoCallStack("TernaryExpression", "src/parser/Expressions.inc.ccc", 103, 11);
+                    try {
+                        Expression();
+                    } finally {
+                        popCallStack();
+                    }
+                }
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    private static final EnumSet<TokenType> Literal_FIRST_SET = Literal_FIRST_SET_init();
+
+    private static EnumSet<TokenType> Literal_FIRST_SET_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, OPEN_BRACKET, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER);
+    }
+
+    // src/parser/Expressions.inc.ccc:134:1
+    final public void Literal() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "Literal";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:134:1
+        // Code for ExpansionChoice specified at src/parser/Expressions.inc.ccc:135:3
+        if (nextTokenType() == NULL) {
+            // Code for Terminal specified at src/parser/Expressions.inc.ccc:135:3
+            consumeToken(NULL);
+        } else if (nextTokenType() == TRUE) {
+            // Code for Terminal specified at src/parser/Expressions.inc.ccc:137:3
+            consumeToken(TRUE);
+        } else if (nextTokenType() == FALSE) {
+            // Code for Terminal specified at src/parser/Expressions.inc.ccc:139:3
+            consumeToken(FALSE);
+        } else if (nextTokenType() == NUMBER) {
+            // Code for Terminal specified at src/parser/Expressions.inc.ccc:141:3
+            consumeToken(NUMBER);
+        } else if (nextTokenType() == STRING_LITERAL) {
+            // Code for Terminal specified at src/parser/Expressions.inc.ccc:143:3
+            consumeToken(STRING_LITERAL);
+        } else if (nextTokenType() == RAW_STRING) {
+            // Code for Terminal specified at src/parser/Expressions.inc.ccc:145:3
+            consumeToken(RAW_STRING);
+        } else if (nextTokenType() == OPEN_BRACE) {
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:147:3
+            pushOntoCallStack("Literal", "src/parser/Expressions.inc.ccc", 147, 3);
+            try {
+                HashLiteral();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == OPEN_BRACKET) {
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:149:3
+            pushOntoCallStack("Literal", "src/parser/Expressions.inc.ccc", 149, 3);
+            try {
+                ListLiteral();
+            } finally {
+                popCallStack();
+            }
+        } else {
+            pushOntoCallStack("Literal", "src/parser/Expressions.inc.ccc", 135, 3);
+            throw new ParseException(lastConsumedToken, Literal_FIRST_SET, parsingStack);
+        }
+    }
+
+    // src/parser/Expressions.inc.ccc:152:1
+    final public void PrimaryExpression(boolean noSpace) {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "PrimaryExpression";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:152:1
+        if (first_set$Expressions_inc_ccc$154$7.contains(nextTokenType())) {
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:154:7
+            pushOntoCallStack("PrimaryExpression", "src/parser/Expressions.inc.ccc", 154, 7);
+            try {
+                Literal();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == ID) {
+            // Code for Terminal specified at src/parser/Expressions.inc.ccc:156:7
+            consumeToken(ID);
+        } else if (nextTokenType() == OPEN_PAREN) {
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:158:7
+            pushOntoCallStack("PrimaryExpression", "src/parser/Expressions.inc.ccc", 158, 7);
+            try {
+                ParentheticalExpression();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == DOT) {
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:160:7
+            pushOntoCallStack("PrimaryExpression", "src/parser/Expressions.inc.ccc", 160, 7);
+            try {
+                BuiltinVariable();
+            } finally {
+                popCallStack();
+            }
+        } else {
+            pushOntoCallStack("PrimaryExpression", "src/parser/Expressions.inc.ccc", 154, 7);
+            throw new ParseException(lastConsumedToken, first_set$Expressions_inc_ccc$154$7$, parsingStack);
+        }
+        // Code for ZeroOrMore specified at src/parser/Expressions.inc.ccc:162:3
+        while (true) {
+            if (!((!noSpace || getToken(0).getEndOffset() == getToken(1).getBeginOffset()) && scan$Expressions_inc_ccc$163$5())) break;
+            if (nextTokenType() == DOT) {
+                DotVariable PrimaryExpression1 = null;
+                if (buildTree) {
+                    PrimaryExpression1 = new DotVariable();
+                    openNodeScope(PrimaryExpression1);
+                }
+                ParseException parseException69 = null;
+                int callStackSize70 = parsingStack.size();
+                try {
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:166:9
+                    consumeToken(DOT);
+                    EnumSet<TokenType> previousActives79 = EnumSet.copyOf(token_source.activeTokenTypes);
+                    boolean somethingChanged80 = false;
+                    somethingChanged80 = somethingChanged80 |= deactivateTokenTypes(IN, AS, USING, TRUE, FALSE, NULL);
+                    try {
+                        if (nextTokenType() == ID) {
+                            // Code for Terminal specified at src/parser/Expressions.inc.ccc:168:10
+                            consumeToken(ID);
+                        } else if (nextTokenType() == TIMES) {
+                            // Code for Terminal specified at src/parser/Expressions.inc.ccc:168:15
+                            consumeToken(TIMES);
+                        } else if (nextTokenType() == DOUBLE_STAR) {
+                            // Code for Terminal specified at src/parser/Expressions.inc.ccc:168:23
+                            consumeToken(DOUBLE_STAR);
+                        } else {
+                            pushOntoCallStack("PrimaryExpression", "src/parser/Expressions.inc.ccc", 168, 10);
+                            throw new ParseException(lastConsumedToken, first_set$Expressions_inc_ccc$168$10, parsingStack);
+                        }
+                    } finally {
+                        token_source.activeTokenTypes = previousActives79;
+                        if (somethingChanged80) {
+                            token_source.reset(lastConsumedToken);
+                            nextTokenType = null;
+                        }
+                    }
+                } catch (ParseException e) {
+                    parseException69 = e;
+                    throw e;
+                } finally {
+                    restoreCallStack(callStackSize70);
+                    if (PrimaryExpression1 != null) {
+                        if (parseException69 == null) {
+                            closeNodeScope(PrimaryExpression1, nodeArity() + 1);
+                        } else {
+                            clearNodeScope();
+                        }
+                    }
+                }
+            } else if (nextTokenType() == OPEN_BRACKET) {
+                // Code for Terminal specified at src/parser/Expressions.inc.ccc:171:7
+                consumeToken(OPEN_BRACKET);
+                // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:171:22
+                pushOntoCallStack("PrimaryExpression", "src/parser/Expressions.inc.ccc", 171, 22);
+                try {
+                    Expression();
+                } finally {
+                    popCallStack();
+                }
+                // Code for Terminal specified at src/parser/Expressions.inc.ccc:171:33
+                org.congocc.templates.core.nodes.DynamicKeyName PrimaryExpression2 = null;
+                if (buildTree) {
+                    PrimaryExpression2 = new org.congocc.templates.core.nodes.DynamicKeyName();
+                    openNodeScope(PrimaryExpression2);
+                }
+                ParseException parseException125 = null;
+                int callStackSize126 = parsingStack.size();
+                try {
+                    consumeToken(CLOSE_BRACKET);
+                } catch (ParseException e) {
+                    parseException125 = e;
+                    throw e;
+                } finally {
+                    restoreCallStack(callStackSize126);
+                    if (PrimaryExpression2 != null) {
+                        if (parseException125 == null) {
+                            closeNodeScope(PrimaryExpression2, 4);
+                        } else {
+                            clearNodeScope();
+                        }
+                    }
+                }
+            } else if (nextTokenType() == OPEN_PAREN) {
+                MethodCall PrimaryExpression3 = null;
+                if (buildTree) {
+                    PrimaryExpression3 = new MethodCall();
+                    openNodeScope(PrimaryExpression3);
+                }
+                ParseException parseException133 = null;
+                int callStackSize134 = parsingStack.size();
+                try {
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:173:8
+                    consumeToken(OPEN_PAREN);
+                    // Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:173:21
+                    if (first_set$Expressions_inc_ccc$173$22.contains(nextTokenType())) {
+                        // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:173:22
+                        pushOntoCallStack("PrimaryExpression", "src/parser/Expressions.inc.ccc", 173, 22);
+                        try {
+                            ArgsList();
+                        } finally {
+                            popCallStack();
+                        }
+                    }
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:173:32
+                    consumeToken(CLOSE_PAREN);
+                } catch (ParseException e) {
+                    parseException133 = e;
+                    throw e;
+                } finally {
+                    restoreCallStack(callStackSize134);
+                    if (PrimaryExpression3 != null) {
+                        if (parseException133 == null) {
+                            closeNodeScope(PrimaryExpression3, nodeArity() + 1);
+                        } else {
+                            clearNodeScope();
+                        }
+                    }
+                }
+            } else if (nextTokenType() == BUILT_IN) {
+                // Code for Terminal specified at src/parser/Expressions.inc.ccc:175:7
+                consumeToken(BUILT_IN);
+                // Code for Terminal specified at src/parser/Expressions.inc.ccc:175:17
+                BuiltInExpression PrimaryExpression4 = null;
+                if (buildTree) {
+                    PrimaryExpression4 = new BuiltInExpression();
+                    openNodeScope(PrimaryExpression4);
+                }
+                ParseException parseException168 = null;
+                int callStackSize169 = parsingStack.size();
+                try {
+                    consumeToken(ID);
+                } catch (ParseException e) {
+                    parseException168 = e;
+                    throw e;
+                } finally {
+                    restoreCallStack(callStackSize169);
+                    if (PrimaryExpression4 != null) {
+                        if (parseException168 == null) {
+                            closeNodeScope(PrimaryExpression4, 3);
+                        } else {
+                            clearNodeScope();
+                        }
+                    }
+                }
+            } else if (nextTokenType() == EXISTS) {
+                // Code for Terminal specified at src/parser/Expressions.inc.ccc:177:7
+                ExistsExpression PrimaryExpression5 = null;
+                if (buildTree) {
+                    PrimaryExpression5 = new ExistsExpression();
+                    openNodeScope(PrimaryExpression5);
+                }
+                ParseException parseException176 = null;
+                int callStackSize177 = parsingStack.size();
+                try {
+                    consumeToken(EXISTS);
+                } catch (ParseException e) {
+                    parseException176 = e;
+                    throw e;
+                } finally {
+                    restoreCallStack(callStackSize177);
+                    if (PrimaryExpression5 != null) {
+                        if (parseException176 == null) {
+                            closeNodeScope(PrimaryExpression5, 2);
+                        } else {
+                            clearNodeScope();
+                        }
+                    }
+                }
+            } else if (nextTokenType() == EXCLAM) {
+                DefaultToExpression PrimaryExpression6 = null;
+                if (buildTree) {
+                    PrimaryExpression6 = new DefaultToExpression();
+                    openNodeScope(PrimaryExpression6);
+                }
+                ParseException parseException184 = null;
+                int callStackSize185 = parsingStack.size();
+                try {
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:180:9
+                    consumeToken(EXCLAM);
+                    // Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:181:9
+                    if ((getToken(1).getType() != TokenType.ID || getToken(2).getType() != TokenType.EQUALS) && scan$Expressions_inc_ccc$182$13()) {
+                        // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:183:16
+                        pushOntoCallStack("PrimaryExpression", "src/parser/Expressions.inc.ccc", 183, 16);
+                        try {
+                            PrimaryExpression(false);
+                        } finally {
+                            popCallStack();
+                        }
+                    }
+                } catch (ParseException e) {
+                    parseException184 = e;
+                    throw e;
+                } finally {
+                    restoreCallStack(callStackSize185);
+                    if (PrimaryExpression6 != null) {
+                        if (parseException184 == null) {
+                            closeNodeScope(PrimaryExpression6, nodeArity() + 1);
+                        } else {
+                            clearNodeScope();
+                        }
+                    }
+                }
+            } else if (nextTokenType() == DOUBLE_COLON) {
+                // Code for Terminal specified at src/parser/Expressions.inc.ccc:187:7
+                consumeToken(DOUBLE_COLON);
+                // Code for Terminal specified at src/parser/Expressions.inc.ccc:187:22
+                MethodReference PrimaryExpression7 = null;
+                if (buildTree) {
+                    PrimaryExpression7 = new MethodReference();
+                    openNodeScope(PrimaryExpression7);
+                }
+                ParseException parseException215 = null;
+                int callStackSize216 = parsingStack.size();
+                try {
+                    consumeToken(ID);
+                } catch (ParseException e) {
+                    parseException215 = e;
+                    throw e;
+                } finally {
+                    restoreCallStack(callStackSize216);
+                    if (PrimaryExpression7 != null) {
+                        if (parseException215 == null) {
+                            closeNodeScope(PrimaryExpression7, 3);
+                        } else {
+                            clearNodeScope();
+                        }
+                    }
+                }
+            } else {
+                pushOntoCallStack("PrimaryExpression", "src/parser/Expressions.inc.ccc", 165, 7);
+                throw new ParseException(lastConsumedToken, first_set$Expressions_inc_ccc$165$7, parsingStack);
+            }
+        }
+    }
+
+    // src/parser/Expressions.inc.ccc:192:1
+    final public void ParentheticalExpression() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "ParentheticalExpression";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:192:1
+        ParentheticalExpression thisProduction = null;
+        if (buildTree) {
+            thisProduction = new ParentheticalExpression();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Expressions.inc.ccc:193:5
+            consumeToken(OPEN_PAREN);
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:194:5
+            pushOntoCallStack("ParentheticalExpression", "src/parser/Expressions.inc.ccc", 194, 5);
+            try {
+                Expression();
+            } finally {
+                popCallStack();
+            }
+            // Code for Terminal specified at src/parser/Expressions.inc.ccc:195:5
+            consumeToken(CLOSE_PAREN);
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    private static final EnumSet<TokenType> UnaryExpression_FIRST_SET = UnaryExpression_FIRST_SET_init();
+
+    private static EnumSet<TokenType> UnaryExpression_FIRST_SET_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, DOT, PLUS, MINUS, EXCLAM, OPEN_BRACKET, OPEN_PAREN, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER, ID);
+    }
+
+    // src/parser/Expressions.inc.ccc:283:1
+    final public void UnaryExpression() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "UnaryExpression";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:283:1
+        // Code for ExpansionChoice specified at src/parser/Expressions.inc.ccc:284:4
+        if (nextTokenType() == PLUS || nextTokenType == MINUS) {
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:284:4
+            pushOntoCallStack("UnaryExpression", "src/parser/Expressions.inc.ccc", 284, 4);
+            try {
+                UnaryPlusMinusExpression();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == EXCLAM) {
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:286:4
+            pushOntoCallStack("UnaryExpression", "src/parser/Expressions.inc.ccc", 286, 4);
+            try {
+                NotExpression();
+            } finally {
+                popCallStack();
+            }
+        } else if (first_set$Expressions_inc_ccc$288$4.contains(nextTokenType())) {
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:288:4
+            pushOntoCallStack("UnaryExpression", "src/parser/Expressions.inc.ccc", 288, 4);
+            try {
+                PrimaryExpression(false);
+            } finally {
+                popCallStack();
+            }
+        } else {
+            pushOntoCallStack("UnaryExpression", "src/parser/Expressions.inc.ccc", 284, 4);
+            throw new ParseException(lastConsumedToken, UnaryExpression_FIRST_SET, parsingStack);
+        }
+    }
+
+    // src/parser/Expressions.inc.ccc:291:1
+    final public void NotExpression() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "NotExpression";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:291:1
+        NotExpression thisProduction = null;
+        if (buildTree) {
+            thisProduction = new NotExpression();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Expressions.inc.ccc:292:4
+            consumeToken(EXCLAM);
+            if (first_set$Expressions_inc_ccc$294$7.contains(nextTokenType())) {
+                // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:294:7
+                pushOntoCallStack("NotExpression", "src/parser/Expressions.inc.ccc", 294, 7);
+                try {
+                    PrimaryExpression(false);
+                } finally {
+                    popCallStack();
+                }
+            } else if (nextTokenType() == EXCLAM) {
+                // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:296:7
+                pushOntoCallStack("NotExpression", "src/parser/Expressions.inc.ccc", 296, 7);
+                try {
+                    NotExpression();
+                } finally {
+                    popCallStack();
+                }
+            } else {
+                pushOntoCallStack("NotExpression", "src/parser/Expressions.inc.ccc", 294, 7);
+                throw new ParseException(lastConsumedToken, first_set$Expressions_inc_ccc$294$7$, parsingStack);
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Expressions.inc.ccc:323:1
+    final public void UnaryPlusMinusExpression() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "UnaryPlusMinusExpression";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:323:1
+        UnaryPlusMinusExpression thisProduction = null;
+        if (buildTree) {
+            thisProduction = new UnaryPlusMinusExpression();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            if (nextTokenType() == PLUS) {
+                // Code for Terminal specified at src/parser/Expressions.inc.ccc:325:7
+                consumeToken(PLUS);
+            } else if (nextTokenType() == MINUS) {
+                // Code for Terminal specified at src/parser/Expressions.inc.ccc:327:7
+                consumeToken(MINUS);
+            } else {
+                pushOntoCallStack("UnaryPlusMinusExpression", "src/parser/Expressions.inc.ccc", 325, 7);
+                throw new ParseException(lastConsumedToken, first_set$Expressions_inc_ccc$325$7, parsingStack);
+            }
+            if (nextTokenType() == PLUS || nextTokenType == MINUS) {
+                // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:330:7
+                pushOntoCallStack("UnaryPlusMinusExpression", "src/parser/Expressions.inc.ccc", 330, 7);
+                try {
+                    UnaryPlusMinusExpression();
+                } finally {
+                    popCallStack();
+                }
+            } else if (first_set$Expressions_inc_ccc$332$7.contains(nextTokenType())) {
+                // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:332:7
+                pushOntoCallStack("UnaryPlusMinusExpression", "src/parser/Expressions.inc.ccc", 332, 7);
+                try {
+                    PrimaryExpression(false);
+                } finally {
+                    popCallStack();
+                }
+            } else {
+                pushOntoCallStack("UnaryPlusMinusExpression", "src/parser/Expressions.inc.ccc", 330, 7);
+                throw new ParseException(lastConsumedToken, first_set$Expressions_inc_ccc$330$7, parsingStack);
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Expressions.inc.ccc:376:1
+    final public void AdditiveExpression() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "AdditiveExpression";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:376:1
+        AdditiveExpression thisProduction = null;
+        if (buildTree) {
+            thisProduction = new AdditiveExpression();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:377:4
+            pushOntoCallStack("AdditiveExpression", "src/parser/Expressions.inc.ccc", 377, 4);
+            try {
+                MultiplicativeExpression();
+            } finally {
+                popCallStack();
+            }
+            // Code for ZeroOrMore specified at src/parser/Expressions.inc.ccc:378:4
+            while (true) {
+                if (!(nextTokenType() == PLUS || nextTokenType == MINUS)) break;
+                if (nextTokenType() == PLUS) {
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:380:10
+                    consumeToken(PLUS);
+                } else if (nextTokenType() == MINUS) {
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:382:10
+                    consumeToken(MINUS);
+                } else {
+                    pushOntoCallStack("AdditiveExpression", "src/parser/Expressions.inc.ccc", 380, 10);
+                    throw new ParseException(lastConsumedToken, first_set$Expressions_inc_ccc$380$10, parsingStack);
+                }
+                // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:384:7
+                pushOntoCallStack("AdditiveExpression", "src/parser/Expressions.inc.ccc", 384, 7);
+                try {
+                    MultiplicativeExpression();
+                } finally {
+                    popCallStack();
+                }
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Expressions.inc.ccc:468:1
+    final public void MultiplicativeExpression() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "MultiplicativeExpression";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:468:1
+        MultiplicativeExpression thisProduction = null;
+        if (buildTree) {
+            thisProduction = new MultiplicativeExpression();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:469:4
+            pushOntoCallStack("MultiplicativeExpression", "src/parser/Expressions.inc.ccc", 469, 4);
+            try {
+                UnaryExpression();
+            } finally {
+                popCallStack();
+            }
+            // Code for ZeroOrMore specified at src/parser/Expressions.inc.ccc:470:4
+            while (true) {
+                if (!(nextTokenType() == TIMES || nextTokenType == DIVIDE || nextTokenType == PERCENT)) break;
+                if (nextTokenType() == TIMES) {
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:472:10
+                    consumeToken(TIMES);
+                } else if (nextTokenType() == DIVIDE) {
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:474:10
+                    consumeToken(DIVIDE);
+                } else if (nextTokenType() == PERCENT) {
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:476:10
+                    consumeToken(PERCENT);
+                } else {
+                    pushOntoCallStack("MultiplicativeExpression", "src/parser/Expressions.inc.ccc", 472, 10);
+                    throw new ParseException(lastConsumedToken, first_set$Expressions_inc_ccc$472$10, parsingStack);
+                }
+                // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:478:7
+                pushOntoCallStack("MultiplicativeExpression", "src/parser/Expressions.inc.ccc", 478, 7);
+                try {
+                    UnaryExpression();
+                } finally {
+                    popCallStack();
+                }
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Expressions.inc.ccc:553:1
+    final public void EqualityExpression() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "EqualityExpression";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:553:1
+        EqualityExpression thisProduction = null;
+        if (buildTree) {
+            thisProduction = new EqualityExpression();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:554:4
+            pushOntoCallStack("EqualityExpression", "src/parser/Expressions.inc.ccc", 554, 4);
+            try {
+                RelationalExpression();
+            } finally {
+                popCallStack();
+            }
+            // Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:555:4
+            if (nextTokenType() == EQUALS || nextTokenType == DOUBLE_EQUALS || nextTokenType == NOT_EQUALS) {
+                if (nextTokenType() == NOT_EQUALS) {
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:557:7
+                    consumeToken(NOT_EQUALS);
+                } else if (nextTokenType() == EQUALS) {
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:559:7
+                    consumeToken(EQUALS);
+                } else if (nextTokenType() == DOUBLE_EQUALS) {
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:561:7
+                    consumeToken(DOUBLE_EQUALS);
+                } else {
+                    pushOntoCallStack("EqualityExpression", "src/parser/Expressions.inc.ccc", 557, 7);
+                    throw new ParseException(lastConsumedToken, first_set$Expressions_inc_ccc$557$7, parsingStack);
+                }
+                // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:563:6
+                pushOntoCallStack("EqualityExpression", "src/parser/Expressions.inc.ccc", 563, 6);
+                try {
+                    RelationalExpression();
+                } finally {
+                    popCallStack();
+                }
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Expressions.inc.ccc:622:1
+    final public void RelationalExpression() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "RelationalExpression";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:622:1
+        RelationalExpression thisProduction = null;
+        if (buildTree) {
+            thisProduction = new RelationalExpression();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:623:4
+            pushOntoCallStack("RelationalExpression", "src/parser/Expressions.inc.ccc", 623, 4);
+            try {
+                RangeExpression();
+            } finally {
+                popCallStack();
+            }
+            // Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:624:4
+            if (first_set$Expressions_inc_ccc$625$6.contains(nextTokenType())) {
+                if (nextTokenType() == GREATER_THAN_EQUALS) {
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:626:7
+                    consumeToken(GREATER_THAN_EQUALS);
+                } else if (nextTokenType() == ESCAPED_GTE) {
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:628:7
+                    consumeToken(ESCAPED_GTE);
+                } else if (nextTokenType() == GREATER_THAN) {
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:630:7
+                    consumeToken(GREATER_THAN);
+                } else if (nextTokenType() == ESCAPED_GT) {
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:632:7
+                    consumeToken(ESCAPED_GT);
+                } else if (nextTokenType() == LESS_THAN_EQUALS) {
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:634:7
+                    consumeToken(LESS_THAN_EQUALS);
+                } else if (nextTokenType() == LESS_THAN) {
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:636:7
+                    consumeToken(LESS_THAN);
+                } else {
+                    pushOntoCallStack("RelationalExpression", "src/parser/Expressions.inc.ccc", 626, 7);
+                    throw new ParseException(lastConsumedToken, first_set$Expressions_inc_ccc$626$7, parsingStack);
+                }
+                // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:638:6
+                pushOntoCallStack("RelationalExpression", "src/parser/Expressions.inc.ccc", 638, 6);
+                try {
+                    RangeExpression();
+                } finally {
+                    popCallStack();
+                }
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Expressions.inc.ccc:694:1
+    final public void RangeExpression() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "RangeExpression";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:694:1
+        RangeExpression thisProduction = null;
+        if (buildTree) {
+            thisProduction = new RangeExpression();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:695:4
+            pushOntoCallStack("RangeExpression", "src/parser/Expressions.inc.ccc", 695, 4);
+            try {
+                AdditiveExpression();
+            } finally {
+                popCallStack();
+            }
+            // Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:696:4
+            if (nextTokenType() == DOT_DOT) {
+                // Code for Terminal specified at src/parser/Expressions.inc.ccc:697:5
+                consumeToken(DOT_DOT);
+                // Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:698:5
+                if (first_set$Expressions_inc_ccc$699$8.contains(nextTokenType())) {
+                    // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:699:8
+                    pushOntoCallStack("RangeExpression", "src/parser/Expressions.inc.ccc", 699, 8);
+                    try {
+                        AdditiveExpression();
+                    } finally {
+                        popCallStack();
+                    }
+                }
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Expressions.inc.ccc:780:1
+    final public void AndExpression() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "AndExpression";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:780:1
+        AndExpression thisProduction = null;
+        if (buildTree) {
+            thisProduction = new AndExpression();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:781:4
+            pushOntoCallStack("AndExpression", "src/parser/Expressions.inc.ccc", 781, 4);
+            try {
+                EqualityExpression();
+            } finally {
+                popCallStack();
+            }
+            // Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:782:4
+            if (nextTokenType() == AND) {
+                // Code for Terminal specified at src/parser/Expressions.inc.ccc:783:7
+                consumeToken(AND);
+                // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:784:7
+                pushOntoCallStack("AndExpression", "src/parser/Expressions.inc.ccc", 784, 7);
+                try {
+                    AndExpression();
+                } finally {
+                    popCallStack();
+                }
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Expressions.inc.ccc:817:1
+    final public void OrExpression() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "OrExpression";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:817:1
+        OrExpression thisProduction = null;
+        if (buildTree) {
+            thisProduction = new OrExpression();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:818:4
+            pushOntoCallStack("OrExpression", "src/parser/Expressions.inc.ccc", 818, 4);
+            try {
+                AndExpression();
+            } finally {
+                popCallStack();
+            }
+            // Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:819:4
+            if (nextTokenType() == OR) {
+                // Code for Terminal specified at src/parser/Expressions.inc.ccc:820:7
+                consumeToken(OR);
+                // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:821:7
+                pushOntoCallStack("OrExpression", "src/parser/Expressions.inc.ccc", 821, 7);
+                try {
+                    OrExpression();
+                } finally {
+                    popCallStack();
+                }
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Expressions.inc.ccc:854:1
+    final public void ListLiteral() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "ListLiteral";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:854:1
+        ListLiteral thisProduction = null;
+        if (buildTree) {
+            thisProduction = new ListLiteral();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Expressions.inc.ccc:855:5
+            consumeToken(OPEN_BRACKET);
+            // Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:856:5
+            if (first_set$Expressions_inc_ccc$857$7.contains(nextTokenType())) {
+                // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:857:7
+                pushOntoCallStack("ListLiteral", "src/parser/Expressions.inc.ccc", 857, 7);
+                try {
+                    Expression();
+                } finally {
+                    popCallStack();
+                }
+                // Code for ZeroOrMore specified at src/parser/Expressions.inc.ccc:858:7
+                while (true) {
+                    if (!(nextTokenType() == COMMA)) break;
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:859:10
+                    consumeToken(COMMA);
+                    // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:860:10
+                    pushOntoCallStack("ListLiteral", "src/parser/Expressions.inc.ccc", 860, 10);
+                    try {
+                        Expression();
+                    } finally {
+                        popCallStack();
+                    }
+                }
+            }
+            // Code for Terminal specified at src/parser/Expressions.inc.ccc:863:5
+            consumeToken(CLOSE_BRACKET);
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Expressions.inc.ccc:937:1
+    final public void BuiltinVariable() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "BuiltinVariable";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:937:1
+        BuiltinVariable thisProduction = null;
+        if (buildTree) {
+            thisProduction = new BuiltinVariable();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Expressions.inc.ccc:938:4
+            consumeToken(DOT);
+            // Code for Terminal specified at src/parser/Expressions.inc.ccc:939:4
+            consumeToken(ID);
+            // Code for CodeBlock specified at src/parser/Expressions.inc.ccc:940:4
+            thisProduction.setName(lastConsumedToken.toString());
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Expressions.inc.ccc:1349:1
+    final public void PositionalArgsList() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "PositionalArgsList";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:1349:1
+        PositionalArgsList thisProduction = null;
+        if (buildTree) {
+            thisProduction = new PositionalArgsList();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:1350:2
+            pushOntoCallStack("PositionalArgsList", "src/parser/Expressions.inc.ccc", 1350, 2);
+            try {
+                Expression();
+            } finally {
+                popCallStack();
+            }
+            // Code for ZeroOrMore specified at src/parser/Expressions.inc.ccc:1351:2
+            while (true) {
+                if (!(first_set$Expressions_inc_ccc$1352$5.contains(nextTokenType()))) break;
+                // Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:1352:5
+                if (nextTokenType() == COMMA) {
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:1352:6
+                    consumeToken(COMMA);
+                }
+                // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:1353:5
+                pushOntoCallStack("PositionalArgsList", "src/parser/Expressions.inc.ccc", 1353, 5);
+                try {
+                    Expression();
+                } finally {
+                    popCallStack();
+                }
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, true);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Expressions.inc.ccc:1424:1
+    final public void NamedArgsList() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "NamedArgsList";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:1424:1
+        NamedArgsList thisProduction = null;
+        if (buildTree) {
+            thisProduction = new NamedArgsList();
+            openNodeScope(thisProduction);
+        }
+        String param;
+        Expression arg;
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Expressions.inc.ccc:1429:2
+            consumeToken(ID);
+            // Code for CodeBlock specified at src/parser/Expressions.inc.ccc:1429:7
+            param = lastConsumedToken.toString();
+            // Code for Terminal specified at src/parser/Expressions.inc.ccc:1430:2
+            consumeToken(EQUALS);
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:1431:2
+            pushOntoCallStack("NamedArgsList", "src/parser/Expressions.inc.ccc", 1431, 2);
+            try {
+                arg = Expression();
+            } finally {
+                popCallStack();
+            }
+            // Code for CodeBlock specified at src/parser/Expressions.inc.ccc:1432:2
+            thisProduction.addNamedArg(param, arg);
+            // Code for ZeroOrMore specified at src/parser/Expressions.inc.ccc:1435:2
+            while (true) {
+                if (!(nextTokenType() == COMMA || nextTokenType == ID)) break;
+                // Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:1436:5
+                if (nextTokenType() == COMMA) {
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:1436:6
+                    consumeToken(COMMA);
+                }
+                // Code for Terminal specified at src/parser/Expressions.inc.ccc:1437:5
+                consumeToken(ID);
+                // Code for CodeBlock specified at src/parser/Expressions.inc.ccc:1437:10
+                param = lastConsumedToken.toString();
+                // Code for Terminal specified at src/parser/Expressions.inc.ccc:1438:5
+                consumeToken(EQUALS);
+                // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:1439:5
+                pushOntoCallStack("NamedArgsList", "src/parser/Expressions.inc.ccc", 1439, 5);
+                try {
+                    arg = Expression();
+                } finally {
+                    popCallStack();
+                }
+                // Code for CodeBlock specified at src/parser/Expressions.inc.ccc:1440:5
+                thisProduction.addNamedArg(param, arg);
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Expressions.inc.ccc:1529:1
+    final public void ArgsList() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "ArgsList";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:1529:1
+        if (scan$Expressions_inc_ccc$1531$5()) {
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:1532:8
+            pushOntoCallStack("ArgsList", "src/parser/Expressions.inc.ccc", 1532, 8);
+            try {
+                NamedArgsList();
+            } finally {
+                popCallStack();
+            }
+        } else if (first_set$Expressions_inc_ccc$1534$8.contains(nextTokenType())) {
+            // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:1534:8
+            pushOntoCallStack("ArgsList", "src/parser/Expressions.inc.ccc", 1534, 8);
+            try {
+                PositionalArgsList();
+            } finally {
+                popCallStack();
+            }
+        } else {
+            pushOntoCallStack("ArgsList", "src/parser/Expressions.inc.ccc", 1531, 5);
+            throw new ParseException(lastConsumedToken, first_set$Expressions_inc_ccc$1531$5, parsingStack);
+        }
+    }
+
+    // src/parser/Expressions.inc.ccc:1640:1
+    final public void HashLiteral() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "HashLiteral";
+        // Code for BNFProduction specified at src/parser/Expressions.inc.ccc:1640:1
+        HashLiteral thisProduction = null;
+        if (buildTree) {
+            thisProduction = new HashLiteral();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Expressions.inc.ccc:1641:4
+            consumeToken(OPEN_BRACE);
+            // Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:1642:4
+            if (first_set$Expressions_inc_ccc$1643$8.contains(nextTokenType())) {
+                // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:1643:8
+                pushOntoCallStack("HashLiteral", "src/parser/Expressions.inc.ccc", 1643, 8);
+                try {
+                    Expression();
+                } finally {
+                    popCallStack();
+                }
+                // Code for Terminal specified at src/parser/Expressions.inc.ccc:1644:8
+                consumeToken(COLON);
+                // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:1645:8
+                pushOntoCallStack("HashLiteral", "src/parser/Expressions.inc.ccc", 1645, 8);
+                try {
+                    Expression();
+                } finally {
+                    popCallStack();
+                }
+                // Code for ZeroOrMore specified at src/parser/Expressions.inc.ccc:1646:8
+                while (true) {
+                    if (!(nextTokenType() == COMMA)) break;
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:1647:11
+                    consumeToken(COMMA);
+                    // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:1648:12
+                    pushOntoCallStack("HashLiteral", "src/parser/Expressions.inc.ccc", 1648, 12);
+                    try {
+                        Expression();
+                    } finally {
+                        popCallStack();
+                    }
+                    // Code for Terminal specified at src/parser/Expressions.inc.ccc:1649:12
+                    consumeToken(COLON);
+                    // Code for NonTerminal specified at src/parser/Expressions.inc.ccc:1650:12
+                    pushOntoCallStack("HashLiteral", "src/parser/Expressions.inc.ccc", 1650, 12);
+                    try {
+                        Expression();
+                    } finally {
+                        popCallStack();
+                    }
+                }
+            }
+            // Code for Terminal specified at src/parser/Expressions.inc.ccc:1653:4
+            consumeToken(CLOSE_BRACE);
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:9:1
+    final public void Interpolation() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "Interpolation";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:9:1
+        Interpolation thisProduction = null;
+        if (buildTree) {
+            thisProduction = new Interpolation();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:10:4
+            consumeToken(OUTPUT_ESCAPE);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:11:4
+            pushOntoCallStack("Interpolation", "src/parser/Directives.inc.ccc", 11, 4);
+            try {
+                Expression();
+            } finally {
+                popCallStack();
+            }
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:12:4
+            consumeToken(CLOSE_BRACE);
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:117:1
+    final public void IfBlock() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "IfBlock";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:117:1
+        IfBlock thisProduction = null;
+        if (buildTree) {
+            thisProduction = new IfBlock();
+            openNodeScope(thisProduction);
+        }
+        Token start;
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            ConditionalBlock IfBlock1 = null;
+            if (buildTree) {
+                IfBlock1 = new ConditionalBlock();
+                openNodeScope(IfBlock1);
+            }
+            ParseException parseException11 = null;
+            int callStackSize12 = parsingStack.size();
+            try {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:120:5
+                start = consumeToken(IF);
+                // Code for NonTerminal specified at src/parser/Directives.inc.ccc:121:5
+                pushOntoCallStack("IfBlock", "src/parser/Directives.inc.ccc", 121, 5);
+                try {
+                    Expression();
+                } finally {
+                    popCallStack();
+                }
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:122:5
+                consumeToken(DIRECTIVE_END);
+                // Code for NonTerminal specified at src/parser/Directives.inc.ccc:123:5
+                pushOntoCallStack("IfBlock", "src/parser/Directives.inc.ccc", 123, 5);
+                try {
+                    Block();
+                } finally {
+                    popCallStack();
+                }
+            } catch (ParseException e) {
+                parseException11 = e;
+                throw e;
+            } finally {
+                restoreCallStack(callStackSize12);
+                if (IfBlock1 != null) {
+                    if (parseException11 == null) {
+                        closeNodeScope(IfBlock1, true);
+                    } else {
+                        clearNodeScope();
+                    }
+                }
+            }
+            // Code for ZeroOrMore specified at src/parser/Directives.inc.ccc:125:3
+            while (true) {
+                if (!(nextTokenType() == ELSE_IF)) break;
+                ConditionalBlock IfBlock2 = null;
+                if (buildTree) {
+                    IfBlock2 = new ConditionalBlock();
+                    openNodeScope(IfBlock2);
+                }
+                ParseException parseException42 = null;
+                int callStackSize43 = parsingStack.size();
+                try {
+                    // Code for Terminal specified at src/parser/Directives.inc.ccc:127:9
+                    consumeToken(ELSE_IF);
+                    // Code for CodeBlock specified at src/parser/Directives.inc.ccc:128:9
+                    if (start.charAt(0) == '#' && start.charAt(0) == '#' && start.getBeginColumn() != lastConsumedToken.getBeginColumn()) {
+                        String message = "Mismatched indentation. The #elseif " + " should match the indentation of the #if tag on line " + start.getBeginLine();
+                        throw new ParseException(message, lastConsumedToken, parsingStack);
+                    }
+                    // Code for NonTerminal specified at src/parser/Directives.inc.ccc:136:9
+                    pushOntoCallStack("IfBlock", "src/parser/Directives.inc.ccc", 136, 9);
+                    try {
+                        Expression();
+                    } finally {
+                        popCallStack();
+                    }
+                    // Code for Terminal specified at src/parser/Directives.inc.ccc:137:9
+                    consumeToken(DIRECTIVE_END);
+                    // Code for NonTerminal specified at src/parser/Directives.inc.ccc:138:9
+                    pushOntoCallStack("IfBlock", "src/parser/Directives.inc.ccc", 138, 9);
+                    try {
+                        Block();
+                    } finally {
+                        popCallStack();
+                    }
+                } catch (ParseException e) {
+                    parseException42 = e;
+                    throw e;
+                } finally {
+                    restoreCallStack(callStackSize43);
+                    if (IfBlock2 != null) {
+                        if (parseException42 == null) {
+                            closeNodeScope(IfBlock2, true);
+                        } else {
+                            clearNodeScope();
+                        }
+                    }
+                }
+            }
+            // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:141:3
+            if (nextTokenType() == ELSE) {
+                ConditionalBlock IfBlock3 = null;
+                if (buildTree) {
+                    IfBlock3 = new ConditionalBlock();
+                    openNodeScope(IfBlock3);
+                }
+                ParseException parseException75 = null;
+                int callStackSize76 = parsingStack.size();
+                try {
+                    // Code for Terminal specified at src/parser/Directives.inc.ccc:143:9
+                    consumeToken(ELSE);
+                    // Code for CodeBlock specified at src/parser/Directives.inc.ccc:144:9
+                    if (start.charAt(0) == '#' && start.charAt(0) == '#' && start.getBeginColumn() != lastConsumedToken.getBeginColumn()) {
+                        String message = "Mismatched indentation. The #else" + " should match the indentation of the #if tag on line " + start.getBeginLine();
+                        throw new ParseException(message, lastConsumedToken, parsingStack);
+                    }
+                    // Code for NonTerminal specified at src/parser/Directives.inc.ccc:152:9
+                    pushOntoCallStack("IfBlock", "src/parser/Directives.inc.ccc", 152, 9);
+                    try {
+                        Block();
+                    } finally {
+                        popCallStack();
+                    }
+                } catch (ParseException e) {
+                    parseException75 = e;
+                    throw e;
+                } finally {
+                    restoreCallStack(callStackSize76);
+                    if (IfBlock3 != null) {
+                        if (parseException75 == null) {
+                            closeNodeScope(IfBlock3, true);
+                        } else {
+                            clearNodeScope();
+                        }
+                    }
+                }
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:155:3
+            pushOntoCallStack("IfBlock", "src/parser/Directives.inc.ccc", 155, 3);
+            try {
+                CloseDirectiveBlock(start);
+            } finally {
+                popCallStack();
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:199:1
+    final public void AttemptBlock() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "AttemptBlock";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:199:1
+        AttemptBlock thisProduction = null;
+        if (buildTree) {
+            thisProduction = new AttemptBlock();
+            openNodeScope(thisProduction);
+        }
+        Token start;
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:201:4
+            start = consumeToken(_ATTEMPT);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:202:4
+            pushOntoCallStack("AttemptBlock", "src/parser/Directives.inc.ccc", 202, 4);
+            try {
+                Block();
+            } finally {
+                popCallStack();
+            }
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:203:4
+            consumeToken(_RECOVER);
+            // Code for CodeBlock specified at src/parser/Directives.inc.ccc:204:4
+            if (start.charAt(0) == '/' && start.charAt(1) == '#' && start.getBeginColumn() != lastConsumedToken.getBeginColumn()) {
+                String message = "Mismatched indentation. The #recover " + " should match the indentation of the #attempt tag on line " + start.getBeginLine();
+                throw new ParseException(message, lastConsumedToken, parsingStack);
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:212:4
+            pushOntoCallStack("AttemptBlock", "src/parser/Directives.inc.ccc", 212, 4);
+            try {
+                Block();
+            } finally {
+                popCallStack();
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:213:4
+            pushOntoCallStack("AttemptBlock", "src/parser/Directives.inc.ccc", 213, 4);
+            try {
+                CloseDirectiveBlock(start);
+            } finally {
+                popCallStack();
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:239:1
+    final public void ListBlock() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "ListBlock";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:239:1
+        IteratorBlock thisProduction = null;
+        if (buildTree) {
+            thisProduction = new IteratorBlock();
+            openNodeScope(thisProduction);
+        }
+        Token start;
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:241:4
+            start = consumeToken(LIST);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:242:4
+            pushOntoCallStack("ListBlock", "src/parser/Directives.inc.ccc", 242, 4);
+            try {
+                Expression();
+            } finally {
+                popCallStack();
+            }
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:243:4
+            consumeToken(AS);
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:244:4
+            consumeToken(ID);
+            // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:245:4
+            if (nextTokenType() == COMMA) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:246:7
+                consumeToken(COMMA);
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:247:7
+                consumeToken(ID);
+            }
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:249:4
+            consumeToken(DIRECTIVE_END);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:250:4
+            pushOntoCallStack("ListBlock", "src/parser/Directives.inc.ccc", 250, 4);
+            try {
+                Block();
+            } finally {
+                popCallStack();
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:251:4
+            pushOntoCallStack("ListBlock", "src/parser/Directives.inc.ccc", 251, 4);
+            try {
+                CloseDirectiveBlock(start);
+            } finally {
+                popCallStack();
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, true);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:254:1
+    final public void ForEachBlock() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "ForEachBlock";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:254:1
+        IteratorBlock thisProduction = null;
+        if (buildTree) {
+            thisProduction = new IteratorBlock();
+            openNodeScope(thisProduction);
+        }
+        Token start;
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:256:4
+            start = consumeToken(FOREACH);
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:257:4
+            consumeToken(ID);
+            // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:258:4
+            if (nextTokenType() == COMMA) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:259:7
+                consumeToken(COMMA);
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:260:7
+                consumeToken(ID);
+            }
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:262:4
+            consumeToken(IN);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:263:4
+            pushOntoCallStack("ForEachBlock", "src/parser/Directives.inc.ccc", 263, 4);
+            try {
+                Expression();
+            } finally {
+                popCallStack();
+            }
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:264:4
+            consumeToken(DIRECTIVE_END);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:265:4
+            pushOntoCallStack("ForEachBlock", "src/parser/Directives.inc.ccc", 265, 4);
+            try {
+                Block();
+            } finally {
+                popCallStack();
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:266:4
+            pushOntoCallStack("ForEachBlock", "src/parser/Directives.inc.ccc", 266, 4);
+            try {
+                CloseDirectiveBlock(start);
+            } finally {
+                popCallStack();
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, true);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:330:1
+    final public void BreakInstruction() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "BreakInstruction";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:330:1
+        BreakInstruction thisProduction = null;
+        if (buildTree) {
+            thisProduction = new BreakInstruction();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:331:5
+            consumeToken(BREAK);
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, true);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:348:1
+    final public void AssertionInstruction() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "AssertionInstruction";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:348:1
+        AssertionInstruction thisProduction = null;
+        if (buildTree) {
+            thisProduction = new AssertionInstruction();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:349:4
+            consumeToken(_ASSERT);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:350:4
+            pushOntoCallStack("AssertionInstruction", "src/parser/Directives.inc.ccc", 350, 4);
+            try {
+                Expression();
+            } finally {
+                popCallStack();
+            }
+            // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:351:4
+            if (nextTokenType() == COLON) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:352:7
+                consumeToken(COLON);
+                // Code for NonTerminal specified at src/parser/Directives.inc.ccc:353:7
+                pushOntoCallStack("AssertionInstruction", "src/parser/Directives.inc.ccc", 353, 7);
+                try {
+                    Expression();
+                } finally {
+                    popCallStack();
+                }
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:355:4
+            pushOntoCallStack("AssertionInstruction", "src/parser/Directives.inc.ccc", 355, 4);
+            try {
+                LooseDirectiveEnd();
+            } finally {
+                popCallStack();
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:377:1
+    final public void ExecInstruction() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "ExecInstruction";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:377:1
+        ExecInstruction thisProduction = null;
+        if (buildTree) {
+            thisProduction = new ExecInstruction();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:378:5
+            consumeToken(EXEC);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:378:12
+            pushOntoCallStack("ExecInstruction", "src/parser/Directives.inc.ccc", 378, 12);
+            try {
+                Expression();
+            } finally {
+                popCallStack();
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:378:23
+            pushOntoCallStack("ExecInstruction", "src/parser/Directives.inc.ccc", 378, 23);
+            try {
+                LooseDirectiveEnd();
+            } finally {
+                popCallStack();
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:394:1
+    final public void ReturnInstruction() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "ReturnInstruction";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:394:1
+        ReturnInstruction thisProduction = null;
+        if (buildTree) {
+            thisProduction = new ReturnInstruction();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:395:4
+            consumeToken(RETURN);
+            // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:395:13
+            if (first_set$Directives_inc_ccc$395$14.contains(nextTokenType())) {
+                // Code for NonTerminal specified at src/parser/Directives.inc.ccc:395:14
+                pushOntoCallStack("ReturnInstruction", "src/parser/Directives.inc.ccc", 395, 14);
+                try {
+                    Expression();
+                } finally {
+                    popCallStack();
+                }
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:395:26
+            pushOntoCallStack("ReturnInstruction", "src/parser/Directives.inc.ccc", 395, 26);
+            try {
+                LooseDirectiveEnd();
+            } finally {
+                popCallStack();
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:425:1
+    final public void StopInstruction() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "StopInstruction";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:425:1
+        StopInstruction thisProduction = null;
+        if (buildTree) {
+            thisProduction = new StopInstruction();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:426:4
+            consumeToken(STOP);
+            // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:426:11
+            if (first_set$Directives_inc_ccc$426$12.contains(nextTokenType())) {
+                // Code for NonTerminal specified at src/parser/Directives.inc.ccc:426:12
+                pushOntoCallStack("StopInstruction", "src/parser/Directives.inc.ccc", 426, 12);
+                try {
+                    Expression();
+                } finally {
+                    popCallStack();
+                }
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:426:24
+            pushOntoCallStack("StopInstruction", "src/parser/Directives.inc.ccc", 426, 24);
+            try {
+                LooseDirectiveEnd();
+            } finally {
+                popCallStack();
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, true);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:449:1
+    final public void NestedInstruction() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "NestedInstruction";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:449:1
+        NestedInstruction thisProduction = null;
+        if (buildTree) {
+            thisProduction = new NestedInstruction();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:450:5
+            consumeToken(NESTED);
+            // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:451:5
+            if (first_set$Directives_inc_ccc$451$6.contains(nextTokenType())) {
+                // Code for NonTerminal specified at src/parser/Directives.inc.ccc:451:6
+                pushOntoCallStack("NestedInstruction", "src/parser/Directives.inc.ccc", 451, 6);
+                try {
+                    PositionalArgsList();
+                } finally {
+                    popCallStack();
+                }
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:452:5
+            pushOntoCallStack("NestedInstruction", "src/parser/Directives.inc.ccc", 452, 5);
+            try {
+                LooseDirectiveEnd();
+            } finally {
+                popCallStack();
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, true);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:482:1
+    final public void FlushInstruction() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "FlushInstruction";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:482:1
+        FlushInstruction thisProduction = null;
+        if (buildTree) {
+            thisProduction = new FlushInstruction();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:483:4
+            consumeToken(FLUSH);
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, true);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    private static final EnumSet<TokenType> TrimInstruction_FIRST_SET = tokenTypeSet(LTRIM, RTRIM, TRIM);
+
+    // src/parser/Directives.inc.ccc:500:1
+    final public void TrimInstruction() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "TrimInstruction";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:500:1
+        TrimInstruction thisProduction = null;
+        if (buildTree) {
+            thisProduction = new TrimInstruction();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for ExpansionChoice specified at src/parser/Directives.inc.ccc:500:20
+            if (nextTokenType() == TRIM) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:500:20
+                consumeToken(TRIM);
+            } else if (nextTokenType() == LTRIM) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:500:27
+                consumeToken(LTRIM);
+            } else if (nextTokenType() == RTRIM) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:500:35
+                consumeToken(RTRIM);
+            } else {
+                pushOntoCallStack("TrimInstruction", "src/parser/Directives.inc.ccc", 500, 20);
+                throw new ParseException(lastConsumedToken, TrimInstruction_FIRST_SET, parsingStack);
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, true);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:530:1
+    final public void BlockAssignment() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "BlockAssignment";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:530:1
+        BlockAssignment thisProduction = null;
+        if (buildTree) {
+            thisProduction = new BlockAssignment();
+            openNodeScope(thisProduction);
+        }
+        Token start;
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            if (nextTokenType() == ASSIGN) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:535:5
+                consumeToken(ASSIGN);
+            } else if (nextTokenType() == GLOBALASSIGN) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:537:5
+                consumeToken(GLOBALASSIGN);
+            } else if (nextTokenType() == LOCALASSIGN) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:539:5
+                consumeToken(LOCALASSIGN);
+            } else if (nextTokenType() == SET) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:541:5
+                consumeToken(SET);
+            } else {
+                pushOntoCallStack("BlockAssignment", "src/parser/Directives.inc.ccc", 535, 5);
+                throw new ParseException(lastConsumedToken, first_set$Directives_inc_ccc$535$5, parsingStack);
+            }
+            // Code for CodeBlock specified at src/parser/Directives.inc.ccc:543:4
+            start = lastConsumedToken;
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:544:4
+            pushOntoCallStack("BlockAssignment", "src/parser/Directives.inc.ccc", 544, 4);
+            try {
+                PrimaryExpression(false);
+            } finally {
+                popCallStack();
+            }
+            // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:545:4
+            if ((peekNode() instanceof Token) && scan$Directives_inc_ccc$546$7()) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:547:7
+                consumeToken(IN);
+                // Code for NonTerminal specified at src/parser/Directives.inc.ccc:548:7
+                pushOntoCallStack("BlockAssignment", "src/parser/Directives.inc.ccc", 548, 7);
+                try {
+                    Expression();
+                } finally {
+                    popCallStack();
+                }
+            }
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:550:4
+            consumeToken(DIRECTIVE_END);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:551:4
+            pushOntoCallStack("BlockAssignment", "src/parser/Directives.inc.ccc", 551, 4);
+            try {
+                Block();
+            } finally {
+                popCallStack();
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:552:4
+            pushOntoCallStack("BlockAssignment", "src/parser/Directives.inc.ccc", 552, 4);
+            try {
+                CloseDirectiveBlock(start);
+            } finally {
+                popCallStack();
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:629:1
+    final public void AssignmentInstruction() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "AssignmentInstruction";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:629:1
+        org.congocc.templates.core.nodes.AssignmentInstruction thisProduction = null;
+        if (buildTree) {
+            thisProduction = new org.congocc.templates.core.nodes.AssignmentInstruction();
+            openNodeScope(thisProduction);
+        }
+        boolean complexLHS = false;
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            if (nextTokenType() == ASSIGN) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:631:5
+                consumeToken(ASSIGN);
+            } else if (nextTokenType() == GLOBALASSIGN) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:631:14
+                consumeToken(GLOBALASSIGN);
+            } else if (nextTokenType() == LOCALASSIGN) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:631:29
+                consumeToken(LOCALASSIGN);
+            } else if (nextTokenType() == SET) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:631:43
+                consumeToken(SET);
+            } else {
+                pushOntoCallStack("AssignmentInstruction", "src/parser/Directives.inc.ccc", 631, 5);
+                throw new ParseException(lastConsumedToken, first_set$Directives_inc_ccc$631$5, parsingStack);
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:632:4
+            pushOntoCallStack("AssignmentInstruction", "src/parser/Directives.inc.ccc", 632, 4);
+            try {
+                PrimaryExpression(false);
+            } finally {
+                popCallStack();
+            }
+            // Code for CodeBlock specified at src/parser/Directives.inc.ccc:633:4
+            if (!(peekNode() instanceof Token)) complexLHS = true;
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:634:4
+            consumeToken(EQUALS);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:635:4
+            pushOntoCallStack("AssignmentInstruction", "src/parser/Directives.inc.ccc", 635, 4);
+            try {
+                Expression();
+            } finally {
+                popCallStack();
+            }
+            // Code for ZeroOrMore specified at src/parser/Directives.inc.ccc:636:4
+            while (true) {
+                if (!(first_set$Directives_inc_ccc$637$6.contains(nextTokenType()))) break;
+                // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:637:6
+                if (nextTokenType() == COMMA) {
+                    // Code for Terminal specified at src/parser/Directives.inc.ccc:637:7
+                    consumeToken(COMMA);
+                }
+                // Code for NonTerminal specified at src/parser/Directives.inc.ccc:638:6
+                pushOntoCallStack("AssignmentInstruction", "src/parser/Directives.inc.ccc", 638, 6);
+                try {
+                    PrimaryExpression(false);
+                } finally {
+                    popCallStack();
+                }
+                // Code for CodeBlock specified at src/parser/Directives.inc.ccc:639:6
+                if (!(peekNode() instanceof Token)) complexLHS = true;
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:640:6
+                consumeToken(EQUALS);
+                // Code for NonTerminal specified at src/parser/Directives.inc.ccc:641:6
+                pushOntoCallStack("AssignmentInstruction", "src/parser/Directives.inc.ccc", 641, 6);
+                try {
+                    Expression();
+                } finally {
+                    popCallStack();
+                }
+            }
+            // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:643:4
+            if ((!complexLHS) && scan$Directives_inc_ccc$644$7()) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:645:7
+                consumeToken(IN);
+                // Code for NonTerminal specified at src/parser/Directives.inc.ccc:646:7
+                pushOntoCallStack("AssignmentInstruction", "src/parser/Directives.inc.ccc", 646, 7);
+                try {
+                    Expression();
+                } finally {
+                    popCallStack();
+                }
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:648:4
+            pushOntoCallStack("AssignmentInstruction", "src/parser/Directives.inc.ccc", 648, 4);
+            try {
+                LooseDirectiveEnd();
+            } finally {
+                popCallStack();
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, true);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:651:1
+    final public void IncludeInstruction() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "IncludeInstruction";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:651:1
+        IncludeInstruction thisProduction = null;
+        if (buildTree) {
+            thisProduction = new IncludeInstruction();
+            openNodeScope(thisProduction);
+        }
+        thisProduction.setTemplate(template);
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            if (nextTokenType() == _INCLUDE) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:655:5
+                consumeToken(_INCLUDE);
+            } else if (nextTokenType() == EMBED) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:655:16
+                consumeToken(EMBED);
+            } else {
+                pushOntoCallStack("IncludeInstruction", "src/parser/Directives.inc.ccc", 655, 5);
+                throw new ParseException(lastConsumedToken, first_set$Directives_inc_ccc$655$5, parsingStack);
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:656:4
+            pushOntoCallStack("IncludeInstruction", "src/parser/Directives.inc.ccc", 656, 4);
+            try {
+                Expression();
+            } finally {
+                popCallStack();
+            }
+            // Code for ZeroOrMore specified at src/parser/Directives.inc.ccc:657:4
+            while (true) {
+                if (!(nextTokenType() == ID)) break;
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:658:5
+                consumeToken(ID);
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:658:9
+                consumeToken(EQUALS);
+                // Code for NonTerminal specified at src/parser/Directives.inc.ccc:658:17
+                pushOntoCallStack("IncludeInstruction", "src/parser/Directives.inc.ccc", 658, 17);
+                try {
+                    Expression();
+                } finally {
+                    popCallStack();
+                }
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:660:4
+            pushOntoCallStack("IncludeInstruction", "src/parser/Directives.inc.ccc", 660, 4);
+            try {
+                LooseDirectiveEnd();
+            } finally {
+                popCallStack();
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:739:1
+    final public void ImportDeclaration() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "ImportDeclaration";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:739:1
+        ImportDeclaration thisProduction = null;
+        if (buildTree) {
+            thisProduction = new ImportDeclaration();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:740:4
+            consumeToken(IMPORT);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:741:4
+            pushOntoCallStack("ImportDeclaration", "src/parser/Directives.inc.ccc", 741, 4);
+            try {
+                Expression();
+            } finally {
+                popCallStack();
+            }
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:742:4
+            consumeToken(AS);
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:743:4
+            consumeToken(ID);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:744:4
+            pushOntoCallStack("ImportDeclaration", "src/parser/Directives.inc.ccc", 744, 4);
+            try {
+                LooseDirectiveEnd();
+            } finally {
+                popCallStack();
+            }
+            // Code for CodeBlock specified at src/parser/Directives.inc.ccc:745:4
+            thisProduction.setTemplate(template);
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:825:1
+    final public org.congocc.templates.core.nodes.ParameterList ParameterList() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "ParameterList";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:825:1
+        org.congocc.templates.core.nodes.ParameterList thisProduction = null;
+        if (buildTree) {
+            thisProduction = new org.congocc.templates.core.nodes.ParameterList();
+            openNodeScope(thisProduction);
+        }
+        Token arg = null, firstArg = null, ellipsis = null;
+        Expression defValue = null;
+        String catchAll = null;
+        boolean isCatchAll = false, hasDefaults = false;
+        Set<String> paramNames = new HashSet<String>();
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for ZeroOrMore specified at src/parser/Directives.inc.ccc:833:5
+            while (true) {
+                if (!(nextTokenType() == ID)) break;
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:834:11
+                arg = consumeToken(ID);
+                // Code for CodeBlock specified at src/parser/Directives.inc.ccc:835:11
+                if (firstArg == null) firstArg = arg;
+                defValue = null;
+                if (paramNames.contains(arg.toString())) {
+                    throw new ParseException(getErrorStart(arg) + "\nThe parameter " + arg.toString() + " cannot be repeated.");
+                }
+                paramNames.add(arg.toString());
+                // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:843:11
+                if (nextTokenType() == ELLIPSIS) {
+                    // Code for Terminal specified at src/parser/Directives.inc.ccc:844:14
+                    ellipsis = consumeToken(ELLIPSIS);
+                    // Code for CodeBlock specified at src/parser/Directives.inc.ccc:844:34
+                    isCatchAll = true;
+                }
+                // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:846:11
+                if (nextTokenType() == EQUALS) {
+                    // Code for Terminal specified at src/parser/Directives.inc.ccc:847:13
+                    consumeToken(EQUALS);
+                    // Code for NonTerminal specified at src/parser/Directives.inc.ccc:848:12
+                    pushOntoCallStack("ParameterList", "src/parser/Directives.inc.ccc", 848, 12);
+                    try {
+                        defValue = Expression();
+                    } finally {
+                        popCallStack();
+                    }
+                    // Code for CodeBlock specified at src/parser/Directives.inc.ccc:849:13
+                    hasDefaults = true;
+                }
+                // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:853:11
+                if (nextTokenType() == COMMA) {
+                    // Code for Terminal specified at src/parser/Directives.inc.ccc:853:12
+                    consumeToken(COMMA);
+                }
+                // Code for CodeBlock specified at src/parser/Directives.inc.ccc:854:4
+                if (catchAll != null) {
+                    throw new ParseException(getErrorStart(arg) + "\nThere may only be one \"catch-all\" parameter in a macro declaration, " + "and it must be the last parameter.", arg.getBeginLine(), arg.getEndLine());
+                }
+                if (isCatchAll) {
+                    if (defValue != null) {
+                        throw new ParseException(getErrorStart(arg) + "\n\"Catch-all\" macro parameter may not have a default value.", arg.getBeginLine(), arg.getEndLine());
+                    }
+                    thisProduction.setCatchAll(arg.toString());
+                } else if (defValue == null) {
+                    if (hasDefaults) {
+                        throw new ParseException(getErrorStart(arg) + "\nIn a macro declaration, parameters without a default value " + "must all occur before the parameters with default values.", arg.getBeginLine(), arg.getEndLine());
+                    }
+                    thisProduction.addParam(arg.toString());
+                } else {
+                    thisProduction.addParam(arg.toString(), defValue);
+                    hasDefaults = true;
+                }
+            }
+            // Code for CodeBlock specified at src/parser/Directives.inc.ccc:883:2
+            return thisProduction;
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, true);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:889:1
+    final public void Macro() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "Macro";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:889:1
+        Macro thisProduction = null;
+        if (buildTree) {
+            thisProduction = new Macro();
+            openNodeScope(thisProduction);
+        }
+        Token start;
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:891:5
+            start = consumeToken(_MACRO);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:892:5
+            pushOntoCallStack("Macro", "src/parser/Directives.inc.ccc", 892, 5);
+            try {
+                IdentifierOrStringLiteral();
+            } finally {
+                popCallStack();
+            }
+            // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:893:5
+            if (nextTokenType() == OPEN_PAREN) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:893:6
+                consumeToken(OPEN_PAREN);
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:894:5
+            pushOntoCallStack("Macro", "src/parser/Directives.inc.ccc", 894, 5);
+            try {
+                ParameterList();
+            } finally {
+                popCallStack();
+            }
+            // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:895:5
+            if (nextTokenType() == CLOSE_PAREN) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:895:6
+                consumeToken(CLOSE_PAREN);
+            }
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:896:5
+            consumeToken(DIRECTIVE_END);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:897:5
+            pushOntoCallStack("Macro", "src/parser/Directives.inc.ccc", 897, 5);
+            try {
+                Block();
+            } finally {
+                popCallStack();
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:898:5
+            pushOntoCallStack("Macro", "src/parser/Directives.inc.ccc", 898, 5);
+            try {
+                CloseDirectiveBlock(start);
+            } finally {
+                popCallStack();
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:901:1
+    final public void Function() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "Function";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:901:1
+        Macro thisProduction = null;
+        if (buildTree) {
+            thisProduction = new Macro();
+            openNodeScope(thisProduction);
+        }
+        Token start;
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:903:5
+            start = consumeToken(FUNCTION);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:904:5
+            pushOntoCallStack("Function", "src/parser/Directives.inc.ccc", 904, 5);
+            try {
+                IdentifierOrStringLiteral();
+            } finally {
+                popCallStack();
+            }
+            // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:905:5
+            if (nextTokenType() == OPEN_PAREN) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:905:6
+                consumeToken(OPEN_PAREN);
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:906:5
+            pushOntoCallStack("Function", "src/parser/Directives.inc.ccc", 906, 5);
+            try {
+                ParameterList();
+            } finally {
+                popCallStack();
+            }
+            // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:907:5
+            if (nextTokenType() == CLOSE_PAREN) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:907:6
+                consumeToken(CLOSE_PAREN);
+            }
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:908:5
+            consumeToken(DIRECTIVE_END);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:909:5
+            pushOntoCallStack("Function", "src/parser/Directives.inc.ccc", 909, 5);
+            try {
+                Block();
+            } finally {
+                popCallStack();
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:910:5
+            pushOntoCallStack("Function", "src/parser/Directives.inc.ccc", 910, 5);
+            try {
+                CloseDirectiveBlock(start);
+            } finally {
+                popCallStack();
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, true);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:979:1
+    final public void UnifiedCall() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "UnifiedCall";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:979:1
+        UnifiedCall thisProduction = null;
+        if (buildTree) {
+            thisProduction = new UnifiedCall();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:980:4
+            consumeToken(UNIFIED_CALL);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:981:4
+            pushOntoCallStack("UnifiedCall", "src/parser/Directives.inc.ccc", 981, 4);
+            try {
+                PrimaryExpression(true);
+            } finally {
+                popCallStack();
+            }
+            // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:982:4
+            if (first_set$Directives_inc_ccc$982$5.contains(nextTokenType())) {
+                // Code for NonTerminal specified at src/parser/Directives.inc.ccc:982:5
+                pushOntoCallStack("UnifiedCall", "src/parser/Directives.inc.ccc", 982, 5);
+                try {
+                    ArgsList();
+                } finally {
+                    popCallStack();
+                }
+            }
+            // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:983:4
+            if (nextTokenType() == SEMICOLON) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:984:8
+                consumeToken(SEMICOLON);
+                // Code for NonTerminal specified at src/parser/Directives.inc.ccc:985:8
+                pushOntoCallStack("UnifiedCall", "src/parser/Directives.inc.ccc", 985, 8);
+                try {
+                    ParameterList();
+                } finally {
+                    popCallStack();
+                }
+            }
+            if (nextTokenType() == EMPTY_DIRECTIVE_END) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:988:7
+                consumeToken(EMPTY_DIRECTIVE_END);
+            } else if (nextTokenType() == DIRECTIVE_END) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:990:7
+                consumeToken(DIRECTIVE_END);
+                // Code for NonTerminal specified at src/parser/Directives.inc.ccc:991:7
+                pushOntoCallStack("UnifiedCall", "src/parser/Directives.inc.ccc", 991, 7);
+                try {
+                    Block();
+                } finally {
+                    popCallStack();
+                }
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:992:7
+                consumeToken(UNIFIED_CALL_END);
+            } else {
+                pushOntoCallStack("UnifiedCall", "src/parser/Directives.inc.ccc", 988, 7);
+                throw new ParseException(lastConsumedToken, first_set$Directives_inc_ccc$988$7, parsingStack);
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:1096:1
+    final public Map<String, Expression> NamedArgs() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "NamedArgs";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:1096:1
+        Map<String, Expression> result = new LinkedHashMap<String, Expression>();
+        Token t;
+        Expression exp;
+        // Code for OneOrMore specified at src/parser/Directives.inc.ccc:1102:3
+        while (true) {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:1103:6
+            t = consumeToken(ID);
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:1104:6
+            consumeToken(EQUALS);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1105:6
+            pushOntoCallStack("NamedArgs", "src/parser/Directives.inc.ccc", 1105, 6);
+            try {
+                exp = Expression();
+            } finally {
+                popCallStack();
+            }
+            // Code for CodeBlock specified at src/parser/Directives.inc.ccc:1106:6
+            if (result.containsKey(t.toString())) {
+                throw new ParseException(getErrorStart(t) + "\nValue of named parameter '" + t.toString() + "' may only be specified once.", t.getBeginLine(), t.getEndLine());
+            }
+            result.put(t.toString(), exp);
+            if (!(nextTokenType() == ID)) break;
+        }
+        // Code for CodeBlock specified at src/parser/Directives.inc.ccc:1115:3
+        return result;
+    }
+
+    // src/parser/Directives.inc.ccc:1120:1
+    final public void NoParseBlock() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "NoParseBlock";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:1120:1
+        NoParseBlock thisProduction = null;
+        if (buildTree) {
+            thisProduction = new NoParseBlock();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:1121:5
+            consumeToken(NOPARSE);
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, true);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:1147:1
+    final public void EscapeBlock() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "EscapeBlock";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:1147:1
+        EscapeBlock thisProduction = null;
+        if (buildTree) {
+            thisProduction = new EscapeBlock();
+            openNodeScope(thisProduction);
+        }
+        Token start;
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:1149:5
+            start = consumeToken(ESCAPE);
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:1150:5
+            consumeToken(ID);
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:1151:5
+            consumeToken(AS);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1152:5
+            pushOntoCallStack("EscapeBlock", "src/parser/Directives.inc.ccc", 1152, 5);
+            try {
+                Expression();
+            } finally {
+                popCallStack();
+            }
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:1153:5
+            consumeToken(DIRECTIVE_END);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1154:5
+            pushOntoCallStack("EscapeBlock", "src/parser/Directives.inc.ccc", 1154, 5);
+            try {
+                Block();
+            } finally {
+                popCallStack();
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1155:5
+            pushOntoCallStack("EscapeBlock", "src/parser/Directives.inc.ccc", 1155, 5);
+            try {
+                CloseDirectiveBlock(start);
+            } finally {
+                popCallStack();
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:1204:1
+    final public void NoEscapeBlock() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "NoEscapeBlock";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:1204:1
+        NoEscapeBlock thisProduction = null;
+        if (buildTree) {
+            thisProduction = new NoEscapeBlock();
+            openNodeScope(thisProduction);
+        }
+        Token start;
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:1206:5
+            start = consumeToken(NOESCAPE);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1207:5
+            pushOntoCallStack("NoEscapeBlock", "src/parser/Directives.inc.ccc", 1207, 5);
+            try {
+                Block();
+            } finally {
+                popCallStack();
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1208:5
+            pushOntoCallStack("NoEscapeBlock", "src/parser/Directives.inc.ccc", 1208, 5);
+            try {
+                CloseDirectiveBlock(start);
+            } finally {
+                popCallStack();
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:1227:1
+    final public void CloseDirectiveBlock(Token startToken) {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "CloseDirectiveBlock";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:1227:1
+        // Code for ExpansionChoice specified at src/parser/Directives.inc.ccc:1228:5
+        if (nextTokenType() == CLOSE_DIRECTIVE_BLOCK) {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:1228:5
+            consumeToken(CLOSE_DIRECTIVE_BLOCK);
+            // Code for CodeBlock specified at src/parser/Directives.inc.ccc:1229:2
+            String image = lastConsumedToken.toString();
+            String nameAtEnd = image.startsWith("#end") ? image.substring(4) : stripNonLetter(image);
+            String nameAtStart = stripNonLetter(startToken.toString());
+            if (nameAtEnd.length() > 0) {
+                if (!nameAtStart.equals(nameAtEnd)) {
+                    if (!(nameAtStart.equals("attempt") && nameAtEnd.equals("recover"))) {
+                        String message = "Was expecting the closing tag /#" + nameAtStart + " to close the block starting on line " + startToken.getBeginLine() + " but found /#" + nameAtEnd;
+                        throw new ParseException(message, lastConsumedToken, parsingStack);
+                    }
+                }
+            }
+            if (startToken.charAt(0) == '#' && lastConsumedToken.charAt(0) == '/' && startToken.getBeginColumn() != lastConsumedToken.getBeginColumn()) {
+                String message = "Mismatched indentation. The closing tag /#" + nameAtEnd + " should match the indentation of the starting tag on line " + startToken.getBeginLine();
+                throw new ParseException(message, lastConsumedToken, parsingStack);
+            }
+        } else {
+            // Code for Failure specified at src/parser/Directives.inc.ccc:1256:5
+            fail("Failure: " + "Expecting closing tag for " + startToken + " block beginning at " + startToken.getLocation(), getToken(1));
+        }
+    }
+
+    private static final EnumSet<TokenType> LooseDirectiveEnd_FIRST_SET = tokenTypeSet(EMPTY_DIRECTIVE_END, DIRECTIVE_END);
+
+    // src/parser/Directives.inc.ccc:1276:1
+    final public void LooseDirectiveEnd() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "LooseDirectiveEnd";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:1276:1
+        LooseDirectiveEnd thisProduction = null;
+        if (buildTree) {
+            thisProduction = new LooseDirectiveEnd();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for ExpansionChoice specified at src/parser/Directives.inc.ccc:1276:21
+            if (nextTokenType() == DIRECTIVE_END) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:1276:21
+                consumeToken(DIRECTIVE_END);
+            } else if (nextTokenType() == EMPTY_DIRECTIVE_END) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:1276:39
+                consumeToken(EMPTY_DIRECTIVE_END);
+            } else {
+                pushOntoCallStack("LooseDirectiveEnd", "src/parser/Directives.inc.ccc", 1276, 21);
+                throw new ParseException(lastConsumedToken, LooseDirectiveEnd_FIRST_SET, parsingStack);
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:1278:1
+    final public void PropertySetting() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "PropertySetting";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:1278:1
+        PropertySetting thisProduction = null;
+        if (buildTree) {
+            thisProduction = new PropertySetting();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:1279:4
+            consumeToken(SETTING);
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:1280:4
+            consumeToken(ID);
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:1281:4
+            consumeToken(EQUALS);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1282:4
+            pushOntoCallStack("PropertySetting", "src/parser/Directives.inc.ccc", 1282, 4);
+            try {
+                Expression();
+            } finally {
+                popCallStack();
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1283:4
+            pushOntoCallStack("PropertySetting", "src/parser/Directives.inc.ccc", 1283, 4);
+            try {
+                LooseDirectiveEnd();
+            } finally {
+                popCallStack();
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:1320:1
+    final public void VarDirective() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "VarDirective";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:1320:1
+        VarDirective thisProduction = null;
+        if (buildTree) {
+            thisProduction = new VarDirective();
+            openNodeScope(thisProduction);
+        }
+        Expression var, valueExp = null;
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:1324:4
+            consumeToken(VAR);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1326:6
+            pushOntoCallStack("VarDirective", "src/parser/Directives.inc.ccc", 1326, 6);
+            try {
+                var = IdentifierOrStringLiteral();
+            } finally {
+                popCallStack();
+            }
+            // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:1327:6
+            if (nextTokenType() == EQUALS) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:1328:8
+                consumeToken(EQUALS);
+                // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1329:8
+                pushOntoCallStack("VarDirective", "src/parser/Directives.inc.ccc", 1329, 8);
+                try {
+                    valueExp = Expression();
+                } finally {
+                    popCallStack();
+                }
+            }
+            // Code for CodeBlock specified at src/parser/Directives.inc.ccc:1332:4
+            thisProduction.addVar(var, valueExp);
+            valueExp = null;
+            // Code for ZeroOrMore specified at src/parser/Directives.inc.ccc:1336:4
+            while (true) {
+                if (!(nextTokenType() == COMMA || nextTokenType == STRING_LITERAL || nextTokenType == ID)) break;
+                // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:1338:9
+                if (nextTokenType() == COMMA) {
+                    // Code for Terminal specified at src/parser/Directives.inc.ccc:1338:10
+                    consumeToken(COMMA);
+                }
+                // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1339:9
+                pushOntoCallStack("VarDirective", "src/parser/Directives.inc.ccc", 1339, 9);
+                try {
+                    var = IdentifierOrStringLiteral();
+                } finally {
+                    popCallStack();
+                }
+                // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:1340:9
+                if (nextTokenType() == EQUALS) {
+                    // Code for Terminal specified at src/parser/Directives.inc.ccc:1341:12
+                    consumeToken(EQUALS);
+                    // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1342:12
+                    pushOntoCallStack("VarDirective", "src/parser/Directives.inc.ccc", 1342, 12);
+                    try {
+                        valueExp = Expression();
+                    } finally {
+                        popCallStack();
+                    }
+                }
+                // Code for CodeBlock specified at src/parser/Directives.inc.ccc:1345:7
+                thisProduction.addVar(var, valueExp);
+                valueExp = null;
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1350:4
+            pushOntoCallStack("VarDirective", "src/parser/Directives.inc.ccc", 1350, 4);
+            try {
+                LooseDirectiveEnd();
+            } finally {
+                popCallStack();
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, nodeArity() > 1);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    private static final EnumSet<TokenType> TemplateElement_FIRST_SET = TemplateElement_FIRST_SET_init();
+
+    private static EnumSet<TokenType> TemplateElement_FIRST_SET_init() {
+        return tokenTypeSet(ASSIGN, _ASSERT, EMBED, ESCAPE, EXEC, FOREACH, FUNCTION, GLOBALASSIGN, IF, IMPORT, _INCLUDE, LIST, LOCALASSIGN, _MACRO, NESTED, RETURN, SET, SETTING, STOP, VAR, UNIFIED_CALL, NOPARSE, _ATTEMPT, BREAK, FLUSH, LTRIM, NOESCAPE, RTRIM, TRIM);
+    }
+
+    // src/parser/Directives.inc.ccc:1405:1
+    final public void TemplateElement() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "TemplateElement";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:1405:1
+        // Code for ExpansionChoice specified at src/parser/Directives.inc.ccc:1406:4
+        if (nextTokenType() == IF) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1406:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1406, 4);
+            try {
+                IfBlock();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == LIST) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1408:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1408, 4);
+            try {
+                ListBlock();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == FOREACH) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1410:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1410, 4);
+            try {
+                ForEachBlock();
+            } finally {
+                popCallStack();
+            }
+        } else if (scan$Directives_inc_ccc$1412$4()) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1412:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1412, 4);
+            try {
+                AssignmentInstruction();
+            } finally {
+                popCallStack();
+            }
+        } else if (scan$Directives_inc_ccc$1414$4()) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1414:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1414, 4);
+            try {
+                BlockAssignment();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == EMBED || nextTokenType == _INCLUDE) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1416:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1416, 4);
+            try {
+                IncludeInstruction();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == IMPORT) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1418:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1418, 4);
+            try {
+                ImportDeclaration();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == _MACRO) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1420:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1420, 4);
+            try {
+                Macro();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == FUNCTION) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1422:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1422, 4);
+            try {
+                Function();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == UNIFIED_CALL) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1424:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1424, 4);
+            try {
+                UnifiedCall();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == NOPARSE) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1426:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1426, 4);
+            try {
+                NoParseBlock();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == SETTING) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1428:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1428, 4);
+            try {
+                PropertySetting();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == VAR) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1430:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1430, 4);
+            try {
+                VarDirective();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == BREAK) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1432:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1432, 4);
+            try {
+                BreakInstruction();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == RETURN) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1434:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1434, 4);
+            try {
+                ReturnInstruction();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == EXEC) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1436:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1436, 4);
+            try {
+                ExecInstruction();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == STOP) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1438:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1438, 4);
+            try {
+                StopInstruction();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == _ASSERT) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1440:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1440, 4);
+            try {
+                AssertionInstruction();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == FLUSH) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1442:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1442, 4);
+            try {
+                FlushInstruction();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == LTRIM || nextTokenType == RTRIM || nextTokenType == TRIM) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1444:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1444, 4);
+            try {
+                TrimInstruction();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == _ATTEMPT) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1446:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1446, 4);
+            try {
+                AttemptBlock();
+            } finally {
+                popCallStack();
+            }
+        } else if (nextTokenType() == ESCAPE) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1448:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1448, 4);
+            try {
+                EscapeBlock();
+            } finally {
+                popCallStack();
+            }
+        } else if (scan$Directives_inc_ccc$1450$4()) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1451:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1451, 4);
+            try {
+                NoEscapeBlock();
+            } finally {
+                popCallStack();
+            }
+        } else if (scan$Directives_inc_ccc$1453$4()) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1454:4
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1454, 4);
+            try {
+                NestedInstruction();
+            } finally {
+                popCallStack();
+            }
+        } else {
+            pushOntoCallStack("TemplateElement", "src/parser/Directives.inc.ccc", 1406, 4);
+            throw new ParseException(lastConsumedToken, TemplateElement_FIRST_SET, parsingStack);
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:1482:1
+    final public void TextElement() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "TextElement";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:1482:1
+        TextElement thisProduction = null;
+        if (buildTree) {
+            thisProduction = new TextElement();
+            openNodeScope(thisProduction);
+        }
+        Token start = null;
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for OneOrMore specified at src/parser/Directives.inc.ccc:1484:4
+            boolean inFirst0 = true;
+            while (true) {
+                // Code for ExpansionChoice specified at src/parser/Directives.inc.ccc:1485:7
+                if (nextTokenType() == TRAILING_WHITESPACE) {
+                    // Code for Terminal specified at src/parser/Directives.inc.ccc:1485:7
+                    consumeToken(TRAILING_WHITESPACE);
+                } else if (nextTokenType() == NON_TRAILING_WHITESPACE) {
+                    // Code for Terminal specified at src/parser/Directives.inc.ccc:1487:7
+                    consumeToken(NON_TRAILING_WHITESPACE);
+                } else if (nextTokenType() == PROBLEMATIC_CHAR) {
+                    // Code for Terminal specified at src/parser/Directives.inc.ccc:1489:7
+                    consumeToken(PROBLEMATIC_CHAR);
+                } else if (nextTokenType() == POSSIBLE_DIRECTIVE) {
+                    // Code for Terminal specified at src/parser/Directives.inc.ccc:1491:7
+                    consumeToken(POSSIBLE_DIRECTIVE);
+                } else if (nextTokenType() == POSSIBLE_END_DIRECTIVE) {
+                    // Code for Terminal specified at src/parser/Directives.inc.ccc:1493:7
+                    consumeToken(POSSIBLE_END_DIRECTIVE);
+                } else if (nextTokenType() == REGULAR_PRINTABLE) {
+                    // Code for Terminal specified at src/parser/Directives.inc.ccc:1495:7
+                    consumeToken(REGULAR_PRINTABLE);
+                } else if (inFirst0) {
+                    pushOntoCallStack("TextElement", "src/parser/Directives.inc.ccc", 1485, 7);
+                    throw new ParseException(lastConsumedToken, first_set$Directives_inc_ccc$1485$7, parsingStack);
+                } else {
+                    break;
+                }
+                inFirst0 = false;
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, true);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:1560:1
+    final public void Block() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "Block";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:1560:1
+        Block thisProduction = null;
+        if (buildTree) {
+            thisProduction = new Block();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for ZeroOrMore specified at src/parser/Directives.inc.ccc:1561:5
+            while (true) {
+                // Code for ExpansionChoice specified at src/parser/Directives.inc.ccc:1562:8
+                if (first_set$Directives_inc_ccc$1562$8.contains(nextTokenType())) {
+                    // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1562:8
+                    pushOntoCallStack("Block", "src/parser/Directives.inc.ccc", 1562, 8);
+                    try {
+                        TextElement();
+                    } finally {
+                        popCallStack();
+                    }
+                } else if (nextTokenType() == OUTPUT_ESCAPE) {
+                    // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1564:8
+                    pushOntoCallStack("Block", "src/parser/Directives.inc.ccc", 1564, 8);
+                    try {
+                        Interpolation();
+                    } finally {
+                        popCallStack();
+                    }
+                } else if (first_set$Directives_inc_ccc$1566$8.contains(nextTokenType())) {
+                    // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1566:8
+                    pushOntoCallStack("Block", "src/parser/Directives.inc.ccc", 1566, 8);
+                    try {
+                        TemplateElement();
+                    } finally {
+                        popCallStack();
+                    }
+                } else {
+                    break;
+                }
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, true);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:1615:1
+    final public Block TemplateText() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "TemplateText";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:1615:1
+        Block thisProduction = null;
+        if (buildTree) {
+            thisProduction = new Block();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for OneOrMore specified at src/parser/Directives.inc.ccc:1616:5
+            boolean inFirst1 = true;
+            while (true) {
+                // Code for ExpansionChoice specified at src/parser/Directives.inc.ccc:1617:9
+                if (first_set$Directives_inc_ccc$1617$9.contains(nextTokenType())) {
+                    // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1617:9
+                    pushOntoCallStack("TemplateText", "src/parser/Directives.inc.ccc", 1617, 9);
+                    try {
+                        TextElement();
+                    } finally {
+                        popCallStack();
+                    }
+                } else if (nextTokenType() == OUTPUT_ESCAPE) {
+                    // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1619:9
+                    pushOntoCallStack("TemplateText", "src/parser/Directives.inc.ccc", 1619, 9);
+                    try {
+                        Interpolation();
+                    } finally {
+                        popCallStack();
+                    }
+                } else if (inFirst1) {
+                    pushOntoCallStack("TemplateText", "src/parser/Directives.inc.ccc", 1617, 9);
+                    throw new ParseException(lastConsumedToken, first_set$Directives_inc_ccc$1617$9$, parsingStack);
+                } else {
+                    break;
+                }
+                inFirst1 = false;
+            }
+            // Code for CodeBlock specified at src/parser/Directives.inc.ccc:1621:5
+            return thisProduction;
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, true);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:1626:1
+    final public void TemplateHeaderElement() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "TemplateHeaderElement";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:1626:1
+        TemplateHeaderElement thisProduction = null;
+        if (buildTree) {
+            thisProduction = new TemplateHeaderElement();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:1627:3
+            if (nextTokenType() == TRAILING_WHITESPACE || nextTokenType == NON_TRAILING_WHITESPACE) {
+                // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1627:4
+                pushOntoCallStack("TemplateHeaderElement", "src/parser/Directives.inc.ccc", 1627, 4);
+                try {
+                    IgnorableWhitespace();
+                } finally {
+                    popCallStack();
+                }
+            }
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:1628:3
+            consumeToken(FTL_HEADER);
+            // Code for ZeroOrMore specified at src/parser/Directives.inc.ccc:1629:3
+            while (true) {
+                if (!(nextTokenType() == ID)) break;
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:1630:5
+                consumeToken(ID);
+                // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:1631:5
+                if (nextTokenType() == EQUALS) {
+                    // Code for Terminal specified at src/parser/Directives.inc.ccc:1632:9
+                    consumeToken(EQUALS);
+                    // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1633:9
+                    pushOntoCallStack("TemplateHeaderElement", "src/parser/Directives.inc.ccc", 1633, 9);
+                    try {
+                        Expression();
+                    } finally {
+                        popCallStack();
+                    }
+                }
+            }
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1636:3
+            pushOntoCallStack("TemplateHeaderElement", "src/parser/Directives.inc.ccc", 1636, 3);
+            try {
+                LooseDirectiveEnd();
+            } finally {
+                popCallStack();
+            }
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, true);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:1639:1
+    final public void IgnorableWhitespace() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "IgnorableWhitespace";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:1639:1
+        // Code for OneOrMore specified at src/parser/Directives.inc.ccc:1640:4
+        boolean inFirst2 = true;
+        while (true) {
+            // Code for ExpansionChoice specified at src/parser/Directives.inc.ccc:1641:5
+            if (nextTokenType() == TRAILING_WHITESPACE) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:1641:5
+                consumeToken(TRAILING_WHITESPACE);
+                // Code for CodeBlock specified at src/parser/Directives.inc.ccc:1641:27
+                popNode();
+            } else if (nextTokenType() == NON_TRAILING_WHITESPACE) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:1643:5
+                consumeToken(NON_TRAILING_WHITESPACE);
+                // Code for CodeBlock specified at src/parser/Directives.inc.ccc:1643:31
+                popNode();
+            } else if (inFirst2) {
+                pushOntoCallStack("IgnorableWhitespace", "src/parser/Directives.inc.ccc", 1641, 5);
+                throw new ParseException(lastConsumedToken, first_set$Directives_inc_ccc$1641$5, parsingStack);
+            } else {
+                break;
+            }
+            inFirst2 = false;
+        }
+    }
+
+    // src/parser/Directives.inc.ccc:1715:1
+    final public Map<String, Expression> ParamList() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "ParamList";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:1715:1
+        Token id;
+        Expression exp;
+        Map<String, Expression> result = new HashMap<String, Expression>();
+        // Code for OneOrMore specified at src/parser/Directives.inc.ccc:1721:4
+        while (true) {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:1722:7
+            id = consumeToken(ID);
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:1723:7
+            consumeToken(EQUALS);
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1724:7
+            pushOntoCallStack("ParamList", "src/parser/Directives.inc.ccc", 1724, 7);
+            try {
+                exp = Expression();
+            } finally {
+                popCallStack();
+            }
+            // Code for CodeBlock specified at src/parser/Directives.inc.ccc:1724:22
+            result.put(id.toString(), exp);
+            // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:1725:7
+            if (nextTokenType() == COMMA) {
+                // Code for Terminal specified at src/parser/Directives.inc.ccc:1725:8
+                consumeToken(COMMA);
+            }
+            if (!(nextTokenType() == ID)) break;
+        }
+        // Code for CodeBlock specified at src/parser/Directives.inc.ccc:1727:4
+        return result;
+    }
+
+    // src/parser/Directives.inc.ccc:1732:1
+    final public Expression IdentifierOrStringLiteral() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "IdentifierOrStringLiteral";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:1732:1
+        if (nextTokenType() == ID) {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:1734:7
+            consumeToken(ID);
+        } else if (nextTokenType() == STRING_LITERAL) {
+            // Code for Terminal specified at src/parser/Directives.inc.ccc:1736:7
+            consumeToken(STRING_LITERAL);
+        } else {
+            pushOntoCallStack("IdentifierOrStringLiteral", "src/parser/Directives.inc.ccc", 1734, 7);
+            throw new ParseException(lastConsumedToken, first_set$Directives_inc_ccc$1734$7, parsingStack);
+        }
+        // Code for CodeBlock specified at src/parser/Directives.inc.ccc:1738:4
+        return (Expression) peekNode();
+    }
+
+    // src/parser/Directives.inc.ccc:1747:1
+    final public Block Root() {
+        if (cancelled) throw new CancellationException();
+        this.currentlyParsedProduction = "Root";
+        // Code for BNFProduction specified at src/parser/Directives.inc.ccc:1747:1
+        TemplateHeaderElement header;
+        Block doc;
+        // Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:1752:4
+        if (scan$Directives_inc_ccc$1753$8()) {
+            // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1753:8
+            pushOntoCallStack("Root", "src/parser/Directives.inc.ccc", 1753, 8);
+            try {
+                TemplateHeaderElement();
+                try {
+                    header = (TemplateHeaderElement) peekNode();
+                } catch (ClassCastException cce) {
+                    header = null;
+                }
+            } finally {
+                popCallStack();
+            }
+            // Code for CodeBlock specified at src/parser/Directives.inc.ccc:1754:8
+            template.setHeaderElement(header);
+            String templateEncoding = template.getEncoding();
+            if (templateEncoding != null && header.hasParameter("encoding")) {
+                String encoding = null;
+                try {
+                    encoding = header.getStringParameter("encoding");
+                } catch (Exception e) {
+                }
+                if (encoding != null && !encoding.equals(templateEncoding)) {
+                    throw new Template.WrongEncodingException(encoding);
+                }
+            }
+        }
+        // Code for NonTerminal specified at src/parser/Directives.inc.ccc:1768:4
+        pushOntoCallStack("Root", "src/parser/Directives.inc.ccc", 1768, 4);
+        try {
+            Block();
+            try {
+                doc = (Block) peekNode();
+            } catch (ClassCastException cce) {
+                doc = null;
+            }
+        } finally {
+            popCallStack();
+        }
+        // Code for CodeBlock specified at src/parser/Directives.inc.ccc:1769:4
+        assert doc.getParent() == null;
+        // Code for Terminal specified at src/parser/Directives.inc.ccc:1770:4
+        consumeToken(EOF);
+        // Code for CodeBlock specified at src/parser/Directives.inc.ccc:1771:4
+        return doc;
+    }
+
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$154$7$ = first_set$Expressions_inc_ccc$154$7$_init();
+
+    private static EnumSet<TokenType> first_set$Expressions_inc_ccc$154$7$_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, DOT, OPEN_BRACKET, OPEN_PAREN, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER, ID);
+    }
+
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$154$7 = first_set$Expressions_inc_ccc$154$7_init();
+
+    private static EnumSet<TokenType> first_set$Expressions_inc_ccc$154$7_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, OPEN_BRACKET, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER);
+    }
+
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$165$7 = tokenTypeSet(DOT, DOUBLE_COLON, BUILT_IN, EXISTS, EXCLAM, OPEN_BRACKET, OPEN_PAREN);
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$168$10 = tokenTypeSet(TIMES, DOUBLE_STAR, ID);
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$173$22 = first_set$Expressions_inc_ccc$173$22_init();
+
+    private static EnumSet<TokenType> first_set$Expressions_inc_ccc$173$22_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, DOT, PLUS, MINUS, EXCLAM, OPEN_BRACKET, OPEN_PAREN, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER, ID);
+    }
+
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$288$4 = first_set$Expressions_inc_ccc$288$4_init();
+
+    private static EnumSet<TokenType> first_set$Expressions_inc_ccc$288$4_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, DOT, OPEN_BRACKET, OPEN_PAREN, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER, ID);
+    }
+
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$294$7$ = first_set$Expressions_inc_ccc$294$7$_init();
+
+    private static EnumSet<TokenType> first_set$Expressions_inc_ccc$294$7$_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, DOT, EXCLAM, OPEN_BRACKET, OPEN_PAREN, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER, ID);
+    }
+
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$294$7 = first_set$Expressions_inc_ccc$294$7_init();
+
+    private static EnumSet<TokenType> first_set$Expressions_inc_ccc$294$7_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, DOT, OPEN_BRACKET, OPEN_PAREN, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER, ID);
+    }
+
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$325$7 = tokenTypeSet(PLUS, MINUS);
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$330$7 = first_set$Expressions_inc_ccc$330$7_init();
+
+    private static EnumSet<TokenType> first_set$Expressions_inc_ccc$330$7_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, DOT, PLUS, MINUS, OPEN_BRACKET, OPEN_PAREN, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER, ID);
+    }
+
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$332$7 = first_set$Expressions_inc_ccc$332$7_init();
+
+    private static EnumSet<TokenType> first_set$Expressions_inc_ccc$332$7_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, DOT, OPEN_BRACKET, OPEN_PAREN, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER, ID);
+    }
+
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$380$10 = tokenTypeSet(PLUS, MINUS);
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$472$10 = tokenTypeSet(TIMES, DIVIDE, PERCENT);
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$557$7 = tokenTypeSet(EQUALS, DOUBLE_EQUALS, NOT_EQUALS);
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$625$6 = tokenTypeSet(GREATER_THAN, GREATER_THAN_EQUALS, LESS_THAN, LESS_THAN_EQUALS, ESCAPED_GT, ESCAPED_GTE);
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$626$7 = tokenTypeSet(GREATER_THAN, GREATER_THAN_EQUALS, LESS_THAN, LESS_THAN_EQUALS, ESCAPED_GT, ESCAPED_GTE);
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$699$8 = first_set$Expressions_inc_ccc$699$8_init();
+
+    private static EnumSet<TokenType> first_set$Expressions_inc_ccc$699$8_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, DOT, PLUS, MINUS, EXCLAM, OPEN_BRACKET, OPEN_PAREN, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER, ID);
+    }
+
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$857$7 = first_set$Expressions_inc_ccc$857$7_init();
+
+    private static EnumSet<TokenType> first_set$Expressions_inc_ccc$857$7_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, DOT, PLUS, MINUS, EXCLAM, OPEN_BRACKET, OPEN_PAREN, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER, ID);
+    }
+
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$1352$5 = first_set$Expressions_inc_ccc$1352$5_init();
+
+    private static EnumSet<TokenType> first_set$Expressions_inc_ccc$1352$5_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, DOT, PLUS, MINUS, EXCLAM, COMMA, OPEN_BRACKET, OPEN_PAREN, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER, ID);
+    }
+
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$1531$5 = first_set$Expressions_inc_ccc$1531$5_init();
+
+    private static EnumSet<TokenType> first_set$Expressions_inc_ccc$1531$5_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, DOT, PLUS, MINUS, EXCLAM, OPEN_BRACKET, OPEN_PAREN, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER, ID);
+    }
+
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$1534$8 = first_set$Expressions_inc_ccc$1534$8_init();
+
+    private static EnumSet<TokenType> first_set$Expressions_inc_ccc$1534$8_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, DOT, PLUS, MINUS, EXCLAM, OPEN_BRACKET, OPEN_PAREN, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER, ID);
+    }
+
+    private static final EnumSet<TokenType> first_set$Expressions_inc_ccc$1643$8 = first_set$Expressions_inc_ccc$1643$8_init();
+
+    private static EnumSet<TokenType> first_set$Expressions_inc_ccc$1643$8_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, DOT, PLUS, MINUS, EXCLAM, OPEN_BRACKET, OPEN_PAREN, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER, ID);
+    }
+
+    private static final EnumSet<TokenType> first_set$Directives_inc_ccc$395$14 = first_set$Directives_inc_ccc$395$14_init();
+
+    private static EnumSet<TokenType> first_set$Directives_inc_ccc$395$14_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, DOT, PLUS, MINUS, EXCLAM, OPEN_BRACKET, OPEN_PAREN, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER, ID);
+    }
+
+    private static final EnumSet<TokenType> first_set$Directives_inc_ccc$426$12 = first_set$Directives_inc_ccc$426$12_init();
+
+    private static EnumSet<TokenType> first_set$Directives_inc_ccc$426$12_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, DOT, PLUS, MINUS, EXCLAM, OPEN_BRACKET, OPEN_PAREN, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER, ID);
+    }
+
+    private static final EnumSet<TokenType> first_set$Directives_inc_ccc$451$6 = first_set$Directives_inc_ccc$451$6_init();
+
+    private static EnumSet<TokenType> first_set$Directives_inc_ccc$451$6_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, DOT, PLUS, MINUS, EXCLAM, OPEN_BRACKET, OPEN_PAREN, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER, ID);
+    }
+
+    private static final EnumSet<TokenType> first_set$Directives_inc_ccc$535$5 = tokenTypeSet(ASSIGN, GLOBALASSIGN, LOCALASSIGN, SET);
+    private static final EnumSet<TokenType> first_set$Directives_inc_ccc$631$5 = tokenTypeSet(ASSIGN, GLOBALASSIGN, LOCALASSIGN, SET);
+    private static final EnumSet<TokenType> first_set$Directives_inc_ccc$637$6 = first_set$Directives_inc_ccc$637$6_init();
+
+    private static EnumSet<TokenType> first_set$Directives_inc_ccc$637$6_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, DOT, COMMA, OPEN_BRACKET, OPEN_PAREN, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER, ID);
+    }
+
+    private static final EnumSet<TokenType> first_set$Directives_inc_ccc$655$5 = tokenTypeSet(EMBED, _INCLUDE);
+    private static final EnumSet<TokenType> first_set$Directives_inc_ccc$982$5 = first_set$Directives_inc_ccc$982$5_init();
+
+    private static EnumSet<TokenType> first_set$Directives_inc_ccc$982$5_init() {
+        return tokenTypeSet(FALSE, TRUE, NULL, DOT, PLUS, MINUS, EXCLAM, OPEN_BRACKET, OPEN_PAREN, OPEN_BRACE, STRING_LITERAL, RAW_STRING, NUMBER, ID);
+    }
+
+    private static final EnumSet<TokenType> first_set$Directives_inc_ccc$988$7 = tokenTypeSet(EMPTY_DIRECTIVE_END, DIRECTIVE_END);
+    private static final EnumSet<TokenType> first_set$Directives_inc_ccc$1485$7 = tokenTypeSet(TRAILING_WHITESPACE, NON_TRAILING_WHITESPACE, PROBLEMATIC_CHAR, POSSIBLE_END_DIRECTIVE, POSSIBLE_DIRECTIVE, REGULAR_PRINTABLE);
+    private static final EnumSet<TokenType> first_set$Directives_inc_ccc$1562$8 = tokenTypeSet(TRAILING_WHITESPACE, NON_TRAILING_WHITESPACE, PROBLEMATIC_CHAR, POSSIBLE_END_DIRECTIVE, POSSIBLE_DIRECTIVE, REGULAR_PRINTABLE);
+    private static final EnumSet<TokenType> first_set$Directives_inc_ccc$1566$8 = first_set$Directives_inc_ccc$1566$8_init();
+
+    private static EnumSet<TokenType> first_set$Directives_inc_ccc$1566$8_init() {
+        return tokenTypeSet(ASSIGN, _ASSERT, EMBED, ESCAPE, EXEC, FOREACH, FUNCTION, GLOBALASSIGN, IF, IMPORT, _INCLUDE, LIST, LOCALASSIGN, _MACRO, NESTED, RETURN, SET, SETTING, STOP, VAR, UNIFIED_CALL, NOPARSE, _ATTEMPT, BREAK, FLUSH, LTRIM, NOESCAPE, RTRIM, TRIM);
+    }
+
+    private static final EnumSet<TokenType> first_set$Directives_inc_ccc$1617$9$ = tokenTypeSet(OUTPUT_ESCAPE, TRAILING_WHITESPACE, NON_TRAILING_WHITESPACE, PROBLEMATIC_CHAR, POSSIBLE_END_DIRECTIVE, POSSIBLE_DIRECTIVE, REGULAR_PRINTABLE);
+    private static final EnumSet<TokenType> first_set$Directives_inc_ccc$1617$9 = tokenTypeSet(TRAILING_WHITESPACE, NON_TRAILING_WHITESPACE, PROBLEMATIC_CHAR, POSSIBLE_END_DIRECTIVE, POSSIBLE_DIRECTIVE, REGULAR_PRINTABLE);
+    private static final EnumSet<TokenType> first_set$Directives_inc_ccc$1641$5 = tokenTypeSet(TRAILING_WHITESPACE, NON_TRAILING_WHITESPACE);
+    private static final EnumSet<TokenType> first_set$Directives_inc_ccc$1734$7 = tokenTypeSet(STRING_LITERAL, ID);
+
+    private boolean scanToken(TokenType expectedType, TokenType...additionalTypes) {
+        Token peekedToken = nextToken(currentLookaheadToken);
+        TokenType type = peekedToken.getType();
+        if (type != expectedType) {
+            boolean matched = false;
+            for (TokenType tt : additionalTypes) {
+                if (type == tt) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) return false;
+        }
+        --remainingLookahead;
+        currentLookaheadToken = peekedToken;
+        return true;
+    }
+
+    private boolean scanToken(EnumSet<TokenType> types) {
+        Token peekedToken = nextToken(currentLookaheadToken);
+        TokenType type = peekedToken.getType();
+        if (!types.contains(type)) return false;
+        --remainingLookahead;
+        currentLookaheadToken = peekedToken;
+        return true;
+    }
+
+    //====================================
+    // Lookahead Routines
+    //====================================
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:99:9
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$99$9(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:99:9
+            if (!scanToken(TERNARY)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:100:9
+            // NonTerminal Expression at src/parser/Expressions.inc.ccc:100:9
+            pushOntoLookaheadStack("TernaryExpression", "src/parser/Expressions.inc.ccc", 100, 9);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:101:9
+            Token token5 = currentLookaheadToken;
+            boolean passedPredicate5 = passedPredicate;
+            passedPredicate = false;
+            try {
+                if (!check$Expressions_inc_ccc$102$11(false)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token5;
+                    hitFailure = false;
+                }
+            } finally {
+                passedPredicate = passedPredicate5;
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:102:11
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$102$11(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:102:11
+            if (!scanToken(COLON)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:103:11
+            // NonTerminal Expression at src/parser/Expressions.inc.ccc:103:11
+            pushOntoLookaheadStack("TernaryExpression", "src/parser/Expressions.inc.ccc", 103, 11);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:147:3
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$147$3(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:147:3
+            // NonTerminal HashLiteral at src/parser/Expressions.inc.ccc:147:3
+            pushOntoLookaheadStack("Literal", "src/parser/Expressions.inc.ccc", 147, 3);
+            currentLookaheadProduction = "HashLiteral";
+            try {
+                if (!check$HashLiteral(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:149:3
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$149$3(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:149:3
+            // NonTerminal ListLiteral at src/parser/Expressions.inc.ccc:149:3
+            pushOntoLookaheadStack("Literal", "src/parser/Expressions.inc.ccc", 149, 3);
+            currentLookaheadProduction = "ListLiteral";
+            try {
+                if (!check$ListLiteral(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:154:7
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$154$7$(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:154:7
+            // NonTerminal Literal at src/parser/Expressions.inc.ccc:154:7
+            pushOntoLookaheadStack("PrimaryExpression", "src/parser/Expressions.inc.ccc", 154, 7);
+            currentLookaheadProduction = "Literal";
+            try {
+                if (!check$Literal(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:158:7
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$158$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:158:7
+            // NonTerminal ParentheticalExpression at src/parser/Expressions.inc.ccc:158:7
+            pushOntoLookaheadStack("PrimaryExpression", "src/parser/Expressions.inc.ccc", 158, 7);
+            currentLookaheadProduction = "ParentheticalExpression";
+            try {
+                if (!check$ParentheticalExpression(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:160:7
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$160$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:160:7
+            // NonTerminal BuiltinVariable at src/parser/Expressions.inc.ccc:160:7
+            pushOntoLookaheadStack("PrimaryExpression", "src/parser/Expressions.inc.ccc", 160, 7);
+            currentLookaheadProduction = "BuiltinVariable";
+            try {
+                if (!check$BuiltinVariable(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:163:5
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$163$5(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ExpansionChoice specified at src/parser/Expressions.inc.ccc:165:7
+            Token token4 = currentLookaheadToken;
+            int remainingLookahead4 = remainingLookahead;
+            boolean hitFailure4 = hitFailure;
+            boolean passedPredicate4 = passedPredicate;
+            try {
+                passedPredicate = false;
+                if (!check$Expressions_inc_ccc$165$7(false)) {
+                    currentLookaheadToken = token4;
+                    remainingLookahead = remainingLookahead4;
+                    hitFailure = hitFailure4;
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    passedPredicate = false;
+                    if (!check$Expressions_inc_ccc$171$7(false)) {
+                        currentLookaheadToken = token4;
+                        remainingLookahead = remainingLookahead4;
+                        hitFailure = hitFailure4;
+                        if (passedPredicate && !legacyGlitchyLookahead) return false;
+                        passedPredicate = false;
+                        if (!check$Expressions_inc_ccc$173$7(false)) {
+                            currentLookaheadToken = token4;
+                            remainingLookahead = remainingLookahead4;
+                            hitFailure = hitFailure4;
+                            if (passedPredicate && !legacyGlitchyLookahead) return false;
+                            passedPredicate = false;
+                            if (!check$Expressions_inc_ccc$175$7(false)) {
+                                currentLookaheadToken = token4;
+                                remainingLookahead = remainingLookahead4;
+                                hitFailure = hitFailure4;
+                                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                passedPredicate = false;
+                                if (!scanToken(EXISTS)) {
+                                    currentLookaheadToken = token4;
+                                    remainingLookahead = remainingLookahead4;
+                                    hitFailure = hitFailure4;
+                                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                    passedPredicate = false;
+                                    if (!check$Expressions_inc_ccc$179$7(false)) {
+                                        currentLookaheadToken = token4;
+                                        remainingLookahead = remainingLookahead4;
+                                        hitFailure = hitFailure4;
+                                        if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                        passedPredicate = false;
+                                        if (!check$Expressions_inc_ccc$187$7(false)) {
+                                            currentLookaheadToken = token4;
+                                            remainingLookahead = remainingLookahead4;
+                                            hitFailure = hitFailure4;
+                                            return false;
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            } finally {
+                passedPredicate = passedPredicate4;
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:165:7
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$165$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:166:9
+            if (!scanToken(DOT)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ExpansionWithParentheses specified at src/parser/Expressions.inc.ccc:167:9
+            EnumSet<TokenType> previousActives6 = EnumSet.copyOf(token_source.activeTokenTypes);
+            boolean somethingChanged7 = false;
+            somethingChanged7 = somethingChanged7 |= deactivateTokenTypes(IN, AS, USING, TRUE, FALSE, NULL);
+            try {
+                if (hitFailure) return false;
+                if (remainingLookahead <= 0) return true;
+                // Lookahead Code for ExpansionChoice specified at src/parser/Expressions.inc.ccc:168:10
+                if (!scanToken(TIMES, DOUBLE_STAR, ID)) return false;
+            } finally {
+                token_source.activeTokenTypes = previousActives6;
+                if (somethingChanged7) {
+                    token_source.reset(currentLookaheadToken);
+                    nextTokenType = null;
+                }
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:171:7
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$171$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:171:7
+            if (!scanToken(OPEN_BRACKET)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:171:22
+            // NonTerminal Expression at src/parser/Expressions.inc.ccc:171:22
+            pushOntoLookaheadStack("PrimaryExpression", "src/parser/Expressions.inc.ccc", 171, 22);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:171:33
+            if (!scanToken(CLOSE_BRACKET)) return false;
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:173:7
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$173$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:173:8
+            if (!scanToken(OPEN_PAREN)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:173:21
+            Token token6 = currentLookaheadToken;
+            boolean passedPredicate6 = passedPredicate;
+            passedPredicate = false;
+            try {
+                if (!check$Expressions_inc_ccc$173$22(false)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token6;
+                    hitFailure = false;
+                }
+            } finally {
+                passedPredicate = passedPredicate6;
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:173:32
+            if (!scanToken(CLOSE_PAREN)) return false;
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:173:22
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$173$22(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:173:22
+            // NonTerminal ArgsList at src/parser/Expressions.inc.ccc:173:22
+            pushOntoLookaheadStack("PrimaryExpression", "src/parser/Expressions.inc.ccc", 173, 22);
+            currentLookaheadProduction = "ArgsList";
+            try {
+                if (!check$ArgsList(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:175:7
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$175$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:175:7
+            if (!scanToken(BUILT_IN)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:175:17
+            if (!scanToken(ID)) return false;
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:179:7
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$179$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:180:9
+            if (!scanToken(EXCLAM)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:181:9
+            Token token6 = currentLookaheadToken;
+            boolean passedPredicate6 = passedPredicate;
+            passedPredicate = false;
+            try {
+                if (!check$Expressions_inc_ccc$182$13(false)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token6;
+                    hitFailure = false;
+                }
+            } finally {
+                passedPredicate = passedPredicate6;
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:182:13
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$182$13(boolean scanToEnd) {
+        int prevPassedPredicateThreshold = this.passedPredicateThreshold;
+        this.passedPredicateThreshold = -1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:183:16
+            // NonTerminal PrimaryExpression at src/parser/Expressions.inc.ccc:183:16
+            pushOntoLookaheadStack("PrimaryExpression", "src/parser/Expressions.inc.ccc", 183, 16);
+            currentLookaheadProduction = "PrimaryExpression";
+            try {
+                if (!check$PrimaryExpression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+            if (!scanToEnd && lookaheadStack.size() <= 1) {
+                if (lookaheadRoutineNesting == 0) {
+                    remainingLookahead = 0;
+                } else if (lookaheadStack.size() == 1) {
+                    passedPredicateThreshold = remainingLookahead;
+                }
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (remainingLookahead <= this.passedPredicateThreshold) {
+                passedPredicate = true;
+                this.passedPredicateThreshold = prevPassedPredicateThreshold;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:187:7
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$187$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:187:7
+            if (!scanToken(DOUBLE_COLON)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:187:22
+            if (!scanToken(ID)) return false;
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:284:4
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$284$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:284:4
+            // NonTerminal UnaryPlusMinusExpression at src/parser/Expressions.inc.ccc:284:4
+            pushOntoLookaheadStack("UnaryExpression", "src/parser/Expressions.inc.ccc", 284, 4);
+            currentLookaheadProduction = "UnaryPlusMinusExpression";
+            try {
+                if (!check$UnaryPlusMinusExpression(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:286:4
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$286$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:286:4
+            // NonTerminal NotExpression at src/parser/Expressions.inc.ccc:286:4
+            pushOntoLookaheadStack("UnaryExpression", "src/parser/Expressions.inc.ccc", 286, 4);
+            currentLookaheadProduction = "NotExpression";
+            try {
+                if (!check$NotExpression(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:288:4
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$288$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:288:4
+            // NonTerminal PrimaryExpression at src/parser/Expressions.inc.ccc:288:4
+            pushOntoLookaheadStack("UnaryExpression", "src/parser/Expressions.inc.ccc", 288, 4);
+            currentLookaheadProduction = "PrimaryExpression";
+            try {
+                if (!check$PrimaryExpression(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:294:7
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$294$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:294:7
+            // NonTerminal PrimaryExpression at src/parser/Expressions.inc.ccc:294:7
+            pushOntoLookaheadStack("NotExpression", "src/parser/Expressions.inc.ccc", 294, 7);
+            currentLookaheadProduction = "PrimaryExpression";
+            try {
+                if (!check$PrimaryExpression(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:296:7
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$296$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:296:7
+            // NonTerminal NotExpression at src/parser/Expressions.inc.ccc:296:7
+            pushOntoLookaheadStack("NotExpression", "src/parser/Expressions.inc.ccc", 296, 7);
+            currentLookaheadProduction = "NotExpression";
+            try {
+                if (!check$NotExpression(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:330:7
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$330$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:330:7
+            // NonTerminal UnaryPlusMinusExpression at src/parser/Expressions.inc.ccc:330:7
+            pushOntoLookaheadStack("UnaryPlusMinusExpression", "src/parser/Expressions.inc.ccc", 330, 7);
+            currentLookaheadProduction = "UnaryPlusMinusExpression";
+            try {
+                if (!check$UnaryPlusMinusExpression(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:332:7
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$332$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:332:7
+            // NonTerminal PrimaryExpression at src/parser/Expressions.inc.ccc:332:7
+            pushOntoLookaheadStack("UnaryPlusMinusExpression", "src/parser/Expressions.inc.ccc", 332, 7);
+            currentLookaheadProduction = "PrimaryExpression";
+            try {
+                if (!check$PrimaryExpression(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:379:7
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$379$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ExpansionChoice specified at src/parser/Expressions.inc.ccc:380:10
+            if (!scanToken(PLUS, MINUS)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:384:7
+            // NonTerminal MultiplicativeExpression at src/parser/Expressions.inc.ccc:384:7
+            pushOntoLookaheadStack("AdditiveExpression", "src/parser/Expressions.inc.ccc", 384, 7);
+            currentLookaheadProduction = "MultiplicativeExpression";
+            try {
+                if (!check$MultiplicativeExpression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:471:7
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$471$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ExpansionChoice specified at src/parser/Expressions.inc.ccc:472:10
+            if (!scanToken(TIMES, DIVIDE, PERCENT)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:478:7
+            // NonTerminal UnaryExpression at src/parser/Expressions.inc.ccc:478:7
+            pushOntoLookaheadStack("MultiplicativeExpression", "src/parser/Expressions.inc.ccc", 478, 7);
+            currentLookaheadProduction = "UnaryExpression";
+            try {
+                if (!check$UnaryExpression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:556:6
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$556$6(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ExpansionChoice specified at src/parser/Expressions.inc.ccc:557:7
+            if (!scanToken(EQUALS, DOUBLE_EQUALS, NOT_EQUALS)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:563:6
+            // NonTerminal RelationalExpression at src/parser/Expressions.inc.ccc:563:6
+            pushOntoLookaheadStack("EqualityExpression", "src/parser/Expressions.inc.ccc", 563, 6);
+            currentLookaheadProduction = "RelationalExpression";
+            try {
+                if (!check$RelationalExpression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:625:6
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$625$6(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ExpansionChoice specified at src/parser/Expressions.inc.ccc:626:7
+            if (!scanToken(first_set$Expressions_inc_ccc$626$7)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:638:6
+            // NonTerminal RangeExpression at src/parser/Expressions.inc.ccc:638:6
+            pushOntoLookaheadStack("RelationalExpression", "src/parser/Expressions.inc.ccc", 638, 6);
+            currentLookaheadProduction = "RangeExpression";
+            try {
+                if (!check$RangeExpression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:697:5
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$697$5(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:697:5
+            if (!scanToken(DOT_DOT)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:698:5
+            Token token4 = currentLookaheadToken;
+            boolean passedPredicate4 = passedPredicate;
+            passedPredicate = false;
+            try {
+                if (!check$Expressions_inc_ccc$699$8(false)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token4;
+                    hitFailure = false;
+                }
+            } finally {
+                passedPredicate = passedPredicate4;
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:699:8
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$699$8(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:699:8
+            // NonTerminal AdditiveExpression at src/parser/Expressions.inc.ccc:699:8
+            pushOntoLookaheadStack("RangeExpression", "src/parser/Expressions.inc.ccc", 699, 8);
+            currentLookaheadProduction = "AdditiveExpression";
+            try {
+                if (!check$AdditiveExpression(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:783:7
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$783$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:783:7
+            if (!scanToken(AND)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:784:7
+            // NonTerminal AndExpression at src/parser/Expressions.inc.ccc:784:7
+            pushOntoLookaheadStack("AndExpression", "src/parser/Expressions.inc.ccc", 784, 7);
+            currentLookaheadProduction = "AndExpression";
+            try {
+                if (!check$AndExpression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:820:7
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$820$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:820:7
+            if (!scanToken(OR)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:821:7
+            // NonTerminal OrExpression at src/parser/Expressions.inc.ccc:821:7
+            pushOntoLookaheadStack("OrExpression", "src/parser/Expressions.inc.ccc", 821, 7);
+            currentLookaheadProduction = "OrExpression";
+            try {
+                if (!check$OrExpression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:857:7
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$857$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:857:7
+            // NonTerminal Expression at src/parser/Expressions.inc.ccc:857:7
+            pushOntoLookaheadStack("ListLiteral", "src/parser/Expressions.inc.ccc", 857, 7);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ZeroOrMore specified at src/parser/Expressions.inc.ccc:858:7
+            boolean passedPredicate4 = passedPredicate;
+            try {
+                while (remainingLookahead > 0 && !hitFailure) {
+                    Token token5 = currentLookaheadToken;
+                    passedPredicate = false;
+                    if (!check$Expressions_inc_ccc$859$10(false)) {
+                        if (passedPredicate && !legacyGlitchyLookahead) return false;
+                        currentLookaheadToken = token5;
+                        break;
+                    }
+                }
+            } finally {
+                passedPredicate = passedPredicate4;
+            }
+            hitFailure = false;
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:859:10
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$859$10(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:859:10
+            if (!scanToken(COMMA)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:860:10
+            // NonTerminal Expression at src/parser/Expressions.inc.ccc:860:10
+            pushOntoLookaheadStack("ListLiteral", "src/parser/Expressions.inc.ccc", 860, 10);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:1352:5
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$1352$5(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:1352:5
+            Token token3 = currentLookaheadToken;
+            boolean passedPredicate3 = passedPredicate;
+            passedPredicate = false;
+            try {
+                if (!scanToken(COMMA)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token3;
+                    hitFailure = false;
+                }
+            } finally {
+                passedPredicate = passedPredicate3;
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:1353:5
+            // NonTerminal Expression at src/parser/Expressions.inc.ccc:1353:5
+            pushOntoLookaheadStack("PositionalArgsList", "src/parser/Expressions.inc.ccc", 1353, 5);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:1436:5
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$1436$5(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:1436:5
+            Token token3 = currentLookaheadToken;
+            boolean passedPredicate3 = passedPredicate;
+            passedPredicate = false;
+            try {
+                if (!scanToken(COMMA)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token3;
+                    hitFailure = false;
+                }
+            } finally {
+                passedPredicate = passedPredicate3;
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:1437:5
+            if (!scanToken(ID)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for CodeBlock specified at src/parser/Expressions.inc.ccc:1437:10
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:1438:5
+            if (!scanToken(EQUALS)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:1439:5
+            // NonTerminal Expression at src/parser/Expressions.inc.ccc:1439:5
+            pushOntoLookaheadStack("NamedArgsList", "src/parser/Expressions.inc.ccc", 1439, 5);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for CodeBlock specified at src/parser/Expressions.inc.ccc:1440:5
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:1531:5
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$1531$5(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 2147483647;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            if (remainingLookahead <= 0) {
+                passedPredicate = true;
+                return !hitFailure;
+            }
+            if (!check$Expressions_inc_ccc$1531$10(true)) return false;
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:1532:8
+            // NonTerminal NamedArgsList at src/parser/Expressions.inc.ccc:1532:8
+            pushOntoLookaheadStack("ArgsList", "src/parser/Expressions.inc.ccc", 1532, 8);
+            currentLookaheadProduction = "NamedArgsList";
+            try {
+                if (!check$NamedArgsList(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:1534:8
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$1534$8(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:1534:8
+            // NonTerminal PositionalArgsList at src/parser/Expressions.inc.ccc:1534:8
+            pushOntoLookaheadStack("ArgsList", "src/parser/Expressions.inc.ccc", 1534, 8);
+            currentLookaheadProduction = "PositionalArgsList";
+            try {
+                if (!check$PositionalArgsList(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:1643:8
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$1643$8(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:1643:8
+            // NonTerminal Expression at src/parser/Expressions.inc.ccc:1643:8
+            pushOntoLookaheadStack("HashLiteral", "src/parser/Expressions.inc.ccc", 1643, 8);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:1644:8
+            if (!scanToken(COLON)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:1645:8
+            // NonTerminal Expression at src/parser/Expressions.inc.ccc:1645:8
+            pushOntoLookaheadStack("HashLiteral", "src/parser/Expressions.inc.ccc", 1645, 8);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ZeroOrMore specified at src/parser/Expressions.inc.ccc:1646:8
+            boolean passedPredicate6 = passedPredicate;
+            try {
+                while (remainingLookahead > 0 && !hitFailure) {
+                    Token token7 = currentLookaheadToken;
+                    passedPredicate = false;
+                    if (!check$Expressions_inc_ccc$1647$11(false)) {
+                        if (passedPredicate && !legacyGlitchyLookahead) return false;
+                        currentLookaheadToken = token7;
+                        break;
+                    }
+                }
+            } finally {
+                passedPredicate = passedPredicate6;
+            }
+            hitFailure = false;
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Expressions.inc.ccc:1647:11
+    // BuildScanRoutine macro
+    private boolean check$Expressions_inc_ccc$1647$11(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:1647:11
+            if (!scanToken(COMMA)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:1648:12
+            // NonTerminal Expression at src/parser/Expressions.inc.ccc:1648:12
+            pushOntoLookaheadStack("HashLiteral", "src/parser/Expressions.inc.ccc", 1648, 12);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:1649:12
+            if (!scanToken(COLON)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:1650:12
+            // NonTerminal Expression at src/parser/Expressions.inc.ccc:1650:12
+            pushOntoLookaheadStack("HashLiteral", "src/parser/Expressions.inc.ccc", 1650, 12);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:126:5
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$126$5(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:127:9
+            if (!scanToken(ELSE_IF)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for CodeBlock specified at src/parser/Directives.inc.ccc:128:9
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:136:9
+            // NonTerminal Expression at src/parser/Directives.inc.ccc:136:9
+            pushOntoLookaheadStack("IfBlock", "src/parser/Directives.inc.ccc", 136, 9);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:137:9
+            if (!scanToken(DIRECTIVE_END)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:138:9
+            // NonTerminal Block at src/parser/Directives.inc.ccc:138:9
+            pushOntoLookaheadStack("IfBlock", "src/parser/Directives.inc.ccc", 138, 9);
+            currentLookaheadProduction = "Block";
+            try {
+                if (!check$Block(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:142:5
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$142$5(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:143:9
+            if (!scanToken(ELSE)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for CodeBlock specified at src/parser/Directives.inc.ccc:144:9
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:152:9
+            // NonTerminal Block at src/parser/Directives.inc.ccc:152:9
+            pushOntoLookaheadStack("IfBlock", "src/parser/Directives.inc.ccc", 152, 9);
+            currentLookaheadProduction = "Block";
+            try {
+                if (!check$Block(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:246:7
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$246$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:246:7
+            if (!scanToken(COMMA)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:247:7
+            if (!scanToken(ID)) return false;
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:259:7
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$259$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:259:7
+            if (!scanToken(COMMA)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:260:7
+            if (!scanToken(ID)) return false;
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:352:7
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$352$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:352:7
+            if (!scanToken(COLON)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:353:7
+            // NonTerminal Expression at src/parser/Directives.inc.ccc:353:7
+            pushOntoLookaheadStack("AssertionInstruction", "src/parser/Directives.inc.ccc", 353, 7);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:395:14
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$395$14(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:395:14
+            // NonTerminal Expression at src/parser/Directives.inc.ccc:395:14
+            pushOntoLookaheadStack("ReturnInstruction", "src/parser/Directives.inc.ccc", 395, 14);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:426:12
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$426$12(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:426:12
+            // NonTerminal Expression at src/parser/Directives.inc.ccc:426:12
+            pushOntoLookaheadStack("StopInstruction", "src/parser/Directives.inc.ccc", 426, 12);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:451:6
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$451$6(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:451:6
+            // NonTerminal PositionalArgsList at src/parser/Directives.inc.ccc:451:6
+            pushOntoLookaheadStack("NestedInstruction", "src/parser/Directives.inc.ccc", 451, 6);
+            currentLookaheadProduction = "PositionalArgsList";
+            try {
+                if (!check$PositionalArgsList(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:546:7
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$546$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:547:7
+            if (!scanToken(IN)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:548:7
+            // NonTerminal Expression at src/parser/Directives.inc.ccc:548:7
+            pushOntoLookaheadStack("BlockAssignment", "src/parser/Directives.inc.ccc", 548, 7);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:637:6
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$637$6(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:637:6
+            Token token3 = currentLookaheadToken;
+            boolean passedPredicate3 = passedPredicate;
+            passedPredicate = false;
+            try {
+                if (!scanToken(COMMA)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token3;
+                    hitFailure = false;
+                }
+            } finally {
+                passedPredicate = passedPredicate3;
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:638:6
+            // NonTerminal PrimaryExpression at src/parser/Directives.inc.ccc:638:6
+            pushOntoLookaheadStack("AssignmentInstruction", "src/parser/Directives.inc.ccc", 638, 6);
+            currentLookaheadProduction = "PrimaryExpression";
+            try {
+                if (!check$PrimaryExpression(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for CodeBlock specified at src/parser/Directives.inc.ccc:639:6
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:640:6
+            if (!scanToken(EQUALS)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:641:6
+            // NonTerminal Expression at src/parser/Directives.inc.ccc:641:6
+            pushOntoLookaheadStack("AssignmentInstruction", "src/parser/Directives.inc.ccc", 641, 6);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:644:7
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$644$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:645:7
+            if (!scanToken(IN)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:646:7
+            // NonTerminal Expression at src/parser/Directives.inc.ccc:646:7
+            pushOntoLookaheadStack("AssignmentInstruction", "src/parser/Directives.inc.ccc", 646, 7);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:658:5
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$658$5(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:658:5
+            if (!scanToken(ID)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:658:9
+            if (!scanToken(EQUALS)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:658:17
+            // NonTerminal Expression at src/parser/Directives.inc.ccc:658:17
+            pushOntoLookaheadStack("IncludeInstruction", "src/parser/Directives.inc.ccc", 658, 17);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:834:11
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$834$11(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:834:11
+            if (!scanToken(ID)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for CodeBlock specified at src/parser/Directives.inc.ccc:835:11
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:843:11
+            Token token5 = currentLookaheadToken;
+            boolean passedPredicate5 = passedPredicate;
+            passedPredicate = false;
+            try {
+                if (!scanToken(ELLIPSIS)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token5;
+                    hitFailure = false;
+                }
+            } finally {
+                passedPredicate = passedPredicate5;
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:846:11
+            Token token7 = currentLookaheadToken;
+            boolean passedPredicate7 = passedPredicate;
+            passedPredicate = false;
+            try {
+                if (!check$Directives_inc_ccc$847$13(false)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token7;
+                    hitFailure = false;
+                }
+            } finally {
+                passedPredicate = passedPredicate7;
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:853:11
+            Token token9 = currentLookaheadToken;
+            boolean passedPredicate9 = passedPredicate;
+            passedPredicate = false;
+            try {
+                if (!scanToken(COMMA)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token9;
+                    hitFailure = false;
+                }
+            } finally {
+                passedPredicate = passedPredicate9;
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for CodeBlock specified at src/parser/Directives.inc.ccc:854:4
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:847:13
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$847$13(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:847:13
+            if (!scanToken(EQUALS)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:848:12
+            // NonTerminal Expression at src/parser/Directives.inc.ccc:848:12
+            pushOntoLookaheadStack("ParameterList", "src/parser/Directives.inc.ccc", 848, 12);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for CodeBlock specified at src/parser/Directives.inc.ccc:849:13
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:982:5
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$982$5(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:982:5
+            // NonTerminal ArgsList at src/parser/Directives.inc.ccc:982:5
+            pushOntoLookaheadStack("UnifiedCall", "src/parser/Directives.inc.ccc", 982, 5);
+            currentLookaheadProduction = "ArgsList";
+            try {
+                if (!check$ArgsList(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:984:8
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$984$8(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:984:8
+            if (!scanToken(SEMICOLON)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:985:8
+            // NonTerminal ParameterList at src/parser/Directives.inc.ccc:985:8
+            pushOntoLookaheadStack("UnifiedCall", "src/parser/Directives.inc.ccc", 985, 8);
+            currentLookaheadProduction = "ParameterList";
+            try {
+                if (!check$ParameterList(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:990:7
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$990$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:990:7
+            if (!scanToken(DIRECTIVE_END)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:991:7
+            // NonTerminal Block at src/parser/Directives.inc.ccc:991:7
+            pushOntoLookaheadStack("UnifiedCall", "src/parser/Directives.inc.ccc", 991, 7);
+            currentLookaheadProduction = "Block";
+            try {
+                if (!check$Block(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:992:7
+            if (!scanToken(UNIFIED_CALL_END)) return false;
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1256:5
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1256$5(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 0;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            passedPredicate = true;
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Failure specified at src/parser/Directives.inc.ccc:1256:5
+            if (true) {
+                hitFailure = true;
+                return false;
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1328:8
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1328$8(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:1328:8
+            if (!scanToken(EQUALS)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1329:8
+            // NonTerminal Expression at src/parser/Directives.inc.ccc:1329:8
+            pushOntoLookaheadStack("VarDirective", "src/parser/Directives.inc.ccc", 1329, 8);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1337:7
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1337$7(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:1338:9
+            Token token5 = currentLookaheadToken;
+            boolean passedPredicate5 = passedPredicate;
+            passedPredicate = false;
+            try {
+                if (!scanToken(COMMA)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token5;
+                    hitFailure = false;
+                }
+            } finally {
+                passedPredicate = passedPredicate5;
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1339:9
+            if (!scanToken(STRING_LITERAL, ID)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:1340:9
+            Token token8 = currentLookaheadToken;
+            boolean passedPredicate8 = passedPredicate;
+            passedPredicate = false;
+            try {
+                if (!check$Directives_inc_ccc$1341$12(false)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token8;
+                    hitFailure = false;
+                }
+            } finally {
+                passedPredicate = passedPredicate8;
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for CodeBlock specified at src/parser/Directives.inc.ccc:1345:7
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1341:12
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1341$12(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:1341:12
+            if (!scanToken(EQUALS)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1342:12
+            // NonTerminal Expression at src/parser/Directives.inc.ccc:1342:12
+            pushOntoLookaheadStack("VarDirective", "src/parser/Directives.inc.ccc", 1342, 12);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1406:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1406$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1406:4
+            // NonTerminal IfBlock at src/parser/Directives.inc.ccc:1406:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1406, 4);
+            currentLookaheadProduction = "IfBlock";
+            try {
+                if (!check$IfBlock(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1408:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1408$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1408:4
+            // NonTerminal ListBlock at src/parser/Directives.inc.ccc:1408:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1408, 4);
+            currentLookaheadProduction = "ListBlock";
+            try {
+                if (!check$ListBlock(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1410:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1410$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1410:4
+            // NonTerminal ForEachBlock at src/parser/Directives.inc.ccc:1410:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1410, 4);
+            currentLookaheadProduction = "ForEachBlock";
+            try {
+                if (!check$ForEachBlock(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1412:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1412$4(boolean scanToEnd) {
+        int prevPassedPredicateThreshold = this.passedPredicateThreshold;
+        this.passedPredicateThreshold = -1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1412:4
+            // NonTerminal AssignmentInstruction at src/parser/Directives.inc.ccc:1412:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1412, 4);
+            currentLookaheadProduction = "AssignmentInstruction";
+            try {
+                if (!check$AssignmentInstruction(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (remainingLookahead <= this.passedPredicateThreshold) {
+                passedPredicate = true;
+                this.passedPredicateThreshold = prevPassedPredicateThreshold;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1414:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1414$4(boolean scanToEnd) {
+        int prevPassedPredicateThreshold = this.passedPredicateThreshold;
+        this.passedPredicateThreshold = -1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1414:4
+            // NonTerminal BlockAssignment at src/parser/Directives.inc.ccc:1414:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1414, 4);
+            currentLookaheadProduction = "BlockAssignment";
+            try {
+                if (!check$BlockAssignment(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (remainingLookahead <= this.passedPredicateThreshold) {
+                passedPredicate = true;
+                this.passedPredicateThreshold = prevPassedPredicateThreshold;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1416:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1416$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1416:4
+            // NonTerminal IncludeInstruction at src/parser/Directives.inc.ccc:1416:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1416, 4);
+            currentLookaheadProduction = "IncludeInstruction";
+            try {
+                if (!check$IncludeInstruction(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1418:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1418$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1418:4
+            // NonTerminal ImportDeclaration at src/parser/Directives.inc.ccc:1418:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1418, 4);
+            currentLookaheadProduction = "ImportDeclaration";
+            try {
+                if (!check$ImportDeclaration(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1420:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1420$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1420:4
+            // NonTerminal Macro at src/parser/Directives.inc.ccc:1420:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1420, 4);
+            currentLookaheadProduction = "Macro";
+            try {
+                if (!check$Macro(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1422:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1422$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1422:4
+            // NonTerminal Function at src/parser/Directives.inc.ccc:1422:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1422, 4);
+            currentLookaheadProduction = "Function";
+            try {
+                if (!check$Function(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1424:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1424$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1424:4
+            // NonTerminal UnifiedCall at src/parser/Directives.inc.ccc:1424:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1424, 4);
+            currentLookaheadProduction = "UnifiedCall";
+            try {
+                if (!check$UnifiedCall(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1428:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1428$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1428:4
+            // NonTerminal PropertySetting at src/parser/Directives.inc.ccc:1428:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1428, 4);
+            currentLookaheadProduction = "PropertySetting";
+            try {
+                if (!check$PropertySetting(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1430:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1430$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1430:4
+            // NonTerminal VarDirective at src/parser/Directives.inc.ccc:1430:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1430, 4);
+            currentLookaheadProduction = "VarDirective";
+            try {
+                if (!check$VarDirective(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1434:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1434$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1434:4
+            // NonTerminal ReturnInstruction at src/parser/Directives.inc.ccc:1434:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1434, 4);
+            currentLookaheadProduction = "ReturnInstruction";
+            try {
+                if (!check$ReturnInstruction(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1436:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1436$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1436:4
+            // NonTerminal ExecInstruction at src/parser/Directives.inc.ccc:1436:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1436, 4);
+            currentLookaheadProduction = "ExecInstruction";
+            try {
+                if (!check$ExecInstruction(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1438:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1438$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1438:4
+            // NonTerminal StopInstruction at src/parser/Directives.inc.ccc:1438:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1438, 4);
+            currentLookaheadProduction = "StopInstruction";
+            try {
+                if (!check$StopInstruction(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1440:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1440$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1440:4
+            // NonTerminal AssertionInstruction at src/parser/Directives.inc.ccc:1440:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1440, 4);
+            currentLookaheadProduction = "AssertionInstruction";
+            try {
+                if (!check$AssertionInstruction(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1446:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1446$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1446:4
+            // NonTerminal AttemptBlock at src/parser/Directives.inc.ccc:1446:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1446, 4);
+            currentLookaheadProduction = "AttemptBlock";
+            try {
+                if (!check$AttemptBlock(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1448:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1448$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1448:4
+            // NonTerminal EscapeBlock at src/parser/Directives.inc.ccc:1448:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1448, 4);
+            currentLookaheadProduction = "EscapeBlock";
+            try {
+                if (!check$EscapeBlock(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1450:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1450$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            if (!backscan$Directives_inc_ccc$1450$11()) return false;
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1451:4
+            // NonTerminal NoEscapeBlock at src/parser/Directives.inc.ccc:1451:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1451, 4);
+            currentLookaheadProduction = "NoEscapeBlock";
+            try {
+                if (!check$NoEscapeBlock(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1453:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1453$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            if (!backscan$Directives_inc_ccc$1453$11()) return false;
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1454:4
+            // NonTerminal NestedInstruction at src/parser/Directives.inc.ccc:1454:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1454, 4);
+            currentLookaheadProduction = "NestedInstruction";
+            try {
+                if (!check$NestedInstruction(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1562:8
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1562$8(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ExpansionChoice specified at src/parser/Directives.inc.ccc:1562:8
+            Token token2 = currentLookaheadToken;
+            int remainingLookahead2 = remainingLookahead;
+            boolean hitFailure2 = hitFailure;
+            boolean passedPredicate2 = passedPredicate;
+            try {
+                passedPredicate = false;
+                if (!check$Directives_inc_ccc$1562$8$(false)) {
+                    currentLookaheadToken = token2;
+                    remainingLookahead = remainingLookahead2;
+                    hitFailure = hitFailure2;
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    passedPredicate = false;
+                    if (!check$Directives_inc_ccc$1564$8(false)) {
+                        currentLookaheadToken = token2;
+                        remainingLookahead = remainingLookahead2;
+                        hitFailure = hitFailure2;
+                        if (passedPredicate && !legacyGlitchyLookahead) return false;
+                        passedPredicate = false;
+                        if (!check$Directives_inc_ccc$1566$8(false)) {
+                            currentLookaheadToken = token2;
+                            remainingLookahead = remainingLookahead2;
+                            hitFailure = hitFailure2;
+                            return false;
+                        }
+                    }
+                }
+            } finally {
+                passedPredicate = passedPredicate2;
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1562:8
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1562$8$(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1562:8
+            // NonTerminal TextElement at src/parser/Directives.inc.ccc:1562:8
+            pushOntoLookaheadStack("Block", "src/parser/Directives.inc.ccc", 1562, 8);
+            currentLookaheadProduction = "TextElement";
+            try {
+                if (!check$TextElement(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1564:8
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1564$8(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1564:8
+            // NonTerminal Interpolation at src/parser/Directives.inc.ccc:1564:8
+            pushOntoLookaheadStack("Block", "src/parser/Directives.inc.ccc", 1564, 8);
+            currentLookaheadProduction = "Interpolation";
+            try {
+                if (!check$Interpolation(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1566:8
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1566$8(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1566:8
+            // NonTerminal TemplateElement at src/parser/Directives.inc.ccc:1566:8
+            pushOntoLookaheadStack("Block", "src/parser/Directives.inc.ccc", 1566, 8);
+            currentLookaheadProduction = "TemplateElement";
+            try {
+                if (!check$TemplateElement(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1627:4
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1627$4(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1627:4
+            // NonTerminal IgnorableWhitespace at src/parser/Directives.inc.ccc:1627:4
+            pushOntoLookaheadStack("TemplateHeaderElement", "src/parser/Directives.inc.ccc", 1627, 4);
+            currentLookaheadProduction = "IgnorableWhitespace";
+            try {
+                if (!check$IgnorableWhitespace(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1630:5
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1630$5(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:1630:5
+            if (!scanToken(ID)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:1631:5
+            Token token4 = currentLookaheadToken;
+            boolean passedPredicate4 = passedPredicate;
+            passedPredicate = false;
+            try {
+                if (!check$Directives_inc_ccc$1632$9(false)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token4;
+                    hitFailure = false;
+                }
+            } finally {
+                passedPredicate = passedPredicate4;
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // scanahead routine for expansion at:
+    // src/parser/Directives.inc.ccc:1632:9
+    // BuildScanRoutine macro
+    private boolean check$Directives_inc_ccc$1632$9(boolean scanToEnd) {
+        boolean reachedScanCode = false;
+        int passedPredicateThreshold = remainingLookahead - 1;
+        try {
+            lookaheadRoutineNesting++;
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            reachedScanCode = true;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:1632:9
+            if (!scanToken(EQUALS)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1633:9
+            // NonTerminal Expression at src/parser/Directives.inc.ccc:1633:9
+            pushOntoLookaheadStack("TemplateHeaderElement", "src/parser/Directives.inc.ccc", 1633, 9);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+        } finally {
+            lookaheadRoutineNesting--;
+            if (reachedScanCode && remainingLookahead <= passedPredicateThreshold) {
+                passedPredicate = true;
+            }
+        }
+        passedPredicate = false;
+        return true;
+    }
+
+    // BuildPredicateRoutine: expansion at src/parser/Expressions.inc.ccc:163:5
+    private boolean scan$Expressions_inc_ccc$163$5() {
+        remainingLookahead = 1;
+        currentLookaheadToken = lastConsumedToken;
+        final boolean scanToEnd = false;
+        try {
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for ExpansionChoice specified at src/parser/Expressions.inc.ccc:165:7
+            Token token4 = currentLookaheadToken;
+            int remainingLookahead4 = remainingLookahead;
+            boolean hitFailure4 = hitFailure;
+            boolean passedPredicate4 = passedPredicate;
+            try {
+                passedPredicate = false;
+                if (!check$Expressions_inc_ccc$165$7(false)) {
+                    currentLookaheadToken = token4;
+                    remainingLookahead = remainingLookahead4;
+                    hitFailure = hitFailure4;
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    passedPredicate = false;
+                    if (!check$Expressions_inc_ccc$171$7(false)) {
+                        currentLookaheadToken = token4;
+                        remainingLookahead = remainingLookahead4;
+                        hitFailure = hitFailure4;
+                        if (passedPredicate && !legacyGlitchyLookahead) return false;
+                        passedPredicate = false;
+                        if (!check$Expressions_inc_ccc$173$7(false)) {
+                            currentLookaheadToken = token4;
+                            remainingLookahead = remainingLookahead4;
+                            hitFailure = hitFailure4;
+                            if (passedPredicate && !legacyGlitchyLookahead) return false;
+                            passedPredicate = false;
+                            if (!check$Expressions_inc_ccc$175$7(false)) {
+                                currentLookaheadToken = token4;
+                                remainingLookahead = remainingLookahead4;
+                                hitFailure = hitFailure4;
+                                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                passedPredicate = false;
+                                if (!scanToken(EXISTS)) {
+                                    currentLookaheadToken = token4;
+                                    remainingLookahead = remainingLookahead4;
+                                    hitFailure = hitFailure4;
+                                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                    passedPredicate = false;
+                                    if (!check$Expressions_inc_ccc$179$7(false)) {
+                                        currentLookaheadToken = token4;
+                                        remainingLookahead = remainingLookahead4;
+                                        hitFailure = hitFailure4;
+                                        if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                        passedPredicate = false;
+                                        if (!check$Expressions_inc_ccc$187$7(false)) {
+                                            currentLookaheadToken = token4;
+                                            remainingLookahead = remainingLookahead4;
+                                            hitFailure = hitFailure4;
+                                            return false;
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            } finally {
+                passedPredicate = passedPredicate4;
+            }
+            return true;
+        } finally {
+            lookaheadRoutineNesting = 0;
+            currentLookaheadToken = null;
+            hitFailure = false;
+        }
+    }
+
+    // BuildPredicateRoutine: expansion at src/parser/Expressions.inc.ccc:182:13
+    private boolean scan$Expressions_inc_ccc$182$13() {
+        remainingLookahead = UNLIMITED;
+        currentLookaheadToken = lastConsumedToken;
+        final boolean scanToEnd = false;
+        try {
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:183:16
+            // NonTerminal PrimaryExpression at src/parser/Expressions.inc.ccc:183:16
+            pushOntoLookaheadStack("PrimaryExpression", "src/parser/Expressions.inc.ccc", 183, 16);
+            currentLookaheadProduction = "PrimaryExpression";
+            try {
+                if (!check$PrimaryExpression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+            if (!scanToEnd && lookaheadStack.size() <= 1) {
+                if (lookaheadRoutineNesting == 0) {
+                    remainingLookahead = 0;
+                } else if (lookaheadStack.size() == 1) {
+                    passedPredicateThreshold = remainingLookahead;
+                }
+            }
+            return true;
+        } finally {
+            lookaheadRoutineNesting = 0;
+            currentLookaheadToken = null;
+            hitFailure = false;
+        }
+    }
+
+    // BuildPredicateRoutine: expansion at src/parser/Expressions.inc.ccc:1531:5
+    private boolean scan$Expressions_inc_ccc$1531$5() {
+        remainingLookahead = UNLIMITED;
+        currentLookaheadToken = lastConsumedToken;
+        final boolean scanToEnd = false;
+        try {
+            // BuildPredicateCode macro
+            if (remainingLookahead <= 0) {
+                passedPredicate = true;
+                return !hitFailure;
+            }
+            if (!check$Expressions_inc_ccc$1531$10(true)) return false;
+            // End BuildPredicateCode macro
+            return true;
+        } finally {
+            lookaheadRoutineNesting = 0;
+            currentLookaheadToken = null;
+            hitFailure = false;
+        }
+    }
+
+    // BuildPredicateRoutine: expansion at src/parser/Directives.inc.ccc:546:7
+    private boolean scan$Directives_inc_ccc$546$7() {
+        remainingLookahead = 1;
+        currentLookaheadToken = lastConsumedToken;
+        final boolean scanToEnd = false;
+        try {
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:547:7
+            if (!scanToken(IN)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:548:7
+            // NonTerminal Expression at src/parser/Directives.inc.ccc:548:7
+            pushOntoLookaheadStack("BlockAssignment", "src/parser/Directives.inc.ccc", 548, 7);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+            return true;
+        } finally {
+            lookaheadRoutineNesting = 0;
+            currentLookaheadToken = null;
+            hitFailure = false;
+        }
+    }
+
+    // BuildPredicateRoutine: expansion at src/parser/Directives.inc.ccc:644:7
+    private boolean scan$Directives_inc_ccc$644$7() {
+        remainingLookahead = 1;
+        currentLookaheadToken = lastConsumedToken;
+        final boolean scanToEnd = false;
+        try {
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:645:7
+            if (!scanToken(IN)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:646:7
+            // NonTerminal Expression at src/parser/Directives.inc.ccc:646:7
+            pushOntoLookaheadStack("AssignmentInstruction", "src/parser/Directives.inc.ccc", 646, 7);
+            currentLookaheadProduction = "Expression";
+            try {
+                if (!check$Expression(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+            return true;
+        } finally {
+            lookaheadRoutineNesting = 0;
+            currentLookaheadToken = null;
+            hitFailure = false;
+        }
+    }
+
+    // BuildPredicateRoutine: expansion at src/parser/Directives.inc.ccc:1412:4
+    private boolean scan$Directives_inc_ccc$1412$4() {
+        remainingLookahead = UNLIMITED;
+        currentLookaheadToken = lastConsumedToken;
+        final boolean scanToEnd = false;
+        try {
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1412:4
+            // NonTerminal AssignmentInstruction at src/parser/Directives.inc.ccc:1412:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1412, 4);
+            currentLookaheadProduction = "AssignmentInstruction";
+            try {
+                if (!check$AssignmentInstruction(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+            return true;
+        } finally {
+            lookaheadRoutineNesting = 0;
+            currentLookaheadToken = null;
+            hitFailure = false;
+        }
+    }
+
+    // BuildPredicateRoutine: expansion at src/parser/Directives.inc.ccc:1414:4
+    private boolean scan$Directives_inc_ccc$1414$4() {
+        remainingLookahead = UNLIMITED;
+        currentLookaheadToken = lastConsumedToken;
+        final boolean scanToEnd = false;
+        try {
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1414:4
+            // NonTerminal BlockAssignment at src/parser/Directives.inc.ccc:1414:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1414, 4);
+            currentLookaheadProduction = "BlockAssignment";
+            try {
+                if (!check$BlockAssignment(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+            return true;
+        } finally {
+            lookaheadRoutineNesting = 0;
+            currentLookaheadToken = null;
+            hitFailure = false;
+        }
+    }
+
+    // BuildPredicateRoutine: expansion at src/parser/Directives.inc.ccc:1450:4
+    private boolean scan$Directives_inc_ccc$1450$4() {
+        remainingLookahead = 1;
+        currentLookaheadToken = lastConsumedToken;
+        final boolean scanToEnd = false;
+        try {
+            // BuildPredicateCode macro
+            if (!backscan$Directives_inc_ccc$1450$11()) return false;
+            // End BuildPredicateCode macro
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1451:4
+            // NonTerminal NoEscapeBlock at src/parser/Directives.inc.ccc:1451:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1451, 4);
+            currentLookaheadProduction = "NoEscapeBlock";
+            try {
+                if (!check$NoEscapeBlock(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+            return true;
+        } finally {
+            lookaheadRoutineNesting = 0;
+            currentLookaheadToken = null;
+            hitFailure = false;
+        }
+    }
+
+    // BuildPredicateRoutine: expansion at src/parser/Directives.inc.ccc:1453:4
+    private boolean scan$Directives_inc_ccc$1453$4() {
+        remainingLookahead = 1;
+        currentLookaheadToken = lastConsumedToken;
+        final boolean scanToEnd = false;
+        try {
+            // BuildPredicateCode macro
+            if (!backscan$Directives_inc_ccc$1453$11()) return false;
+            // End BuildPredicateCode macro
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1454:4
+            // NonTerminal NestedInstruction at src/parser/Directives.inc.ccc:1454:4
+            pushOntoLookaheadStack("TemplateElement", "src/parser/Directives.inc.ccc", 1454, 4);
+            currentLookaheadProduction = "NestedInstruction";
+            try {
+                if (!check$NestedInstruction(true)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+            return true;
+        } finally {
+            lookaheadRoutineNesting = 0;
+            currentLookaheadToken = null;
+            hitFailure = false;
+        }
+    }
+
+    // BuildPredicateRoutine: expansion at src/parser/Directives.inc.ccc:1753:8
+    private boolean scan$Directives_inc_ccc$1753$8() {
+        remainingLookahead = UNLIMITED;
+        currentLookaheadToken = lastConsumedToken;
+        final boolean scanToEnd = false;
+        try {
+            // BuildPredicateCode macro
+            // End BuildPredicateCode macro
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1753:8
+            // NonTerminal TemplateHeaderElement at src/parser/Directives.inc.ccc:1753:8
+            pushOntoLookaheadStack("Root", "src/parser/Directives.inc.ccc", 1753, 8);
+            currentLookaheadProduction = "TemplateHeaderElement";
+            try {
+                if (!check$TemplateHeaderElement(false)) return false;
+            } finally {
+                popLookaheadStack();
+            }
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for CodeBlock specified at src/parser/Directives.inc.ccc:1754:8
+            return true;
+        } finally {
+            lookaheadRoutineNesting = 0;
+            currentLookaheadToken = null;
+            hitFailure = false;
+        }
+    }
+
+    // lookahead routine for lookahead at:
+    // src/parser/Expressions.inc.ccc:1531:5
+    private boolean check$Expressions_inc_ccc$1531$10(boolean scanToEnd) {
+        int prevRemainingLookahead = remainingLookahead;
+        boolean prevHitFailure = hitFailure;
+        Token prevScanAheadToken = currentLookaheadToken;
+        try {
+            lookaheadRoutineNesting++;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:1531:10
+            if (!scanToken(ID)) return false;
+            if (hitFailure) return false;
+            if (remainingLookahead <= 0) return true;
+            // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:1531:14
+            if (!scanToken(EQUALS)) return false;
+            return !hitFailure;
+        } finally {
+            lookaheadRoutineNesting--;
+            currentLookaheadToken = prevScanAheadToken;
+            remainingLookahead = prevRemainingLookahead;
+            hitFailure = prevHitFailure;
+        }
+    }
+
+    private boolean backscan$Directives_inc_ccc$1450$11() {
+        ListIterator<NonTerminalCall> stackIterator = stackIteratorBackward();
+        NonTerminalCall ntc = null;
+        while (stackIterator.hasNext()) {
+            ntc = stackIterator.next();
+            if (ntc.productionName == "EscapeBlock") {
+                stackIterator.previous();
+                break;
+            }
+            if (!stackIterator.hasNext()) return false;
+        }
+        if (!stackIterator.hasNext()) return false;
+        ntc = stackIterator.next();
+        if (ntc.productionName != "EscapeBlock") return false;
+        return true;
+    }
+
+    private boolean backscan$Directives_inc_ccc$1453$11() {
+        ListIterator<NonTerminalCall> stackIterator = stackIteratorBackward();
+        NonTerminalCall ntc = null;
+        while (stackIterator.hasNext()) {
+            ntc = stackIterator.next();
+            if (ntc.productionName == "Macro") {
+                stackIterator.previous();
+                break;
+            }
+            if (!stackIterator.hasNext()) return false;
+        }
+        if (!stackIterator.hasNext()) return false;
+        ntc = stackIterator.next();
+        if (ntc.productionName != "Macro") return false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$Expression(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:5:5
+        // NonTerminal TernaryExpression at src/parser/Expressions.inc.ccc:5:5
+        pushOntoLookaheadStack("Expression", "src/parser/Expressions.inc.ccc", 5, 5);
+        currentLookaheadProduction = "TernaryExpression";
+        try {
+            if (!check$TernaryExpression(false)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for CodeBlock specified at src/parser/Expressions.inc.ccc:6:5
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$TernaryExpression(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:97:5
+        // NonTerminal OrExpression at src/parser/Expressions.inc.ccc:97:5
+        pushOntoLookaheadStack("TernaryExpression", "src/parser/Expressions.inc.ccc", 97, 5);
+        currentLookaheadProduction = "OrExpression";
+        try {
+            if (!check$OrExpression(false)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:98:5
+        Token token4 = currentLookaheadToken;
+        boolean passedPredicate4 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Expressions_inc_ccc$99$9(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token4;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate4;
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$Literal(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ExpansionChoice specified at src/parser/Expressions.inc.ccc:135:3
+        Token token2 = currentLookaheadToken;
+        int remainingLookahead2 = remainingLookahead;
+        boolean hitFailure2 = hitFailure;
+        boolean passedPredicate2 = passedPredicate;
+        try {
+            passedPredicate = false;
+            if (!scanToken(NULL)) {
+                currentLookaheadToken = token2;
+                remainingLookahead = remainingLookahead2;
+                hitFailure = hitFailure2;
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                passedPredicate = false;
+                if (!scanToken(TRUE)) {
+                    currentLookaheadToken = token2;
+                    remainingLookahead = remainingLookahead2;
+                    hitFailure = hitFailure2;
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    passedPredicate = false;
+                    if (!scanToken(FALSE)) {
+                        currentLookaheadToken = token2;
+                        remainingLookahead = remainingLookahead2;
+                        hitFailure = hitFailure2;
+                        if (passedPredicate && !legacyGlitchyLookahead) return false;
+                        passedPredicate = false;
+                        if (!scanToken(NUMBER)) {
+                            currentLookaheadToken = token2;
+                            remainingLookahead = remainingLookahead2;
+                            hitFailure = hitFailure2;
+                            if (passedPredicate && !legacyGlitchyLookahead) return false;
+                            passedPredicate = false;
+                            if (!scanToken(STRING_LITERAL)) {
+                                currentLookaheadToken = token2;
+                                remainingLookahead = remainingLookahead2;
+                                hitFailure = hitFailure2;
+                                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                passedPredicate = false;
+                                if (!scanToken(RAW_STRING)) {
+                                    currentLookaheadToken = token2;
+                                    remainingLookahead = remainingLookahead2;
+                                    hitFailure = hitFailure2;
+                                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                    passedPredicate = false;
+                                    if (!check$Expressions_inc_ccc$147$3(false)) {
+                                        currentLookaheadToken = token2;
+                                        remainingLookahead = remainingLookahead2;
+                                        hitFailure = hitFailure2;
+                                        if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                        passedPredicate = false;
+                                        if (!check$Expressions_inc_ccc$149$3(false)) {
+                                            currentLookaheadToken = token2;
+                                            remainingLookahead = remainingLookahead2;
+                                            hitFailure = hitFailure2;
+                                            return false;
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate2;
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$PrimaryExpression(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ExpansionChoice specified at src/parser/Expressions.inc.ccc:154:7
+        Token token4 = currentLookaheadToken;
+        int remainingLookahead4 = remainingLookahead;
+        boolean hitFailure4 = hitFailure;
+        boolean passedPredicate4 = passedPredicate;
+        try {
+            passedPredicate = false;
+            if (!check$Expressions_inc_ccc$154$7$(false)) {
+                currentLookaheadToken = token4;
+                remainingLookahead = remainingLookahead4;
+                hitFailure = hitFailure4;
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                passedPredicate = false;
+                if (!scanToken(ID)) {
+                    currentLookaheadToken = token4;
+                    remainingLookahead = remainingLookahead4;
+                    hitFailure = hitFailure4;
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    passedPredicate = false;
+                    if (!check$Expressions_inc_ccc$158$7(false)) {
+                        currentLookaheadToken = token4;
+                        remainingLookahead = remainingLookahead4;
+                        hitFailure = hitFailure4;
+                        if (passedPredicate && !legacyGlitchyLookahead) return false;
+                        passedPredicate = false;
+                        if (!check$Expressions_inc_ccc$160$7(false)) {
+                            currentLookaheadToken = token4;
+                            remainingLookahead = remainingLookahead4;
+                            hitFailure = hitFailure4;
+                            return false;
+                        }
+                    }
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate4;
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrMore specified at src/parser/Expressions.inc.ccc:162:3
+        boolean passedPredicate6 = passedPredicate;
+        try {
+            while (remainingLookahead > 0 && !hitFailure) {
+                Token token7 = currentLookaheadToken;
+                passedPredicate = false;
+                if (!check$Expressions_inc_ccc$163$5(false)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token7;
+                    break;
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate6;
+        }
+        hitFailure = false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$ParentheticalExpression(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:193:5
+        if (!scanToken(OPEN_PAREN)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:194:5
+        // NonTerminal Expression at src/parser/Expressions.inc.ccc:194:5
+        pushOntoLookaheadStack("ParentheticalExpression", "src/parser/Expressions.inc.ccc", 194, 5);
+        currentLookaheadProduction = "Expression";
+        try {
+            if (!check$Expression(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:195:5
+        if (!scanToken(CLOSE_PAREN)) return false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$UnaryExpression(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ExpansionChoice specified at src/parser/Expressions.inc.ccc:284:4
+        Token token2 = currentLookaheadToken;
+        int remainingLookahead2 = remainingLookahead;
+        boolean hitFailure2 = hitFailure;
+        boolean passedPredicate2 = passedPredicate;
+        try {
+            passedPredicate = false;
+            if (!check$Expressions_inc_ccc$284$4(false)) {
+                currentLookaheadToken = token2;
+                remainingLookahead = remainingLookahead2;
+                hitFailure = hitFailure2;
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                passedPredicate = false;
+                if (!check$Expressions_inc_ccc$286$4(false)) {
+                    currentLookaheadToken = token2;
+                    remainingLookahead = remainingLookahead2;
+                    hitFailure = hitFailure2;
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    passedPredicate = false;
+                    if (!check$Expressions_inc_ccc$288$4(false)) {
+                        currentLookaheadToken = token2;
+                        remainingLookahead = remainingLookahead2;
+                        hitFailure = hitFailure2;
+                        return false;
+                    }
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate2;
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$NotExpression(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:292:4
+        if (!scanToken(EXCLAM)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ExpansionChoice specified at src/parser/Expressions.inc.ccc:294:7
+        Token token5 = currentLookaheadToken;
+        int remainingLookahead5 = remainingLookahead;
+        boolean hitFailure5 = hitFailure;
+        boolean passedPredicate5 = passedPredicate;
+        try {
+            passedPredicate = false;
+            if (!check$Expressions_inc_ccc$294$7(false)) {
+                currentLookaheadToken = token5;
+                remainingLookahead = remainingLookahead5;
+                hitFailure = hitFailure5;
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                passedPredicate = false;
+                if (!check$Expressions_inc_ccc$296$7(false)) {
+                    currentLookaheadToken = token5;
+                    remainingLookahead = remainingLookahead5;
+                    hitFailure = hitFailure5;
+                    return false;
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate5;
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$UnaryPlusMinusExpression(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ExpansionChoice specified at src/parser/Expressions.inc.ccc:325:7
+        if (!scanToken(PLUS, MINUS)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ExpansionChoice specified at src/parser/Expressions.inc.ccc:330:7
+        Token token6 = currentLookaheadToken;
+        int remainingLookahead6 = remainingLookahead;
+        boolean hitFailure6 = hitFailure;
+        boolean passedPredicate6 = passedPredicate;
+        try {
+            passedPredicate = false;
+            if (!check$Expressions_inc_ccc$330$7(false)) {
+                currentLookaheadToken = token6;
+                remainingLookahead = remainingLookahead6;
+                hitFailure = hitFailure6;
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                passedPredicate = false;
+                if (!check$Expressions_inc_ccc$332$7(false)) {
+                    currentLookaheadToken = token6;
+                    remainingLookahead = remainingLookahead6;
+                    hitFailure = hitFailure6;
+                    return false;
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate6;
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$AdditiveExpression(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:377:4
+        // NonTerminal MultiplicativeExpression at src/parser/Expressions.inc.ccc:377:4
+        pushOntoLookaheadStack("AdditiveExpression", "src/parser/Expressions.inc.ccc", 377, 4);
+        currentLookaheadProduction = "MultiplicativeExpression";
+        try {
+            if (!check$MultiplicativeExpression(false)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrMore specified at src/parser/Expressions.inc.ccc:378:4
+        boolean passedPredicate4 = passedPredicate;
+        try {
+            while (remainingLookahead > 0 && !hitFailure) {
+                Token token5 = currentLookaheadToken;
+                passedPredicate = false;
+                if (!check$Expressions_inc_ccc$379$7(false)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token5;
+                    break;
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate4;
+        }
+        hitFailure = false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$MultiplicativeExpression(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:469:4
+        // NonTerminal UnaryExpression at src/parser/Expressions.inc.ccc:469:4
+        pushOntoLookaheadStack("MultiplicativeExpression", "src/parser/Expressions.inc.ccc", 469, 4);
+        currentLookaheadProduction = "UnaryExpression";
+        try {
+            if (!check$UnaryExpression(false)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrMore specified at src/parser/Expressions.inc.ccc:470:4
+        boolean passedPredicate4 = passedPredicate;
+        try {
+            while (remainingLookahead > 0 && !hitFailure) {
+                Token token5 = currentLookaheadToken;
+                passedPredicate = false;
+                if (!check$Expressions_inc_ccc$471$7(false)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token5;
+                    break;
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate4;
+        }
+        hitFailure = false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$EqualityExpression(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:554:4
+        // NonTerminal RelationalExpression at src/parser/Expressions.inc.ccc:554:4
+        pushOntoLookaheadStack("EqualityExpression", "src/parser/Expressions.inc.ccc", 554, 4);
+        currentLookaheadProduction = "RelationalExpression";
+        try {
+            if (!check$RelationalExpression(false)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:555:4
+        Token token4 = currentLookaheadToken;
+        boolean passedPredicate4 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Expressions_inc_ccc$556$6(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token4;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate4;
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$RelationalExpression(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:623:4
+        // NonTerminal RangeExpression at src/parser/Expressions.inc.ccc:623:4
+        pushOntoLookaheadStack("RelationalExpression", "src/parser/Expressions.inc.ccc", 623, 4);
+        currentLookaheadProduction = "RangeExpression";
+        try {
+            if (!check$RangeExpression(false)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:624:4
+        Token token4 = currentLookaheadToken;
+        boolean passedPredicate4 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Expressions_inc_ccc$625$6(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token4;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate4;
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$RangeExpression(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:695:4
+        // NonTerminal AdditiveExpression at src/parser/Expressions.inc.ccc:695:4
+        pushOntoLookaheadStack("RangeExpression", "src/parser/Expressions.inc.ccc", 695, 4);
+        currentLookaheadProduction = "AdditiveExpression";
+        try {
+            if (!check$AdditiveExpression(false)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:696:4
+        Token token4 = currentLookaheadToken;
+        boolean passedPredicate4 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Expressions_inc_ccc$697$5(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token4;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate4;
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$AndExpression(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:781:4
+        // NonTerminal EqualityExpression at src/parser/Expressions.inc.ccc:781:4
+        pushOntoLookaheadStack("AndExpression", "src/parser/Expressions.inc.ccc", 781, 4);
+        currentLookaheadProduction = "EqualityExpression";
+        try {
+            if (!check$EqualityExpression(false)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:782:4
+        Token token4 = currentLookaheadToken;
+        boolean passedPredicate4 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Expressions_inc_ccc$783$7(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token4;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate4;
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$OrExpression(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:818:4
+        // NonTerminal AndExpression at src/parser/Expressions.inc.ccc:818:4
+        pushOntoLookaheadStack("OrExpression", "src/parser/Expressions.inc.ccc", 818, 4);
+        currentLookaheadProduction = "AndExpression";
+        try {
+            if (!check$AndExpression(false)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:819:4
+        Token token4 = currentLookaheadToken;
+        boolean passedPredicate4 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Expressions_inc_ccc$820$7(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token4;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate4;
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$ListLiteral(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:855:5
+        if (!scanToken(OPEN_BRACKET)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:856:5
+        Token token4 = currentLookaheadToken;
+        boolean passedPredicate4 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Expressions_inc_ccc$857$7(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token4;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate4;
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:863:5
+        if (!scanToken(CLOSE_BRACKET)) return false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$BuiltinVariable(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:938:4
+        if (!scanToken(DOT)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:939:4
+        if (!scanToken(ID)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for CodeBlock specified at src/parser/Expressions.inc.ccc:940:4
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$PositionalArgsList(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:1350:2
+        // NonTerminal Expression at src/parser/Expressions.inc.ccc:1350:2
+        pushOntoLookaheadStack("PositionalArgsList", "src/parser/Expressions.inc.ccc", 1350, 2);
+        currentLookaheadProduction = "Expression";
+        try {
+            if (!check$Expression(false)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrMore specified at src/parser/Expressions.inc.ccc:1351:2
+        boolean passedPredicate4 = passedPredicate;
+        try {
+            while (remainingLookahead > 0 && !hitFailure) {
+                Token token5 = currentLookaheadToken;
+                passedPredicate = false;
+                if (!check$Expressions_inc_ccc$1352$5(false)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token5;
+                    break;
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate4;
+        }
+        hitFailure = false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$NamedArgsList(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:1429:2
+        if (!scanToken(ID)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for CodeBlock specified at src/parser/Expressions.inc.ccc:1429:7
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:1430:2
+        if (!scanToken(EQUALS)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Expressions.inc.ccc:1431:2
+        // NonTerminal Expression at src/parser/Expressions.inc.ccc:1431:2
+        pushOntoLookaheadStack("NamedArgsList", "src/parser/Expressions.inc.ccc", 1431, 2);
+        currentLookaheadProduction = "Expression";
+        try {
+            if (!check$Expression(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for CodeBlock specified at src/parser/Expressions.inc.ccc:1432:2
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrMore specified at src/parser/Expressions.inc.ccc:1435:2
+        boolean passedPredicate8 = passedPredicate;
+        try {
+            while (remainingLookahead > 0 && !hitFailure) {
+                Token token9 = currentLookaheadToken;
+                passedPredicate = false;
+                if (!check$Expressions_inc_ccc$1436$5(false)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token9;
+                    break;
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate8;
+        }
+        hitFailure = false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$ArgsList(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ExpansionChoice specified at src/parser/Expressions.inc.ccc:1531:5
+        Token token4 = currentLookaheadToken;
+        int remainingLookahead4 = remainingLookahead;
+        boolean hitFailure4 = hitFailure;
+        boolean passedPredicate4 = passedPredicate;
+        try {
+            passedPredicate = false;
+            if (!check$Expressions_inc_ccc$1531$5(false)) {
+                currentLookaheadToken = token4;
+                remainingLookahead = remainingLookahead4;
+                hitFailure = hitFailure4;
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                passedPredicate = false;
+                if (!check$Expressions_inc_ccc$1534$8(false)) {
+                    currentLookaheadToken = token4;
+                    remainingLookahead = remainingLookahead4;
+                    hitFailure = hitFailure4;
+                    return false;
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate4;
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$HashLiteral(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:1641:4
+        if (!scanToken(OPEN_BRACE)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Expressions.inc.ccc:1642:4
+        Token token4 = currentLookaheadToken;
+        boolean passedPredicate4 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Expressions_inc_ccc$1643$8(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token4;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate4;
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Expressions.inc.ccc:1653:4
+        if (!scanToken(CLOSE_BRACE)) return false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$Interpolation(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:10:4
+        if (!scanToken(OUTPUT_ESCAPE)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:11:4
+        // NonTerminal Expression at src/parser/Directives.inc.ccc:11:4
+        pushOntoLookaheadStack("Interpolation", "src/parser/Directives.inc.ccc", 11, 4);
+        currentLookaheadProduction = "Expression";
+        try {
+            if (!check$Expression(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:12:4
+        if (!scanToken(CLOSE_BRACE)) return false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$IfBlock(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:120:5
+        if (!scanToken(IF)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:121:5
+        // NonTerminal Expression at src/parser/Directives.inc.ccc:121:5
+        pushOntoLookaheadStack("IfBlock", "src/parser/Directives.inc.ccc", 121, 5);
+        currentLookaheadProduction = "Expression";
+        try {
+            if (!check$Expression(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:122:5
+        if (!scanToken(DIRECTIVE_END)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:123:5
+        // NonTerminal Block at src/parser/Directives.inc.ccc:123:5
+        pushOntoLookaheadStack("IfBlock", "src/parser/Directives.inc.ccc", 123, 5);
+        currentLookaheadProduction = "Block";
+        try {
+            if (!check$Block(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrMore specified at src/parser/Directives.inc.ccc:125:3
+        boolean passedPredicate9 = passedPredicate;
+        try {
+            while (remainingLookahead > 0 && !hitFailure) {
+                Token token10 = currentLookaheadToken;
+                passedPredicate = false;
+                if (!check$Directives_inc_ccc$126$5(false)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token10;
+                    break;
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate9;
+        }
+        hitFailure = false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:141:3
+        Token token12 = currentLookaheadToken;
+        boolean passedPredicate12 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Directives_inc_ccc$142$5(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token12;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate12;
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:155:3
+        // NonTerminal CloseDirectiveBlock at src/parser/Directives.inc.ccc:155:3
+        pushOntoLookaheadStack("IfBlock", "src/parser/Directives.inc.ccc", 155, 3);
+        currentLookaheadProduction = "CloseDirectiveBlock";
+        try {
+            if (!check$CloseDirectiveBlock(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$AttemptBlock(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:201:4
+        if (!scanToken(_ATTEMPT)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:202:4
+        // NonTerminal Block at src/parser/Directives.inc.ccc:202:4
+        pushOntoLookaheadStack("AttemptBlock", "src/parser/Directives.inc.ccc", 202, 4);
+        currentLookaheadProduction = "Block";
+        try {
+            if (!check$Block(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:203:4
+        if (!scanToken(_RECOVER)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for CodeBlock specified at src/parser/Directives.inc.ccc:204:4
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:212:4
+        // NonTerminal Block at src/parser/Directives.inc.ccc:212:4
+        pushOntoLookaheadStack("AttemptBlock", "src/parser/Directives.inc.ccc", 212, 4);
+        currentLookaheadProduction = "Block";
+        try {
+            if (!check$Block(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:213:4
+        // NonTerminal CloseDirectiveBlock at src/parser/Directives.inc.ccc:213:4
+        pushOntoLookaheadStack("AttemptBlock", "src/parser/Directives.inc.ccc", 213, 4);
+        currentLookaheadProduction = "CloseDirectiveBlock";
+        try {
+            if (!check$CloseDirectiveBlock(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$ListBlock(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:241:4
+        if (!scanToken(LIST)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:242:4
+        // NonTerminal Expression at src/parser/Directives.inc.ccc:242:4
+        pushOntoLookaheadStack("ListBlock", "src/parser/Directives.inc.ccc", 242, 4);
+        currentLookaheadProduction = "Expression";
+        try {
+            if (!check$Expression(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:243:4
+        if (!scanToken(AS)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:244:4
+        if (!scanToken(ID)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:245:4
+        Token token7 = currentLookaheadToken;
+        boolean passedPredicate7 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Directives_inc_ccc$246$7(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token7;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate7;
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:249:4
+        if (!scanToken(DIRECTIVE_END)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:250:4
+        // NonTerminal Block at src/parser/Directives.inc.ccc:250:4
+        pushOntoLookaheadStack("ListBlock", "src/parser/Directives.inc.ccc", 250, 4);
+        currentLookaheadProduction = "Block";
+        try {
+            if (!check$Block(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:251:4
+        // NonTerminal CloseDirectiveBlock at src/parser/Directives.inc.ccc:251:4
+        pushOntoLookaheadStack("ListBlock", "src/parser/Directives.inc.ccc", 251, 4);
+        currentLookaheadProduction = "CloseDirectiveBlock";
+        try {
+            if (!check$CloseDirectiveBlock(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$ForEachBlock(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:256:4
+        if (!scanToken(FOREACH)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:257:4
+        if (!scanToken(ID)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:258:4
+        Token token5 = currentLookaheadToken;
+        boolean passedPredicate5 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Directives_inc_ccc$259$7(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token5;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate5;
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:262:4
+        if (!scanToken(IN)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:263:4
+        // NonTerminal Expression at src/parser/Directives.inc.ccc:263:4
+        pushOntoLookaheadStack("ForEachBlock", "src/parser/Directives.inc.ccc", 263, 4);
+        currentLookaheadProduction = "Expression";
+        try {
+            if (!check$Expression(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:264:4
+        if (!scanToken(DIRECTIVE_END)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:265:4
+        // NonTerminal Block at src/parser/Directives.inc.ccc:265:4
+        pushOntoLookaheadStack("ForEachBlock", "src/parser/Directives.inc.ccc", 265, 4);
+        currentLookaheadProduction = "Block";
+        try {
+            if (!check$Block(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:266:4
+        // NonTerminal CloseDirectiveBlock at src/parser/Directives.inc.ccc:266:4
+        pushOntoLookaheadStack("ForEachBlock", "src/parser/Directives.inc.ccc", 266, 4);
+        currentLookaheadProduction = "CloseDirectiveBlock";
+        try {
+            if (!check$CloseDirectiveBlock(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$AssertionInstruction(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:349:4
+        if (!scanToken(_ASSERT)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:350:4
+        // NonTerminal Expression at src/parser/Directives.inc.ccc:350:4
+        pushOntoLookaheadStack("AssertionInstruction", "src/parser/Directives.inc.ccc", 350, 4);
+        currentLookaheadProduction = "Expression";
+        try {
+            if (!check$Expression(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:351:4
+        Token token5 = currentLookaheadToken;
+        boolean passedPredicate5 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Directives_inc_ccc$352$7(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token5;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate5;
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:355:4
+        if (!scanToken(EMPTY_DIRECTIVE_END, DIRECTIVE_END)) return false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$ExecInstruction(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:378:5
+        if (!scanToken(EXEC)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:378:12
+        // NonTerminal Expression at src/parser/Directives.inc.ccc:378:12
+        pushOntoLookaheadStack("ExecInstruction", "src/parser/Directives.inc.ccc", 378, 12);
+        currentLookaheadProduction = "Expression";
+        try {
+            if (!check$Expression(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:378:23
+        if (!scanToken(EMPTY_DIRECTIVE_END, DIRECTIVE_END)) return false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$ReturnInstruction(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:395:4
+        if (!scanToken(RETURN)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:395:13
+        Token token4 = currentLookaheadToken;
+        boolean passedPredicate4 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Directives_inc_ccc$395$14(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token4;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate4;
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:395:26
+        if (!scanToken(EMPTY_DIRECTIVE_END, DIRECTIVE_END)) return false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$StopInstruction(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:426:4
+        if (!scanToken(STOP)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:426:11
+        Token token4 = currentLookaheadToken;
+        boolean passedPredicate4 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Directives_inc_ccc$426$12(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token4;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate4;
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:426:24
+        if (!scanToken(EMPTY_DIRECTIVE_END, DIRECTIVE_END)) return false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$NestedInstruction(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:450:5
+        if (!scanToken(NESTED)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:451:5
+        Token token4 = currentLookaheadToken;
+        boolean passedPredicate4 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Directives_inc_ccc$451$6(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token4;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate4;
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:452:5
+        if (!scanToken(EMPTY_DIRECTIVE_END, DIRECTIVE_END)) return false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$BlockAssignment(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ExpansionChoice specified at src/parser/Directives.inc.ccc:535:5
+        if (!scanToken(ASSIGN, GLOBALASSIGN, LOCALASSIGN, SET)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for CodeBlock specified at src/parser/Directives.inc.ccc:543:4
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:544:4
+        // NonTerminal PrimaryExpression at src/parser/Directives.inc.ccc:544:4
+        pushOntoLookaheadStack("BlockAssignment", "src/parser/Directives.inc.ccc", 544, 4);
+        currentLookaheadProduction = "PrimaryExpression";
+        try {
+            if (!check$PrimaryExpression(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:545:4
+        Token token7 = currentLookaheadToken;
+        boolean passedPredicate7 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Directives_inc_ccc$546$7(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token7;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate7;
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:550:4
+        if (!scanToken(DIRECTIVE_END)) return false;
+        if (!scanToEnd && lookaheadStack.size() <= 1) {
+            if (lookaheadRoutineNesting == 0) {
+                remainingLookahead = 0;
+            } else if (lookaheadStack.size() == 1) {
+                passedPredicateThreshold = remainingLookahead;
+            }
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:551:4
+        // NonTerminal Block at src/parser/Directives.inc.ccc:551:4
+        pushOntoLookaheadStack("BlockAssignment", "src/parser/Directives.inc.ccc", 551, 4);
+        currentLookaheadProduction = "Block";
+        try {
+            if (!check$Block(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:552:4
+        // NonTerminal CloseDirectiveBlock at src/parser/Directives.inc.ccc:552:4
+        pushOntoLookaheadStack("BlockAssignment", "src/parser/Directives.inc.ccc", 552, 4);
+        currentLookaheadProduction = "CloseDirectiveBlock";
+        try {
+            if (!check$CloseDirectiveBlock(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$AssignmentInstruction(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ExpansionChoice specified at src/parser/Directives.inc.ccc:631:5
+        if (!scanToken(ASSIGN, GLOBALASSIGN, LOCALASSIGN, SET)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:632:4
+        // NonTerminal PrimaryExpression at src/parser/Directives.inc.ccc:632:4
+        pushOntoLookaheadStack("AssignmentInstruction", "src/parser/Directives.inc.ccc", 632, 4);
+        currentLookaheadProduction = "PrimaryExpression";
+        try {
+            if (!check$PrimaryExpression(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for CodeBlock specified at src/parser/Directives.inc.ccc:633:4
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:634:4
+        if (!scanToken(EQUALS)) return false;
+        if (!scanToEnd && lookaheadStack.size() <= 1) {
+            if (lookaheadRoutineNesting == 0) {
+                remainingLookahead = 0;
+            } else if (lookaheadStack.size() == 1) {
+                passedPredicateThreshold = remainingLookahead;
+            }
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:635:4
+        // NonTerminal Expression at src/parser/Directives.inc.ccc:635:4
+        pushOntoLookaheadStack("AssignmentInstruction", "src/parser/Directives.inc.ccc", 635, 4);
+        currentLookaheadProduction = "Expression";
+        try {
+            if (!check$Expression(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrMore specified at src/parser/Directives.inc.ccc:636:4
+        boolean passedPredicate9 = passedPredicate;
+        try {
+            while (remainingLookahead > 0 && !hitFailure) {
+                Token token10 = currentLookaheadToken;
+                passedPredicate = false;
+                if (!check$Directives_inc_ccc$637$6(false)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token10;
+                    break;
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate9;
+        }
+        hitFailure = false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:643:4
+        Token token12 = currentLookaheadToken;
+        boolean passedPredicate12 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Directives_inc_ccc$644$7(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token12;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate12;
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:648:4
+        if (!scanToken(EMPTY_DIRECTIVE_END, DIRECTIVE_END)) return false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$IncludeInstruction(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ExpansionChoice specified at src/parser/Directives.inc.ccc:655:5
+        if (!scanToken(EMBED, _INCLUDE)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:656:4
+        // NonTerminal Expression at src/parser/Directives.inc.ccc:656:4
+        pushOntoLookaheadStack("IncludeInstruction", "src/parser/Directives.inc.ccc", 656, 4);
+        currentLookaheadProduction = "Expression";
+        try {
+            if (!check$Expression(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrMore specified at src/parser/Directives.inc.ccc:657:4
+        boolean passedPredicate6 = passedPredicate;
+        try {
+            while (remainingLookahead > 0 && !hitFailure) {
+                Token token7 = currentLookaheadToken;
+                passedPredicate = false;
+                if (!check$Directives_inc_ccc$658$5(false)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token7;
+                    break;
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate6;
+        }
+        hitFailure = false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:660:4
+        if (!scanToken(EMPTY_DIRECTIVE_END, DIRECTIVE_END)) return false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$ImportDeclaration(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:740:4
+        if (!scanToken(IMPORT)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:741:4
+        // NonTerminal Expression at src/parser/Directives.inc.ccc:741:4
+        pushOntoLookaheadStack("ImportDeclaration", "src/parser/Directives.inc.ccc", 741, 4);
+        currentLookaheadProduction = "Expression";
+        try {
+            if (!check$Expression(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:742:4
+        if (!scanToken(AS)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:743:4
+        if (!scanToken(ID)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:744:4
+        if (!scanToken(EMPTY_DIRECTIVE_END, DIRECTIVE_END)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for CodeBlock specified at src/parser/Directives.inc.ccc:745:4
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$ParameterList(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrMore specified at src/parser/Directives.inc.ccc:833:5
+        boolean passedPredicate3 = passedPredicate;
+        try {
+            while (remainingLookahead > 0 && !hitFailure) {
+                Token token4 = currentLookaheadToken;
+                passedPredicate = false;
+                if (!check$Directives_inc_ccc$834$11(false)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token4;
+                    break;
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate3;
+        }
+        hitFailure = false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for CodeBlock specified at src/parser/Directives.inc.ccc:883:2
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$Macro(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:891:5
+        if (!scanToken(_MACRO)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:892:5
+        if (!scanToken(STRING_LITERAL, ID)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:893:5
+        Token token5 = currentLookaheadToken;
+        boolean passedPredicate5 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!scanToken(OPEN_PAREN)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token5;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate5;
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:894:5
+        // NonTerminal ParameterList at src/parser/Directives.inc.ccc:894:5
+        pushOntoLookaheadStack("Macro", "src/parser/Directives.inc.ccc", 894, 5);
+        currentLookaheadProduction = "ParameterList";
+        try {
+            if (!check$ParameterList(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:895:5
+        Token token8 = currentLookaheadToken;
+        boolean passedPredicate8 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!scanToken(CLOSE_PAREN)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token8;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate8;
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:896:5
+        if (!scanToken(DIRECTIVE_END)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:897:5
+        // NonTerminal Block at src/parser/Directives.inc.ccc:897:5
+        pushOntoLookaheadStack("Macro", "src/parser/Directives.inc.ccc", 897, 5);
+        currentLookaheadProduction = "Block";
+        try {
+            if (!check$Block(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:898:5
+        // NonTerminal CloseDirectiveBlock at src/parser/Directives.inc.ccc:898:5
+        pushOntoLookaheadStack("Macro", "src/parser/Directives.inc.ccc", 898, 5);
+        currentLookaheadProduction = "CloseDirectiveBlock";
+        try {
+            if (!check$CloseDirectiveBlock(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$Function(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:903:5
+        if (!scanToken(FUNCTION)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:904:5
+        if (!scanToken(STRING_LITERAL, ID)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:905:5
+        Token token5 = currentLookaheadToken;
+        boolean passedPredicate5 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!scanToken(OPEN_PAREN)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token5;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate5;
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:906:5
+        // NonTerminal ParameterList at src/parser/Directives.inc.ccc:906:5
+        pushOntoLookaheadStack("Function", "src/parser/Directives.inc.ccc", 906, 5);
+        currentLookaheadProduction = "ParameterList";
+        try {
+            if (!check$ParameterList(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:907:5
+        Token token8 = currentLookaheadToken;
+        boolean passedPredicate8 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!scanToken(CLOSE_PAREN)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token8;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate8;
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:908:5
+        if (!scanToken(DIRECTIVE_END)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:909:5
+        // NonTerminal Block at src/parser/Directives.inc.ccc:909:5
+        pushOntoLookaheadStack("Function", "src/parser/Directives.inc.ccc", 909, 5);
+        currentLookaheadProduction = "Block";
+        try {
+            if (!check$Block(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:910:5
+        // NonTerminal CloseDirectiveBlock at src/parser/Directives.inc.ccc:910:5
+        pushOntoLookaheadStack("Function", "src/parser/Directives.inc.ccc", 910, 5);
+        currentLookaheadProduction = "CloseDirectiveBlock";
+        try {
+            if (!check$CloseDirectiveBlock(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$UnifiedCall(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:980:4
+        if (!scanToken(UNIFIED_CALL)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:981:4
+        // NonTerminal PrimaryExpression at src/parser/Directives.inc.ccc:981:4
+        pushOntoLookaheadStack("UnifiedCall", "src/parser/Directives.inc.ccc", 981, 4);
+        currentLookaheadProduction = "PrimaryExpression";
+        try {
+            if (!check$PrimaryExpression(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:982:4
+        Token token5 = currentLookaheadToken;
+        boolean passedPredicate5 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Directives_inc_ccc$982$5(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token5;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate5;
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:983:4
+        Token token7 = currentLookaheadToken;
+        boolean passedPredicate7 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Directives_inc_ccc$984$8(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token7;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate7;
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ExpansionChoice specified at src/parser/Directives.inc.ccc:988:7
+        Token token10 = currentLookaheadToken;
+        int remainingLookahead10 = remainingLookahead;
+        boolean hitFailure10 = hitFailure;
+        boolean passedPredicate10 = passedPredicate;
+        try {
+            passedPredicate = false;
+            if (!scanToken(EMPTY_DIRECTIVE_END)) {
+                currentLookaheadToken = token10;
+                remainingLookahead = remainingLookahead10;
+                hitFailure = hitFailure10;
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                passedPredicate = false;
+                if (!check$Directives_inc_ccc$990$7(false)) {
+                    currentLookaheadToken = token10;
+                    remainingLookahead = remainingLookahead10;
+                    hitFailure = hitFailure10;
+                    return false;
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate10;
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$EscapeBlock(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:1149:5
+        if (!scanToken(ESCAPE)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:1150:5
+        if (!scanToken(ID)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:1151:5
+        if (!scanToken(AS)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1152:5
+        // NonTerminal Expression at src/parser/Directives.inc.ccc:1152:5
+        pushOntoLookaheadStack("EscapeBlock", "src/parser/Directives.inc.ccc", 1152, 5);
+        currentLookaheadProduction = "Expression";
+        try {
+            if (!check$Expression(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:1153:5
+        if (!scanToken(DIRECTIVE_END)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1154:5
+        // NonTerminal Block at src/parser/Directives.inc.ccc:1154:5
+        pushOntoLookaheadStack("EscapeBlock", "src/parser/Directives.inc.ccc", 1154, 5);
+        currentLookaheadProduction = "Block";
+        try {
+            if (!check$Block(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1155:5
+        // NonTerminal CloseDirectiveBlock at src/parser/Directives.inc.ccc:1155:5
+        pushOntoLookaheadStack("EscapeBlock", "src/parser/Directives.inc.ccc", 1155, 5);
+        currentLookaheadProduction = "CloseDirectiveBlock";
+        try {
+            if (!check$CloseDirectiveBlock(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$NoEscapeBlock(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:1206:5
+        if (!scanToken(NOESCAPE)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1207:5
+        // NonTerminal Block at src/parser/Directives.inc.ccc:1207:5
+        pushOntoLookaheadStack("NoEscapeBlock", "src/parser/Directives.inc.ccc", 1207, 5);
+        currentLookaheadProduction = "Block";
+        try {
+            if (!check$Block(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1208:5
+        // NonTerminal CloseDirectiveBlock at src/parser/Directives.inc.ccc:1208:5
+        pushOntoLookaheadStack("NoEscapeBlock", "src/parser/Directives.inc.ccc", 1208, 5);
+        currentLookaheadProduction = "CloseDirectiveBlock";
+        try {
+            if (!check$CloseDirectiveBlock(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$CloseDirectiveBlock(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ExpansionChoice specified at src/parser/Directives.inc.ccc:1228:5
+        Token token2 = currentLookaheadToken;
+        int remainingLookahead2 = remainingLookahead;
+        boolean hitFailure2 = hitFailure;
+        boolean passedPredicate2 = passedPredicate;
+        try {
+            passedPredicate = false;
+            if (!scanToken(CLOSE_DIRECTIVE_BLOCK)) {
+                currentLookaheadToken = token2;
+                remainingLookahead = remainingLookahead2;
+                hitFailure = hitFailure2;
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                passedPredicate = false;
+                if (!check$Directives_inc_ccc$1256$5(false)) {
+                    currentLookaheadToken = token2;
+                    remainingLookahead = remainingLookahead2;
+                    hitFailure = hitFailure2;
+                    return false;
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate2;
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$PropertySetting(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:1279:4
+        if (!scanToken(SETTING)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:1280:4
+        if (!scanToken(ID)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:1281:4
+        if (!scanToken(EQUALS)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1282:4
+        // NonTerminal Expression at src/parser/Directives.inc.ccc:1282:4
+        pushOntoLookaheadStack("PropertySetting", "src/parser/Directives.inc.ccc", 1282, 4);
+        currentLookaheadProduction = "Expression";
+        try {
+            if (!check$Expression(true)) return false;
+        } finally {
+            popLookaheadStack();
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1283:4
+        if (!scanToken(EMPTY_DIRECTIVE_END, DIRECTIVE_END)) return false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$VarDirective(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:1324:4
+        if (!scanToken(VAR)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1326:6
+        if (!scanToken(STRING_LITERAL, ID)) return false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:1327:6
+        Token token7 = currentLookaheadToken;
+        boolean passedPredicate7 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Directives_inc_ccc$1328$8(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token7;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate7;
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for CodeBlock specified at src/parser/Directives.inc.ccc:1332:4
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrMore specified at src/parser/Directives.inc.ccc:1336:4
+        boolean passedPredicate10 = passedPredicate;
+        try {
+            while (remainingLookahead > 0 && !hitFailure) {
+                Token token11 = currentLookaheadToken;
+                passedPredicate = false;
+                if (!check$Directives_inc_ccc$1337$7(false)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token11;
+                    break;
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate10;
+        }
+        hitFailure = false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1350:4
+        if (!scanToken(EMPTY_DIRECTIVE_END, DIRECTIVE_END)) return false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$TemplateElement(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ExpansionChoice specified at src/parser/Directives.inc.ccc:1406:4
+        Token token2 = currentLookaheadToken;
+        int remainingLookahead2 = remainingLookahead;
+        boolean hitFailure2 = hitFailure;
+        boolean passedPredicate2 = passedPredicate;
+        try {
+            passedPredicate = false;
+            if (!check$Directives_inc_ccc$1406$4(false)) {
+                currentLookaheadToken = token2;
+                remainingLookahead = remainingLookahead2;
+                hitFailure = hitFailure2;
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                passedPredicate = false;
+                if (!check$Directives_inc_ccc$1408$4(false)) {
+                    currentLookaheadToken = token2;
+                    remainingLookahead = remainingLookahead2;
+                    hitFailure = hitFailure2;
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    passedPredicate = false;
+                    if (!check$Directives_inc_ccc$1410$4(false)) {
+                        currentLookaheadToken = token2;
+                        remainingLookahead = remainingLookahead2;
+                        hitFailure = hitFailure2;
+                        if (passedPredicate && !legacyGlitchyLookahead) return false;
+                        passedPredicate = false;
+                        if (!check$Directives_inc_ccc$1412$4(false)) {
+                            currentLookaheadToken = token2;
+                            remainingLookahead = remainingLookahead2;
+                            hitFailure = hitFailure2;
+                            if (passedPredicate && !legacyGlitchyLookahead) return false;
+                            passedPredicate = false;
+                            if (!check$Directives_inc_ccc$1414$4(false)) {
+                                currentLookaheadToken = token2;
+                                remainingLookahead = remainingLookahead2;
+                                hitFailure = hitFailure2;
+                                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                passedPredicate = false;
+                                if (!check$Directives_inc_ccc$1416$4(false)) {
+                                    currentLookaheadToken = token2;
+                                    remainingLookahead = remainingLookahead2;
+                                    hitFailure = hitFailure2;
+                                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                    passedPredicate = false;
+                                    if (!check$Directives_inc_ccc$1418$4(false)) {
+                                        currentLookaheadToken = token2;
+                                        remainingLookahead = remainingLookahead2;
+                                        hitFailure = hitFailure2;
+                                        if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                        passedPredicate = false;
+                                        if (!check$Directives_inc_ccc$1420$4(false)) {
+                                            currentLookaheadToken = token2;
+                                            remainingLookahead = remainingLookahead2;
+                                            hitFailure = hitFailure2;
+                                            if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                            passedPredicate = false;
+                                            if (!check$Directives_inc_ccc$1422$4(false)) {
+                                                currentLookaheadToken = token2;
+                                                remainingLookahead = remainingLookahead2;
+                                                hitFailure = hitFailure2;
+                                                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                                passedPredicate = false;
+                                                if (!check$Directives_inc_ccc$1424$4(false)) {
+                                                    currentLookaheadToken = token2;
+                                                    remainingLookahead = remainingLookahead2;
+                                                    hitFailure = hitFailure2;
+                                                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                                    passedPredicate = false;
+                                                    if (!scanToken(NOPARSE)) {
+                                                        currentLookaheadToken = token2;
+                                                        remainingLookahead = remainingLookahead2;
+                                                        hitFailure = hitFailure2;
+                                                        if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                                        passedPredicate = false;
+                                                        if (!check$Directives_inc_ccc$1428$4(false)) {
+                                                            currentLookaheadToken = token2;
+                                                            remainingLookahead = remainingLookahead2;
+                                                            hitFailure = hitFailure2;
+                                                            if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                                            passedPredicate = false;
+                                                            if (!check$Directives_inc_ccc$1430$4(false)) {
+                                                                currentLookaheadToken = token2;
+                                                                remainingLookahead = remainingLookahead2;
+                                                                hitFailure = hitFailure2;
+                                                                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                                                passedPredicate = false;
+                                                                if (!scanToken(BREAK)) {
+                                                                    currentLookaheadToken = token2;
+                                                                    remainingLookahead = remainingLookahead2;
+                                                                    hitFailure = hitFailure2;
+                                                                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                                                    passedPredicate = false;
+                                                                    if (!check$Directives_inc_ccc$1434$4(false)) {
+                                                                        currentLookaheadToken = token2;
+                                                                        remainingLookahead = remainingLookahead2;
+                                                                        hitFailure = hitFailure2;
+                                                                        if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                                                        passedPredicate = false;
+                                                                        if (!check$Directives_inc_ccc$1436$4(false)) {
+                                                                            currentLookaheadToken = token2;
+                                                                            remainingLookahead = remainingLookahead2;
+                                                                            hitFailure = hitFailure2;
+                                                                            if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                                                            passedPredicate = false;
+                                                                            if (!check$Directives_inc_ccc$1438$4(false)) {
+                                                                                currentLookaheadToken = token2;
+                                                                                remainingLookahead = remainingLookahead2;
+                                                                                hitFailure = hitFailure2;
+                                                                                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                                                                passedPredicate = false;
+                                                                                if (!check$Directives_inc_ccc$1440$4(false)) {
+                                                                                    currentLookaheadToken = token2;
+                                                                                    remainingLookahead = remainingLookahead2;
+                                                                                    hitFailure = hitFailure2;
+                                                                                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                                                                    passedPredicate = false;
+                                                                                    if (!scanToken(FLUSH)) {
+                                                                                        currentLookaheadToken = token2;
+                                                                                        remainingLookahead = remainingLookahead2;
+                                                                                        hitFailure = hitFailure2;
+                                                                                        if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                                                                        passedPredicate = false;
+                                                                                        if (!scanToken(LTRIM, RTRIM, TRIM)) {
+                                                                                            currentLookaheadToken = token2;
+                                                                                            remainingLookahead = remainingLookahead2;
+                                                                                            hitFailure = hitFailure2;
+                                                                                            if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                                                                            passedPredicate = false;
+                                                                                            if (!check$Directives_inc_ccc$1446$4(false)) {
+                                                                                                currentLookaheadToken = token2;
+                                                                                                remainingLookahead = remainingLookahead2;
+                                                                                                hitFailure = hitFailure2;
+                                                                                                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                                                                                passedPredicate = false;
+                                                                                                if (!check$Directives_inc_ccc$1448$4(false)) {
+                                                                                                    currentLookaheadToken = token2;
+                                                                                                    remainingLookahead = remainingLookahead2;
+                                                                                                    hitFailure = hitFailure2;
+                                                                                                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                                                                                    passedPredicate = false;
+                                                                                                    if (!check$Directives_inc_ccc$1450$4(false)) {
+                                                                                                        currentLookaheadToken = token2;
+                                                                                                        remainingLookahead = remainingLookahead2;
+                                                                                                        hitFailure = hitFailure2;
+                                                                                                        if (passedPredicate && !legacyGlitchyLookahead) return false;
+                                                                                                        passedPredicate = false;
+                                                                                                        if (!check$Directives_inc_ccc$1453$4(false)) {
+                                                                                                            currentLookaheadToken = token2;
+                                                                                                            remainingLookahead = remainingLookahead2;
+                                                                                                            hitFailure = hitFailure2;
+                                                                                                            return false;
+                                                                                                        }
+                                                                                                    }
+                                                                                                }
+                                                                                            }
+                                                                                        }
+                                                                                    }
+                                                                                }
+                                                                            }
+                                                                        }
+                                                                    }
+                                                                }
+                                                            }
+                                                        }
+                                                    }
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate2;
+        }
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$TextElement(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for OneOrMore specified at src/parser/Directives.inc.ccc:1484:4
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ExpansionChoice specified at src/parser/Directives.inc.ccc:1485:7
+        if (!scanToken(first_set$Directives_inc_ccc$1485$7)) return false;
+        boolean passedPredicate4 = passedPredicate;
+        try {
+            while (remainingLookahead > 0 && !hitFailure) {
+                Token token5 = currentLookaheadToken;
+                passedPredicate = false;
+                if (!scanToken(first_set$Directives_inc_ccc$1485$7)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token5;
+                    break;
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate4;
+        }
+        hitFailure = false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$Block(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrMore specified at src/parser/Directives.inc.ccc:1561:5
+        boolean passedPredicate3 = passedPredicate;
+        try {
+            while (remainingLookahead > 0 && !hitFailure) {
+                Token token4 = currentLookaheadToken;
+                passedPredicate = false;
+                if (!check$Directives_inc_ccc$1562$8(false)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token4;
+                    break;
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate3;
+        }
+        hitFailure = false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$TemplateHeaderElement(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrOne specified at src/parser/Directives.inc.ccc:1627:3
+        Token token3 = currentLookaheadToken;
+        boolean passedPredicate3 = passedPredicate;
+        passedPredicate = false;
+        try {
+            if (!check$Directives_inc_ccc$1627$4(false)) {
+                if (passedPredicate && !legacyGlitchyLookahead) return false;
+                currentLookaheadToken = token3;
+                hitFailure = false;
+            }
+        } finally {
+            passedPredicate = passedPredicate3;
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for Terminal specified at src/parser/Directives.inc.ccc:1628:3
+        if (!scanToken(FTL_HEADER)) return false;
+        if (!scanToEnd && lookaheadStack.size() <= 1) {
+            if (lookaheadRoutineNesting == 0) {
+                remainingLookahead = 0;
+            } else if (lookaheadStack.size() == 1) {
+                passedPredicateThreshold = remainingLookahead;
+            }
+        }
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ZeroOrMore specified at src/parser/Directives.inc.ccc:1629:3
+        boolean passedPredicate6 = passedPredicate;
+        try {
+            while (remainingLookahead > 0 && !hitFailure) {
+                Token token7 = currentLookaheadToken;
+                passedPredicate = false;
+                if (!check$Directives_inc_ccc$1630$5(false)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token7;
+                    break;
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate6;
+        }
+        hitFailure = false;
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for NonTerminal specified at src/parser/Directives.inc.ccc:1636:3
+        if (!scanToken(EMPTY_DIRECTIVE_END, DIRECTIVE_END)) return false;
+        return true;
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$IgnorableWhitespace(boolean scanToEnd) {
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for OneOrMore specified at src/parser/Directives.inc.ccc:1640:4
+        if (hitFailure) return false;
+        if (remainingLookahead <= 0) return true;
+        // Lookahead Code for ExpansionChoice specified at src/parser/Directives.inc.ccc:1641:5
+        if (!scanToken(TRAILING_WHITESPACE, NON_TRAILING_WHITESPACE)) return false;
+        boolean passedPredicate4 = passedPredicate;
+        try {
+            while (remainingLookahead > 0 && !hitFailure) {
+                Token token5 = currentLookaheadToken;
+                passedPredicate = false;
+                if (!scanToken(TRAILING_WHITESPACE, NON_TRAILING_WHITESPACE)) {
+                    if (passedPredicate && !legacyGlitchyLookahead) return false;
+                    currentLookaheadToken = token5;
+                    break;
+                }
+            }
+        } finally {
+            passedPredicate = passedPredicate4;
+        }
+        hitFailure = false;
+        return true;
+    }
+
+    private ArrayList<NonTerminalCall> parsingStack = new ArrayList<>();
+    private final ArrayList<NonTerminalCall> lookaheadStack = new ArrayList<>();
+
+    private void pushOntoCallStack(String methodName, String fileName, int line, int column) {
+        parsingStack.add(new NonTerminalCall("CTemplatesParser", token_source, fileName, methodName, line, column));
+    }
+
+    private void popCallStack() {
+        NonTerminalCall ntc = parsingStack.remove(parsingStack.size() - 1);
+        this.currentlyParsedProduction = ntc.productionName;
+    }
+
+    private void restoreCallStack(int prevSize) {
+        while (parsingStack.size() > prevSize) {
+            popCallStack();
+        }
+    }
+
+    private ListIterator<NonTerminalCall> stackIteratorBackward() {
+        final ListIterator<NonTerminalCall> parseStackIterator = parsingStack.listIterator(parsingStack.size());
+        final ListIterator<NonTerminalCall> lookaheadStackIterator = lookaheadStack.listIterator(lookaheadStack.size());
+        return new ListIterator<NonTerminalCall>() {
+
+            public boolean hasNext() {
+                return lookaheadStackIterator.hasPrevious() || parseStackIterator.hasPrevious();
+            }
+
+            public NonTerminalCall next() {
+                return lookaheadStackIterator.hasPrevious() ? lookaheadStackIterator.previous() : parseStackIterator.previous();
+            }
+
+            public NonTerminalCall previous() {
+                return parseStackIterator.hasNext() ? parseStackIterator.next() : lookaheadStackIterator.next();
+            }
+
+            public boolean hasPrevious() {
+                return parseStackIterator.hasNext() || lookaheadStackIterator.hasNext();
+            }
+
+            public void add(NonTerminalCall ntc) {
+                throw new UnsupportedOperationException();
+            }
+
+            public void set(NonTerminalCall ntc) {
+                throw new UnsupportedOperationException();
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            public int previousIndex() {
+                throw new UnsupportedOperationException();
+            }
+
+            public int nextIndex() {
+                throw new UnsupportedOperationException();
+            }
+
+        };
+    }
+
+    private void pushOntoLookaheadStack(String methodName, String fileName, int line, int column) {
+        lookaheadStack.add(new NonTerminalCall("CTemplatesParser", token_source, fileName, methodName, line, column));
+    }
+
+    private void popLookaheadStack() {
+        NonTerminalCall ntc = lookaheadStack.remove(lookaheadStack.size() - 1);
+        this.currentLookaheadProduction = ntc.productionName;
+    }
+
+    void dumpLookaheadStack(PrintStream ps) {
+        ListIterator<NonTerminalCall> it = lookaheadStack.listIterator(lookaheadStack.size());
+        while (it.hasPrevious()) {
+            it.previous().dump(ps);
+        }
+    }
+
+    void dumpCallStack(PrintStream ps) {
+        ListIterator<NonTerminalCall> it = parsingStack.listIterator(parsingStack.size());
+        while (it.hasPrevious()) {
+            it.previous().dump(ps);
+        }
+    }
+
+    void dumpLookaheadCallStack(PrintStream ps) {
+        ps.println("Current Parser Production is: " + currentlyParsedProduction);
+        ps.println("Current Lookahead Production is: " + currentLookaheadProduction);
+        ps.println("---Lookahead Stack---");
+        dumpLookaheadStack(ps);
+        ps.println("---Call Stack---");
+        dumpCallStack(ps);
+    }
+
+    public boolean isParserTolerant() {
+        return false;
+    }
+
+    public void setParserTolerant(boolean tolerantParsing) {
+        if (tolerantParsing) {
+            throw new UnsupportedOperationException("This parser was not built with that feature!");
+        }
+    }
+
+    private Token consumeToken(TokenType expectedType) {
+        Token nextToken = nextToken(lastConsumedToken);
+        if (nextToken.getType() != expectedType) {
+            nextToken = handleUnexpectedTokenType(expectedType, nextToken);
+        }
+        this.lastConsumedToken = nextToken;
+        this.nextTokenType = null;
+        if (buildTree && tokensAreNodes) {
+            lastConsumedToken.open();
+            openNodeHook$CTemplates_ccc$87$10(lastConsumedToken);
+            pushNode(lastConsumedToken);
+            lastConsumedToken.close();
+        }
+        return lastConsumedToken;
+    }
+
+    private Token handleUnexpectedTokenType(TokenType expectedType, Token nextToken) {
+        throw new ParseException(nextToken, EnumSet.of(expectedType), parsingStack);
+    }
+
+    private boolean buildTree = true;
+    private boolean tokensAreNodes = true;
+    private boolean unparsedTokensAreNodes = false;
+
+    public boolean isTreeBuildingEnabled() {
+        return buildTree;
+    }
+
+    public void setUnparsedTokensAreNodes(boolean unparsedTokensAreNodes) {
+        this.unparsedTokensAreNodes = unparsedTokensAreNodes;
+    }
+
+    public void setTokensAreNodes(boolean tokensAreNodes) {
+        this.tokensAreNodes = tokensAreNodes;
+    }
+
+    NodeScope currentNodeScope = new NodeScope();
+
+    /**
+    * @return the root node of the AST. It only makes sense to call
+    * this after a successful parse.
+    */
+    public Node rootNode() {
+        return currentNodeScope.rootNode();
+    }
+
+    /**
+    * push a node onto the top of the node stack
+    * @param n the node to push
+    */
+    public void pushNode(Node n) {
+        currentNodeScope.add(n);
+    }
+
+    /**
+    * @return the node on the top of the stack, and remove it from the
+    * stack.
+    */
+    public Node popNode() {
+        return currentNodeScope.pop();
+    }
+
+    /**
+    * @return the node currently on the top of the tree-building stack.
+    */
+    public Node peekNode() {
+        return currentNodeScope.peek();
+    }
+
+    /**
+    * Puts the node on the top of the stack. However, unlike pushNode()
+    * it replaces the node that is currently on the top of the stack.
+    * This is effectively equivalent to popNode() followed by pushNode(n)
+    * @param n the node to poke
+    */
+    public void pokeNode(Node n) {
+        currentNodeScope.poke(n);
+    }
+
+    /**
+    * Replace the type of the last consumed token and poke it onto the
+    * stack.
+    */
+    protected void replaceTokenType(TokenType tt) {
+        lastConsumedToken = lastConsumedToken.replaceType(tt);
+        pokeNode(lastConsumedToken);
+    }
+
+    /**
+    * @return the number of Nodes on the tree-building stack in the current node
+    * scope.
+    */
+    public int nodeArity() {
+        return currentNodeScope.size();
+    }
+
+    private void clearNodeScope() {
+        currentNodeScope.clear();
+    }
+
+    private void openNodeScope(Node n) {
+        new NodeScope();
+        if (n != null) {
+            n.setTokenSource(lastConsumedToken.getTokenSource());
+            // We set the begin/end offsets based on the ending location
+            // of the last consumed token. So, we start with a Node
+            // of length zero. Typically this is overridden in the
+            // closeNodeScope() method, unless this node has no children
+            n.setBeginOffset(lastConsumedToken.getEndOffset());
+            n.setEndOffset(n.getBeginOffset());
+            n.setTokenSource(this.token_source);
+            n.open();
+            openNodeHook$CTemplates_ccc$87$10(n);
+        }
+    }
+
+    /* A definite node is constructed from a specified number of
+    * children.  That number of nodes are popped from the stack and
+    * made the children of the definite node.  Then the definite node
+    * is pushed on to the stack.
+    * @param n is the node whose scope is being closed
+    * @param num is the number of child nodes to pop as children
+    * @return @{code true}
+    */
+    private boolean closeNodeScope(Node n, int num) {
+        n.setBeginOffset(lastConsumedToken.getEndOffset());
+        n.setEndOffset(lastConsumedToken.getEndOffset());
+        currentNodeScope.close();
+        ArrayList<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < num; i++) {
+            nodes.add(popNode());
+        }
+        Collections.reverse(nodes);
+        for (Node child : nodes) {
+            if (child.getInputSource() == n.getInputSource()) {
+                n.setBeginOffset(child.getBeginOffset());
+                break;
+            }
+        }
+        for (Node child : nodes) {
+            if (unparsedTokensAreNodes && child instanceof Token) {
+                Token tok = (Token) child;
+                while (tok.previousCachedToken() != null && tok.previousCachedToken().isUnparsed()) {
+                    tok = tok.previousCachedToken();
+                }
+                boolean locationSet = false;
+                while (tok.isUnparsed()) {
+                    n.add(tok);
+                    if (!locationSet && tok.getInputSource() == n.getInputSource() && tok.getBeginOffset() < n.getBeginOffset()) {
+                        n.setBeginOffset(tok.getBeginOffset());
+                        locationSet = true;
+                    }
+                    tok = tok.nextCachedToken();
+                }
+            }
+            if (child.getInputSource() == n.getInputSource()) {
+                n.setEndOffset(child.getEndOffset());
+            }
+            n.add(child);
+        }
+        n.close();
+        pushNode(n);
+        return true;
+    }
+
+    /**
+    * A conditional node is constructed if the condition is true.  All
+    * the nodes that have been pushed since the node was opened are
+    * made children of the conditional node, which is then pushed
+    * on to the stack.  If the condition is false the node is not
+    * constructed and they are left on the stack.
+    */
+    private boolean closeNodeScope(Node n, boolean condition) {
+        if (n == null || !condition) {
+            currentNodeScope.close();
+            return false;
+        }
+        return closeNodeScope(n, nodeArity());
+    }
+
+    public boolean getBuildTree() {
+        return buildTree;
+    }
+
+    public void setBuildTree(boolean buildTree) {
+        this.buildTree = buildTree;
+    }
+
+
+    @SuppressWarnings("serial")
+    class NodeScope extends ArrayList<Node> {
+        NodeScope parentScope;
+
+        NodeScope() {
+            this.parentScope = CTemplatesParser.this.currentNodeScope;
+            CTemplatesParser.this.currentNodeScope = this;
+        }
+
+        boolean isRootScope() {
+            return parentScope == null;
+        }
+
+        Node rootNode() {
+            NodeScope ns = this;
+            while (ns.parentScope != null) {
+                ns = ns.parentScope;
+            }
+            return ns.isEmpty() ? null : ns.get(0);
+        }
+
+        Node peek() {
+            if (isEmpty()) {
+                return parentScope == null ? null : parentScope.peek();
+            }
+            return get(size() - 1);
+        }
+
+        Node pop() {
+            return isEmpty() ? parentScope.pop() : remove(size() - 1);
+        }
+
+        void poke(Node n) {
+            if (isEmpty()) {
+                parentScope.poke(n);
+            } else {
+                set(size() - 1, n);
+            }
+        }
+
+        void close() {
+            parentScope.addAll(this);
+            CTemplatesParser.this.currentNodeScope = parentScope;
+        }
+
+        int nestingLevel() {
+            int result = 0;
+            NodeScope parent = this;
+            while (parent.parentScope != null) {
+                result++;
+                parent = parent.parentScope;
+            }
+            return result;
+        }
+
+        public NodeScope clone() {
+            NodeScope clone = (NodeScope) super.clone();
+            if (parentScope != null) {
+                clone.parentScope = parentScope.clone();
+            }
+            return clone;
+        }
+
+    }
+
+}
+
+
@@ -0,0 +1,101 @@
+package org.congocc.templates.core.variables;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The reflection metadata we keep about a class: its public methods
+ * grouped by name, and the property getters, setters and method
+ * candidates looked up so far.
+ * There is one instance per class, held in a <code>ClassValue</code>,
+ * so lookups need no string keys built from the class name, and the
+ * metadata is released along with the class when its class loader
+ * goes away.
+ */
+final class ClassInfo {
+
+    private static final ClassValue<ClassInfo> CLASS_INFO = new ClassValue<ClassInfo>() {
+        protected ClassInfo computeValue(Class<?> type) {
+            return new ClassInfo(type);
+        }
+    };
+
+    static final Method[] NO_METHODS = new Method[0];
+
+    private final Class<?> clazz;
+    private final Map<String, Method[]> methodsByName;
+    private final Map<String, ReflectionCode.Getter> getters = new ConcurrentHashMap<>();
+    private final Map<String, Method[]> setters = new ConcurrentHashMap<>();
+    private final Map<String, MethodCandidates> candidates = new ConcurrentHashMap<>();
+
+    static ClassInfo of(Class<?> clazz) {
+        return CLASS_INFO.get(clazz);
+    }
+
+    private ClassInfo(Class<?> clazz) {
+        this.clazz = clazz;
+        Map<String, List<Method>> methodLists = new HashMap<>();
+        for (Method m : clazz.getMethods()) {
+            methodLists.computeIfAbsent(m.getName(), k -> new ArrayList<>()).add(m);
+        }
+        methodsByName = new HashMap<>();
+        for (Map.Entry<String, List<Method>> entry : methodLists.entrySet()) {
+            methodsByName.put(entry.getKey(), entry.getValue().toArray(NO_METHODS));
+        }
+    }
+
+    /**
+     * @return the public methods of the given name, an empty array
+     * if there are none
+     */
+    Method[] getMethods(String name) {
+        Method[] result = methodsByName.get(name);
+        return result == null ? NO_METHODS : result;
+    }
+
+    boolean hasMethod(String name) {
+        return methodsByName.containsKey(name);
+    }
+
+    MethodCandidates getCandidates(String name) {
+        MethodCandidates result = candidates.get(name);
+        if (result == null) {
+            result = new MethodCandidates(clazz, name, getMethods(name));
+            candidates.put(name, result);
+        }
+        return result;
+    }
+
+    ReflectionCode.Getter getGetter(String propertyName) {
+        ReflectionCode.Getter result = getters.get(propertyName);
+        if (result == null) {
+            result = ReflectionCode.createGetter(clazz, propertyName);
+            getters.put(propertyName, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return the one-argument void set* methods for the property
+     */
+    Method[] getSetters(String propertyName) {
+        Method[] result = setters.get(propertyName);
+        if (result == null) {
+            List<Method> setterList = new ArrayList<>();
+            String methodName = "set" + propertyName.substring(0, 1).toUpperCase() + propertyName.substring(1);
+            for (Method m : getMethods(methodName)) {
+                if (m.getReturnType() == Void.TYPE && m.getParameterCount() == 1) {
+                    m.trySetAccessible();
+                    setterList.add(m);
+                }
+            }
+            result = setterList.toArray(NO_METHODS);
+            setters.put(propertyName, result);
+        }
+        return result;
+    }
+}
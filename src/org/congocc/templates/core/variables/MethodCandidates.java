@@ -0,0 +1,133 @@
+package org.congocc.templates.core.variables;
+
+import java.lang.reflect.Method;
+
+import static org.congocc.templates.core.variables.ReflectionCode.*;
+
+/**
+ * The public methods of a given name in a given class, that is,
+ * the candidates for a call like <code>obj.name(...)</code>.
+ * There is one instance per (class, name) pair, kept in the
+ * {@link ClassInfo}, so the candidates are only looked up, and made
+ * accessible, once.
+ *
+ * <p>For overloaded methods, the method chosen for a given tuple of
+ * argument classes is remembered in a small dispatch cache that is
+ * matched by identity, so a call does not allocate anything once the
+ * cache is warm. Argument classes are only cached if that cannot keep
+ * a class loader alive longer than the class owning the methods.</p>
+ */
+final class MethodCandidates {
+
+    private static final int MAX_DISPATCH_ENTRIES = 8;
+
+    private static final Dispatch[] NO_DISPATCH = new Dispatch[0];
+
+    private final String name;
+    private final Method[] methods;
+    private final ClassLoader classLoader;
+
+    // Never modified once published, only replaced
+    private volatile Dispatch[] dispatchCache = NO_DISPATCH;
+
+    MethodCandidates(Class<?> clazz, String name, Method[] methods) {
+        this.name = name;
+        this.methods = methods;
+        this.classLoader = clazz.getClassLoader();
+        for (Method m : methods) {
+            m.trySetAccessible();
+        }
+    }
+
+    String getName() {
+        return name;
+    }
+
+    boolean isEmpty() {
+        return methods.length == 0;
+    }
+
+    boolean isOverloaded() {
+        return methods.length > 1;
+    }
+
+    Object invoke(Object target, Object[] params) {
+        if (methods.length == 0) {
+            throw new EvaluationException("No such method " + name + " in class: " + target.getClass());
+        }
+        if (methods.length == 1) {
+            // If there is only one method of this name, just try to
+            // call it and that's that! This is the percentage case, after all.
+            return invokeMethod(target, methods[0], params);
+        }
+        return invokeMethod(target, resolveOverload(params), params);
+    }
+
+    private Method resolveOverload(Object[] params) {
+        Dispatch[] cache = dispatchCache;
+        for (Dispatch dispatch : cache) {
+            if (dispatch.matches(params)) {
+                // If we have already figured out which method
+                // to call and cached it, then we use that!
+                return dispatch.method;
+            }
+        }
+        Method method = null;
+        for (Method m : methods) {
+            if (!isCompatibleMethod(m, params)) continue;
+            if (method == null || isMoreSpecific(m, method, params)) {
+                method = m;
+            }
+        }
+        if (method == null) {
+            throw new EvaluationException("Cannot invoke method " + name + " here.");
+        }
+        if (cache.length < MAX_DISPATCH_ENTRIES) {
+            Class<?>[] argTypes = getArgTypes(params);
+            if (argTypes != null) {
+                Dispatch[] newCache = new Dispatch[cache.length + 1];
+                System.arraycopy(cache, 0, newCache, 0, cache.length);
+                newCache[cache.length] = new Dispatch(argTypes, method);
+                dispatchCache = newCache;
+            }
+        }
+        return method;
+    }
+
+    /**
+     * @return the classes of the arguments (null for a null argument),
+     * or null if one of them should not be referenced from here
+     */
+    private Class<?>[] getArgTypes(Object[] params) {
+        Class<?>[] result = new Class<?>[params.length];
+        for (int i = 0; i < params.length; i++) {
+            if (params[i] == null) continue;
+            Class<?> argType = params[i].getClass();
+            ClassLoader loader = argType.getClassLoader();
+            if (loader != null && loader != classLoader && loader != ClassLoader.getPlatformClassLoader()) {
+                return null;
+            }
+            result[i] = argType;
+        }
+        return result;
+    }
+
+    private static final class Dispatch {
+        final Class<?>[] argTypes;
+        final Method method;
+
+        Dispatch(Class<?>[] argTypes, Method method) {
+            this.argTypes = argTypes;
+            this.method = method;
+        }
+
+        boolean matches(Object[] params) {
+            if (params.length != argTypes.length) return false;
+            for (int i = 0; i < params.length; i++) {
+                Object param = params[i];
+                if ((param == null ? null : param.getClass()) != argTypes[i]) return false;
+            }
+            return true;
+        }
+    }
+}
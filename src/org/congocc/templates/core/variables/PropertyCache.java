@@ -0,0 +1,84 @@
+package org.congocc.templates.core.variables;
+
+/**
+ * An inline cache for bean property access, held by a single
+ * node in the template (a <code>x.y</code> or <code>x["y"]</code>
+ * expression). It remembers the getter found for each receiver class
+ * (and key) seen at that spot, so that repeated access, say within
+ * a loop, does not go through the global lookup in {@link ReflectionCode}.
+ * After a few different receivers, the site is considered
+ * megamorphic and new receivers just use the global lookup.
+ *
+ * <p>A template can outlive the classes of the objects it is given,
+ * as when the template engine is shared by several web applications.
+ * So, as with the dispatch cache of {@link MethodCandidates}, a receiver
+ * class is only cached if that cannot keep a class loader alive longer
+ * than the template engine, that is, if it comes from the engine's class
+ * loader or one of its ancestors. Other receivers use the global lookup,
+ * which does not keep their classes alive.</p>
+ */
+public final class PropertyCache {
+
+    private static final int MAX_ENTRIES = 4;
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private static final ClassLoader ENGINE_CLASS_LOADER = PropertyCache.class.getClassLoader();
+
+    // Never modified once published, only replaced
+    private volatile Entry[] entries = NO_ENTRIES;
+
+    public Object getProperty(Object object, String key, boolean looseSyntax) {
+        Class<?> clazz = object.getClass();
+        Entry[] entries = this.entries;
+        for (Entry entry : entries) {
+            if (entry.clazz == clazz && entry.key.equals(key)) {
+                return entry.get(object, looseSyntax);
+            }
+        }
+        if (entries.length >= MAX_ENTRIES || !isCacheable(clazz)) {
+            return ReflectionCode.getProperty(object, key, looseSyntax);
+        }
+        Entry entry = new Entry(clazz, key);
+        Entry[] newEntries = new Entry[entries.length + 1];
+        System.arraycopy(entries, 0, newEntries, 0, entries.length);
+        newEntries[entries.length] = entry;
+        this.entries = newEntries;
+        return entry.get(object, looseSyntax);
+    }
+
+    private static boolean isCacheable(Class<?> clazz) {
+        ClassLoader loader = clazz.getClassLoader();
+        for (ClassLoader l = ENGINE_CLASS_LOADER; l != null; l = l.getParent()) {
+            if (loader == l) {
+                return true;
+            }
+        }
+        // The bootstrap class loader
+        return loader == null;
+    }
+
+    private static final class Entry {
+        final Class<?> clazz;
+        final String key;
+        final ReflectionCode.Getter getter;
+        final boolean hasMethodOfName;
+
+        Entry(Class<?> clazz, String key) {
+            this.clazz = clazz;
+            this.key = key;
+            this.getter = ReflectionCode.findGetter(clazz, key);
+            this.hasMethodOfName = getter == null && ReflectionCode.methodOfNameExists(clazz, key);
+        }
+
+        Object get(Object object, boolean looseSyntax) {
+            if (getter != null) {
+                return getter.get(object);
+            }
+            if (looseSyntax && hasMethodOfName) {
+                return new JavaMethodCall(object, key);
+            }
+            return null;
+        }
+    }
+}
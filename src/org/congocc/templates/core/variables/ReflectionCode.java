@@ -1,12 +1,14 @@
 package org.congocc.templates.core.variables;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.congocc.templates.TemplateBooleanModel;
+import org.congocc.templates.TemplateException;
 
 import java.util.Date;
 import java.lang.reflect.Array;
@@ -17,10 +19,6 @@ import static org.congocc.templates.core.variables.Wrap.*;
  */
 public class ReflectionCode {
 
-    private static Map<String,Method> methodCache = new ConcurrentHashMap<>();
-    private static Map<String, Method> getterCache = new ConcurrentHashMap<>();
-    private static Map<String, Method> setterCache = new ConcurrentHashMap<>();
-    private static Map<String, Boolean> classHasMethodCache = new ConcurrentHashMap<>();
     private static final Object CAN_NOT_UNWRAP = new Object();
     private static final Method NO_SUCH_METHOD;
     static {
@@ -31,8 +29,52 @@ public class ReflectionCode {
         }
     }
 
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final Getter NO_GETTER = new Getter(NO_SUCH_METHOD);
+
     private ReflectionCode() {}
 
+    /**
+     * A property getter (a JavaBean getter, an is* method or a record
+     * component accessor). The method handle is created once, when
+     * the getter is first looked up, and avoids the reflective
+     * invocation path on each read. If no handle can be created, 
+     * we fall back to <code>Method.invoke</code>.
+     */
+    static final class Getter {
+        private final Method method;
+        private final MethodHandle handle;
+
+        Getter(Method method) {
+            this.method = method;
+            MethodHandle handle = null;
+            if (method != NO_SUCH_METHOD) {
+                try {
+                    handle = MethodHandles.lookup().unreflect(method).asType(GETTER_TYPE);
+                } catch (IllegalAccessException e) {
+                }
+            }
+            this.handle = handle;
+        }
+
+        Object get(Object object) {
+            try {
+                Object result = handle != null ? (Object) handle.invokeExact(object) : method.invoke(object);
+                return wrap(result);
+            } catch (Error | TemplateException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new EvaluationException(e);
+            } catch (Throwable t) {
+                throw new EvaluationException(new RuntimeException(t));
+            }
+        }
+    }
+
+    static MethodCandidates getCandidates(Class<?> clazz, String methodName) {
+        return ClassInfo.of(clazz).getCandidates(methodName);
+    }
+
     public static Object invokeMethod(Object target, Method method, Object[] params) {
         if (isBannedMethod(method)) {
             throw new EvaluationException("Cannot run method: " + method);
@@ -52,13 +94,9 @@ public class ReflectionCode {
     }
 
     public static Object getProperty(Object object, String key, boolean looseSyntax) {
-        Method getter = getGetter(object, key);
-        if (getter != NO_SUCH_METHOD) {
-            try {
-                return wrap(getter.invoke(object));
-            } catch (Exception e) {
-                throw new EvaluationException(e);
-            }
+        Getter getter = getGetter(object.getClass(), key);
+        if (getter != NO_GETTER) {
+            return getter.get(object);
         }
         if (looseSyntax && methodOfNameExists(object, key)) {
             return new JavaMethodCall(object, key);
@@ -66,25 +104,27 @@ public class ReflectionCode {
         return null;
     }
 
-    public static boolean setProperty(Object object, String key, Object value) {
-        Method setter = getSetter(object, key, value);
-        if (setter == NO_SUCH_METHOD) return false;
-        Class<?> desiredType = setter.getParameterTypes()[0];
-        value = unwrap(value, desiredType);
-        try {
-           setter.invoke(object, value);
-        } catch (Exception e) {
-            throw new EvaluationException(e);
-        }
-        return true;
-    }
-
-    static Method getCachedMethod(Object target, String methodName, Object[] params) {
-        return methodCache.get(getLookupKey(target, methodName, params));
+    /**
+     * @return the getter for the property in the class, or null 
+     * if there is none
+     */
+    static Getter findGetter(Class<?> clazz, String name) {
+        Getter getter = getGetter(clazz, name);
+        return getter == NO_GETTER ? null : getter;
     }
 
-    static void cacheMethod(Method m, Object target, Object[] params) {
-        methodCache.put(getLookupKey(target, m.getName(), params), m);
+    public static boolean setProperty(Object object, String key, Object value) {
+        for (Method setter : ClassInfo.of(object.getClass()).getSetters(key)) {
+            Object arg = unwrap(value, setter.getParameterTypes()[0]);
+            if (arg == CAN_NOT_UNWRAP) continue;
+            try {
+               setter.invoke(object, arg);
+            } catch (Exception e) {
+                throw new EvaluationException(e);
+            }
+            return true;
+        }
+        return false;
     }
 
     static boolean isCompatibleMethod(Method method, Object[] params) {
@@ -142,31 +182,31 @@ public class ReflectionCode {
     }
 
     private static boolean methodOfNameExists(Object object, String name) {
-        String lookupKey = getLookupKey(object, name);
-        Boolean b = classHasMethodCache.get(lookupKey);
-        if (b != null) return b;
-        for (Method m : object.getClass().getMethods()) {
-            if (m.getName().equals(name)) {
-                classHasMethodCache.put(lookupKey, true);
-                return true;
-            }
-        }
-        classHasMethodCache.put(lookupKey, false);
-        return false;
+        return methodOfNameExists(object.getClass(), name);
+    }
+
+    static boolean methodOfNameExists(Class<?> clazz, String name) {
+        return ClassInfo.of(clazz).hasMethod(name);
     }
 
-    private static Method getGetter(Object object, String name) {
-        String lookupKey = getLookupKey(object, name);
-        Method cachedMethod = getterCache.get(lookupKey);
-        if (cachedMethod != null) {
-            return cachedMethod;
+    private static Getter getGetter(Class<?> clazz, String name) {
+        return ClassInfo.of(clazz).getGetter(name);
+    }
+
+    static Getter createGetter(Class<?> clazz, String name) {
+        Method m = findGetterMethod(clazz, name);
+        if (m == null) {
+            return NO_GETTER;
         }
-        if (isRecord(object)) {
+        m.setAccessible(true);
+        return new Getter(m);
+    }
+
+    private static Method findGetterMethod(Class<?> clazz, String name) {
+        if (clazz.isRecord()) {
             try {
-                Method m = object.getClass().getMethod(name);
+                Method m = clazz.getMethod(name);
                 if (m.getReturnType() != Void.TYPE) {
-                    getterCache.put(lookupKey, m);
-                    m.setAccessible(true);
                     return m;
                 }
             } catch (NoSuchMethodException nsme) {
@@ -174,52 +214,23 @@ public class ReflectionCode {
         }
         String methodName = "get" + name.substring(0, 1).toUpperCase() + name.substring(1);
         try {
-            Method m = object.getClass().getMethod(methodName);
+            Method m = clazz.getMethod(methodName);
             if (m.getReturnType() != Void.TYPE) {
-                getterCache.put(lookupKey, m);
-                m.setAccessible(true);
                 return m;
             }
         } catch (NoSuchMethodException nsme) {
         }
         methodName = methodName.replaceFirst("get", "is");
         try {
-            Method m = object.getClass().getMethod(methodName);
+            Method m = clazz.getMethod(methodName);
             if (m.getReturnType() == Boolean.TYPE || m.getReturnType() == Boolean.class) {
-                getterCache.put(getLookupKey(object, name), m);
-                m.setAccessible(true);
                 return m;
             }
         } catch (NoSuchMethodException nsme) {
         }
-        getterCache.put(lookupKey, NO_SUCH_METHOD);
-        return NO_SUCH_METHOD;
-    }
-
-    private static Method getSetter(Object target, String name, Object value) {
-        String lookupKey = getLookupKey(target, name, value);
-        Method cachedMethod = setterCache.get(lookupKey);
-        if (cachedMethod != null) {
-            return cachedMethod;
-        }
-        String methodName = "set" + name.substring(0,1).toUpperCase() + name.substring(1);
-        for (Method m : target.getClass().getMethods()) {
-            if (!m.getName().equals(methodName)) continue;
-            if (m.getReturnType() != Void.TYPE) continue;
-            if (m.getParameterTypes().length != 1) continue;
-            Class<?> type = m.getParameterTypes()[0];
-            Object unwrapped = unwrap(value, type);
-            if (unwrapped != CAN_NOT_UNWRAP) {
-                setterCache.put(lookupKey, m);
-                m.setAccessible(true);
-                return m;
-            }
-        }
-        setterCache.put(lookupKey, NO_SUCH_METHOD);
-        return NO_SUCH_METHOD;
+        return null;
     }
 
-
     private static Object[] unwrapArgsForMethod(Method method, Object[] params) {
         Class<?>[] paramTypes = method.getParameterTypes();
         Object[] args = new Object[paramTypes.length];
@@ -312,24 +323,4 @@ public class ReflectionCode {
         return CAN_NOT_UNWRAP;
     }
 
-    private static String getLookupKey(Object target, String methodName, Object[] params) {
-        StringBuilder buf = new StringBuilder();
-        buf.append(target.getClass().getName());
-        buf.append('#');
-        buf.append(methodName);
-        buf.append('#');
-        if (params != null) for (Object param : params) {
-            buf.append(param.getClass());
-            buf.append(':');
-        }
-        return buf.toString();
-    }
-    
-    private static String getLookupKey(Object object, String propertyName) {
-        return object.getClass().getName() + "##" + propertyName;
-    }
-
-    private static String getLookupKey(Object object, String propertyName, Object value) {
-        return object.getClass().getName() + "#" + propertyName + "#" + value.getClass().getName();
-    }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package org.congocc.templates.core.variables;
 
 import java.util.*;
 import java.lang.reflect.Array;
+import java.time.*;
 import org.congocc.templates.core.Environment;
 import org.congocc.templates.core.nodes.generated.Expression;
 import org.congocc.templates.TemplateBooleanModel;
@@ -95,6 +96,22 @@ public class Wrap {
         return obj.toString();
     }
 
+    /**
+     * @return whether the object is a date/time value that
+     * {@link Environment#formatDate(Object)} can format
+     */
+    public static boolean isDate(Object obj) {
+        return obj instanceof Date
+              || obj instanceof Calendar
+              || obj instanceof Instant
+              || obj instanceof LocalDate
+              || obj instanceof LocalTime
+              || obj instanceof LocalDateTime
+              || obj instanceof ZonedDateTime
+              || obj instanceof OffsetDateTime
+              || obj instanceof OffsetTime;
+    }
+
     public static boolean isBoolean(Object obj) {
         if (obj instanceof TemplateBooleanModel) {
             return true;
@@ -2,6 +2,7 @@ package org.congocc.templates.core.variables.scope;
 
 import java.util.HashMap;
 import org.congocc.templates.core.nodes.generated.Block;
+import org.congocc.templates.core.nodes.generated.Macro;
 import org.congocc.templates.*;
 
 public class BlockScope extends HashMap<String,Object> implements Scope {
@@ -26,11 +27,20 @@ public class BlockScope extends HashMap<String,Object> implements Scope {
 		if (getTemplate().strictVariableDeclaration() && !definesVariable(key)) {
 			throw new IllegalArgumentException("The variable " + key + " is not declared here.");
 		}
-		return super.put(key, tm);
+		return checkMacroLinkage(super.put(key, tm), tm);
 	}
 
 	protected void putUnconditionally(String key, Object var) {
-		super.put(key, var);
+		checkMacroLinkage(super.put(key, var), var);
+	}
+
+	// Call sites bound to a macro at parse time fall back to 
+	// looking it up by name once any macro variable is reassigned.
+	private Object checkMacroLinkage(Object prev, Object value) {
+		if (prev instanceof Macro && prev != value) {
+			getEnvironment().invalidateMacroLinkage();
+		}
+		return prev;
 	}
 
 	public Block getBlock() {
@@ -42,10 +52,17 @@ public class BlockScope extends HashMap<String,Object> implements Scope {
 	}
 
     public Object remove(String key) {
-        return super.remove(key);
+        return remove((Object) key);
+    }
+
+    public Object remove(Object key) {
+        return checkMacroLinkage(super.remove(key), null);
     }
 
     public void clear() {
+        if (values().stream().anyMatch(v -> v instanceof Macro)) {
+            getEnvironment().invalidateMacroLinkage();
+        }
         super.clear();
     }
 
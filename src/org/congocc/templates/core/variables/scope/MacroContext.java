@@ -10,6 +10,7 @@ import org.congocc.templates.core.nodes.ParameterList;
  * execution of an FTL macro. 
  */
 public class MacroContext extends BlockScope {
+    private Macro macro;
     private Block body; 
     private ParameterList bodyParameters;
     private MacroContext invokingMacroContext;
@@ -17,6 +18,7 @@ public class MacroContext extends BlockScope {
     
     public MacroContext(Macro macro, Environment env, Block body, ParameterList bodyParameters) {
     	super(macro.getNestedBlock(), env.getMacroNamespace(macro)); // REVISIT
+        this.macro = macro;
         this.invokingMacroContext = env.getCurrentMacroContext();
         this.invokingScope = env.getCurrentScope();
         this.body = body;
@@ -35,6 +37,10 @@ public class MacroContext extends BlockScope {
         return invokingMacroContext;
     }
 
+    public Macro getMacro() {
+        return macro;
+    }
+
     public Block getBody() {
         return body;
     }
@@ -0,0 +1,159 @@
+package org.congocc.templates.utility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A size-bounded cache that can be used concurrently from any number
+ * of threads without locking on lookups. When the cache grows past its
+ * maximum size, the least recently used entries are evicted, down to
+ * 90% of the maximum, so that the (linear) eviction pass is not done on
+ * every insertion. The recency is approximate if entries are looked up
+ * concurrently with an eviction, which does not matter for a cache.
+ *
+ * <p>The access times come from a coarse clock, of about a millisecond,
+ * rather than from a shared counter, so that concurrent hits do not
+ * all contend on one variable. An entry's access time is only written
+ * when the clock has moved on, so a hot entry is mostly just read.
+ * Entries used within the same tick are evicted in no particular order.</p>
+ *
+ * <p>The cache keeps hit and miss counts, so that its sizing can
+ * be checked in production.</p>
+ */
+public final class BoundedCache<K, V> {
+
+    private final Map<K, Entry<V>> map = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final Object evictionLock = new Object();
+    private volatile int maxSize;
+
+    /**
+     * @param maxSize the maximum number of entries. Zero disables the cache.
+     */
+    public BoundedCache(int maxSize) {
+        setMaxSize(maxSize);
+    }
+
+    /**
+     * @return the cached value, or null if there is none
+     */
+    public V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        long now = now();
+        if (entry.lastAccess != now) {
+            entry.lastAccess = now;
+        }
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        int maxSize = this.maxSize;
+        if (maxSize == 0) {
+            return;
+        }
+        map.put(key, new Entry<>(value, now()));
+        if (map.size() > maxSize) {
+            evict(maxSize - maxSize / 10);
+        }
+    }
+
+    /**
+     * @return the current time, in units of about a millisecond
+     */
+    private static long now() {
+        return System.nanoTime() >> 20;
+    }
+
+    private void evict(int targetSize) {
+        synchronized (evictionLock) {
+            int excess = map.size() - targetSize;
+            if (excess <= 0) {
+                // Another thread did it already
+                return;
+            }
+            // The access times are copied, since they can change while sorting
+            List<Candidate<K, V>> candidates = new ArrayList<>(map.size());
+            for (Map.Entry<K, Entry<V>> e : map.entrySet()) {
+                candidates.add(new Candidate<>(e.getKey(), e.getValue()));
+            }
+            candidates.sort((c1, c2) -> Long.compare(c1.lastAccess, c2.lastAccess));
+            for (int i = 0; i < excess && i < candidates.size(); i++) {
+                Candidate<K, V> c = candidates.get(i);
+                map.remove(c.key, c.entry);
+            }
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum number of entries, evicting entries if the
+     * cache is currently bigger than that. Zero disables the cache.
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Negative cache size: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        if (map.size() > maxSize) {
+            evict(maxSize);
+        }
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Removes all the entries. The hit and miss counts are kept.
+     */
+    public void clear() {
+        map.clear();
+    }
+
+    public String toString() {
+        return "BoundedCache[size=" + size() + ", maxSize=" + maxSize
+                + ", hits=" + getHits() + ", misses=" + getMisses() + "]";
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        volatile long lastAccess;
+
+        Entry(V value, long lastAccess) {
+            this.value = value;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private static final class Candidate<K, V> {
+        final K key;
+        final Entry<V> entry;
+        final long lastAccess;
+
+        Candidate(K key, Entry<V> entry) {
+            this.key = key;
+            this.entry = entry;
+            this.lastAccess = entry.lastAccess;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package org.congocc.templates.utility;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+import org.congocc.templates.core.Configurable.OutputFormat;
+
+/**
+ * Escapes strings for a given output format. This is used by the
+ * escaping built-ins (?html, ?xml, ?js_string...), the escaping
+ * writers, and for the <code>${...}</code> in an <code>#escape</code>
+ * block or in a template with an {@link OutputFormat} other than
+ * <code>RAW</code>.
+ *
+ * <p>Only ASCII characters are ever escaped, so the replacements are
+ * kept in a 128-entry table. The input is scanned for the next character
+ * that has a replacement, and the run of characters before it is copied
+ * in bulk, straight from the source, so a string that needs no escaping
+ * is not copied at all.</p>
+ */
+public final class Escaper {
+
+    /**
+     * The same escaping as ?html, which leaves the apostrophe alone
+     */
+    public static final Escaper HTML = new Escaper(markupTable(null));
+
+    /**
+     * The same escaping as ?xhtml
+     */
+    public static final Escaper XHTML = new Escaper(markupTable("&#39;"));
+
+    /**
+     * The same escaping as ?xml
+     */
+    public static final Escaper XML = new Escaper(markupTable("&apos;"));
+
+    /**
+     * The same escaping as ?rtf
+     */
+    public static final Escaper RTF = new Escaper(rtfTable());
+
+    /**
+     * The escaping of Java string literals, as ?j_string
+     */
+    public static final Escaper JAVA = new Escaper(javaTable());
+
+    /**
+     * The escaping of JavaScript string literals, as ?js_string
+     */
+    public static final Escaper JAVASCRIPT = new Escaper(javaScriptTable());
+
+    /**
+     * The escaping of JSON string literals, as ?json_string
+     */
+    public static final Escaper JSON = new Escaper(jsonTable());
+
+    private final char[][] replacements;
+
+    private Escaper(String[] table) {
+        replacements = new char[128][];
+        for (int i = 0; i < 128; i++) {
+            if (table[i] != null) {
+                replacements[i] = table[i].toCharArray();
+            }
+        }
+    }
+
+    /**
+     * @return the escaper for the output format, or null for
+     * <code>RAW</code>, that is, no escaping
+     */
+    public static Escaper forOutputFormat(OutputFormat outputFormat) {
+        switch (outputFormat) {
+            case HTML : return HTML;
+            case XML : return XML;
+            case RTF : return RTF;
+            default : return null;
+        }
+    }
+
+    private int nextEscape(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < 128 && replacements[c] != null) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private int nextEscape(char[] buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = buf[i];
+            if (c < 128 && replacements[c] != null) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * @return the escaped string, which is the same string if
+     * nothing needed escaping
+     */
+    public String escape(String s) {
+        int length = s.length();
+        int next = nextEscape(s, 0, length);
+        if (next == length) {
+            return s;
+        }
+        char[] buf = new char[length + length / 4 + 16];
+        int pos = 0;
+        int start = 0;
+        do {
+            char[] replacement = replacements[s.charAt(next)];
+            int needed = pos + (next - start) + replacement.length + (length - next);
+            if (needed > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(needed, buf.length * 2));
+            }
+            s.getChars(start, next, buf, pos);
+            pos += next - start;
+            System.arraycopy(replacement, 0, buf, pos, replacement.length);
+            pos += replacement.length;
+            start = next + 1;
+            next = nextEscape(s, start, length);
+        } while (next < length);
+        s.getChars(start, length, buf, pos);
+        pos += length - start;
+        return new String(buf, 0, pos);
+    }
+
+    public void escape(String s, Writer out) throws IOException {
+        escape(s, 0, s.length(), out);
+    }
+
+    private void escape(String s, int off, int len, Writer out) throws IOException {
+        int end = off + len;
+        int start = off;
+        int next = nextEscape(s, start, end);
+        if (next == end && off == 0 && len == s.length()) {
+            out.write(s);
+            return;
+        }
+        while (next < end) {
+            if (next > start) {
+                out.write(s, start, next - start);
+            }
+            char[] replacement = replacements[s.charAt(next)];
+            out.write(replacement, 0, replacement.length);
+            start = next + 1;
+            next = nextEscape(s, start, end);
+        }
+        if (end > start) {
+            out.write(s, start, end - start);
+        }
+    }
+
+    private void escape(char[] cbuf, int off, int len, Writer out) throws IOException {
+        int end = off + len;
+        int start = off;
+        int next = nextEscape(cbuf, start, end);
+        while (next < end) {
+            if (next > start) {
+                out.write(cbuf, start, next - start);
+            }
+            char[] replacement = replacements[cbuf[next]];
+            out.write(replacement, 0, replacement.length);
+            start = next + 1;
+            next = nextEscape(cbuf, start, end);
+        }
+        if (end > start) {
+            out.write(cbuf, start, end - start);
+        }
+    }
+
+    /**
+     * @return a writer that escapes everything written to it before
+     * passing it on to the given writer. Closing it does not close
+     * the underlying writer.
+     */
+    public Writer getWriter(Writer out) {
+        return new EscapingWriter(out);
+    }
+
+    private final class EscapingWriter extends Writer {
+        private final Writer out;
+
+        EscapingWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            char ch = (char) c;
+            if (ch < 128 && replacements[ch] != null) {
+                out.write(replacements[ch], 0, replacements[ch].length);
+            } else {
+                out.write(c);
+            }
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            escape(cbuf, off, len, out);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            escape(str, off, len, out);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static String[] markupTable(String aposReplacement) {
+        String[] table = new String[128];
+        table['<'] = "&lt;";
+        table['>'] = "&gt;";
+        table['&'] = "&amp;";
+        table['"'] = "&quot;";
+        table['\''] = aposReplacement;
+        return table;
+    }
+
+    private static String[] rtfTable() {
+        String[] table = new String[128];
+        table['\\'] = "\\\\";
+        table['{'] = "\\{";
+        table['}'] = "\\}";
+        return table;
+    }
+
+    /**
+     * The common part of the string literal escapes: the quotation mark,
+     * the backslash, and the control characters, those without a
+     * dedicated escape sequence being written as the given prefix
+     * followed by two hex digits.
+     */
+    private static String[] stringLiteralTable(String hexPrefix, boolean upperCaseHex) {
+        String[] table = new String[128];
+        for (int c = 0; c < 0x20; c++) {
+            String hex = Integer.toHexString(0x100 | c).substring(1);
+            table[c] = hexPrefix + (upperCaseHex ? hex.toUpperCase() : hex);
+        }
+        table['\n'] = "\\n";
+        table['\r'] = "\\r";
+        table['\f'] = "\\f";
+        table['\b'] = "\\b";
+        table['\t'] = "\\t";
+        table['"'] = "\\\"";
+        table['\\'] = "\\\\";
+        return table;
+    }
+
+    private static String[] javaTable() {
+        return stringLiteralTable("\\u00", false);
+    }
+
+    private static String[] javaScriptTable() {
+        String[] table = stringLiteralTable("\\x", true);
+        table['\''] = "\\'";
+        // So that "</script>" cannot appear in the output
+        table['>'] = "\\>";
+        return table;
+    }
+
+    private static String[] jsonTable() {
+        String[] table = stringLiteralTable("\\u00", true);
+        // JSON has no escape for '>', so '<' is escaped instead,
+        // so that "</script>" cannot appear in the output
+        table['<'] = "\\u003C";
+        return table;
+    }
+}
@@ -34,71 +34,12 @@ import org.congocc.templates.core.Environment;
  */
 public class HtmlEscape implements UserDirective {
 
-    private static final char[] LT = "&lt;".toCharArray();
-    private static final char[] GT = "&gt;".toCharArray();
-    private static final char[] AMP = "&amp;".toCharArray();
-    private static final char[] QUOT = "&quot;".toCharArray();
-    
     public void execute(Environment env, Map<String, Object> args, Object[] bodyVars, UserDirectiveBody body) throws IOException {
     	body.render(getWriter(env.getOut()));
     }
 
     public Writer getWriter(Writer out)
     {
-        return new HtmlEscapeWriter(out);
+        return Escaper.HTML.getWriter(out);
     }
-    
-    class HtmlEscapeWriter extends Writer {
-    	
-    	Writer out;
-    	
-    	HtmlEscapeWriter(Writer out){
-    		this.out = out;
-    	}
-    	
-        @Override
-        public void write(int c) throws IOException
-        {
-            switch(c)
-            {
-                case '<': out.write(LT, 0, 4); break;
-                case '>': out.write(GT, 0, 4); break;
-                case '&': out.write(AMP, 0, 5); break;
-                case '"': out.write(QUOT, 0, 6); break;
-                default: out.write(c);
-            }
-        }
-
-        @Override
-        public void write(char cbuf[], int off, int len) throws IOException
-        {
-            int lastoff = off;
-            int lastpos = off + len;
-            for (int i = off; i < lastpos; i++)
-            {
-                switch (cbuf[i])
-                {
-                    case '<': out.write(cbuf, lastoff, i - lastoff); out.write(LT, 0, 4); lastoff = i + 1; break;
-                    case '>': out.write(cbuf, lastoff, i - lastoff); out.write(GT, 0, 4); lastoff = i + 1; break;
-                    case '&': out.write(cbuf, lastoff, i - lastoff); out.write(AMP, 0, 5); lastoff = i + 1; break;
-                    case '"': out.write(cbuf, lastoff, i - lastoff); out.write(QUOT, 0, 6); lastoff = i + 1; break;
-                }
-            }
-            int remaining = lastpos - lastoff;
-            if(remaining > 0)
-            {
-                out.write(cbuf, lastoff, remaining);
-            }
-        }
-
-        @Override
-        public void flush() throws IOException {
-            out.flush();
-        }
-
-        @Override
-        public void close() {
-        }
-    }
-    
 }
@@ -23,6 +23,11 @@ import static org.congocc.templates.core.variables.Wrap.asBoolean;
  * <code>buffer_size</code> transform parameter (in bytes).</p>
  *
  * <p><b>Note:</b> The compress tag is implemented using this filter</p>
+ *
+ * <p>The static text inside <code>&lt;@compress&gt;</code> is compressed
+ * when the template is parsed (see {@link CompressedText}), so at runtime
+ * only the output of the interpolations and nested directives is
+ * actually scanned.</p>
  * 
  * <p>Usage:<br />
  * From java:</p>
@@ -129,6 +134,117 @@ public class StandardCompress implements UserDirective {
         return new StandardCompressWriter(out, bufferSize, singleLine);
     }
 
+    /**
+     * The static text of a template, as the compress writer sees it: any
+     * whitespace at either end reduced to what can still change the output
+     * of the writer, and the whitespace in between already compressed.
+     * This is worked out when the template is parsed, for the text inside
+     * <code>&lt;@compress&gt;</code>, so that the writer does not have to
+     * go through that text again on every rendering.
+     */
+    public static final class CompressedText {
+        private final String leading, text, singleLineText, trailing;
+
+        private CompressedText(String leading, String text, String singleLineText, String trailing) {
+            this.leading = leading;
+            this.text = text;
+            this.singleLineText = singleLineText;
+            this.trailing = trailing;
+        }
+
+        public static CompressedText of(String s) {
+            int length = s.length();
+            int start = 0;
+            while (start < length && isWhitespace(s.charAt(start))) start++;
+            if (start == length) {
+                return new CompressedText(collapse(s, 0, length), "", "", "");
+            }
+            int end = length;
+            while (isWhitespace(s.charAt(end - 1))) end--;
+            StringBuilder buf = new StringBuilder(end - start);
+            StringBuilder singleLineBuf = new StringBuilder(end - start);
+            int i = start;
+            while (i < end) {
+                int runStart = i;
+                while (i < end && !isWhitespace(s.charAt(i))) i++;
+                buf.append(s, runStart, i);
+                singleLineBuf.append(s, runStart, i);
+                if (i < end) {
+                    runStart = i;
+                    while (isWhitespace(s.charAt(i))) i++;
+                    buf.append(lineBreakOrSpace(s, runStart, i));
+                    singleLineBuf.append(' ');
+                }
+            }
+            String text = buf.toString();
+            String singleLineText = singleLineBuf.toString();
+            return new CompressedText(collapse(s, 0, start),
+                                      text,
+                                      text.equals(singleLineText) ? text : singleLineText,
+                                      collapse(s, end, length));
+        }
+
+        /**
+         * Writes the text to the given writer if it is a compress writer.
+         * @return whether it was, otherwise the caller has to write
+         * the uncompressed text
+         */
+        public boolean writeTo(Writer out) throws IOException {
+            if (!(out instanceof StandardCompressWriter)) {
+                return false;
+            }
+            ((StandardCompressWriter) out).write(this);
+            return true;
+        }
+
+        /**
+         * Reduces a run of whitespace to the characters that can affect the
+         * writer's state: a non line break character before the first line
+         * break (which turns a CR at the end of the previous output into a
+         * line break of its own), the first line break, and after a CR,
+         * the character that tells whether it is a CRLF.
+         */
+        private static String collapse(String s, int start, int end) {
+            int i = start;
+            while (i < end && s.charAt(i) != '\r' && s.charAt(i) != '\n') i++;
+            if (i == end) {
+                return start == end ? "" : s.substring(start, start + 1);
+            }
+            int from = i > start ? i - 1 : i;
+            int to = s.charAt(i) == '\r' && i + 1 < end ? i + 2 : i + 1;
+            return s.substring(from, to);
+        }
+
+        /**
+         * @return what the writer outputs for a run of whitespace
+         * between two non-whitespace characters
+         */
+        private static String lineBreakOrSpace(String s, int start, int end) {
+            for (int i = start; i < end; i++) {
+                char c = s.charAt(i);
+                if (c == '\n') {
+                    return "\n";
+                }
+                if (c == '\r') {
+                    return i + 1 < end && s.charAt(i + 1) == '\n' ? "\r\n" : "\r";
+                }
+            }
+            return " ";
+        }
+    }
+
+    private static final boolean[] ASCII_WHITESPACE = new boolean[128];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            ASCII_WHITESPACE[c] = Character.isWhitespace(c);
+        }
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c < 128 ? ASCII_WHITESPACE[c] : Character.isWhitespace(c);
+    }
+
     private static class StandardCompressWriter extends Writer
     {
         private static final int MAX_EOL_LENGTH = 2; // CRLF is two bytes
@@ -144,6 +260,7 @@ public class StandardCompress implements UserDirective {
         private final Writer out;
         private final char[] buf;
         private final boolean singleLine;
+        private char[] stringChunk;
     
         private int pos = 0;
         private boolean inWhitespace = true;
@@ -152,40 +269,89 @@ public class StandardCompress implements UserDirective {
         StandardCompressWriter(Writer out, int bufSize, boolean singleLine) {
             this.out = out;
             this.singleLine = singleLine;
-            buf = new char[bufSize];
+            buf = new char[Math.max(bufSize, MAX_EOL_LENGTH)];
         }
 
+        /**
+         * Copies the runs of non-whitespace characters in bulk, so that
+         * only the whitespace goes through the state machine one
+         * character at a time.
+         */
         public void write(char[] cbuf, int off, int len) throws IOException {
-            for (;;) {
-                // Need to reserve space for the EOL potentially left in the state machine
-                int room = buf.length - pos - MAX_EOL_LENGTH; 
-                if (room >= len) {
-                    writeHelper(cbuf, off, len);
-                    break;
-                } else if (room <= 0) {
+            int i = off, end = off + len;
+            while (i < end) {
+                char c = cbuf[i];
+                if (isWhitespace(c)) {
+                    inWhitespace = true;
+                    updateLineBreakState(c);
+                    i++;
+                    continue;
+                }
+                startWord();
+                int start = i;
+                while (i < end && !isWhitespace(cbuf[i])) i++;
+                append(cbuf, start, i - start);
+            }
+        }
+
+        public void write(String str, int off, int len) throws IOException {
+            if (stringChunk == null) {
+                stringChunk = new char[Math.min(buf.length, 1024)];
+            }
+            while (len > 0) {
+                int n = Math.min(len, stringChunk.length);
+                str.getChars(off, off + n, stringChunk, 0);
+                write(stringChunk, 0, n);
+                off += n;
+                len -= n;
+            }
+        }
+
+        void write(CompressedText compressedText) throws IOException {
+            whitespace(compressedText.leading);
+            String text = singleLine ? compressedText.singleLineText : compressedText.text;
+            if (!text.isEmpty()) {
+                startWord();
+                int len = text.length();
+                if (len > buf.length - pos) {
                     flushInternal();
+                }
+                if (len > buf.length) {
+                    out.write(text);
                 } else {
-                    writeHelper(cbuf, off, room);
-                    flushInternal();
-                    off += room;
-                    len -= room;
+                    text.getChars(0, len, buf, pos);
+                    pos += len;
                 }
+                whitespace(compressedText.trailing);
             }
         }
 
-        private void writeHelper(char[] cbuf, int off, int len) {
-            for (int i = off, end = off + len; i < end; i++) {
-                char c = cbuf[i];
-                if (Character.isWhitespace(c)) {
-                    inWhitespace = true;
-                    updateLineBreakState(c);
-                } else if (inWhitespace) {
-                    inWhitespace = false;
-                    writeLineBreakOrSpace();
-                    buf[pos++] = c;
-                } else {
-                    buf[pos++] = c;
+        private void whitespace(String s) {
+            for (int i = 0; i < s.length(); i++) {
+                inWhitespace = true;
+                updateLineBreakState(s.charAt(i));
+            }
+        }
+
+        private void startWord() throws IOException {
+            if (inWhitespace) {
+                inWhitespace = false;
+                if (buf.length - pos < MAX_EOL_LENGTH) {
+                    flushInternal();
                 }
+                writeLineBreakOrSpace();
+            }
+        }
+
+        private void append(char[] cbuf, int off, int len) throws IOException {
+            if (len > buf.length - pos) {
+                flushInternal();
+            }
+            if (len > buf.length) {
+                out.write(cbuf, off, len);
+            } else {
+                System.arraycopy(cbuf, off, buf, pos, len);
+                pos += len;
             }
         }
 
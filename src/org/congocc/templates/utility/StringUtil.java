@@ -15,7 +15,7 @@ public class StringUtil {
      *  Replaces all '&gt;' '&lt;' '&amp;' and '"' with entity reference
      */
     public static String HTMLEnc(String s) {
-        return XMLOrXHTMLEnc(s, "'");
+        return Escaper.HTML.escape(s);
     }
 
     /**
@@ -23,7 +23,7 @@ public class StringUtil {
      *  Replaces all '&gt;' '&lt;' '&amp;', "'" and '"' with entity reference
      */
     public static String XMLEnc(String s) {
-        return XMLOrXHTMLEnc(s, "&apos;");
+        return Escaper.XML.escape(s);
     }
 
     /**
@@ -34,35 +34,11 @@ public class StringUtil {
      *  instead [see http://www.w3.org/TR/xhtml1/#C_16])
      */
     public static String XHTMLEnc(String s) {
-        return XMLOrXHTMLEnc(s, "&#39;");
-    }
-
-    private static String XMLOrXHTMLEnc(String s, String aposReplacement) {
-        StringBuilder buf = new StringBuilder();
-        for (int i = 0; i < s.length(); i++) {
-            char ch = s.charAt(i);
-            switch (ch) {
-                case '<' : buf.append("&lt;"); break;
-                case '>' : buf.append("&gt;"); break;
-                case '&' : buf.append("&amp;"); break;
-                case '"' : buf.append("&quot;"); break;
-                case '\'' : buf.append(aposReplacement); break;
-                default : buf.append(ch);
-            }
-        }
-        return buf.toString();
+        return Escaper.XHTML.escape(s);
     }
 
     public static String RTFEnc(String s) {
-        StringBuilder buf = new StringBuilder();
-        for (int i = 0; i < s.length(); i++) {
-            char ch = s.charAt(i);
-            if (ch == '\\' || ch == '{' || ch == '}') {
-                buf.append('\\');
-            }
-            buf.append(ch);
-        }
-        return buf.length() == s.length() ? s : buf.toString();
+        return Escaper.RTF.escape(s);
     }
 
     /**
@@ -423,49 +399,7 @@ public class StringUtil {
      * @see #jQuote(String)
      */ 
     public static String javaStringEnc(String s) {
-        int ln = s.length();
-        for (int i = 0; i < ln; i++) {
-            char c = s.charAt(i);
-            if (c == '"' || c == '\\' || c < 0x20) {
-                StringBuilder b = new StringBuilder(ln + 4);
-                b.append(s.substring(0, i));
-                while (true) {
-                    if (c == '"') {
-                        b.append("\\\"");
-                    } else if (c == '\\') {
-                        b.append("\\\\");
-                    } else if (c < 0x20) {
-                        if (c == '\n') {
-                            b.append("\\n");
-                        } else if (c == '\r') {
-                            b.append("\\r");
-                        } else if (c == '\f') {
-                            b.append("\\f");
-                        } else if (c == '\b') {
-                            b.append("\\b");
-                        } else if (c == '\t') {
-                            b.append("\\t");
-                        } else {
-                            b.append("\\u00");
-                            int x = c / 0x10;
-                            b.append((char)
-                                    (x < 0xA ? x + '0' : x - 0xA + 'a'));
-                            x = c & 0xF;
-                            b.append((char)
-                                    (x < 0xA ? x + '0' : x - 0xA + 'a'));
-                        }
-                    } else {
-                        b.append(c);
-                    }
-                    i++;
-                    if (i >= ln) {
-                        return b.toString();
-                    }
-                    c = s.charAt(i);
-                }
-            } // if has to be escaped
-        } // for each characters
-        return s;
+        return Escaper.JAVA.escape(s);
     }
     
     /**
@@ -479,53 +413,7 @@ public class StringUtil {
      * be replaced with hexadecimal escape (<tt>\x<i>XX</i></tt>). 
      */ 
     public static String javaScriptStringEnc(String s) {
-        int ln = s.length();
-        for (int i = 0; i < ln; i++) {
-            char c = s.charAt(i);
-            if (c == '"' || c == '\'' || c == '\\' || c == '>' || c < 0x20) {
-                StringBuilder b = new StringBuilder(ln + 4);
-                b.append(s.substring(0, i));
-                while (true) {
-                    if (c == '"') {
-                        b.append("\\\"");
-                    } else if (c == '\'') {
-                        b.append("\\'");
-                    } else if (c == '\\') {
-                        b.append("\\\\");
-                    } else if (c == '>') {
-                        b.append("\\>");
-                    } else if (c < 0x20) {
-                        if (c == '\n') {
-                            b.append("\\n");
-                        } else if (c == '\r') {
-                            b.append("\\r");
-                        } else if (c == '\f') {
-                            b.append("\\f");
-                        } else if (c == '\b') {
-                            b.append("\\b");
-                        } else if (c == '\t') {
-                            b.append("\\t");
-                        } else {
-                            b.append("\\x");
-                            int x = c / 0x10;
-                            b.append((char)
-                                    (x < 0xA ? x + '0' : x - 0xA + 'A'));
-                            x = c & 0xF;
-                            b.append((char)
-                                    (x < 0xA ? x + '0' : x - 0xA + 'A'));
-                        }
-                    } else {
-                        b.append(c);
-                    }
-                    i++;
-                    if (i >= ln) {
-                        return b.toString();
-                    }
-                    c = s.charAt(i);
-                }
-            } // if has to be escaped
-        } // for each characters
-        return s;
+        return Escaper.JAVASCRIPT.escape(s);
     }
 
     /**
@@ -0,0 +1,49 @@
+package org.congocc.templates;
+
+import static org.congocc.templates.TestSupport.*;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The output of an #attempt block that goes to a temporary file comes
+ * back as it was written, and the file is deleted either way.
+ */
+public class AttemptSpillTest {
+
+    public static void main(String[] args) throws Exception {
+        int tempFiles = countTempFiles();
+        String text = "a\uD83D\uDE00b\uDC00c";
+        // Spilled output with a non-BMP character and unpaired surrogates
+        assertOutput("<" + text + "\uD800b>",
+                "<<#attempt>" + text + "${\"\\xD800\"}b<#recover>R</#attempt>>",
+                "attempt_spill_threshold", "10");
+        // Output spread over several chunks, with a char split between writes
+        String big = "x\uD83D".repeat(10000) + "\uDE00";
+        assertOutput(big + "!",
+                "<#attempt><#list 1..10000 as i>x${\"\\xD83D\"}</#list>${\"\\xDE00\"}!<#recover>R</#attempt>",
+                "attempt_spill_threshold", "10");
+        // A failure after the spill
+        assertOutput("R\uD800",
+                "<#attempt>" + "y".repeat(100) + "${nothing}<#recover>R${\"\\xD800\"}</#attempt>",
+                "attempt_spill_threshold", "10");
+        // Without a threshold
+        assertOutput(text, "<#attempt>" + text + "<#recover>R</#attempt>");
+        assertEquals(tempFiles, countTempFiles(), "temporary files left");
+        System.out.println("AttemptSpillTest passed");
+    }
+
+    private static int countTempFiles() throws IOException {
+        int count = 0;
+        Path dir = Paths.get(System.getProperty("java.io.tmpdir"));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "attempt*.tmp")) {
+            for (Path file : files) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,40 @@
+package org.congocc.templates;
+
+import static org.congocc.templates.TestSupport.*;
+
+/**
+ * The ${...} outside of an #escape block are escaped according to
+ * the output_format setting.
+ */
+public class AutoEscapeTest {
+
+    private static final String S = "<#var s=\"<a href='x'>&\\\"{\\\\}\"/>";
+
+    public static void main(String[] args) throws Exception {
+        assertOutput("<a href='x'>&\"{\\}", S + "${s}");
+        assertOutput("<a href='x'>&\"{\\}", S + "${s}", "output_format", "raw");
+        assertOutput("&lt;a href='x'&gt;&amp;&quot;{\\}", S + "${s}", "output_format", "html");
+        assertOutput("&lt;a href=&apos;x&apos;&gt;&amp;&quot;{\\}", S + "${s}", "output_format", "xml");
+        assertOutput("<a href='x'>&\"\\{\\\\\\}", S + "${s}", "output_format", "rtf");
+        // Constant interpolations are escaped too
+        assertOutput("&lt;|<", "${\"<\"}|<#if true><</#if>", "output_format", "html");
+        // Interpolations that are already escaped are not escaped again
+        assertOutput("&lt;a href='x'&gt;&amp;&quot;{\\}", S + "${s?html}", "output_format", "html");
+        assertOutput("&lt;a href=&apos;x&apos;&gt;&amp;&quot;{\\}", S + "${s?xml}", "output_format", "html");
+        assertOutput("&lt;", "${\"<\"?html}", "output_format", "html");
+        // but other built-ins are
+        assertOutput("&lt;A&gt;", "${\"<a>\"?upper_case}", "output_format", "html");
+        // $\{...} is never escaped
+        assertOutput("<a href='x'>&\"{\\}", S + "$\\{s}", "output_format", "html");
+        // #escape takes over from the output format, and #noescape turns both off
+        assertOutput("&lt;a href=&apos;x&apos;&gt;&amp;&quot;{\\}|<a href='x'>&\"{\\}",
+                S + "<#escape x as x?xml>${s}|<#noescape>${s}</#noescape></#escape>", "output_format", "html");
+        try {
+            new Configuration().setOutputFormat(null);
+            throw new AssertionError("Expected setOutputFormat(null) to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Setting \"output_format\" can't be null", e.getMessage(), "message");
+        }
+        System.out.println("AutoEscapeTest passed");
+    }
+}
@@ -0,0 +1,53 @@
+package org.congocc.templates;
+
+import static org.congocc.templates.TestSupport.*;
+
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The static text in a <@compress> block is compressed when the
+ * template is parsed, which must give the same output as the same text
+ * going through the compress writer at runtime, in both modes.
+ */
+public class CompressTest {
+
+    // No \r, since the parser turns it into \n in the static text
+    private static final String ALPHABET = "  \t\n\n\u000Bab.";
+
+    public static void main(String[] args) throws Exception {
+        assertOutput("a b\nc d", "<@compress>\n  a   b \n\n\n  c\t\td  \n</@compress>");
+        assertOutput("a b c d", "<@compress single_line=true>\n  a   b \n\n\n  c\t\td  \n</@compress>");
+        assertOutput("xp q\n1\n2\nzy", "x<@compress>  ${\"p  q\"}  \n\n  <#list 1..2 as i>  ${i}  \r\n\r\n  </#list>  z  </@compress>y");
+        assertOutput("p q 1 2 z", "<@compress single_line=true>  ${\"p  q\"}  \n\n  <#list 1..2 as i>  ${i}  \r\n\r\n  </#list>  z  </@compress>");
+        assertOutput("a\nb\nc", "<@compress>a\n<#if true>\n\n  b\n</#if>\n\n\nc</@compress>");
+        assertOutput("a b c", "<@compress single_line=true>a\n<#if true>\n\n  b\n</#if>\n\n\nc</@compress>");
+        assertOutput("one two\nthree", "<@compress buffer_size=1>  one two\n\n three  </@compress>");
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            String s1 = randomText(random), s2 = randomText(random);
+            for (String options : new String[] {"", " single_line=true", " buffer_size=3"}) {
+                Map<String, Object> root = dataModel();
+                root.put("s1", s1);
+                root.put("s2", s2);
+                String expected = render(root, "<@compress" + options + ">${s1}${\"x\"}${s2}</@compress>");
+                String actual = render(root, "<@compress" + options + ">" + s1 + "${\"x\"}" + s2 + "</@compress>");
+                assertEquals(expected, actual, "static text " + escape(s1 + "x" + s2) + " with options" + options);
+            }
+        }
+        System.out.println("CompressTest passed");
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder buf = new StringBuilder();
+        int length = random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            buf.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return buf.toString();
+    }
+
+    private static String escape(String s) {
+        return s.replace("\n", "\\n").replace("\t", "\\t").replace("\u000B", "\\u000B");
+    }
+}
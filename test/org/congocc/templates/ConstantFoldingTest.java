@@ -0,0 +1,50 @@
+package org.congocc.templates;
+
+import static org.congocc.templates.TestSupport.*;
+
+import java.util.Map;
+
+/**
+ * Interpolations of constants are worked out when the template is parsed
+ * and merged with the text around them, which must not change the output,
+ * in particular next to the whitespace trimming directives. The escaping
+ * of an #escape block is substituted into the expression, which must
+ * still work with any kind of expression.
+ */
+public class ConstantFoldingTest {
+
+    public static class Bean {
+        public String getName() {
+            return "<b>";
+        }
+
+        public String greet(String s) {
+            return s + "<";
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Next to #t, #lt and #rt
+        assertOutput("a x  b", "a ${\"x\"}  <#t>\nb");
+        assertOutput("x \n  c y d", "  ${\"x\"} <#lt>\n  c ${\"y\"}<#rt>\n d");
+        assertOutput("k1  k2  ", "<#list 1..2 as i>\n  ${\"k\"}${i}  <#t>\n</#list>");
+        assertOutput("x\n12\u00e9 \n", "x\n  ${\"s\"?length}<#t>\n  ${[1,2]?size}${\"\u00e9\"} <#lt>\n");
+        // Around comments and nested blocks
+        assertOutput("ab  &lt;\n  Q\n", "${\"a\"+\"b\"} <#-- c --> ${\"<\"?html}\n  <#if true>${\"q\"?cap_first}</#if>\n");
+        assertOutput("  a  \n", "  <#if true>${\"a\"}</#if>  \n");
+        // What depends on the Environment is not folded
+        assertOutput("1,000", "${1000?string}", "number_format", "#,##0");
+        assertOutput("I", "${\"i\"?upper_case}", "locale", "en_US");
+        // Escaping substituted into any kind of expression
+        Map<String, Object> root = dataModel();
+        root.put("bean", new Bean());
+        String legacy = "legacy_syntax";
+        assertEquals("&lt;b&gt;|a&lt;|5|d",
+                render(root, "<#escape x as x?html>${bean.name}|${bean.greet(\"a\")}|${n}|${m!\"d\"}</#escape>", legacy, "true"),
+                "#escape x as x?html");
+        assertEquals("<b>|b<", render(root, "<#escape x as x>${bean.name}|${bean.greet(\"b\")}</#escape>", legacy, "true"),
+                "#escape x as x");
+        assertEquals("&lt;", render(root, "<#escape x as x?html>${\"<\"}</#escape>"), "constant in #escape");
+        System.out.println("ConstantFoldingTest passed");
+    }
+}
@@ -0,0 +1,28 @@
+package org.congocc.templates;
+
+import static org.congocc.templates.TestSupport.*;
+
+/**
+ * List and hash literals of constants are built once, but a template
+ * that gets hold of one can still modify it, as it always could.
+ */
+public class ConstantLiteralTest {
+
+    public static void main(String[] args) throws Exception {
+        // Empty literals used as accumulators
+        assertOutput("5", "<#var h={}><#set h.a=5>${h.a}");
+        assertOutput("3:2", "<#var h={}><#list xs as i><#set h[\"k\"+i]=i></#list>${h?size}:${h.k2}");
+        assertOutput("3", "<#var l=[]><#list xs as i><#set l = l + [i]></#list>${l?size}");
+        // Literals of constants assigned to a variable are modifiable copies
+        assertOutput("5,2", "<#var l=[1,2]><#set l[0]=5>${l[0]},${l[1]}");
+        assertOutput("6", "<#var h={\"a\":1}><#set h.a=6>${h.a}");
+        assertOutput("2|2|", "<#macro m><#var h={\"a\":1}><#set h.a=h.a+1>${h.a}|</#macro><@m/><@m/>");
+        // Nested literals are not shared between evaluations
+        assertOutput("3", "<#var l=[[1],[2]]><#var m=l[0]><#set m[0]=3>${l[0][0]}");
+        assertOutput("1", "<#list 1..2 as i><#var l=[[1]]><#if i == 2>${l[0][0]}</#if><#set l[0][0]=9></#list>");
+        // Literals that are only read
+        assertOutput("b|1|3|12|2", "${[\"a\",\"b\"][1]}|${{\"x\":1}.x}|${[1,2,3]?size}|<#list [1,2] as i>${i}</#list>|${{\"a\":1,\"b\":2}[\"b\"]}");
+        assertOutput("73", "<#var s=[1,2,3][1..2]><#set s[0]=7>${s[0]}${s[1]}");
+        System.out.println("ConstantLiteralTest passed");
+    }
+}
@@ -0,0 +1,62 @@
+package org.congocc.templates;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.congocc.templates.core.nodes.generated.TemplateElement;
+
+/**
+ * In lean rendering mode, the instruction stack of an error is rebuilt
+ * when the error is handled, and it should be the same as the one kept
+ * as we go, through macro calls, nested bodies and includes.
+ */
+public class LeanRenderingTest {
+
+    public static void main(String[] args) throws Exception {
+        String macros = "<#macro m>\n<#if true><#nested></#if>${x}\n</#macro>\n"
+                + "<#macro outer><@m/></#macro>\n"
+                + "<#macro inc><#if true><#include \"lib.ftl\"></#if></#macro>\n";
+        String lib = "<#list 1..1 as i>\n<#if true>${y}</#if>\n</#list>";
+        checkSameStack(macros + "<#list 1..1 as i><@outer/></#list>", lib);
+        checkSameStack(macros + "<@m><#if true>${z}</#if></@m>", lib);
+        checkSameStack(macros + "<#if true><@inc/></#if>", lib);
+        checkSameStack(macros + "<#macro bad><@undefined/></#macro><@bad/>", lib);
+        System.out.println("LeanRenderingTest passed");
+    }
+
+    private static void checkSameStack(String main, String lib) throws Exception {
+        List<String> expected = stack(main, lib, false);
+        List<String> actual = stack(main, lib, true);
+        if (expected.size() < 2 || !expected.equals(actual)) {
+            throw new AssertionError("Expected the stack " + expected + " but got " + actual + " for " + main);
+        }
+    }
+
+    private static List<String> stack(String main, String lib, boolean lean) throws Exception {
+        Path dir = Files.createTempDirectory("templates");
+        try {
+            Files.writeString(dir.resolve("main.ftl"), main);
+            Files.writeString(dir.resolve("lib.ftl"), lib);
+            Configuration cfg = new Configuration();
+            cfg.setDirectoryForTemplateLoading(dir.toString());
+            cfg.setLeanRendering(lean);
+            cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+            cfg.getTemplate("main.ftl").process(Map.of(), new StringWriter());
+            throw new AssertionError("Expected an error from " + main);
+        } catch (TemplateException e) {
+            List<String> result = new ArrayList<>();
+            for (TemplateElement element : e.getFTLStack()) {
+                result.add(element.getClass().getSimpleName() + " " + element.getLocation());
+            }
+            return result;
+        } finally {
+            Files.deleteIfExists(dir.resolve("main.ftl"));
+            Files.deleteIfExists(dir.resolve("lib.ftl"));
+            Files.delete(dir);
+        }
+    }
+}
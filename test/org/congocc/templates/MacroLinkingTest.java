@@ -0,0 +1,31 @@
+package org.congocc.templates;
+
+import java.util.Map;
+
+import static org.congocc.templates.TestSupport.*;
+
+/**
+ * Call sites bound to their macro at parse time must call the same
+ * macro that looking up the name when rendering would find.
+ */
+public class MacroLinkingTest {
+
+    public static void main(String[] args) throws Exception {
+        assertOutput("A|A", "<#macro m>A</#macro><@m/>|<@m/>");
+        // The last definition in the template is the one defined up front,
+        // nested or not, until a definition is executed
+        assertOutput("B|A", "<@m/>|<#macro m>A</#macro><#if false><#macro m>B</#macro></#if><@m/>");
+        assertOutput("A|A", "<@m/>|<#if false><#macro m>B</#macro></#if><#macro m>A</#macro><@m/>");
+        assertOutput("B|B", "<#macro m>A</#macro><#macro m>B</#macro><@m/>|<@m/>");
+        // Reassigning the name
+        assertOutput("A|N", "<#macro m>A</#macro><#macro n>N</#macro><@m/>|<#assign m=n><@m/>");
+        // Included inside a macro, the included template's definitions are
+        // skipped, so its call goes to the including template's macro
+        assertEquals("MAIN|LIB|LIB", renderFiles(Map.of(
+                "lib.ftl", "<#macro m>LIB</#macro><@m/>",
+                "main.ftl", "<#macro m>MAIN</#macro><#macro outer><#include \"lib.ftl\"></#macro>"
+                            + "<@outer/>|<#include \"lib.ftl\">|<@m/>"), "main.ftl"),
+                "macro call in a template included inside a macro");
+        System.out.println("MacroLinkingTest passed");
+    }
+}
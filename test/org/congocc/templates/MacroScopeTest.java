@@ -0,0 +1,22 @@
+package org.congocc.templates;
+
+import static org.congocc.templates.TestSupport.*;
+
+/**
+ * Checks what ?scope returns for a macro, in particular from the
+ * #nested content of the macro, where the macro's context is suspended
+ * but still active.
+ */
+public class MacroScopeTest {
+
+    public static void main(String[] args) throws Exception {
+        assertOutput("[1]",
+                "<#macro m><#var x=1><#nested></#macro><@m>[${(m?scope.x)!\"none\"}]</@m>");
+        assertOutput("[2][1]",
+                "<#macro m y><#var x=y><#nested></#macro>"
+                + "<@m y=1><@m y=2>[${m?scope.x}]</@m>[${m?scope.x}]</@m>");
+        assertOutput("[none]",
+                "<#macro m><#var x=1></#macro><@m/>[${(m?scope.x)!\"none\"}]");
+        System.out.println("MacroScopeTest passed");
+    }
+}
@@ -0,0 +1,90 @@
+package org.congocc.templates;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What the tests have in common: rendering a template from a string
+ * and checking the output.
+ */
+class TestSupport {
+
+    static Map<String, Object> dataModel() {
+        Map<String, Object> root = new HashMap<>();
+        root.put("n", 5);
+        root.put("xs", List.of(1, 2, 3));
+        return root;
+    }
+
+    /**
+     * @param settings pairs of setting names and values
+     */
+    static String render(String source, String... settings) throws Exception {
+        return render(dataModel(), source, settings);
+    }
+
+    /**
+     * @param settings pairs of setting names and values
+     */
+    static String render(Map<String, Object> root, String source, String... settings) throws Exception {
+        Configuration cfg = new Configuration();
+        for (int i = 0; i < settings.length; i += 2) {
+            cfg.setSetting(settings[i], settings[i + 1]);
+        }
+        Template template = new Template("test", source, cfg, null);
+        StringWriter out = new StringWriter();
+        template.process(root, out);
+        return out.toString();
+    }
+
+    /**
+     * Renders a template loaded from a temporary directory holding
+     * the given files, so that it can include or import the others.
+     */
+    static String renderFiles(Map<String, String> files, String name) throws Exception {
+        Path dir = Files.createTempDirectory("templates");
+        try {
+            for (Map.Entry<String, String> file : files.entrySet()) {
+                Files.writeString(dir.resolve(file.getKey()), file.getValue());
+            }
+            Configuration cfg = new Configuration();
+            cfg.setDirectoryForTemplateLoading(dir.toString());
+            StringWriter out = new StringWriter();
+            cfg.getTemplate(name).process(dataModel(), out);
+            return out.toString();
+        } finally {
+            for (String file : files.keySet()) {
+                Files.deleteIfExists(dir.resolve(file));
+            }
+            Files.delete(dir);
+        }
+    }
+
+    static void assertOutput(String expected, String source, String... settings) throws Exception {
+        String output = render(source, settings);
+        if (!expected.equals(output)) {
+            throw new AssertionError("Expected " + expected + " but got " + output + " from " + source);
+        }
+    }
+
+    static void assertEquals(Object expected, Object actual, String what) {
+        if (expected == null ? actual != null : !expected.equals(actual)) {
+            throw new AssertionError(what + ": expected " + expected + " but got " + actual);
+        }
+    }
+
+    static void assertFails(String messagePart, String source, String... settings) throws Exception {
+        try {
+            String output = render(source, settings);
+            throw new AssertionError("Expected an error from " + source + " but got " + output);
+        } catch (TemplateException e) {
+            if (!e.getMessage().contains(messagePart)) {
+                throw new AssertionError("Expected an error about " + messagePart + " but got " + e.getMessage());
+            }
+        }
+    }
+}
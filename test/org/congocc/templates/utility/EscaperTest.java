@@ -0,0 +1,160 @@
+package org.congocc.templates.utility;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * The table-driven Escaper gives the same output as the encoders it
+ * replaced, which are kept here, as they were, for comparison.
+ */
+public class EscaperTest {
+
+    private static final String ALPHABET = "ab <>&\"'\\{}\n\r\t\b\f\u0001\u001f\u007f\u00e9\u20ac\uD83D\uDE00";
+
+    public static void main(String[] args) throws Exception {
+        String[] fixed = {"", "plain text", "<", "a<b", "<a href='x'>&amp;\"</a>", "{\\}", "\u0000\u001f", "caf\u00e9 \u20ac"};
+        for (String s : fixed) {
+            check(s);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            StringBuilder buf = new StringBuilder();
+            int length = random.nextInt(40);
+            for (int j = 0; j < length; j++) {
+                buf.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            check(buf.toString());
+        }
+        assertEquals("\\u003C/script>\\\"\\u0001'", Escaper.JSON.escape("</script>\"\u0001'"), "JSON");
+        String plain = "nothing to escape";
+        if (Escaper.HTML.escape(plain) != plain) {
+            throw new AssertionError("A string with nothing to escape should be returned as is");
+        }
+        System.out.println("EscaperTest passed");
+    }
+
+    private static void check(String s) throws IOException {
+        check(Escaper.HTML, markupEnc(s, "'"), s);
+        check(Escaper.XHTML, markupEnc(s, "&#39;"), s);
+        check(Escaper.XML, markupEnc(s, "&apos;"), s);
+        check(Escaper.RTF, rtfEnc(s), s);
+        check(Escaper.JAVA, javaStringEnc(s), s);
+        check(Escaper.JAVASCRIPT, javaScriptStringEnc(s), s);
+        assertEquals(markupEnc(s, "'"), StringUtil.HTMLEnc(s), "StringUtil.HTMLEnc of " + s);
+        assertEquals(markupEnc(s, "&apos;"), StringUtil.XMLEnc(s), "StringUtil.XMLEnc of " + s);
+        assertEquals(markupEnc(s, "&#39;"), StringUtil.XHTMLEnc(s), "StringUtil.XHTMLEnc of " + s);
+        assertEquals(rtfEnc(s), StringUtil.RTFEnc(s), "StringUtil.RTFEnc of " + s);
+        assertEquals(javaStringEnc(s), StringUtil.javaStringEnc(s), "StringUtil.javaStringEnc of " + s);
+        assertEquals(javaScriptStringEnc(s), StringUtil.javaScriptStringEnc(s), "StringUtil.javaScriptStringEnc of " + s);
+        assertEquals(markupEnc(s, "'"), escapeWith(new HtmlEscape()::getWriter, s), "html_escape of " + s);
+        assertEquals(markupEnc(s, "&apos;"), escapeWith(new XmlEscape()::getWriter, s), "xml_escape of " + s);
+    }
+
+    private static void check(Escaper escaper, String expected, String s) throws IOException {
+        assertEquals(expected, escaper.escape(s), "escape of " + s);
+        StringWriter out = new StringWriter();
+        escaper.escape(s, out);
+        assertEquals(expected, out.toString(), "escape to a writer of " + s);
+        assertEquals(expected, escapeWith(escaper::getWriter, s), "escaping writer of " + s);
+    }
+
+    /**
+     * Writes the string to the escaping writer in three parts, one
+     * through each of the write methods, and returns what came out.
+     */
+    private static String escapeWith(Function<Writer, Writer> escapingWriter, String s) throws IOException {
+        StringWriter out = new StringWriter();
+        Writer writer = escapingWriter.apply(out);
+        int third = s.length() / 3;
+        writer.write(s, 0, third);
+        writer.write(s.substring(third, 2 * third).toCharArray());
+        for (int i = 2 * third; i < s.length(); i++) {
+            writer.write(s.charAt(i));
+        }
+        writer.flush();
+        return out.toString();
+    }
+
+    private static void assertEquals(Object expected, Object actual, String what) {
+        if (!expected.equals(actual)) {
+            throw new AssertionError(what + ": expected " + expected + " but got " + actual);
+        }
+    }
+
+    // The encoders as they were before Escaper
+
+    private static String markupEnc(String s, String aposReplacement) {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '<' : buf.append("&lt;"); break;
+                case '>' : buf.append("&gt;"); break;
+                case '&' : buf.append("&amp;"); break;
+                case '"' : buf.append("&quot;"); break;
+                case '\'' : buf.append(aposReplacement); break;
+                default : buf.append(ch);
+            }
+        }
+        return buf.toString();
+    }
+
+    private static String rtfEnc(String s) {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch == '\\' || ch == '{' || ch == '}') {
+                buf.append('\\');
+            }
+            buf.append(ch);
+        }
+        return buf.toString();
+    }
+
+    private static String javaStringEnc(String s) {
+        return stringLiteralEnc(s, false, "\\u00", false);
+    }
+
+    private static String javaScriptStringEnc(String s) {
+        return stringLiteralEnc(s, true, "\\x", true);
+    }
+
+    private static String stringLiteralEnc(String s, boolean javaScript, String hexPrefix, boolean upperCaseHex) {
+        StringBuilder b = new StringBuilder();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') {
+                b.append("\\\"");
+            } else if (c == '\\') {
+                b.append("\\\\");
+            } else if (javaScript && c == '\'') {
+                b.append("\\'");
+            } else if (javaScript && c == '>') {
+                b.append("\\>");
+            } else if (c == '\n') {
+                b.append("\\n");
+            } else if (c == '\r') {
+                b.append("\\r");
+            } else if (c == '\f') {
+                b.append("\\f");
+            } else if (c == '\b') {
+                b.append("\\b");
+            } else if (c == '\t') {
+                b.append("\\t");
+            } else if (c < 0x20) {
+                b.append(hexPrefix);
+                char a = upperCaseHex ? 'A' : 'a';
+                int x = c / 0x10;
+                b.append((char) (x < 0xA ? x + '0' : x - 0xA + a));
+                x = c & 0xF;
+                b.append((char) (x < 0xA ? x + '0' : x - 0xA + a));
+            } else {
+                b.append(c);
+            }
+        }
+        return b.toString();
+    }
+}